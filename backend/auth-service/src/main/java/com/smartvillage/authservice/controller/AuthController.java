@@ -4,13 +4,11 @@ import com.smartvillage.authservice.dto.AuthRequest;
 import com.smartvillage.authservice.dto.AuthResponse;
 import com.smartvillage.authservice.entity.User;
 import com.smartvillage.authservice.security.JwtUtil;
+import com.smartvillage.authservice.service.HashingOverloadedException;
 import com.smartvillage.authservice.service.UserService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -19,31 +17,33 @@ public class AuthController {
 
     private final UserService userService;
     private final JwtUtil jwtUtil;
-    private final PasswordEncoder passwordEncoder;
 
-    public AuthController(UserService userService, JwtUtil jwtUtil, PasswordEncoder passwordEncoder) {
+    public AuthController(UserService userService, JwtUtil jwtUtil) {
         this.userService = userService;
         this.jwtUtil = jwtUtil;
-        this.passwordEncoder = passwordEncoder;
     }
 
     @PostMapping("/signup")
     public ResponseEntity<?> signup(@RequestBody AuthRequest req) {
         User u = userService.register(req);
-        String token = jwtUtil.generateToken(u.getEmail());
+        String token = jwtUtil.generateToken(u);
         return ResponseEntity.ok(new AuthResponse(token, u.getEmail(), u.getName()));
     }
 
     @PostMapping("/login")
     public ResponseEntity<?> login(@RequestBody AuthRequest req) {
-        return userService.findByEmail(req.getEmail())
-                .map(u -> {
-                    if (passwordEncoder.matches(req.getPassword(), u.getPasswordHash())) {
-                        String token = jwtUtil.generateToken(u.getEmail());
-                        return ResponseEntity.ok(new AuthResponse(token, u.getEmail(), u.getName()));
-                    }
-                    return ResponseEntity.status(401).body("Invalid credentials");
+        return userService.authenticate(req.getEmail(), req.getPassword())
+                .<ResponseEntity<?>>map(u -> {
+                    String token = jwtUtil.generateToken(u);
+                    return ResponseEntity.ok(new AuthResponse(token, u.getEmail(), u.getName()));
                 })
                 .orElse(ResponseEntity.status(401).body("Invalid credentials"));
     }
+
+    @ExceptionHandler(HashingOverloadedException.class)
+    public ResponseEntity<?> overloaded(HashingOverloadedException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(e.getMessage());
+    }
 }
@@ -1,6 +1,9 @@
 package com.smartvillage.authservice.security;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -12,15 +15,34 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Authenticates bearer tokens. Its own work (verification plus the optional user lookup, not the rest
+ * of the chain) is timed as {@code auth.jwt.filter}, tagged by {@code outcome}.
+ */
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
     private final UserDetailsService userDetailsService;
+    private final boolean stateless;
+    private final Timer claimsTimer;
+    private final Timer lookupTimer;
+    private final Timer invalidTimer;
 
-    public JwtAuthenticationFilter(JwtUtil jwtUtil, UserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(JwtUtil jwtUtil, UserDetailsService userDetailsService, boolean stateless,
+                                   MeterRegistry registry) {
         this.jwtUtil = jwtUtil;
         this.userDetailsService = userDetailsService;
+        this.stateless = stateless;
+        this.claimsTimer = timer(registry, "claims");
+        this.lookupTimer = timer(registry, "user_lookup");
+        this.invalidTimer = timer(registry, "invalid");
+    }
+
+    private static Timer timer(MeterRegistry registry, String outcome) {
+        return Timer.builder("auth.jwt.filter").tag("outcome", outcome).register(registry);
     }
 
     @Override
@@ -28,13 +50,28 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         String header = request.getHeader("Authorization");
         if (StringUtils.hasText(header) && header.startsWith("Bearer ")) {
             String token = header.substring(7);
+            long start = System.nanoTime();
+            Timer outcome = invalidTimer;
             try {
-                String subject = jwtUtil.getSubjectFromToken(token);
-                UserDetails ud = userDetailsService.loadUserByUsername(subject);
-                UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(ud, null, ud.getAuthorities());
+                TokenClaims claims = jwtUtil.verify(token);
+                UsernamePasswordAuthenticationToken auth;
+                if (stateless && claims.isSelfContained()) {
+                    // role and user id come from the verified token; no database lookup
+                    auth = new UsernamePasswordAuthenticationToken(claims.subject(), null,
+                            List.of(new SimpleGrantedAuthority("ROLE_" + claims.role())));
+                    auth.setDetails(claims);
+                    outcome = claimsTimer;
+                } else {
+                    UserDetails ud = userDetailsService.loadUserByUsername(claims.subject());
+                    auth = new UsernamePasswordAuthenticationToken(ud, null, ud.getAuthorities());
+                    outcome = lookupTimer;
+                }
                 SecurityContextHolder.getContext().setAuthentication(auth);
             } catch (Exception e) {
                 // invalid token - ignore and continue with no auth
+                outcome = invalidTimer;
+            } finally {
+                outcome.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
             }
         }
         filterChain.doFilter(request, response);
@@ -1,5 +1,8 @@
 package com.smartvillage.authservice.security;
 
+import com.smartvillage.authservice.entity.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
@@ -8,37 +11,94 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.security.Key;
+import java.time.Instant;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 @Component
 public class JwtUtil {
 
-    @Value("${jwt.secret:changeme}")
-    private String jwtSecret;
+    static final String CLAIM_USER_ID = "uid";
+    static final String CLAIM_ROLE = "role";
 
-    @Value("${jwt.expiration-ms:86400000}")
-    private long jwtExpirationMs;
+    private final long jwtExpirationMs;
 
-    private Key getSigningKey() {
+    // The key and parser are immutable and thread-safe, so derive them once.
+    private final Key signingKey;
+    private final JwtParser parser;
+
+    // Recently verified tokens, so repeat requests skip signature checks. Access-ordered LRU bounded
+    // by jwt.verified-cache-size, guarded by itself; expired entries are dropped when next looked up.
+    private final Map<String, TokenClaims> verified;
+
+    public JwtUtil(@Value("${jwt.secret:changeme}") String jwtSecret,
+                   @Value("${jwt.expiration-ms:86400000}") long jwtExpirationMs,
+                   @Value("${jwt.verified-cache-size:10000}") int verifiedCacheSize) {
+        this.jwtExpirationMs = jwtExpirationMs;
+        this.verified = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, TokenClaims> eldest) {
+                return size() > verifiedCacheSize;
+            }
+        };
         byte[] keyBytes = Decoders.BASE64.decode(java.util.Base64.getEncoder().encodeToString(jwtSecret.getBytes()));
-        return Keys.hmacShaKeyFor(keyBytes);
+        this.signingKey = Keys.hmacShaKeyFor(keyBytes);
+        this.parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
     }
 
     public String generateToken(String subject) {
+        return build(subject, Map.of());
+    }
+
+    /** Issues a token carrying the user id and role so requests can be authenticated without a lookup. */
+    public String generateToken(User user) {
+        return build(user.getEmail(), Map.of(
+                CLAIM_USER_ID, String.valueOf(user.getId()),
+                CLAIM_ROLE, user.getRole() != null ? user.getRole() : "USER"));
+    }
+
+    public String getSubjectFromToken(String token) {
+        return verify(token).subject();
+    }
+
+    /**
+     * Verifies the signature and expiry of {@code token}. Throws a {@link io.jsonwebtoken.JwtException}
+     * if the token is invalid.
+     */
+    public TokenClaims verify(String token) {
+        TokenClaims cached;
+        synchronized (verified) {
+            cached = verified.get(token);
+            if (cached != null && !cached.expiresAt().isAfter(Instant.now())) {
+                verified.remove(token);
+                cached = null;
+            }
+        }
+        if (cached != null) return cached;
+        Claims body = parser.parseClaimsJws(token).getBody();
+        Date exp = body.getExpiration();
+        TokenClaims claims = new TokenClaims(body.getSubject(),
+                body.get(CLAIM_USER_ID, String.class),
+                body.get(CLAIM_ROLE, String.class),
+                exp != null ? exp.toInstant() : Instant.EPOCH);
+        if (exp != null) {
+            synchronized (verified) {
+                verified.put(token, claims);
+            }
+        }
+        return claims;
+    }
+
+    private String build(String subject, Map<String, Object> claims) {
         Date now = new Date();
         Date exp = new Date(now.getTime() + jwtExpirationMs);
         return Jwts.builder()
+                .addClaims(claims)
                 .setSubject(subject)
                 .setIssuedAt(now)
                 .setExpiration(exp)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
-
-    public String getSubjectFromToken(String token) {
-        return Jwts.parserBuilder().setSigningKey(getSigningKey()).build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
-    }
 }
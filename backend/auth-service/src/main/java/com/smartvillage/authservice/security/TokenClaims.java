@@ -0,0 +1,14 @@
+package com.smartvillage.authservice.security;
+
+import java.time.Instant;
+
+/**
+ * Verified contents of an access token. {@code userId} and {@code role} are null for tokens
+ * issued before they were embedded as claims.
+ */
+public record TokenClaims(String subject, String userId, String role, Instant expiresAt) {
+
+    public boolean isSelfContained() {
+        return role != null;
+    }
+}
@@ -0,0 +1,11 @@
+package com.smartvillage.authservice.service;
+
+/**
+ * Thrown when the password hashing pool cannot take more work. Callers should answer 503 and let
+ * the client retry rather than queue behind a login storm.
+ */
+public class HashingOverloadedException extends RuntimeException {
+    public HashingOverloadedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,118 @@
+package com.smartvillage.authservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs BCrypt on a dedicated, core-sized pool with a bounded queue. Request threads only wait for
+ * the result; when the queue is full the call fails fast with {@link HashingOverloadedException}
+ * so a login storm cannot pin every Tomcat thread.
+ */
+@Component
+public class PasswordHasher {
+
+    private final PasswordEncoder encoder;
+    private final int strength;
+    private final long timeoutMs;
+    private final ThreadPoolExecutor pool;
+
+    private final Timer hashTimer;
+    private final Timer verifyTimer;
+    private final Timer waitTimer;
+    private final Counter rejected;
+
+    public PasswordHasher(PasswordEncoder encoder, MeterRegistry registry,
+                          @Value("${auth.bcrypt.strength:10}") int strength,
+                          @Value("${auth.bcrypt.threads:0}") int threads,
+                          @Value("${auth.bcrypt.queue-capacity:64}") int queueCapacity,
+                          @Value("${auth.bcrypt.timeout-ms:2000}") long timeoutMs) {
+        this.encoder = encoder;
+        this.strength = strength;
+        this.timeoutMs = timeoutMs;
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger seq = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(size, size, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "bcrypt-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.hashTimer = Timer.builder("auth.bcrypt.latency").tag("op", "hash").register(registry);
+        this.verifyTimer = Timer.builder("auth.bcrypt.latency").tag("op", "verify").register(registry);
+        this.waitTimer = Timer.builder("auth.bcrypt.wait").register(registry);
+        this.rejected = Counter.builder("auth.bcrypt.rejected").register(registry);
+        Gauge.builder("auth.bcrypt.queue.depth", pool, p -> p.getQueue().size()).register(registry);
+        Gauge.builder("auth.bcrypt.active", pool, ThreadPoolExecutor::getActiveCount).register(registry);
+    }
+
+    public String hash(String rawPassword) {
+        return submit(() -> hashTimer.record(() -> encoder.encode(rawPassword)));
+    }
+
+    public boolean matches(String rawPassword, String encoded) {
+        return submit(() -> verifyTimer.record(() -> encoder.matches(rawPassword, encoded)));
+    }
+
+    /** True when {@code encoded} was produced with a different cost than the configured one. */
+    public boolean needsRehash(String encoded) {
+        // BCrypt hashes look like $2a$10$..., the two digits being the cost
+        if (encoded == null || encoded.length() < 7 || encoded.charAt(0) != '$') return false;
+        try {
+            return Integer.parseInt(encoded.substring(4, 6)) != strength;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private <T> T submit(Callable<T> task) {
+        Future<T> f;
+        long queuedAt = System.nanoTime();
+        try {
+            // time spent queued for a hashing thread, separate from the hash itself
+            f = pool.submit(() -> {
+                waitTimer.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                return task.call();
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new HashingOverloadedException("Password hashing queue is full");
+        }
+        try {
+            return f.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            f.cancel(false);
+            rejected.increment();
+            throw new HashingOverloadedException("Password hashing timed out");
+        } catch (InterruptedException e) {
+            f.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new HashingOverloadedException("Interrupted while hashing");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+}
@@ -3,7 +3,6 @@ package com.smartvillage.authservice.service;
 import com.smartvillage.authservice.dto.AuthRequest;
 import com.smartvillage.authservice.entity.User;
 import com.smartvillage.authservice.repository.UserRepository;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.util.Optional;
@@ -11,11 +10,11 @@ import java.util.Optional;
 @Service
 public class UserService {
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
 
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository, PasswordHasher passwordHasher) {
         this.userRepository = userRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHasher = passwordHasher;
     }
 
     public User register(AuthRequest req) {
@@ -26,9 +25,25 @@ public class UserService {
         User u = new User();
         u.setEmail(req.getEmail());
         u.setName(req.getName() != null ? req.getName() : req.getEmail());
-        u.setPasswordHash(passwordEncoder.encode(req.getPassword()));
+        u.setPasswordHash(passwordHasher.hash(req.getPassword()));
         return userRepository.save(u);
     }
 
     public Optional<User> findByEmail(String email) { return userRepository.findByEmail(email); }
+
+    /**
+     * Checks the password on the hashing pool. A hash made with a different cost than the
+     * configured one is replaced while the raw password is at hand.
+     */
+    public Optional<User> authenticate(String email, String password) {
+        return userRepository.findByEmail(email)
+                .filter(u -> passwordHasher.matches(password, u.getPasswordHash()))
+                .map(u -> {
+                    if (passwordHasher.needsRehash(u.getPasswordHash())) {
+                        u.setPasswordHash(passwordHasher.hash(password));
+                        return userRepository.save(u);
+                    }
+                    return u;
+                });
+    }
 }
@@ -0,0 +1,37 @@
+package com.smartvillage.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class BCryptBenchmark {
+
+    @Param({"8", "10", "12"})
+    public int cost;
+
+    private BCryptPasswordEncoder encoder;
+    private String hash;
+
+    @Setup
+    public void setup() {
+        encoder = new BCryptPasswordEncoder(cost);
+        hash = encoder.encode("gram-sabha-2024");
+    }
+
+    @Benchmark
+    public String encode() {
+        return encoder.encode("gram-sabha-2024");
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return encoder.matches("gram-sabha-2024", hash);
+    }
+}
@@ -0,0 +1,43 @@
+package com.smartvillage.benchmarks;
+
+import com.smartvillage.feedback.entity.Feedback;
+import com.smartvillage.noticeboard.entity.Notice;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/** Realistically sized rows: notices carry a few hundred characters of mixed Marathi/English text. */
+final class Fixtures {
+
+    private static final String DESCRIPTION =
+            "ग्रामसभा दिनांक १५ ऑगस्ट रोजी सकाळी १० वाजता ग्रामपंचायत कार्यालयात आयोजित करण्यात आली आहे. "
+            + "All residents are requested to attend. Agenda: water supply, road repair, MGNREGA works, "
+            + "and the annual budget. सर्व ग्रामस्थांनी उपस्थित राहावे.";
+
+    private Fixtures() {}
+
+    static Notice notice(UUID village, int i) {
+        Notice n = new Notice();
+        n.setId(UUID.randomUUID());
+        n.setVillageId(village);
+        n.setTitle("Gram Sabha notice #" + i);
+        n.setCategory(i % 3 == 0 ? "meeting" : "announcement");
+        n.setDescription(DESCRIPTION);
+        n.setNoticeDate(LocalDate.of(2024, 8, 1).plusDays(i % 365));
+        n.setCreatedAt(Instant.parse("2024-08-01T00:00:00Z").plusSeconds(i * 60L));
+        n.setUpdatedAt(n.getCreatedAt());
+        return n;
+    }
+
+    static Feedback feedback(UUID village, int i) {
+        Feedback f = new Feedback();
+        f.setId(UUID.randomUUID());
+        f.setVillageId(village);
+        f.setName("Resident " + i);
+        f.setMobile("98765" + String.format("%05d", i % 100_000));
+        f.setType(i % 2 == 0 ? "complaint" : "suggestion");
+        f.setMessage("Street light near the school has not worked for two weeks. कृपया लवकर दुरुस्त करा.");
+        return f;
+    }
+}
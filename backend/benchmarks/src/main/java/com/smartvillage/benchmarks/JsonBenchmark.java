@@ -0,0 +1,53 @@
+package com.smartvillage.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.smartvillage.feedback.entity.Feedback;
+import com.smartvillage.noticeboard.entity.Notice;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonBenchmark {
+
+    @Param({"100", "10000"})
+    public int size;
+
+    private ObjectMapper mapper;
+    private List<Notice> notices;
+    private List<Feedback> feedback;
+
+    @Setup
+    public void setup() {
+        // same settings Spring Boot applies to the services' ObjectMapper
+        mapper = JsonMapper.builder().findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+        notices = new ArrayList<>(size);
+        feedback = new ArrayList<>(size);
+        UUID village = UUID.randomUUID();
+        for (int i = 0; i < size; i++) {
+            notices.add(Fixtures.notice(village, i));
+            feedback.add(Fixtures.feedback(village, i));
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeNotices() throws Exception {
+        return mapper.writeValueAsBytes(notices);
+    }
+
+    @Benchmark
+    public byte[] serializeFeedback() throws Exception {
+        return mapper.writeValueAsBytes(feedback);
+    }
+}
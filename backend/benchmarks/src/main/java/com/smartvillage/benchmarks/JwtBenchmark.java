@@ -0,0 +1,51 @@
+package com.smartvillage.benchmarks;
+
+import com.smartvillage.authservice.entity.User;
+import com.smartvillage.authservice.security.JwtUtil;
+import com.smartvillage.authservice.security.TokenClaims;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtBenchmark {
+
+    private static final String SECRET = "benchmark-secret-benchmark-secret-0123456789";
+
+    private JwtUtil cached;
+    private JwtUtil uncached;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setup() {
+        cached = new JwtUtil(SECRET, 3_600_000, 10_000);
+        uncached = new JwtUtil(SECRET, 3_600_000, 0);
+        user = new User();
+        user.setId(UUID.randomUUID());
+        user.setEmail("sarpanch@example.org");
+        user.setRole("ADMIN");
+        token = cached.generateToken(user);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return cached.generateToken(user);
+    }
+
+    @Benchmark
+    public String getSubjectFromToken() {
+        return uncached.getSubjectFromToken(token);
+    }
+
+    @Benchmark
+    public TokenClaims verifyCached() {
+        return cached.verify(token);
+    }
+}
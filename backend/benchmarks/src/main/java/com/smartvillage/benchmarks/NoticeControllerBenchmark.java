@@ -0,0 +1,128 @@
+package com.smartvillage.benchmarks;
+
+import com.smartvillage.common.paging.CursorPage;
+import com.smartvillage.noticeboard.cache.NoticeCache;
+import com.smartvillage.noticeboard.controller.NoticeController;
+import com.smartvillage.noticeboard.entity.Notice;
+import com.smartvillage.noticeboard.repository.NoticeRepository;
+import com.smartvillage.noticeboard.search.NoticeSearch;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the notice handlers in a real Spring context against in-memory H2, without the HTTP layer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NoticeControllerBenchmark {
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @EntityScan(basePackageClasses = Notice.class)
+    @EnableJpaRepositories(basePackageClasses = NoticeRepository.class)
+    @Import({NoticeController.class, NoticeCache.class, NoticeSearch.class})
+    static class NoticeApp {}
+
+    @Param({"1000"})
+    public int rows;
+
+    private ConfigurableApplicationContext ctx;
+    private NoticeController controller;
+    private NoticeCache cache;
+    private final HttpHeaders plain = new HttpHeaders();
+    private final HttpHeaders conditional = new HttpHeaders();
+    private final HttpHeaders gzip = new HttpHeaders();
+    private final HttpHeaders cbor = new HttpHeaders();
+
+    @Setup
+    public void setup() throws Exception {
+        // passed as arguments so they win over the services' application.yml on the classpath
+        ctx = new SpringApplicationBuilder(NoticeApp.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:notices;DB_CLOSE_DELAY=-1",
+                        // backend/application.yml (picked up when run from backend/) names the Postgres driver
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.flyway.enabled=false",
+                        // NoticeController needs the ChangeFeed; some services' yml turn sync off
+                        "--smartvillage.sync.enabled=true",
+                        "--notice-search.snapshot-path=" + Files.createTempDirectory("notice-bench").resolve("idx"));
+        NoticeRepository repo = ctx.getBean(NoticeRepository.class);
+        UUID village = UUID.randomUUID();
+        List<Notice> seed = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            Notice n = Fixtures.notice(village, i);
+            n.setId(null);
+            seed.add(n);
+        }
+        repo.saveAll(seed);
+        controller = ctx.getBean(NoticeController.class);
+        cache = ctx.getBean(NoticeCache.class);
+        conditional.setIfNoneMatch(controller.list(plain).getHeaders().getETag());
+        gzip.set(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        cbor.set(HttpHeaders.ACCEPT, "application/cbor");
+    }
+
+    @TearDown
+    public void tearDown() {
+        ctx.close();
+    }
+
+    @Benchmark
+    public ResponseEntity<byte[]> listUncached() {
+        cache.invalidateList(null);
+        return controller.list(plain);
+    }
+
+    @Benchmark
+    public ResponseEntity<byte[]> listCached() {
+        return controller.list(plain);
+    }
+
+    @Benchmark
+    public ResponseEntity<byte[]> listCachedGzip() {
+        return controller.list(gzip);
+    }
+
+    @Benchmark
+    public ResponseEntity<byte[]> listCachedCbor() {
+        return controller.list(cbor);
+    }
+
+    @Benchmark
+    public ResponseEntity<byte[]> listNotModified() {
+        return controller.list(conditional);
+    }
+
+    @Benchmark
+    public CursorPage<Notice> firstPage() {
+        return controller.page(null, 50);
+    }
+
+    @Benchmark
+    public List<Notice> searchPrefix() {
+        return controller.search("gram sab", 20, true);
+    }
+}
@@ -0,0 +1,97 @@
+package com.smartvillage.common.admission;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Service-wide admission control. Requests beyond the {@link AdaptiveLimit} are answered 503 at once
+ * instead of waiting for a thread or a connection, so an overloaded service sheds the excess rather
+ * than letting every request slow down. It sits in front of the per-endpoint limits of the
+ * virtual-thread profile, which still bound each handler.
+ */
+public class AdaptiveConcurrencyFilter extends OncePerRequestFilter {
+
+    private final AdaptiveLimit limit;
+    private final List<String> excludePaths;
+    private final Counter rejected;
+    private final AntPathMatcher matcher = new AntPathMatcher();
+
+    public AdaptiveConcurrencyFilter(AdmissionProperties.Adaptive props, MeterRegistry registry) {
+        this.limit = new AdaptiveLimit(props, System.nanoTime());
+        this.excludePaths = props.getExcludePaths();
+        this.rejected = Counter.builder("http.server.admission.rejected").tag("reason", "concurrency")
+                .tag("rule", "adaptive").register(registry);
+        Gauge.builder("http.server.admission.limit", limit, AdaptiveLimit::limit).register(registry);
+        Gauge.builder("http.server.admission.in.flight", limit, AdaptiveLimit::inFlight).register(registry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (String pattern : excludePaths) {
+            if (matcher.match(pattern, path)) return true;
+        }
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!limit.tryAcquire()) {
+            rejected.increment();
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            return;
+        }
+        long start = System.nanoTime();
+        AtomicBoolean released = new AtomicBoolean();
+        boolean failed = true;
+        try {
+            chain.doFilter(request, response);
+            failed = false;
+        } finally {
+            if (!failed && request.isAsyncStarted()) {
+                // streamed and deferred responses count until they complete
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override public void onComplete(AsyncEvent e) { release(released, start, request, response, false); }
+                    @Override public void onTimeout(AsyncEvent e) { release(released, start, request, response, true); }
+                    @Override public void onError(AsyncEvent e) { release(released, start, request, response, true); }
+                    @Override public void onStartAsync(AsyncEvent e) {}
+                });
+            } else {
+                release(released, start, request, response, failed);
+            }
+        }
+    }
+
+    private void release(AtomicBoolean released, long start, HttpServletRequest request, HttpServletResponse response,
+                         boolean failed) {
+        if (!released.compareAndSet(false, true)) return;
+        int status = response.getStatus();
+        boolean overloaded = failed || status == HttpStatus.SERVICE_UNAVAILABLE.value()
+                || status == HttpStatus.GATEWAY_TIMEOUT.value();
+        limit.release(endpoint(request), start, System.nanoTime(), overloaded);
+    }
+
+    /** The route the request was mapped to, not its URI, so path variables share one latency baseline. */
+    private static String endpoint(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return request.getMethod() + " " + (pattern != null ? pattern : "unmapped");
+    }
+}
@@ -0,0 +1,96 @@
+package com.smartvillage.common.admission;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Concurrency limit that follows latency (AIMD on the ratio of each request's latency to the
+ * recent minimum of its own endpoint, so a report that always takes a second is not read as a queue
+ * behind a 5 ms lookup). While the limit is at least half used, it grows by about one per round trip
+ * as long as requests finish within {@code tolerance} times their endpoint's minimum; a slower
+ * request, or one that ended in 503/504 or an exception, shrinks it by {@code backoff}, at most once
+ * per that minimum so one slow burst does not collapse it. All state is in atomics; nothing blocks.
+ */
+final class AdaptiveLimit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double backoff;
+    private final long minRttWindow;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong limitBits;
+    // keyed by route pattern, so bounded by the number of handler mappings
+    private final Map<String, MinRtt> minRtts = new ConcurrentHashMap<>();
+    private final AtomicLong lastDecrease;
+
+    /** Minimum latency of one endpoint in the current window; a new window starts from the latest sample. */
+    private final class MinRtt {
+        final AtomicLong value = new AtomicLong(Long.MAX_VALUE);
+        final AtomicLong since;
+
+        MinRtt(long now) {
+            this.since = new AtomicLong(now);
+        }
+
+        long observe(long rtt, long now) {
+            long start = since.get();
+            if (now - start > minRttWindow && since.compareAndSet(start, now)) {
+                value.set(rtt);
+                return rtt;
+            }
+            return value.accumulateAndGet(rtt, Math::min);
+        }
+    }
+
+    AdaptiveLimit(AdmissionProperties.Adaptive props, long now) {
+        this.minLimit = props.getMinLimit();
+        this.maxLimit = props.getMaxLimit();
+        this.tolerance = props.getTolerance();
+        this.backoff = props.getBackoff();
+        this.minRttWindow = props.getMinRttWindow().toNanos();
+        this.limitBits = new AtomicLong(Double.doubleToRawLongBits(props.getInitialLimit()));
+        this.lastDecrease = new AtomicLong(now);
+    }
+
+    boolean tryAcquire() {
+        while (true) {
+            int n = inFlight.get();
+            if (n >= (int) limit()) return false;
+            if (inFlight.compareAndSet(n, n + 1)) return true;
+        }
+    }
+
+    void release(String endpoint, long startNanos, long now, boolean overloaded) {
+        int before = inFlight.getAndDecrement();
+        long rtt = Math.max(1, now - startNanos);
+        long min = minRtts.computeIfAbsent(endpoint, e -> new MinRtt(now)).observe(rtt, now);
+        // latency only says something about the limit while it is in use; when quiet, a slow request
+        // is a slow endpoint, not a queue
+        boolean busy = before * 2 >= limit();
+        if (overloaded || (busy && rtt > min * tolerance)) {
+            long last = lastDecrease.get();
+            if (now - last >= min && lastDecrease.compareAndSet(last, now)) {
+                update(l -> Math.max(minLimit, l * backoff));
+            }
+        } else if (busy) {
+            update(l -> Math.min(maxLimit, l + 1 / l));
+        }
+    }
+
+    double limit() {
+        return Double.longBitsToDouble(limitBits.get());
+    }
+
+    int inFlight() {
+        return inFlight.get();
+    }
+
+    private void update(DoubleUnaryOperator f) {
+        limitBits.updateAndGet(bits -> Double.doubleToRawLongBits(f.applyAsDouble(Double.longBitsToDouble(bits))));
+    }
+}
@@ -0,0 +1,45 @@
+package com.smartvillage.common.admission;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.Ordered;
+
+/**
+ * Admission control for public endpoints: per-key rate limits ({@link RateLimitFilter}) and a
+ * latency-driven global concurrency limit ({@link AdaptiveConcurrencyFilter}). A module opts in with
+ * {@code smartvillage.admission.enabled=true}. Both filters run right after the request observation
+ * filter, so rejected requests still show up in {@code http.server.requests}, and ahead of Spring
+ * Security and the handlers.
+ */
+@AutoConfiguration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(prefix = "smartvillage.admission", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(AdmissionProperties.class)
+public class AdmissionAutoConfiguration {
+
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilter(AdmissionProperties props,
+                                                                   ObjectProvider<MeterRegistry> registry) {
+        FilterRegistrationBean<RateLimitFilter> bean = new FilterRegistrationBean<>(
+                new RateLimitFilter(props, registry.getIfAvailable(SimpleMeterRegistry::new)));
+        bean.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return bean;
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "smartvillage.admission.adaptive", name = "enabled", havingValue = "true")
+    public FilterRegistrationBean<AdaptiveConcurrencyFilter> adaptiveConcurrencyFilter(AdmissionProperties props,
+                                                                                       ObjectProvider<MeterRegistry> registry) {
+        FilterRegistrationBean<AdaptiveConcurrencyFilter> bean = new FilterRegistrationBean<>(
+                new AdaptiveConcurrencyFilter(props.getAdaptive(), registry.getIfAvailable(SimpleMeterRegistry::new)));
+        bean.setOrder(Ordered.HIGHEST_PRECEDENCE + 11);
+        return bean;
+    }
+}
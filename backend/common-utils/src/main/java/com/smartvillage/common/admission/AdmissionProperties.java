@@ -0,0 +1,110 @@
+package com.smartvillage.common.admission;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "smartvillage.admission")
+public class AdmissionProperties {
+
+    /** Installs the admission filters; off unless a module asks for it. */
+    private boolean enabled;
+
+    /** Per-route token buckets, checked in order; a request must pass every rule that matches it. */
+    private List<RateLimit> rateLimits = new ArrayList<>();
+
+    /** Buckets kept per rule before idle ones are dropped. */
+    private int maxKeys = 100_000;
+
+    /** Peers whose {@code X-Forwarded-For} is believed, i.e. the gateway. */
+    private List<String> trustedProxies = new ArrayList<>(List.of("127.0.0.1", "0:0:0:0:0:0:0:1"));
+
+    /** JSON bodies larger than this are not searched for a {@code field} key; the client address is used. */
+    private int maxBodyBytes = 16 * 1024;
+
+    private Adaptive adaptive = new Adaptive();
+
+    public enum KeyType {
+        /** Client address, from {@code X-Forwarded-For} when the peer is a trusted proxy. */
+        IP,
+        /** {@code X-User-Id} set by the gateway, read only from a trusted proxy; otherwise, or when anonymous, IP. */
+        USER,
+        /** A top-level string field of the JSON body (e.g. {@code mobile}, {@code email}); falls back to IP. */
+        FIELD
+    }
+
+    public static class RateLimit {
+        /** HTTP method to match; any method when empty. */
+        private String method;
+        /** Ant-style path pattern, e.g. {@code /api/v1/auth/**}. */
+        private String path;
+        private KeyType key = KeyType.IP;
+        /** Body field for {@link KeyType#FIELD}. */
+        private String field;
+        /** Requests a key may make at once after being idle. */
+        private int capacity = 10;
+        /** Time to earn back one request. */
+        private Duration refillPeriod = Duration.ofSeconds(6);
+
+        public String getMethod() { return method; }
+        public void setMethod(String method) { this.method = method; }
+        public String getPath() { return path; }
+        public void setPath(String path) { this.path = path; }
+        public KeyType getKey() { return key; }
+        public void setKey(KeyType key) { this.key = key; }
+        public String getField() { return field; }
+        public void setField(String field) { this.field = field; }
+        public int getCapacity() { return capacity; }
+        public void setCapacity(int capacity) { this.capacity = capacity; }
+        public Duration getRefillPeriod() { return refillPeriod; }
+        public void setRefillPeriod(Duration refillPeriod) { this.refillPeriod = refillPeriod; }
+    }
+
+    public static class Adaptive {
+        /** Caps requests in flight across the whole service at a limit that follows latency. */
+        private boolean enabled;
+        private int initialLimit = 20;
+        private int minLimit = 4;
+        private int maxLimit = 500;
+        /** The limit shrinks when a request takes longer than this multiple of the recent minimum latency. */
+        private double tolerance = 2.0;
+        /** Factor applied to the limit on each decrease. */
+        private double backoff = 0.9;
+        /** How long a minimum latency is remembered, so the baseline can rise after a deploy or data growth. */
+        private Duration minRttWindow = Duration.ofSeconds(30);
+        /** Paths never limited. */
+        private List<String> excludePaths = new ArrayList<>(List.of("/actuator/**"));
+
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+        public int getInitialLimit() { return initialLimit; }
+        public void setInitialLimit(int initialLimit) { this.initialLimit = initialLimit; }
+        public int getMinLimit() { return minLimit; }
+        public void setMinLimit(int minLimit) { this.minLimit = minLimit; }
+        public int getMaxLimit() { return maxLimit; }
+        public void setMaxLimit(int maxLimit) { this.maxLimit = maxLimit; }
+        public double getTolerance() { return tolerance; }
+        public void setTolerance(double tolerance) { this.tolerance = tolerance; }
+        public double getBackoff() { return backoff; }
+        public void setBackoff(double backoff) { this.backoff = backoff; }
+        public Duration getMinRttWindow() { return minRttWindow; }
+        public void setMinRttWindow(Duration minRttWindow) { this.minRttWindow = minRttWindow; }
+        public List<String> getExcludePaths() { return excludePaths; }
+        public void setExcludePaths(List<String> excludePaths) { this.excludePaths = excludePaths; }
+    }
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+    public List<RateLimit> getRateLimits() { return rateLimits; }
+    public void setRateLimits(List<RateLimit> rateLimits) { this.rateLimits = rateLimits; }
+    public int getMaxKeys() { return maxKeys; }
+    public void setMaxKeys(int maxKeys) { this.maxKeys = maxKeys; }
+    public List<String> getTrustedProxies() { return trustedProxies; }
+    public void setTrustedProxies(List<String> trustedProxies) { this.trustedProxies = trustedProxies; }
+    public int getMaxBodyBytes() { return maxBodyBytes; }
+    public void setMaxBodyBytes(int maxBodyBytes) { this.maxBodyBytes = maxBodyBytes; }
+    public Adaptive getAdaptive() { return adaptive; }
+    public void setAdaptive(Adaptive adaptive) { this.adaptive = adaptive; }
+}
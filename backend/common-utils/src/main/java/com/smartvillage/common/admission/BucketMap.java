@@ -0,0 +1,80 @@
+package com.smartvillage.common.admission;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Token buckets by key, split over independent stripes so a flood of new keys contends on one
+ * stripe at a time. Each stripe holds at most {@code maxKeys / STRIPES} buckets. When a stripe is
+ * full, it first drops buckets that have refilled, since those carry no state. If that frees too
+ * little, it drops buckets in iteration order; a spray of fresh keys can then reset some real
+ * clients' limits, but memory stays bounded.
+ */
+final class BucketMap {
+
+    private static final int STRIPES = 16;
+
+    private static final class Stripe {
+        final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+        final AtomicInteger size = new AtomicInteger();
+        final AtomicBoolean evicting = new AtomicBoolean();
+    }
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final int stripeCapacity;
+    private final long periodNanos;
+    private final int capacity;
+
+    BucketMap(int maxKeys, long periodNanos, int capacity) {
+        for (int i = 0; i < STRIPES; i++) stripes[i] = new Stripe();
+        this.stripeCapacity = Math.max(1, maxKeys / STRIPES);
+        this.periodNanos = periodNanos;
+        this.capacity = capacity;
+    }
+
+    /** @return 0 if {@code key} may proceed, otherwise nanos until it may */
+    long tryTake(String key, long now) {
+        Stripe stripe = stripes[(key.hashCode() & 0x7fffffff) % STRIPES];
+        TokenBucket bucket = stripe.buckets.get(key);
+        if (bucket == null) {
+            if (stripe.size.get() >= stripeCapacity) evict(stripe, now);
+            TokenBucket fresh = new TokenBucket(periodNanos, capacity, now);
+            bucket = stripe.buckets.putIfAbsent(key, fresh);
+            if (bucket == null) {
+                stripe.size.incrementAndGet();
+                bucket = fresh;
+            }
+        }
+        return bucket.tryTake(now);
+    }
+
+    int size() {
+        int n = 0;
+        for (Stripe s : stripes) n += s.size.get();
+        return n;
+    }
+
+    private void evict(Stripe stripe, long now) {
+        // one thread sweeps; the others go ahead and briefly overshoot the bound
+        if (!stripe.evicting.compareAndSet(false, true)) return;
+        try {
+            int target = stripeCapacity - Math.max(1, stripeCapacity / 10);
+            for (Map.Entry<String, TokenBucket> e : stripe.buckets.entrySet()) {
+                if (e.getValue().isFull(now)) remove(stripe, e);
+            }
+            for (Iterator<Map.Entry<String, TokenBucket>> it = stripe.buckets.entrySet().iterator();
+                 it.hasNext() && stripe.size.get() > target; ) {
+                remove(stripe, it.next());
+            }
+        } finally {
+            stripe.evicting.set(false);
+        }
+    }
+
+    private static void remove(Stripe stripe, Map.Entry<String, TokenBucket> e) {
+        if (stripe.buckets.remove(e.getKey(), e.getValue())) stripe.size.decrementAndGet();
+    }
+}
@@ -0,0 +1,24 @@
+package com.smartvillage.common.admission;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.util.Set;
+
+/** The address a request came from, looking through proxies only when the peer is one we trust. */
+final class ClientAddress {
+
+    private ClientAddress() {}
+
+    static String of(HttpServletRequest request, Set<String> trustedProxies) {
+        String peer = request.getRemoteAddr();
+        String forwarded = request.getHeader("X-Forwarded-For");
+        if (forwarded == null || !trustedProxies.contains(peer)) return peer;
+        // rightmost hop that is not one of ours; anything left of it could be made up by the client
+        String[] hops = forwarded.split(",");
+        for (int i = hops.length - 1; i >= 0; i--) {
+            String hop = hops[i].trim();
+            if (!hop.isEmpty() && !trustedProxies.contains(hop)) return hop;
+        }
+        return peer;
+    }
+}
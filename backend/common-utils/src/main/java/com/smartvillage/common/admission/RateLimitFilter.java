@@ -0,0 +1,123 @@
+package com.smartvillage.common.admission;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-key token buckets for the routes listed under {@code smartvillage.admission.rate-limits}.
+ * A request must pass every rule that matches it; the first empty bucket answers 429 with
+ * {@code Retry-After}, before the request reaches a handler, a pooled connection or BCrypt.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private record Rule(String method, String path, AdmissionProperties.KeyType key, String field,
+                        BucketMap buckets, Counter rejected) {}
+
+    private final List<Rule> rules;
+    private final Set<String> trustedProxies;
+    private final int maxBodyBytes;
+    private final AntPathMatcher matcher = new AntPathMatcher();
+
+    public RateLimitFilter(AdmissionProperties props, MeterRegistry registry) {
+        this.rules = props.getRateLimits().stream().map(r -> {
+            if (r.getPath() == null) throw new IllegalArgumentException("smartvillage.admission.rate-limits[].path is required");
+            if (r.getKey() == AdmissionProperties.KeyType.FIELD && r.getField() == null) {
+                throw new IllegalArgumentException("Rate limit on " + r.getPath() + " keys by field but names none");
+            }
+            String method = r.getMethod() == null || r.getMethod().isBlank() ? null : r.getMethod().toUpperCase(Locale.ROOT);
+            String name = (method != null ? method + " " : "") + r.getPath() + " by "
+                    + (r.getKey() == AdmissionProperties.KeyType.FIELD ? r.getField() : r.getKey().name().toLowerCase(Locale.ROOT));
+            return new Rule(method, r.getPath(), r.getKey(), r.getField(),
+                    new BucketMap(props.getMaxKeys(), r.getRefillPeriod().toNanos(), r.getCapacity()),
+                    Counter.builder("http.server.admission.rejected").tag("reason", "rate-limit").tag("rule", name)
+                            .register(registry));
+        }).toList();
+        this.trustedProxies = new HashSet<>(props.getTrustedProxies());
+        this.maxBodyBytes = props.getMaxBodyBytes();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return rules.isEmpty();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        HttpServletRequest current = request;
+        long now = System.nanoTime();
+        for (Rule rule : rules) {
+            if (rule.method() != null && !rule.method().equals(request.getMethod())) continue;
+            if (!matcher.match(rule.path(), path)) continue;
+            String key = null;
+            if (rule.key() == AdmissionProperties.KeyType.USER) {
+                // only the gateway's word counts; a client calling us directly could pick any id per request
+                if (trustedProxies.contains(request.getRemoteAddr())) key = request.getHeader("X-User-Id");
+            } else if (rule.key() == AdmissionProperties.KeyType.FIELD && isJson(request)) {
+                if (!(current instanceof ReplayableBodyRequest)) current = ReplayableBodyRequest.peek(request, maxBodyBytes);
+                key = field(((ReplayableBodyRequest) current).body(), rule.field());
+            }
+            if (key == null) key = ClientAddress.of(request, trustedProxies);
+            long wait = rule.buckets().tryTake(key, now);
+            if (wait > 0) {
+                rule.rejected().increment();
+                long seconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(wait + TimeUnit.SECONDS.toNanos(1) - 1));
+                response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+                response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(seconds));
+                response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                response.getOutputStream().write(("{\"error\":\"Too many requests, try again in " + seconds + " s\"}")
+                        .getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+        }
+        chain.doFilter(current, response);
+    }
+
+    private static boolean isJson(HttpServletRequest request) {
+        String type = request.getContentType();
+        return type != null && type.toLowerCase(Locale.ROOT).contains("json");
+    }
+
+    /** A top-level scalar field, normalized so {@code " A@x.in"} and {@code "a@x.in"} share a bucket. */
+    private static String field(byte[] body, String name) {
+        if (body == null || body.length == 0) return null;
+        try (JsonParser p = JSON.createParser(body)) {
+            if (p.nextToken() != JsonToken.START_OBJECT) return null;
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                boolean wanted = name.equals(p.currentName());
+                JsonToken value = p.nextToken();
+                if (wanted && value.isScalarValue() && value != JsonToken.VALUE_NULL) {
+                    String v = p.getText().replaceAll("\\s+", "").toLowerCase(Locale.ROOT);
+                    return v.isEmpty() ? null : name + ":" + v;
+                }
+                p.skipChildren();
+            }
+        } catch (IOException e) {
+            // malformed JSON is the handler's to reject; limit it by address meanwhile
+        }
+        return null;
+    }
+}
@@ -0,0 +1,98 @@
+package com.smartvillage.common.admission;
+
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.SequenceInputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A request whose first bytes have already been read (to find a rate-limit key) and are handed to
+ * the handler again, followed by whatever of the body was not read.
+ */
+final class ReplayableBodyRequest extends HttpServletRequestWrapper {
+
+    private final byte[] head;
+    private final boolean complete;
+    private ServletInputStream stream;
+
+    private ReplayableBodyRequest(HttpServletRequest request, byte[] head, boolean complete) {
+        super(request);
+        this.head = head;
+        this.complete = complete;
+    }
+
+    /** Reads up to {@code limit} bytes of the body. */
+    static ReplayableBodyRequest peek(HttpServletRequest request, int limit) throws IOException {
+        byte[] head = request.getInputStream().readNBytes(limit + 1);
+        return new ReplayableBodyRequest(request, head, head.length <= limit);
+    }
+
+    /** The whole body, or null when it is longer than the peek limit. */
+    byte[] body() {
+        return complete ? head : null;
+    }
+
+    @Override
+    public ServletInputStream getInputStream() throws IOException {
+        if (stream == null) {
+            InputStream rest = complete ? InputStream.nullInputStream() : super.getInputStream();
+            stream = new Replay(new SequenceInputStream(new ByteArrayInputStream(head), rest));
+        }
+        return stream;
+    }
+
+    @Override
+    public BufferedReader getReader() throws IOException {
+        String encoding = getCharacterEncoding();
+        Charset charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+        return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+    }
+
+    private static final class Replay extends ServletInputStream {
+
+        private final InputStream in;
+        private boolean finished;
+
+        Replay(InputStream in) {
+            this.in = in;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b < 0) finished = true;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buf, int off, int len) throws IOException {
+            int n = in.read(buf, off, len);
+            if (n < 0) finished = true;
+            return n;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return finished;
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setReadListener(ReadListener listener) {
+            throw new UnsupportedOperationException("Non-blocking reads are not supported after a rate-limit peek");
+        }
+    }
+}
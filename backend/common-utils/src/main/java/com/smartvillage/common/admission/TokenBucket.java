@@ -0,0 +1,41 @@
+package com.smartvillage.common.admission;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket kept as a single "theoretical arrival time" (the GCRA form): taking a token moves it
+ * forward by one refill period, and refilling is implicit in the clock catching up. One
+ * {@code AtomicLong} and a CAS loop, so concurrent requests for one key never take a lock.
+ */
+final class TokenBucket {
+
+    private final long period;
+    private final long burst;
+    private final AtomicLong tat;
+
+    /**
+     * @param periodNanos time to refill one token
+     * @param capacity    tokens available to a burst
+     */
+    TokenBucket(long periodNanos, int capacity, long now) {
+        this.period = periodNanos;
+        this.burst = periodNanos * capacity;
+        this.tat = new AtomicLong(now);
+    }
+
+    /** @return 0 if a token was taken, otherwise nanos until one is available */
+    long tryTake(long now) {
+        while (true) {
+            long current = tat.get();
+            long next = Math.max(current, now) + period;
+            long wait = next - now - burst;
+            if (wait > 0) return wait;
+            if (tat.compareAndSet(current, next)) return 0;
+        }
+    }
+
+    /** A full bucket behaves exactly like a new one, so dropping it loses nothing. */
+    boolean isFull(long now) {
+        return tat.get() <= now;
+    }
+}
@@ -0,0 +1,16 @@
+package com.smartvillage.common.execution;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Overrides the number of requests a handler may run at once under the virtual-thread profile.
+ * Handlers that never touch the database can use a higher value than the pool-sized default.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ConcurrencyLimit {
+    int value();
+}
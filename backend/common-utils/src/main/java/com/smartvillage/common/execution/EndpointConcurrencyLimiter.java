@@ -0,0 +1,97 @@
+package com.smartvillage.common.execution;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounds how many requests each handler method runs at once. With virtual threads nothing else
+ * stops thousands of requests from queueing on the connection pool, so excess requests wait
+ * briefly for a permit and are then shed with 503. An async handler, such as a streaming body,
+ * keeps its permit until the async request completes.
+ */
+public class EndpointConcurrencyLimiter implements AsyncHandlerInterceptor {
+
+    private static final String PERMIT = EndpointConcurrencyLimiter.class.getName() + ".permit";
+
+    private final int defaultPermits;
+    private final long acquireTimeoutNanos;
+    private final Map<Method, Semaphore> limits = new ConcurrentHashMap<>();
+
+    public EndpointConcurrencyLimiter(int defaultPermits, long acquireTimeoutNanos) {
+        this.defaultPermits = defaultPermits;
+        this.acquireTimeoutNanos = acquireTimeoutNanos;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        if (!(handler instanceof HandlerMethod hm) || request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+        Semaphore permits = limits.computeIfAbsent(hm.getMethod(), m -> {
+            ConcurrencyLimit limit = hm.getMethodAnnotation(ConcurrencyLimit.class);
+            return new Semaphore(limit != null ? limit.value() : defaultPermits);
+        });
+        if (!permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS)) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            return false;
+        }
+        request.setAttribute(PERMIT, permits);
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Object permits = request.getAttribute(PERMIT);
+        if (permits == null) return;
+        // taken off the request so the async dispatch's afterCompletion does not release it early
+        request.removeAttribute(PERMIT);
+        // a streaming body keeps its connection, and the work it was limited for, until it is written out
+        request.getAsyncContext().addListener(new AsyncListener() {
+            @Override
+            public void onComplete(AsyncEvent event) {
+                ((Semaphore) permits).release();
+            }
+
+            @Override
+            public void onTimeout(AsyncEvent event) {
+            }
+
+            @Override
+            public void onError(AsyncEvent event) {
+            }
+
+            @Override
+            public void onStartAsync(AsyncEvent event) {
+                // a restarted async cycle drops its listeners; onComplete must still run once
+                event.getAsyncContext().addListener(this);
+            }
+        });
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        release(request);
+    }
+
+    private void release(HttpServletRequest request) {
+        Object permits = request.getAttribute(PERMIT);
+        if (permits != null) {
+            request.removeAttribute(PERMIT);
+            ((Semaphore) permits).release();
+        }
+    }
+}
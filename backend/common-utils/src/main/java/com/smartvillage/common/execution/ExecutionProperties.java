@@ -0,0 +1,25 @@
+package com.smartvillage.common.execution;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "smartvillage.execution")
+public class ExecutionProperties {
+
+    /** Concurrent requests allowed per endpoint; 0 means the Hikari maximum pool size. */
+    private int endpointPermits = 0;
+
+    /** How long a request waits for a permit before it is answered with 503. */
+    private Duration acquireTimeout = Duration.ofSeconds(2);
+
+    /** Pinned carrier-thread events shorter than this are ignored. */
+    private Duration pinnedThreshold = Duration.ofMillis(20);
+
+    public int getEndpointPermits() { return endpointPermits; }
+    public void setEndpointPermits(int endpointPermits) { this.endpointPermits = endpointPermits; }
+    public Duration getAcquireTimeout() { return acquireTimeout; }
+    public void setAcquireTimeout(Duration acquireTimeout) { this.acquireTimeout = acquireTimeout; }
+    public Duration getPinnedThreshold() { return pinnedThreshold; }
+    public void setPinnedThreshold(Duration pinnedThreshold) { this.pinnedThreshold = pinnedThreshold; }
+}
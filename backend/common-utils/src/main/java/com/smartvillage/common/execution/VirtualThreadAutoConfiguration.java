@@ -0,0 +1,50 @@
+package com.smartvillage.common.execution;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Virtual-thread execution profile. A module opts in with {@code spring.threads.virtual.enabled=true};
+ * Spring Boot then runs Tomcat requests and the {@code @Async} executor on virtual threads, and this
+ * configuration adds per-endpoint concurrency limits sized to the Hikari pool and pinning metrics.
+ */
+@AutoConfiguration
+@ConditionalOnThreading(Threading.VIRTUAL)
+@EnableAsync
+@EnableConfigurationProperties(ExecutionProperties.class)
+public class VirtualThreadAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public VirtualThreadPinningMonitor virtualThreadPinningMonitor(ObjectProvider<MeterRegistry> registry,
+                                                                   ExecutionProperties props) {
+        return new VirtualThreadPinningMonitor(registry.getIfAvailable(SimpleMeterRegistry::new), props.getPinnedThreshold());
+    }
+
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public WebMvcConfigurer endpointConcurrencyLimits(ExecutionProperties props, Environment env) {
+        int permits = props.getEndpointPermits() > 0
+                ? props.getEndpointPermits()
+                : env.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10);
+        EndpointConcurrencyLimiter limiter = new EndpointConcurrencyLimiter(permits, props.getAcquireTimeout().toNanos());
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(limiter);
+            }
+        };
+    }
+}
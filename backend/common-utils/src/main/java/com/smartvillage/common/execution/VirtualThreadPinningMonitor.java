@@ -0,0 +1,55 @@
+package com.smartvillage.common.execution;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Streams JFR {@code jdk.VirtualThreadPinned} events, which fire when a virtual thread blocks while
+ * holding its carrier (typically inside {@code synchronized}), and turns them into metrics plus a
+ * debug log of the frame that pinned.
+ */
+public class VirtualThreadPinningMonitor implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+    private static final String EVENT = "jdk.VirtualThreadPinned";
+
+    private final RecordingStream stream;
+    private final Counter pinned;
+    private final Timer pinnedTime;
+
+    public VirtualThreadPinningMonitor(MeterRegistry registry, Duration threshold) {
+        this.pinned = Counter.builder("jvm.threads.virtual.pinned")
+                .description("Virtual threads that blocked while pinned to their carrier")
+                .register(registry);
+        this.pinnedTime = Timer.builder("jvm.threads.virtual.pinned.duration").register(registry);
+        this.stream = new RecordingStream();
+        stream.enable(EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(EVENT, this::onPinned);
+        stream.startAsync();
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinned.increment();
+        pinnedTime.record(event.getDuration());
+        if (log.isDebugEnabled() && event.getStackTrace() != null) {
+            List<RecordedFrame> frames = event.getStackTrace().getFrames();
+            log.debug("Virtual thread pinned for {} at {}", event.getDuration(),
+                    frames.isEmpty() ? "?" : frames.get(0).getMethod().getType().getName() + "." + frames.get(0).getMethod().getName());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        stream.close();
+    }
+}
@@ -0,0 +1,77 @@
+package com.smartvillage.common.identity;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Handlers take the caller from the {@code X-User-Id} / {@code X-User-Role} / {@code X-User-Subject}
+ * headers the gateway sets from a verified token. A client calling a service directly could send any of
+ * them, so they are hidden unless the peer is in {@code smartvillage.identity.trusted-proxies}; the
+ * request then looks anonymous.
+ */
+public class GatewayIdentityFilter extends OncePerRequestFilter {
+
+    private static final Set<String> HEADERS = Set.of("x-user-id", "x-user-role", "x-user-subject");
+
+    private final Set<String> trustedProxies;
+
+    public GatewayIdentityFilter(IdentityProperties props) {
+        this.trustedProxies = new HashSet<>(props.getTrustedProxies());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        chain.doFilter(trustedProxies.contains(request.getRemoteAddr()) ? request : new Anonymous(request), response);
+    }
+
+    private static boolean identity(String name) {
+        return name != null && HEADERS.contains(name.toLowerCase(Locale.ROOT));
+    }
+
+    private static final class Anonymous extends HttpServletRequestWrapper {
+
+        Anonymous(HttpServletRequest request) {
+            super(request);
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return identity(name) ? null : super.getHeader(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            return identity(name) ? Collections.emptyEnumeration() : super.getHeaders(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaderNames() {
+            List<String> names = Collections.list(super.getHeaderNames());
+            names.removeIf(GatewayIdentityFilter::identity);
+            return Collections.enumeration(names);
+        }
+
+        @Override
+        public int getIntHeader(String name) {
+            return identity(name) ? -1 : super.getIntHeader(name);
+        }
+
+        @Override
+        public long getDateHeader(String name) {
+            return identity(name) ? -1 : super.getDateHeader(name);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.smartvillage.common.identity;
+
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.Ordered;
+
+/**
+ * Installs {@link GatewayIdentityFilter} ahead of the admission filters and the handlers, so nothing
+ * downstream sees a caller identity the gateway did not vouch for.
+ */
+@AutoConfiguration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(prefix = "smartvillage.identity", name = "enabled", matchIfMissing = true)
+@EnableConfigurationProperties(IdentityProperties.class)
+public class IdentityAutoConfiguration {
+
+    @Bean
+    public FilterRegistrationBean<GatewayIdentityFilter> gatewayIdentityFilter(IdentityProperties props) {
+        FilterRegistrationBean<GatewayIdentityFilter> bean = new FilterRegistrationBean<>(new GatewayIdentityFilter(props));
+        bean.setOrder(Ordered.HIGHEST_PRECEDENCE + 5);
+        return bean;
+    }
+}
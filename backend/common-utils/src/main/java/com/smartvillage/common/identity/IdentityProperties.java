@@ -0,0 +1,21 @@
+package com.smartvillage.common.identity;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "smartvillage.identity")
+public class IdentityProperties {
+
+    /** Drops the gateway's identity headers from requests that did not come through it; on unless turned off. */
+    private boolean enabled = true;
+
+    /** Peers whose {@code X-User-*} headers are believed, i.e. the gateway. */
+    private List<String> trustedProxies = new ArrayList<>(List.of("127.0.0.1", "0:0:0:0:0:0:0:1"));
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+    public List<String> getTrustedProxies() { return trustedProxies; }
+    public void setTrustedProxies(List<String> trustedProxies) { this.trustedProxies = trustedProxies; }
+}
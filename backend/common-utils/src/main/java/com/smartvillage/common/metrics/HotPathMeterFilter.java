@@ -0,0 +1,40 @@
+package com.smartvillage.common.metrics;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+
+import java.util.List;
+
+/**
+ * Publishes p50/p99/p999 and a percentile histogram for the configured hot-path meters, so the
+ * Prometheus scrape alone answers "which endpoint got slow, and was it the pool, the encoder or auth".
+ * Everything else keeps the cheap count/sum/max defaults.
+ */
+public class HotPathMeterFilter implements MeterFilter {
+
+    private final List<String> hotPaths;
+    private final double[] percentiles;
+
+    public HotPathMeterFilter(MetricsProperties props) {
+        this.hotPaths = List.copyOf(props.getHotPaths());
+        this.percentiles = props.getPercentiles().clone();
+    }
+
+    @Override
+    public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+        if (!isHotPath(id.getName())) return config;
+        return DistributionStatisticConfig.builder()
+                .percentiles(percentiles)
+                .percentilesHistogram(true)
+                .build()
+                .merge(config);
+    }
+
+    boolean isHotPath(String name) {
+        for (String p : hotPaths) {
+            if (p.endsWith(".") ? name.startsWith(p) : name.equals(p)) return true;
+        }
+        return false;
+    }
+}
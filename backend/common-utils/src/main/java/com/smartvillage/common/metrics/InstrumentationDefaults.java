@@ -0,0 +1,26 @@
+package com.smartvillage.common.metrics;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.Map;
+
+/**
+ * Actuator defaults for every service: metrics and the Prometheus scrape endpoint are exposed
+ * without each module repeating the same {@code management.*} block. Added last, so a service's
+ * own {@code application.yml} still wins.
+ */
+public class InstrumentationDefaults implements EnvironmentPostProcessor {
+
+    static final String SOURCE = "smartvillageInstrumentationDefaults";
+
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment env, SpringApplication application) {
+        if (env.getPropertySources().contains(SOURCE)) return;
+        env.getPropertySources().addLast(new MapPropertySource(SOURCE, Map.of(
+                "management.endpoints.web.exposure.include", "health,info,metrics,prometheus",
+                "management.prometheus.metrics.export.enabled", "true")));
+    }
+}
@@ -0,0 +1,68 @@
+package com.smartvillage.common.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+
+/**
+ * Hot-path instrumentation shared by every service: p50/p99/p999 plus Prometheus histograms for
+ * request latency, pool acquire time, payload encoding and auth timers ({@link HotPathMeterFilter}),
+ * and per-request JDBC statement counts with an N+1 warning ({@link StatementCounter}). Actuator's own
+ * binders supply {@code http.server.requests} and the {@code hikaricp.*} meters;
+ * {@link InstrumentationDefaults} exposes {@code /actuator/prometheus}.
+ */
+@AutoConfiguration
+@EnableConfigurationProperties(MetricsProperties.class)
+public class MetricsAutoConfiguration {
+
+    @Bean
+    public HotPathMeterFilter hotPathMeterFilter(MetricsProperties props) {
+        return new HotPathMeterFilter(props);
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(DataSource.class)
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    @ConditionalOnProperty(prefix = "smartvillage.metrics", name = "count-statements", matchIfMissing = true)
+    static class StatementCounting {
+
+        // static and property-free: it runs before the properties bean exists
+        @Bean
+        static BeanPostProcessor countingDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource ds && beanName.equals("dataSource")
+                            ? StatementCounter.counting(ds) : bean;
+                }
+            };
+        }
+
+        @Bean
+        StatementCounter statementCounter(ObjectProvider<MeterRegistry> registry, MetricsProperties props) {
+            return new StatementCounter(registry.getIfAvailable(SimpleMeterRegistry::new), props.getStatementWarnThreshold());
+        }
+
+        @Bean
+        WebMvcConfigurer statementCounterInterceptor(StatementCounter counter) {
+            return new WebMvcConfigurer() {
+                @Override
+                public void addInterceptors(InterceptorRegistry registry) {
+                    registry.addInterceptor(counter);
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.smartvillage.common.metrics;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "smartvillage.metrics")
+public class MetricsProperties {
+
+    /** Client-side percentiles published for every hot-path timer. */
+    private double[] percentiles = { 0.5, 0.99, 0.999 };
+
+    /** Meter names (or name prefixes ending in '.') that get percentiles and a Prometheus histogram. */
+    private List<String> hotPaths = new ArrayList<>(List.of(
+            "http.server.requests", StatementCounter.METRIC, "hikaricp.connections.acquire",
+            "http.server.payload.encode", "auth."));
+
+    /** Count JDBC statements per request. */
+    private boolean countStatements = true;
+
+    /** Requests running at least this many statements are logged as a likely N+1; 0 disables the warning. */
+    private int statementWarnThreshold = 20;
+
+    public double[] getPercentiles() { return percentiles; }
+    public void setPercentiles(double[] percentiles) { this.percentiles = percentiles; }
+    public List<String> getHotPaths() { return hotPaths; }
+    public void setHotPaths(List<String> hotPaths) { this.hotPaths = hotPaths; }
+    public boolean isCountStatements() { return countStatements; }
+    public void setCountStatements(boolean countStatements) { this.countStatements = countStatements; }
+    public int getStatementWarnThreshold() { return statementWarnThreshold; }
+    public void setStatementWarnThreshold(int statementWarnThreshold) { this.statementWarnThreshold = statementWarnThreshold; }
+}
@@ -0,0 +1,121 @@
+package com.smartvillage.common.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counts JDBC statements per request and records them as {@code http.server.db.statements}
+ * (tags {@code method}, {@code uri}), so a handler that quietly grows an extra read shows up on the
+ * dashboard. Counting happens on the connection, which covers Hibernate and {@code JdbcTemplate}
+ * alike. Requests at or above the warn threshold also count towards
+ * {@code http.server.db.statements.excessive} and are logged (once a minute per endpoint) as a likely N+1.
+ */
+public class StatementCounter implements AsyncHandlerInterceptor {
+
+    private static final Logger log = LoggerFactory.getLogger(StatementCounter.class);
+
+    static final String METRIC = "http.server.db.statements";
+
+    private static final Set<String> STATEMENT_METHODS = Set.of("prepareStatement", "prepareCall", "createStatement");
+    private static final ThreadLocal<int[]> COUNT = new ThreadLocal<>();
+    private static final long WARN_EVERY_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final MeterRegistry registry;
+    private final int warnThreshold;
+    private final Map<String, Long> lastWarned = new ConcurrentHashMap<>();
+
+    public StatementCounter(MeterRegistry registry, int warnThreshold) {
+        this.registry = registry;
+        this.warnThreshold = warnThreshold;
+    }
+
+    /** Wraps a pool so every connection it hands out is counted. */
+    public static DataSource counting(DataSource target) {
+        return new DelegatingDataSource(target) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                return counted(super.getConnection());
+            }
+
+            @Override
+            public Connection getConnection(String username, String password) throws SQLException {
+                return counted(super.getConnection(username, password));
+            }
+        };
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        COUNT.set(new int[1]);
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // streaming responses finish on another thread; their statements are not attributed
+        COUNT.remove();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        int[] count = COUNT.get();
+        COUNT.remove();
+        if (count == null) return;
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        DistributionSummary.builder(METRIC)
+                .baseUnit("statements")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(registry)
+                .record(count[0]);
+        if (warnThreshold > 0 && count[0] >= warnThreshold) excessive(request.getMethod(), uri, count[0]);
+    }
+
+    private void excessive(String method, String uri, int count) {
+        Counter.builder(METRIC + ".excessive")
+                .tag("method", method)
+                .tag("uri", uri)
+                .register(registry)
+                .increment();
+        String key = method + " " + uri;
+        long now = System.nanoTime();
+        Long last = lastWarned.get(key);
+        if (last != null && now - last < WARN_EVERY_NANOS) return;
+        lastWarned.put(key, now);
+        log.warn("{} ran {} JDBC statements in one request (threshold {}); likely an N+1 query", key, count, warnThreshold);
+    }
+
+    private static Connection counted(Connection target) {
+        return (Connection) Proxy.newProxyInstance(StatementCounter.class.getClassLoader(),
+                new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+                    if (STATEMENT_METHODS.contains(method.getName())) {
+                        int[] count = COUNT.get();
+                        if (count != null) count[0]++;
+                    }
+                    try {
+                        return method.invoke(target, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+}
@@ -0,0 +1,9 @@
+package com.smartvillage.common.paging;
+
+import java.util.List;
+
+/**
+ * One page of a keyset listing. {@code nextCursor} is null on the last page.
+ */
+public record CursorPage<T>(List<T> items, String nextCursor, int size) {
+}
@@ -0,0 +1,13 @@
+package com.smartvillage.common.paging;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Entities that can be paged by {@link KeysetPager}. The keyset is (createdAt, id),
+ * newest first, so both columns must be non-null once the row is persisted.
+ */
+public interface KeysetEntity {
+    UUID getId();
+    Instant getCreatedAt();
+}
@@ -0,0 +1,103 @@
+package com.smartvillage.common.paging;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Shared list support for the CRUD controllers: keyset pages on (createdAt, id) and
+ * forward-only JSON streaming of a whole table. Neither mode materializes more than
+ * one page (or one fetch batch) of entities at a time.
+ *
+ * <p>{@code filter} is an optional JPQL predicate on the alias {@code e}, e.g. {@code "e.isActive = true"}.
+ * It is always a constant supplied by the calling controller, never client input; values from the
+ * request go in {@code params} and are referenced as named parameters.
+ */
+public class KeysetPager {
+
+    private static final String ORDER = " order by e.createdAt desc, e.id desc";
+
+    private final EntityManager em;
+    private final TransactionTemplate readOnlyTx;
+    private final ObjectMapper mapper;
+    private final PagingProperties props;
+
+    public KeysetPager(EntityManager em, TransactionTemplate readOnlyTx, ObjectMapper mapper, PagingProperties props) {
+        this.em = em;
+        this.readOnlyTx = readOnlyTx;
+        this.mapper = mapper;
+        this.props = props;
+    }
+
+    public <T extends KeysetEntity> CursorPage<T> page(Class<T> type, String filter, String cursor, Integer size) {
+        return page(type, filter, Map.of(), cursor, size);
+    }
+
+    public <T extends KeysetEntity> CursorPage<T> page(Class<T> type, String filter, Map<String, ?> params,
+                                                       String cursor, Integer size) {
+        int limit = props.resolveSize(size);
+        PageCursor after = cursor == null || cursor.isBlank() ? null : PageCursor.decode(cursor);
+
+        StringBuilder jpql = new StringBuilder("select e from ").append(entityName(type)).append(" e where 1 = 1");
+        if (filter != null) jpql.append(" and (").append(filter).append(')');
+        if (after != null) jpql.append(" and (e.createdAt < :ts or (e.createdAt = :ts and e.id < :id))");
+        jpql.append(ORDER);
+
+        TypedQuery<T> q = em.createQuery(jpql.toString(), type).setMaxResults(limit + 1);
+        params.forEach(q::setParameter);
+        if (after != null) {
+            q.setParameter("ts", after.createdAt());
+            q.setParameter("id", after.id());
+        }
+        List<T> rows = q.getResultList();
+        if (rows.size() <= limit) {
+            return new CursorPage<>(rows, null, rows.size());
+        }
+        List<T> items = rows.subList(0, limit);
+        return new CursorPage<>(items, PageCursor.of(items.get(limit - 1)).encode(), limit);
+    }
+
+    /**
+     * Streams every matching row as a JSON array, newest first. The query runs in its own
+     * read-only transaction on the async response thread so the driver can use a server-side cursor.
+     */
+    public <T> StreamingResponseBody stream(Class<T> type, String filter) {
+        String jpql = "select e from " + entityName(type) + " e" + (filter != null ? " where " + filter : "") + ORDER;
+        int batch = props.getStreamFetchSize();
+        return out -> readOnlyTx.executeWithoutResult(status -> {
+            TypedQuery<T> q = em.createQuery(jpql, type)
+                    .setHint("org.hibernate.fetchSize", batch)
+                    .setHint("org.hibernate.readOnly", true);
+            try (Stream<T> rows = q.getResultStream();
+                 JsonGenerator gen = mapper.getFactory().createGenerator(out)) {
+                gen.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+                gen.writeStartArray();
+                int n = 0;
+                for (Iterator<T> it = rows.iterator(); it.hasNext(); ) {
+                    mapper.writeValue(gen, it.next());
+                    if (++n % batch == 0) {
+                        gen.flush();
+                        em.clear();
+                    }
+                }
+                gen.writeEndArray();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private String entityName(Class<?> type) {
+        return em.getMetamodel().entity(type).getName();
+    }
+}
@@ -0,0 +1,33 @@
+package com.smartvillage.common.paging;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Opaque position in a (createdAt, id) keyset. Clients only ever see the encoded form.
+ */
+public record PageCursor(Instant createdAt, UUID id) {
+
+    public static PageCursor of(KeysetEntity entity) {
+        return new PageCursor(entity.getCreatedAt(), entity.getId());
+    }
+
+    public String encode() {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static PageCursor decode(String encoded) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.UTF_8);
+            int sep = raw.indexOf('|');
+            if (sep < 0) throw new InvalidCursorException(encoded);
+            return new PageCursor(Instant.parse(raw.substring(0, sep)), UUID.fromString(raw.substring(sep + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidCursorException(encoded);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.smartvillage.common.paging;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@AutoConfiguration(after = { HibernateJpaAutoConfiguration.class, JacksonAutoConfiguration.class })
+@ConditionalOnBean(EntityManagerFactory.class)
+@EnableConfigurationProperties(PagingProperties.class)
+public class PagingAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public KeysetPager keysetPager(EntityManagerFactory emf, PlatformTransactionManager txManager,
+                                   ObjectMapper mapper, PagingProperties props) {
+        TransactionTemplate readOnlyTx = new TransactionTemplate(txManager);
+        readOnlyTx.setReadOnly(true);
+        return new KeysetPager(SharedEntityManagerCreator.createSharedEntityManager(emf), readOnlyTx, mapper, props);
+    }
+}
@@ -0,0 +1,28 @@
+package com.smartvillage.common.paging;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "smartvillage.paging")
+public class PagingProperties {
+
+    /** Page size used when the client does not ask for one. */
+    private int defaultSize = 50;
+
+    /** Upper bound on client-requested page sizes. */
+    private int maxSize = 500;
+
+    /** JDBC fetch size for streamed listings; also how often the stream is flushed and the persistence context cleared. */
+    private int streamFetchSize = 500;
+
+    public int getDefaultSize() { return defaultSize; }
+    public void setDefaultSize(int defaultSize) { this.defaultSize = defaultSize; }
+    public int getMaxSize() { return maxSize; }
+    public void setMaxSize(int maxSize) { this.maxSize = maxSize; }
+    public int getStreamFetchSize() { return streamFetchSize; }
+    public void setStreamFetchSize(int streamFetchSize) { this.streamFetchSize = streamFetchSize; }
+
+    public int resolveSize(Integer requested) {
+        if (requested == null || requested <= 0) return defaultSize;
+        return Math.min(requested, maxSize);
+    }
+}
@@ -0,0 +1,6 @@
+package com.smartvillage.common.search;
+
+import java.util.UUID;
+
+public record SearchHit(UUID id, double score) {
+}
@@ -0,0 +1,245 @@
+package com.smartvillage.common.search;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Incremental in-memory inverted index with BM25 ranking. Documents are a fixed list of fields,
+ * each with a boost applied to its term frequencies (a simplified BM25F). Terms are kept sorted,
+ * so a prefix query is a range scan.
+ */
+public class SearchIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+    private static final int SNAPSHOT_MAGIC = 0x53564958; // "SVIX"
+    private static final int SNAPSHOT_VERSION = 1;
+
+    private record Doc(Map<String, Float> terms, float length) {}
+
+    private final float[] fieldBoosts;
+    private final TreeMap<String, Map<UUID, Float>> postings = new TreeMap<>();
+    private final Map<UUID, Doc> docs = new HashMap<>();
+    private double totalLength;
+    private volatile boolean dirty;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public SearchIndex(float... fieldBoosts) {
+        this.fieldBoosts = fieldBoosts.clone();
+    }
+
+    /** Adds or replaces a document. {@code fields} line up with the boosts given at construction. */
+    public void put(UUID id, String... fields) {
+        Map<String, Float> terms = new HashMap<>();
+        float length = 0;
+        for (int f = 0; f < fields.length && f < fieldBoosts.length; f++) {
+            for (String t : Tokenizer.tokenize(fields[f])) {
+                terms.merge(t, fieldBoosts[f], Float::sum);
+                length += fieldBoosts[f];
+            }
+        }
+        lock.writeLock().lock();
+        try {
+            unindex(id);
+            if (!terms.isEmpty()) {
+                docs.put(id, new Doc(terms, length));
+                totalLength += length;
+                terms.forEach((t, tf) -> postings.computeIfAbsent(t, k -> new HashMap<>()).put(id, tf));
+            }
+            dirty = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(UUID id) {
+        lock.writeLock().lock();
+        try {
+            if (unindex(id)) dirty = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Drops every document whose id is not in {@code live}. */
+    public void retainAll(Set<UUID> live) {
+        lock.writeLock().lock();
+        try {
+            for (UUID id : new ArrayList<>(docs.keySet())) {
+                if (!live.contains(id)) {
+                    unindex(id);
+                    dirty = true;
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docs.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ranks documents against {@code query}. With {@code prefixLast} the final query term matches any
+     * indexed term that starts with it, which is what a search-as-you-type box needs.
+     */
+    public List<SearchHit> search(String query, int limit, boolean prefixLast) {
+        List<String> terms = Tokenizer.tokenize(query);
+        if (terms.isEmpty() || limit <= 0) return List.of();
+        Map<UUID, Double> scores = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            int n = docs.size();
+            if (n == 0) return List.of();
+            double avgLength = totalLength / n;
+            for (int i = 0; i < terms.size(); i++) {
+                String term = terms.get(i);
+                Collection<Map<UUID, Float>> matches;
+                if (prefixLast && i == terms.size() - 1) {
+                    matches = postings.subMap(term, true, term + Character.MAX_VALUE, false).values()
+                            .stream().limit(MAX_PREFIX_EXPANSIONS).toList();
+                } else {
+                    Map<UUID, Float> p = postings.get(term);
+                    matches = p == null ? List.of() : List.of(p);
+                }
+                for (Map<UUID, Float> p : matches) {
+                    double idf = Math.log(1 + (n - p.size() + 0.5) / (p.size() + 0.5));
+                    p.forEach((id, tf) -> {
+                        double norm = K1 * (1 - B + B * docs.get(id).length() / avgLength);
+                        scores.merge(id, idf * tf * (K1 + 1) / (tf + norm), Double::sum);
+                    });
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        PriorityQueue<SearchHit> top = new PriorityQueue<>(Comparator.comparingDouble(SearchHit::score));
+        scores.forEach((id, score) -> {
+            top.add(new SearchHit(id, score));
+            if (top.size() > limit) top.poll();
+        });
+        List<SearchHit> out = new ArrayList<>(top);
+        out.sort(Comparator.comparingDouble(SearchHit::score).reversed());
+        return out;
+    }
+
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    /** Writes the index to {@code path} atomically. Postings are rebuilt from the per-document terms on load. */
+    public void snapshotTo(Path path) throws IOException {
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        if (path.getParent() != null) Files.createDirectories(path.getParent());
+        lock.readLock().lock();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new GZIPOutputStream(Files.newOutputStream(tmp))))) {
+            dirty = false;
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(SNAPSHOT_VERSION);
+            out.writeLong(Instant.now().toEpochMilli());
+            out.writeInt(docs.size());
+            for (Map.Entry<UUID, Doc> e : docs.entrySet()) {
+                out.writeLong(e.getKey().getMostSignificantBits());
+                out.writeLong(e.getKey().getLeastSignificantBits());
+                out.writeFloat(e.getValue().length());
+                out.writeInt(e.getValue().terms().size());
+                for (Map.Entry<String, Float> t : e.getValue().terms().entrySet()) {
+                    out.writeUTF(t.getKey());
+                    out.writeFloat(t.getValue());
+                }
+            }
+        } catch (IOException e) {
+            dirty = true;
+            throw e;
+        } finally {
+            lock.readLock().unlock();
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Replaces the contents of this index with the snapshot at {@code path}. Returns when the snapshot
+     * was taken, or null if there is no usable snapshot (the index is then left empty).
+     */
+    public Instant loadSnapshot(Path path) throws IOException {
+        lock.writeLock().lock();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(path))))) {
+            clear();
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) return null;
+            Instant savedAt = Instant.ofEpochMilli(in.readLong());
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                UUID id = new UUID(in.readLong(), in.readLong());
+                float length = in.readFloat();
+                int termCount = in.readInt();
+                Map<String, Float> terms = new HashMap<>(termCount * 2);
+                for (int j = 0; j < termCount; j++) {
+                    String t = in.readUTF();
+                    float tf = in.readFloat();
+                    terms.put(t, tf);
+                    postings.computeIfAbsent(t, k -> new HashMap<>()).put(id, tf);
+                }
+                docs.put(id, new Doc(terms, length));
+                totalLength += length;
+            }
+            dirty = false;
+            return savedAt;
+        } catch (NoSuchFileException e) {
+            return null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void clear() {
+        postings.clear();
+        docs.clear();
+        totalLength = 0;
+    }
+
+    // caller holds the write lock
+    private boolean unindex(UUID id) {
+        Doc old = docs.remove(id);
+        if (old == null) return false;
+        totalLength -= old.length();
+        for (String t : old.terms().keySet()) {
+            Map<UUID, Float> p = postings.get(t);
+            if (p != null) {
+                p.remove(id);
+                if (p.isEmpty()) postings.remove(t);
+            }
+        }
+        return true;
+    }
+}
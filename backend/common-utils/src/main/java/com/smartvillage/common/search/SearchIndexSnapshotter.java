@@ -0,0 +1,55 @@
+package com.smartvillage.common.search;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically writes a {@link SearchIndex} to disk when it has changed, and once more on close.
+ */
+public class SearchIndexSnapshotter implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(SearchIndexSnapshotter.class);
+
+    private final SearchIndex index;
+    private final Path path;
+    private final ScheduledExecutorService scheduler;
+
+    public SearchIndexSnapshotter(SearchIndex index, Path path, Duration interval) {
+        this.index = index;
+        this.path = path;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "search-snapshot-" + path.getFileName());
+            t.setDaemon(true);
+            return t;
+        });
+        long ms = interval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::snapshotIfDirty, ms, ms, TimeUnit.MILLISECONDS);
+    }
+
+    private void snapshotIfDirty() {
+        if (!index.isDirty()) return;
+        try {
+            index.snapshotTo(path);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not write search snapshot {}", path, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        snapshotIfDirty();
+    }
+}
@@ -0,0 +1,50 @@
+package com.smartvillage.common.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Unicode-aware tokenizer for the English, Hindi and Marathi text the app ships. Tokens are runs of
+ * letters, digits and combining marks, so Devanagari matras and viramas stay inside their word.
+ * Text is NFC-normalized and lower-cased, zero-width joiners are dropped and native digits are
+ * folded to ASCII so "२०२४" matches "2024".
+ */
+public final class Tokenizer {
+
+    static final int MAX_TOKEN_LENGTH = 64;
+
+    private Tokenizer() {}
+
+    public static List<String> tokenize(String text) {
+        if (text == null || text.isEmpty()) return List.of();
+        String s = Normalizer.normalize(text, Normalizer.Form.NFC).toLowerCase(Locale.ROOT);
+        List<String> out = new ArrayList<>();
+        StringBuilder cur = new StringBuilder();
+        for (int i = 0; i < s.length(); ) {
+            int cp = s.codePointAt(i);
+            i += Character.charCount(cp);
+            int type = Character.getType(cp);
+            if (Character.isDigit(cp)) {
+                cur.append((char) ('0' + Character.digit(cp, 10)));
+            } else if (Character.isLetter(cp)
+                    || type == Character.NON_SPACING_MARK
+                    || type == Character.COMBINING_SPACING_MARK
+                    || type == Character.ENCLOSING_MARK) {
+                cur.appendCodePoint(cp);
+            } else if (type != Character.FORMAT) {
+                flush(cur, out);
+            }
+        }
+        flush(cur, out);
+        return out;
+    }
+
+    private static void flush(StringBuilder cur, List<String> out) {
+        if (cur.length() > 0) {
+            out.add(cur.length() > MAX_TOKEN_LENGTH ? cur.substring(0, MAX_TOKEN_LENGTH) : cur.toString());
+            cur.setLength(0);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.smartvillage.common.sync;
+
+import com.smartvillage.common.paging.KeysetEntity;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Delta sync for the CRUD controllers. Writes go through {@link #upsert} / {@link #delete}, which
+ * append a row to {@code sync_changes} (resource, entity id, upsert or delete) in the same
+ * transaction as the entity write; {@link #since} returns the current state of every row touched
+ * after the client's cursor plus tombstones for deleted ids, so offline clients can catch up
+ * without refetching whole lists.
+ *
+ * <p>Sequence numbers of one resource are handed out in commit order: the change row is the last
+ * statement of its transaction and is inserted under a per-resource transaction lock, so a later
+ * number is never visible while an earlier one is still uncommitted. Every read is therefore a
+ * plain prefix by {@code seq}, and a cursor can never move past a change it has not returned.
+ *
+ * <p>A client without a cursor calls {@link #since} with none, keeps the returned cursor,
+ * then loads the full list once; everything after that comes from the feed.
+ */
+public class ChangeFeed {
+
+    private static final Logger log = LoggerFactory.getLogger(ChangeFeed.class);
+
+    static final String UPSERT = "U";
+    static final String DELETE = "D";
+
+    private final JdbcTemplate jdbc;
+    private final EntityManager em;
+    private final TransactionTemplate tx;
+    private final TransactionTemplate readOnlyTx;
+    private final SyncProperties props;
+    private final ScheduledExecutorService pruner = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "sync-change-pruner");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public ChangeFeed(JdbcTemplate jdbc, EntityManager em, TransactionTemplate tx, TransactionTemplate readOnlyTx,
+                      SyncProperties props) {
+        this.jdbc = jdbc;
+        this.em = em;
+        this.tx = tx;
+        this.readOnlyTx = readOnlyTx;
+        this.props = props;
+        pruner.scheduleWithFixedDelay(this::prune, 1, 60, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Runs {@code write} (a create or update returning the row, or empty if there was none) and
+     * records the upsert in the same transaction. Cache and index maintenance belongs after this
+     * returns, once the write is committed.
+     */
+    public <T extends KeysetEntity> Optional<T> upsert(String resource, Supplier<Optional<T>> write) {
+        return recorded(resource, UPSERT, write);
+    }
+
+    /** As {@link #upsert} for a delete returning the removed row; leaves a tombstone so clients holding it learn that it is gone. */
+    public <T extends KeysetEntity> Optional<T> delete(String resource, Supplier<Optional<T>> write) {
+        return recorded(resource, DELETE, write);
+    }
+
+    public <T extends KeysetEntity> ChangeSet<T> since(String resource, Class<T> type, String since, Integer batch) {
+        Instant now = Instant.now();
+        if (since == null || since.isBlank()) {
+            Long head = jdbc.queryForObject("SELECT COALESCE(MAX(seq), 0) FROM sync_changes WHERE resource = ?",
+                    Long.class, resource);
+            return new ChangeSet<>(List.of(), List.of(), new SyncCursor(head, now).encode(), false);
+        }
+        SyncCursor after = SyncCursor.decode(since);
+        if (after.asOf().isBefore(now.minus(props.getRetention()))) {
+            throw new ResyncRequiredException();
+        }
+
+        int limit = props.resolveBatch(batch);
+        List<Change> rows = jdbc.query(
+                "SELECT seq, entity_id, op FROM sync_changes WHERE resource = ? AND seq > ? ORDER BY seq LIMIT ?",
+                (rs, n) -> new Change(rs.getLong("seq"), rs.getObject("entity_id", UUID.class), rs.getString("op")),
+                resource, after.seq(), limit + 1);
+        boolean hasMore = rows.size() > limit;
+        if (hasMore) rows = rows.subList(0, limit);
+        if (rows.isEmpty()) {
+            return new ChangeSet<>(List.of(), List.of(), new SyncCursor(after.seq(), now).encode(), false);
+        }
+
+        // last change per id wins; the row itself is read as it is now
+        Map<UUID, String> latest = new LinkedHashMap<>();
+        for (Change c : rows) {
+            latest.remove(c.id());
+            latest.put(c.id(), c.op());
+        }
+        List<UUID> upsertIds = latest.entrySet().stream()
+                .filter(e -> UPSERT.equals(e.getValue())).map(Map.Entry::getKey).toList();
+        Map<UUID, T> loaded = load(type, upsertIds);
+
+        List<T> upserts = new ArrayList<>(loaded.size());
+        List<UUID> deletes = new ArrayList<>();
+        latest.forEach((id, op) -> {
+            T row = UPSERT.equals(op) ? loaded.get(id) : null;
+            // a row that vanished without a tombstone is reported as deleted too
+            if (row != null) upserts.add(row); else deletes.add(id);
+        });
+
+        // a partial batch keeps the old asOf: the client is only complete up to it once it catches up
+        SyncCursor next = new SyncCursor(rows.get(rows.size() - 1).seq(), hasMore ? after.asOf() : now);
+        return new ChangeSet<>(upserts, deletes, next.encode(), hasMore);
+    }
+
+    private <T extends KeysetEntity> Map<UUID, T> load(Class<T> type, List<UUID> ids) {
+        if (ids.isEmpty()) return Map.of();
+        String jpql = "select e from " + em.getMetamodel().entity(type).getName() + " e where e.id in :ids";
+        return readOnlyTx.execute(status -> em.createQuery(jpql, type).setParameter("ids", ids).getResultList())
+                .stream().collect(Collectors.toMap(KeysetEntity::getId, Function.identity()));
+    }
+
+    private <T extends KeysetEntity> Optional<T> recorded(String resource, String op, Supplier<Optional<T>> write) {
+        return tx.execute(status -> {
+            Optional<T> row = write.get();
+            // the lock is held until commit, so this resource's seqs become visible in order
+            row.ifPresent(r -> jdbc.update("WITH l AS (SELECT pg_advisory_xact_lock(hashtext('sync_changes:' || ?)))"
+                    + " INSERT INTO sync_changes (resource, entity_id, op) SELECT ?, ?, ? FROM l", resource, resource, r.getId(), op));
+            return row;
+        });
+    }
+
+    void prune() {
+        try {
+            int removed = jdbc.update("DELETE FROM sync_changes WHERE changed_at < ?",
+                    Timestamp.from(Instant.now().minus(props.getRetention())));
+            if (removed > 0) log.info("Pruned {} sync changes older than {}", removed, props.getRetention());
+        } catch (RuntimeException e) {
+            log.warn("Sync change pruning failed", e);
+        }
+    }
+
+    void stop() {
+        pruner.shutdownNow();
+    }
+
+    private record Change(long seq, UUID id, String op) {}
+}
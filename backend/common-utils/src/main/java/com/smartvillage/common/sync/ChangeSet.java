@@ -0,0 +1,11 @@
+package com.smartvillage.common.sync;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Rows created or updated and ids deleted since the request cursor. Pass {@code cursor} back as
+ * {@code since} on the next call; keep calling while {@code hasMore} is true.
+ */
+public record ChangeSet<T>(List<T> upserts, List<UUID> deletes, String cursor, boolean hasMore) {
+}
@@ -0,0 +1,12 @@
+package com.smartvillage.common.sync;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/** The cursor predates the retained change log; the client must reload the full list. */
+@ResponseStatus(HttpStatus.GONE)
+public class ResyncRequiredException extends RuntimeException {
+    public ResyncRequiredException() {
+        super("Sync cursor has expired; reload the full list and start a new feed");
+    }
+}
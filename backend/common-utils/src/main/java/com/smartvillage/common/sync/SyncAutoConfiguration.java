@@ -0,0 +1,32 @@
+package com.smartvillage.common.sync;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@AutoConfiguration(after = { HibernateJpaAutoConfiguration.class, JdbcTemplateAutoConfiguration.class })
+@ConditionalOnBean({ EntityManagerFactory.class, JdbcTemplate.class })
+@ConditionalOnProperty(prefix = "smartvillage.sync", name = "enabled", matchIfMissing = true)
+@EnableConfigurationProperties(SyncProperties.class)
+public class SyncAutoConfiguration {
+
+    @Bean(destroyMethod = "stop")
+    @ConditionalOnMissingBean
+    public ChangeFeed changeFeed(JdbcTemplate jdbc, EntityManagerFactory emf, PlatformTransactionManager txManager,
+                                 SyncProperties props) {
+        TransactionTemplate readOnlyTx = new TransactionTemplate(txManager);
+        readOnlyTx.setReadOnly(true);
+        return new ChangeFeed(jdbc, SharedEntityManagerCreator.createSharedEntityManager(emf),
+                new TransactionTemplate(txManager), readOnlyTx, props);
+    }
+}
@@ -0,0 +1,31 @@
+package com.smartvillage.common.sync;
+
+import com.smartvillage.common.paging.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque position in a change feed: the last change sequence the client has seen and the
+ * time up to which its copy is complete.
+ */
+public record SyncCursor(long seq, Instant asOf) {
+
+    public String encode() {
+        String raw = seq + "|" + asOf;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static SyncCursor decode(String encoded) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.UTF_8);
+            int sep = raw.indexOf('|');
+            if (sep < 0) throw new InvalidCursorException(encoded);
+            return new SyncCursor(Long.parseLong(raw.substring(0, sep)), Instant.parse(raw.substring(sep + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidCursorException(encoded);
+        }
+    }
+}
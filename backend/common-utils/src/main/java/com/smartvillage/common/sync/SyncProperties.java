@@ -0,0 +1,30 @@
+package com.smartvillage.common.sync;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "smartvillage.sync")
+public class SyncProperties {
+
+    /** How long change rows (and tombstones) are kept; older cursors get 410 and must resync. */
+    private Duration retention = Duration.ofDays(30);
+
+    /** Changes returned when the client does not ask for a batch size. */
+    private int defaultBatch = 200;
+
+    /** Upper bound on client-requested batch sizes. */
+    private int maxBatch = 1000;
+
+    public Duration getRetention() { return retention; }
+    public void setRetention(Duration retention) { this.retention = retention; }
+    public int getDefaultBatch() { return defaultBatch; }
+    public void setDefaultBatch(int defaultBatch) { this.defaultBatch = defaultBatch; }
+    public int getMaxBatch() { return maxBatch; }
+    public void setMaxBatch(int maxBatch) { this.maxBatch = maxBatch; }
+
+    public int resolveBatch(Integer requested) {
+        if (requested == null || requested <= 0) return defaultBatch;
+        return Math.min(requested, maxBatch);
+    }
+}
@@ -0,0 +1,115 @@
+package com.smartvillage.common.web;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A cacheable response body. Each (format, gzip) representation is encoded once on first request
+ * and then served from the same byte array, so repeat reads cost neither serialization nor
+ * compression. Every representation carries its own strong ETag.
+ */
+public final class CachedPayload {
+
+    private record Variant(PayloadFormat format, boolean gzip) {}
+
+    private static final byte[] NOT_COMPRESSIBLE = new byte[0];
+
+    private final Object value;
+    private final String etag;
+    private final PayloadEncoders encoders;
+    private final Map<PayloadFormat, byte[]> bodies = new ConcurrentHashMap<>();
+    private final Map<PayloadFormat, byte[]> gzipped = new ConcurrentHashMap<>();
+
+    CachedPayload(Object value, String etag, PayloadEncoders encoders) {
+        this.value = value;
+        this.etag = etag;
+        this.encoders = encoders;
+    }
+
+    /** ETag of the JSON identity representation. */
+    public String etag() {
+        return etag;
+    }
+
+    public byte[] body(PayloadFormat format) {
+        return bodies.computeIfAbsent(format, f -> encoders.encode(f, value));
+    }
+
+    /** Encodes (and gzips) the given representations now instead of on first request. */
+    public CachedPayload warm(PayloadFormat... formats) {
+        for (PayloadFormat format : formats) gzip(format, body(format));
+        return this;
+    }
+
+    /**
+     * 200 with the representation negotiated from Accept / Accept-Encoding, or 304 when the
+     * client already holds it.
+     */
+    public ResponseEntity<byte[]> render(HttpHeaders request) {
+        return render(request, CacheControl.empty());
+    }
+
+    public ResponseEntity<byte[]> render(HttpHeaders request, CacheControl cacheControl) {
+        PayloadFormat format = PayloadFormat.negotiate(request.getFirst(HttpHeaders.ACCEPT));
+        byte[] body = body(format);
+        byte[] gz = acceptsGzip(request.getFirst(HttpHeaders.ACCEPT_ENCODING)) ? gzip(format, body) : null;
+        Variant variant = new Variant(format, gz != null);
+        String tag = etagFor(variant);
+
+        if (matches(tag, request.getFirst(HttpHeaders.IF_NONE_MATCH))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(tag).cacheControl(cacheControl)
+                    .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING).build();
+        }
+        byte[] out = gz != null ? gz : body;
+        encoders.metrics().recordSize(format, gz != null ? "gzip" : "identity", out.length);
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok().eTag(tag).cacheControl(cacheControl)
+                .contentType(format.mediaType())
+                .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+        if (gz != null) ok.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        return ok.body(out);
+    }
+
+    private byte[] gzip(PayloadFormat format, byte[] body) {
+        byte[] gz = gzipped.computeIfAbsent(format, f -> {
+            byte[] compressed = encoders.gzip(body);
+            return compressed != null ? compressed : NOT_COMPRESSIBLE;
+        });
+        return gz == NOT_COMPRESSIBLE ? null : gz;
+    }
+
+    private String etagFor(Variant v) {
+        if (v.format() == PayloadFormat.JSON && !v.gzip()) return etag;
+        String suffix = (v.format() == PayloadFormat.JSON ? "" : "." + v.format().tag()) + (v.gzip() ? ".gz" : "");
+        // etag is quoted: insert the suffix before the closing quote
+        return etag.substring(0, etag.length() - 1) + suffix + "\"";
+    }
+
+    static boolean matches(String etag, String ifNoneMatch) {
+        if (ifNoneMatch == null) return false;
+        for (String tag : ifNoneMatch.split(",")) {
+            String t = tag.trim();
+            if (t.equals("*") || t.equals(etag)) return true;
+        }
+        return false;
+    }
+
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) return false;
+        for (String part : acceptEncoding.split(",")) {
+            String[] coding = part.trim().split(";");
+            String name = coding[0].trim();
+            if (!name.equalsIgnoreCase("gzip") && !name.equals("*")) continue;
+            for (int i = 1; i < coding.length; i++) {
+                String param = coding[i].trim();
+                if (param.matches("q=0(\\.0*)?")) return false;
+            }
+            return true;
+        }
+        return false;
+    }
+}
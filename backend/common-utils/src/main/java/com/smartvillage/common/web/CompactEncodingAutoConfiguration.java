@@ -0,0 +1,62 @@
+package com.smartvillage.common.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Content negotiation for low-bandwidth clients: CBOR and Smile alongside JSON, per-endpoint
+ * payload metrics, and {@link PayloadEncoders} for pre-encoded, pre-gzipped cached responses.
+ * Dynamic responses are gzipped by the container ({@code server.compression.*}).
+ */
+@AutoConfiguration(after = JacksonAutoConfiguration.class)
+@ConditionalOnBean(ObjectMapper.class)
+@EnableConfigurationProperties(WebEncodingProperties.class)
+public class CompactEncodingAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public PayloadMetrics payloadMetrics(ObjectProvider<MeterRegistry> registry) {
+        return new PayloadMetrics(registry.getIfAvailable(SimpleMeterRegistry::new));
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public PayloadEncoders payloadEncoders(ObjectMapper mapper, PayloadMetrics metrics, WebEncodingProperties props) {
+        return new PayloadEncoders(mapper, metrics, props.getGzipMinSize());
+    }
+
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public WebMvcConfigurer compactEncodingConverters(PayloadEncoders encoders, WebEncodingProperties props) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+                for (int i = 0; i < converters.size(); i++) {
+                    if (converters.get(i).getClass() != MappingJackson2HttpMessageConverter.class) continue;
+                    PayloadMetrics metrics = encoders.metrics();
+                    converters.set(i, new MeteredJsonConverter(encoders.mapper(PayloadFormat.JSON), metrics));
+                    if (props.isCompactFormats()) {
+                        // after JSON, so clients that send */* keep getting JSON
+                        converters.add(i + 1, new MeteredBinaryConverter(encoders.mapper(PayloadFormat.CBOR), PayloadFormat.CBOR, metrics));
+                        converters.add(i + 2, new MeteredBinaryConverter(encoders.mapper(PayloadFormat.SMILE), PayloadFormat.SMILE, metrics));
+                    }
+                    return;
+                }
+            }
+        };
+    }
+}
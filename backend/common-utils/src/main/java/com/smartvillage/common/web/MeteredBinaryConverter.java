@@ -0,0 +1,29 @@
+package com.smartvillage.common.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * CBOR or Smile converter. Same object model as JSON, so any handler that returns an object can be
+ * asked for {@code application/cbor} or {@code application/x-jackson-smile} instead.
+ */
+public class MeteredBinaryConverter extends AbstractJackson2HttpMessageConverter {
+
+    private final PayloadFormat format;
+    private final PayloadMetrics metrics;
+
+    public MeteredBinaryConverter(ObjectMapper mapper, PayloadFormat format, PayloadMetrics metrics) {
+        super(mapper, format.mediaType());
+        this.format = format;
+        this.metrics = metrics;
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage message) throws IOException {
+        metrics.meter(format, message, m -> super.writeInternal(object, type, m));
+    }
+}
@@ -0,0 +1,24 @@
+package com.smartvillage.common.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/** The default JSON converter, with payload size and encode time recorded per endpoint. */
+public class MeteredJsonConverter extends MappingJackson2HttpMessageConverter {
+
+    private final PayloadMetrics metrics;
+
+    public MeteredJsonConverter(ObjectMapper mapper, PayloadMetrics metrics) {
+        super(mapper);
+        this.metrics = metrics;
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage message) throws IOException {
+        metrics.meter(PayloadFormat.JSON, message, m -> super.writeInternal(object, type, m));
+    }
+}
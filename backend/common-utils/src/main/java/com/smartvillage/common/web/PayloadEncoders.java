@@ -0,0 +1,70 @@
+package com.smartvillage.common.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * One ObjectMapper per {@link PayloadFormat}, all copied from the application mapper so modules and
+ * date settings match. Also the factory for {@link CachedPayload}.
+ */
+public class PayloadEncoders {
+
+    private final Map<PayloadFormat, ObjectMapper> mappers = new EnumMap<>(PayloadFormat.class);
+    private final PayloadMetrics metrics;
+    private final int gzipMinSize;
+
+    public PayloadEncoders(ObjectMapper json, PayloadMetrics metrics, int gzipMinSize) {
+        mappers.put(PayloadFormat.JSON, json);
+        mappers.put(PayloadFormat.CBOR, json.copyWith(new CBORFactory()));
+        // back-references for repeated values such as category and status strings
+        mappers.put(PayloadFormat.SMILE, json.copyWith(
+                new SmileFactory().enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)));
+        this.metrics = metrics;
+        this.gzipMinSize = gzipMinSize;
+    }
+
+    public ObjectMapper mapper(PayloadFormat format) {
+        return mappers.get(format);
+    }
+
+    public PayloadMetrics metrics() {
+        return metrics;
+    }
+
+    /** Wraps a value for repeated serving; each representation is encoded at most once. */
+    public CachedPayload cache(Object value, String etag) {
+        return new CachedPayload(value, etag, this);
+    }
+
+    byte[] encode(PayloadFormat format, Object value) {
+        long start = System.nanoTime();
+        try {
+            return mapper(format).writeValueAsBytes(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            metrics.recordEncode(format, System.nanoTime() - start);
+        }
+    }
+
+    /** Gzipped copy, or null when the payload is too small to be worth it. */
+    byte[] gzip(byte[] body) {
+        if (body.length < gzipMinSize) return null;
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
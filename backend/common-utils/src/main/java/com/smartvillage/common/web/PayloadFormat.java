@@ -0,0 +1,50 @@
+package com.smartvillage.common.web;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.util.InvalidMimeTypeException;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.Comparator;
+import java.util.List;
+
+/** Wire formats served by the API. JSON stays the default; CBOR and Smile are opt-in via Accept. */
+public enum PayloadFormat {
+    JSON(MediaType.APPLICATION_JSON, "json"),
+    CBOR(MediaType.APPLICATION_CBOR, "cbor"),
+    SMILE(new MediaType("application", "x-jackson-smile"), "smile");
+
+    private final MediaType mediaType;
+    private final String tag;
+
+    PayloadFormat(MediaType mediaType, String tag) {
+        this.mediaType = mediaType;
+        this.tag = tag;
+    }
+
+    public MediaType mediaType() { return mediaType; }
+
+    /** Short name used in metric tags and ETag suffixes. */
+    public String tag() { return tag; }
+
+    /** Best format for an Accept header; anything unparseable or unmatched gets JSON. */
+    public static PayloadFormat negotiate(String accept) {
+        if (accept == null || accept.isBlank()) return JSON;
+        List<MediaType> types;
+        try {
+            types = MediaType.parseMediaTypes(accept);
+            // most specific first, then a stable sort by q so specificity only breaks ties
+            MimeTypeUtils.sortBySpecificity(types);
+        } catch (InvalidMediaTypeException | InvalidMimeTypeException e) {
+            return JSON;
+        }
+        types.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+        for (MediaType type : types) {
+            if (type.getQualityValue() == 0) continue;
+            for (PayloadFormat format : values()) {
+                if (type.includes(format.mediaType)) return format;
+            }
+        }
+        return JSON;
+    }
+}
@@ -0,0 +1,102 @@
+package com.smartvillage.common.web;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-endpoint payload metrics: {@code http.server.payload.size} (bytes handed to the container,
+ * tagged by format and content coding) and {@code http.server.payload.encode} (serialization time).
+ */
+public class PayloadMetrics {
+
+    public interface Encoder {
+        void write(HttpOutputMessage message) throws IOException;
+    }
+
+    private final MeterRegistry registry;
+
+    public PayloadMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public void recordSize(PayloadFormat format, String contentEncoding, long bytes) {
+        DistributionSummary.builder("http.server.payload.size")
+                .baseUnit("bytes")
+                .tag("uri", currentUri())
+                .tag("format", format.tag())
+                .tag("encoding", contentEncoding)
+                .register(registry)
+                .record(bytes);
+    }
+
+    public void recordEncode(PayloadFormat format, long nanos) {
+        Timer.builder("http.server.payload.encode")
+                .tag("uri", currentUri())
+                .tag("format", format.tag())
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /** Runs a converter write, counting the bytes it produces and the time it takes. */
+    public void meter(PayloadFormat format, HttpOutputMessage message, Encoder encoder) throws IOException {
+        CountingMessage counted = new CountingMessage(message);
+        long start = System.nanoTime();
+        encoder.write(counted);
+        recordEncode(format, System.nanoTime() - start);
+        recordSize(format, "identity", counted.count);
+    }
+
+    /** The matched handler pattern, so path variables do not explode metric cardinality. */
+    private static String currentUri() {
+        RequestAttributes attrs = RequestContextHolder.getRequestAttributes();
+        if (attrs == null) return "none";
+        Object pattern = attrs.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        return pattern != null ? pattern.toString() : "UNKNOWN";
+    }
+
+    private static final class CountingMessage implements HttpOutputMessage {
+        private final HttpOutputMessage delegate;
+        private long count;
+        private OutputStream body;
+
+        CountingMessage(HttpOutputMessage delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public OutputStream getBody() throws IOException {
+            if (body == null) {
+                body = new FilterOutputStream(delegate.getBody()) {
+                    @Override
+                    public void write(int b) throws IOException {
+                        out.write(b);
+                        count++;
+                    }
+
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException {
+                        out.write(b, off, len);
+                        count += len;
+                    }
+                };
+            }
+            return body;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.smartvillage.common.web;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "smartvillage.web.encoding")
+public class WebEncodingProperties {
+
+    /** Register the CBOR and Smile message converters next to JSON. */
+    private boolean compactFormats = true;
+
+    /** Cached payloads smaller than this are never gzipped; the header overhead outweighs the saving. */
+    private int gzipMinSize = 1024;
+
+    public boolean isCompactFormats() { return compactFormats; }
+    public void setCompactFormats(boolean compactFormats) { this.compactFormats = compactFormats; }
+    public int getGzipMinSize() { return gzipMinSize; }
+    public void setGzipMinSize(int gzipMinSize) { this.gzipMinSize = gzipMinSize; }
+}
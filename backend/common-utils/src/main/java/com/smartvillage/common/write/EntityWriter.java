@@ -0,0 +1,250 @@
+package com.smartvillage.common.write;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.lang.reflect.Field;
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Single-statement writes for the CRUD controllers. An update is one
+ * {@code UPDATE ... SET ..., version = version + 1 WHERE id = ? [AND version = ?] RETURNING *} and a
+ * delete one {@code DELETE ... RETURNING *}, so handlers get the row back (for cache and index
+ * maintenance) without a read first. A version mismatch is a {@link VersionConflictException};
+ * only then is a second query run, to tell a conflict from a missing row.
+ *
+ * <p>Versions travel as the ETag: responses carry {@code ETag: "<version>"} and clients send it
+ * back in {@code If-Match}.
+ */
+public class EntityWriter {
+
+    public static final String MERGE_PATCH_JSON = "application/merge-patch+json";
+
+    static final String VERSION = "version";
+    private static final String PREVIOUS = "previous_value";
+
+    private final JdbcTemplate jdbc;
+    private final ObjectMapper mapper;
+
+    public EntityWriter(JdbcTemplate jdbc, ObjectMapper mapper) {
+        this.jdbc = jdbc;
+        this.mapper = mapper;
+    }
+
+    /** Sets the given properties (by JSON name); properties not listed are left alone. */
+    public <T> Optional<T> update(WritableTable<T> table, UUID id, Long expectedVersion, Map<String, ?> values) {
+        if (values.isEmpty()) return current(table, id, expectedVersion);
+        List<String> sets = new ArrayList<>();
+        List<Object> args = new ArrayList<>();
+        values.forEach((property, value) -> {
+            WritableTable.Writable col = table.columns().get(property);
+            if (col == null) throw new InvalidPatchException("Property " + property + " cannot be written");
+            if (value == null && !col.nullable()) throw new InvalidPatchException("Property " + property + " cannot be null");
+            sets.add(col.column() + " = ?");
+            args.add(jdbcValue(value));
+        });
+        if (table.touchColumn() != null) {
+            sets.add(table.touchColumn() + " = ?");
+            args.add(Timestamp.from(Instant.now()));
+        }
+        sets.add(VERSION + " = t." + VERSION + " + 1");
+
+        StringBuilder sql = new StringBuilder();
+        String prev = table.previousColumn();
+        if (prev != null) {
+            // the CTE locks the row first, so it sees the version the UPDATE is about to replace
+            sql.append("WITH previous AS (SELECT id, ").append(prev).append(" FROM ").append(table.table())
+                    .append(" WHERE id = ? FOR UPDATE) ");
+            args.add(0, id);
+        }
+        sql.append("UPDATE ").append(table.table()).append(" t SET ").append(String.join(", ", sets));
+        if (prev != null) sql.append(" FROM previous");
+        sql.append(" WHERE t.id = ?");
+        args.add(id);
+        if (prev != null) sql.append(" AND previous.id = t.id");
+        if (expectedVersion != null) {
+            sql.append(" AND t.").append(VERSION).append(" = ?");
+            args.add(expectedVersion);
+        }
+        sql.append(" RETURNING t.*");
+        if (prev != null) sql.append(", previous.").append(prev).append(" AS ").append(PREVIOUS);
+        return single(table, sql.toString(), args, id, expectedVersion);
+    }
+
+    /** PUT semantics: every writable property is taken from {@code body}, including nulls. */
+    public <T> Optional<T> replace(WritableTable<T> table, UUID id, Long expectedVersion, T body) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (WritableTable.Writable col : table.columns().values()) {
+            try {
+                values.put(col.property(), col.field().get(body));
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return update(table, id, expectedVersion, values);
+    }
+
+    /**
+     * Applies an RFC 7396 JSON merge patch: listed properties are set, {@code null} clears one.
+     * Entities here are flat, so nested objects are rejected rather than merged.
+     */
+    public <T> Optional<T> patch(WritableTable<T> table, UUID id, Long expectedVersion, JsonNode patch) {
+        if (patch == null || !patch.isObject()) throw new InvalidPatchException("Merge patch must be a JSON object");
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (Iterator<Map.Entry<String, JsonNode>> it = patch.fields(); it.hasNext(); ) {
+            Map.Entry<String, JsonNode> e = it.next();
+            if (e.getKey().equals(VERSION)) continue;
+            WritableTable.Writable col = table.columns().get(e.getKey());
+            if (col == null) throw new InvalidPatchException("Property " + e.getKey() + " cannot be patched");
+            values.put(e.getKey(), convert(e.getKey(), e.getValue(), col.type()));
+        }
+        if (expectedVersion == null && patch.hasNonNull(VERSION)) expectedVersion = patch.get(VERSION).asLong();
+        return update(table, id, expectedVersion, values);
+    }
+
+    /** Deletes the row and returns it as it was, or empty if there was none. */
+    public <T> Optional<T> delete(WritableTable<T> table, UUID id, Long expectedVersion) {
+        StringBuilder sql = new StringBuilder("DELETE FROM ").append(table.table()).append(" WHERE id = ?");
+        List<Object> args = new ArrayList<>(List.of(id));
+        if (expectedVersion != null) {
+            sql.append(" AND ").append(VERSION).append(" = ?");
+            args.add(expectedVersion);
+        }
+        sql.append(" RETURNING *");
+        return single(table, sql.toString(), args, id, expectedVersion);
+    }
+
+    /** An empty patch changes nothing, so it only reads (and still checks the version). */
+    private <T> Optional<T> current(WritableTable<T> table, UUID id, Long expectedVersion) {
+        String prev = table.previousColumn();
+        String sql = "SELECT *" + (prev != null ? ", " + prev + " AS " + PREVIOUS : "") + " FROM " + table.table() + " WHERE id = ?";
+        List<Object> args = new ArrayList<>(List.of(id));
+        if (expectedVersion != null) {
+            sql += " AND " + VERSION + " = ?";
+            args.add(expectedVersion);
+        }
+        return single(table, sql, args, id, expectedVersion);
+    }
+
+    /**
+     * Version from an {@code If-Match} header ({@code "3"} or {@code W/"3"}); null when absent or {@code *}.
+     * The tag of an encoded representation ({@code "3.gz"}, {@code "3.cbor"}) names the same version.
+     */
+    public static Long versionFrom(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) return null;
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) tag = tag.substring(2);
+        tag = tag.replace("\"", "");
+        int representation = tag.indexOf('.');
+        if (representation > 0) tag = tag.substring(0, representation);
+        try {
+            return Long.parseLong(tag);
+        } catch (NumberFormatException e) {
+            throw new InvalidPatchException("If-Match must carry a version ETag, got " + ifMatch);
+        }
+    }
+
+    public static String etag(long version) {
+        return "\"" + version + "\"";
+    }
+
+    private <T> Optional<T> single(WritableTable<T> table, String sql, List<Object> args, UUID id, Long expectedVersion) {
+        List<T> rows = jdbc.query(sql, (rs, n) -> read(table, rs), args.toArray());
+        if (!rows.isEmpty()) return Optional.of(rows.get(0));
+        if (expectedVersion != null) {
+            List<Long> current = jdbc.queryForList("SELECT " + VERSION + " FROM " + table.table() + " WHERE id = ?", Long.class, id);
+            if (!current.isEmpty()) throw new VersionConflictException(expectedVersion, current.get(0));
+        }
+        return Optional.empty();
+    }
+
+    private Object convert(String property, JsonNode value, Class<?> type) {
+        if (value.isNull()) return null;
+        if (value.isObject() || value.isArray() && !type.isArray()) {
+            throw new InvalidPatchException("Property " + property + " must be a scalar");
+        }
+        try {
+            return mapper.treeToValue(value, type);
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            throw new InvalidPatchException("Property " + property + " is not a valid " + type.getSimpleName());
+        }
+    }
+
+    private static Object jdbcValue(Object value) {
+        if (value instanceof Instant i) return Timestamp.from(i);
+        if (value instanceof Enum<?> e) return e.name();
+        return value;
+    }
+
+    private static <T> T read(WritableTable<T> table, ResultSet rs) throws SQLException {
+        T entity = table.newInstance();
+        ResultSetMetaData meta = rs.getMetaData();
+        for (int i = 1; i <= meta.getColumnCount(); i++) {
+            String label = meta.getColumnLabel(i).toLowerCase();
+            Field f = PREVIOUS.equals(label) ? table.previousField() : table.fieldForColumn(label);
+            if (f == null) continue;
+            Object value = readValue(rs, i, f.getType());
+            if (value == null && f.getType().isPrimitive()) continue;
+            try {
+                f.set(entity, value);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return entity;
+    }
+
+    private static Object readValue(ResultSet rs, int i, Class<?> type) throws SQLException {
+        if (type == Instant.class) {
+            Timestamp ts = rs.getTimestamp(i);
+            return ts != null ? ts.toInstant() : null;
+        }
+        if (type == LocalDate.class) {
+            java.sql.Date d = rs.getDate(i);
+            return d != null ? d.toLocalDate() : null;
+        }
+        if (type == long.class || type == Long.class) {
+            long v = rs.getLong(i);
+            return rs.wasNull() ? null : v;
+        }
+        if (type == int.class || type == Integer.class) {
+            int v = rs.getInt(i);
+            return rs.wasNull() ? null : v;
+        }
+        if (type == boolean.class || type == Boolean.class) {
+            boolean v = rs.getBoolean(i);
+            return rs.wasNull() ? null : v;
+        }
+        if (type == UUID.class) return rs.getObject(i, UUID.class);
+        if (type == String.class) return rs.getString(i);
+        if (type.isArray()) {
+            Array a = rs.getArray(i);
+            return a != null ? a.getArray() : null;
+        }
+        if (type.isEnum()) {
+            String name = rs.getString(i);
+            return name == null ? null : enumValue(type, name);
+        }
+        return rs.getObject(i, type);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object enumValue(Class<?> type, String name) {
+        return Enum.valueOf((Class<? extends Enum>) type, name);
+    }
+}
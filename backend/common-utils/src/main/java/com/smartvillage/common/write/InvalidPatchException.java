@@ -0,0 +1,11 @@
+package com.smartvillage.common.write;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidPatchException extends IllegalArgumentException {
+    public InvalidPatchException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,20 @@
+package com.smartvillage.common.write;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/** The row changed since the client read it; it should reload and reapply its edit. */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class VersionConflictException extends RuntimeException {
+
+    private final long currentVersion;
+
+    public VersionConflictException(long expected, long current) {
+        super("Version conflict: expected " + expected + " but the current version is " + current);
+        this.currentVersion = current;
+    }
+
+    public long getCurrentVersion() {
+        return currentVersion;
+    }
+}
@@ -0,0 +1,139 @@
+package com.smartvillage.common.write;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The editable part of an entity as seen by {@link EntityWriter}: which JSON properties a client may
+ * write, the field and column behind each, and the timestamp column to touch on every write.
+ * Anything not declared here (id, createdAt, tenant columns) cannot be changed through the writer.
+ */
+public final class WritableTable<T> {
+
+    record Writable(String property, String column, Field field, boolean nullable) {
+        Class<?> type() { return field.getType(); }
+    }
+
+    private final Class<T> type;
+    private final String table;
+    private final Map<String, Writable> columns = new LinkedHashMap<>();
+    // every persistent field by column name, for reading RETURNING rows back into an entity
+    private final Map<String, Field> fieldsByColumn = new HashMap<>();
+    private String touchColumn;
+    private String previousColumn;
+    private Field previousField;
+
+    private WritableTable(Class<T> type) {
+        this.type = type;
+        Table t = type.getAnnotation(Table.class);
+        this.table = t != null && !t.name().isEmpty() ? t.name() : snakeCase(type.getSimpleName());
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Field f : c.getDeclaredFields()) {
+                if (Modifier.isStatic(f.getModifiers()) || Modifier.isTransient(f.getModifiers())
+                        || f.isAnnotationPresent(Transient.class)) continue;
+                f.setAccessible(true);
+                fieldsByColumn.putIfAbsent(columnOf(f), f);
+            }
+        }
+        if (!fieldsByColumn.containsKey(EntityWriter.VERSION)) {
+            throw new IllegalArgumentException(type.getSimpleName() + " has no @Version field named version");
+        }
+    }
+
+    public static <T> WritableTable<T> of(Class<T> type) {
+        return new WritableTable<>(type);
+    }
+
+    /** A writable field whose JSON property has the same name. */
+    public WritableTable<T> column(String field) {
+        return column(field, field);
+    }
+
+    /** A writable field exposed under a different JSON property (e.g. {@code active} for {@code isActive}). */
+    public WritableTable<T> column(String property, String field) {
+        Field f = field(field);
+        f.setAccessible(true);
+        Column c = f.getAnnotation(Column.class);
+        boolean nullable = !f.getType().isPrimitive() && (c == null || c.nullable());
+        columns.put(property, new Writable(property, columnOf(f), f, nullable));
+        return this;
+    }
+
+    /** Field set to the current time on every write, typically {@code updatedAt}. */
+    public WritableTable<T> touch(String field) {
+        this.touchColumn = columnOf(field(field));
+        return this;
+    }
+
+    /**
+     * Every update also reads what {@code field} held before it into the {@code @Transient} field
+     * {@code into}. The old value comes from the row the update itself locks, so it is exact under
+     * concurrent writes without a read first.
+     */
+    public WritableTable<T> previous(String field, String into) {
+        Field target = field(into);
+        if (!target.isAnnotationPresent(Transient.class)) {
+            throw new IllegalArgumentException(type.getSimpleName() + "." + into + " must be @Transient");
+        }
+        target.setAccessible(true);
+        this.previousColumn = columnOf(field(field));
+        this.previousField = target;
+        return this;
+    }
+
+    Class<T> type() { return type; }
+    String table() { return table; }
+    Map<String, Writable> columns() { return columns; }
+    String touchColumn() { return touchColumn; }
+    String previousColumn() { return previousColumn; }
+    Field previousField() { return previousField; }
+    Field fieldForColumn(String column) { return fieldsByColumn.get(column); }
+
+    T newInstance() {
+        try {
+            var ctor = type.getDeclaredConstructor();
+            ctor.setAccessible(true);
+            return ctor.newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(type.getSimpleName() + " needs a no-arg constructor", e);
+        }
+    }
+
+    private static String columnOf(Field f) {
+        Column c = f.getAnnotation(Column.class);
+        return c != null && !c.name().isEmpty() ? c.name() : snakeCase(f.getName());
+    }
+
+    private Field field(String name) {
+        for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+            try {
+                return c.getDeclaredField(name);
+            } catch (NoSuchFieldException ignored) {
+                // keep looking in the superclass
+            }
+        }
+        throw new IllegalArgumentException(type.getSimpleName() + " has no field " + name);
+    }
+
+    /** Spring Boot's default physical naming: camelCase fields become snake_case columns. */
+    static String snakeCase(String name) {
+        StringBuilder out = new StringBuilder(name.length() + 4);
+        for (int i = 0; i < name.length(); i++) {
+            char ch = name.charAt(i);
+            if (Character.isUpperCase(ch)) {
+                if (i > 0) out.append('_');
+                out.append(Character.toLowerCase(ch));
+            } else {
+                out.append(ch);
+            }
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,24 @@
+package com.smartvillage.common.write;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/** {@link EntityWriter} for single-statement updates and deletes. */
+@AutoConfiguration(after = { JdbcTemplateAutoConfiguration.class, JacksonAutoConfiguration.class })
+@ConditionalOnClass(JdbcTemplate.class)
+public class WriteAutoConfiguration {
+
+    @Bean
+    @ConditionalOnBean({ JdbcTemplate.class, ObjectMapper.class })
+    @ConditionalOnMissingBean
+    public EntityWriter entityWriter(JdbcTemplate jdbc, ObjectMapper mapper) {
+        return new EntityWriter(jdbc, mapper);
+    }
+}
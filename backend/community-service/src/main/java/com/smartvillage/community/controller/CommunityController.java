@@ -0,0 +1,126 @@
+package com.smartvillage.community.controller;
+
+import com.smartvillage.common.execution.ConcurrencyLimit;
+import com.smartvillage.common.paging.CursorPage;
+import com.smartvillage.community.counter.CounterBacklogException;
+import com.smartvillage.community.counter.PostCounters;
+import com.smartvillage.community.post.Comment;
+import com.smartvillage.community.post.NewPost;
+import com.smartvillage.community.post.Post;
+import com.smartvillage.community.post.PostStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Community forum. The caller is identified by the {@code X-User-Id} / {@code X-User-Role} headers
+ * the gateway sets from a verified token ({@code GatewayIdentityFilter} hides them on requests from
+ * any other peer); reads work without them.
+ */
+@RestController
+@RequestMapping("/api/v1/community")
+public class CommunityController {
+
+    private static final String USER = "X-User-Id";
+    private static final String ROLE = "X-User-Role";
+
+    private final PostStore posts;
+    private final PostCounters counters;
+    private final int defaultLimit;
+    private final int maxLimit;
+
+    public CommunityController(PostStore posts, PostCounters counters,
+                               @Value("${community.feed.default-limit:20}") int defaultLimit,
+                               @Value("${community.feed.max-limit:100}") int maxLimit) {
+        this.posts = posts;
+        this.counters = counters;
+        this.defaultLimit = defaultLimit;
+        this.maxLimit = maxLimit;
+    }
+
+    @GetMapping("/posts")
+    public CursorPage<Post> feed(@RequestParam(required = false) UUID villageId,
+                                 @RequestParam(required = false) String cursor,
+                                 @RequestParam(required = false) Integer limit,
+                                 @RequestHeader(value = USER, required = false) UUID userId) {
+        int size = limit == null || limit <= 0 ? defaultLimit : Math.min(limit, maxLimit);
+        return posts.feed(villageId, cursor, size, userId);
+    }
+
+    @GetMapping("/posts/{id}")
+    public Post get(@PathVariable UUID id, @RequestHeader(value = USER, required = false) UUID userId) {
+        return posts.get(id, userId);
+    }
+
+    @PostMapping("/posts")
+    public ResponseEntity<Post> create(@RequestBody NewPost post,
+                                       @RequestHeader(value = USER, required = false) UUID userId) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(posts.create(signedIn(userId), post));
+    }
+
+    @DeleteMapping("/posts/{id}")
+    public ResponseEntity<Void> delete(@PathVariable UUID id,
+                                       @RequestHeader(value = USER, required = false) UUID userId,
+                                       @RequestHeader(value = ROLE, required = false) String role) {
+        posts.delete(id, signedIn(userId), "admin".equals(role));
+        return ResponseEntity.noContent().build();
+    }
+
+    /** Idempotent: liking twice leaves one like. Served from memory once the post's likers are loaded. */
+    @ConcurrencyLimit(2000)
+    @PutMapping("/posts/{id}/like")
+    public PostCounters.LikeState like(@PathVariable UUID id,
+                                       @RequestHeader(value = USER, required = false) UUID userId) {
+        return counters.like(id, signedIn(userId));
+    }
+
+    @ConcurrencyLimit(2000)
+    @DeleteMapping("/posts/{id}/like")
+    public PostCounters.LikeState unlike(@PathVariable UUID id,
+                                         @RequestHeader(value = USER, required = false) UUID userId) {
+        return counters.unlike(id, signedIn(userId));
+    }
+
+    @GetMapping("/posts/{id}/comments")
+    public List<Comment> comments(@PathVariable UUID id) {
+        return posts.comments(id);
+    }
+
+    @PostMapping("/posts/{id}/comments")
+    public ResponseEntity<Comment> comment(@PathVariable UUID id, @RequestBody Map<String, String> body,
+                                           @RequestHeader(value = USER, required = false) UUID userId) {
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(posts.addComment(id, signedIn(userId), body.get("content")));
+    }
+
+    @DeleteMapping("/comments/{id}")
+    public ResponseEntity<Void> deleteComment(@PathVariable UUID id,
+                                              @RequestHeader(value = USER, required = false) UUID userId,
+                                              @RequestHeader(value = ROLE, required = false) String role) {
+        posts.deleteComment(id, signedIn(userId), "admin".equals(role));
+        return ResponseEntity.noContent().build();
+    }
+
+    @ExceptionHandler(CounterBacklogException.class)
+    public ResponseEntity<?> backlog(CounterBacklogException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(e.getMessage());
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<?> invalid(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+
+    private static UUID signedIn(UUID userId) {
+        if (userId == null) throw new SignInRequiredException();
+        return userId;
+    }
+}
@@ -0,0 +1,13 @@
+package com.smartvillage.community.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/** Writes need the caller's identity, which the gateway forwards as {@code X-User-Id}. */
+@ResponseStatus(HttpStatus.UNAUTHORIZED)
+public class SignInRequiredException extends RuntimeException {
+
+    public SignInRequiredException() {
+        super("Sign in to post, comment or like");
+    }
+}
@@ -0,0 +1,9 @@
+package com.smartvillage.community.counter;
+
+/** Raised when too many like changes are waiting for a flush; the API answers 503 with Retry-After. */
+public class CounterBacklogException extends RuntimeException {
+
+    public CounterBacklogException(String message) {
+        super(message);
+    }
+}
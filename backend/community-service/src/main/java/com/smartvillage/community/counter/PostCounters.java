@@ -0,0 +1,374 @@
+package com.smartvillage.community.counter;
+
+import com.smartvillage.community.post.PostNotFoundException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Like and comment counts per post, kept in memory and written back in batches. A post's cell is
+ * loaded on first use: its likers from {@code post_likes} (one indexed read) into striped compact
+ * sets, and its comment count from {@code posts}. After that a like or unlike is a set update under
+ * one stripe's lock plus a {@link LongAdder} increment, so a viral post takes no row locks at all.
+ * <p>
+ * Every {@code community.counters.flush-interval} the pending like/unlike states are written as one
+ * multi-row INSERT and one multi-row DELETE on {@code post_likes}, and the net change per post is
+ * added to {@code posts.like_count} / {@code comment_count} in one JDBC batch, all in one transaction.
+ * The like delta is taken from the rows those statements actually changed, so a like made here moves
+ * the column only if it changed {@code post_likes}, even when another writer got there first. Likes
+ * written around this service are folded into the column when the post's cell is next loaded.
+ * <p>
+ * A cell with no like, unlike or comment for {@code community.counters.idle-timeout} whose changes
+ * are all written is dropped, and loaded again on its next write.
+ * <p>
+ * The sets are this instance's own: run one instance, or route a post's writes to one instance.
+ */
+@Component
+public class PostCounters {
+
+    private static final Logger log = LoggerFactory.getLogger(PostCounters.class);
+
+    private static final int STRIPES = 8;
+
+    private static final String INSERT_LIKES = "INSERT INTO post_likes (post_id, user_id)"
+            + " SELECT u.post_id, u.user_id FROM unnest(?::uuid[], ?::uuid[]) AS u(post_id, user_id)"
+            + " WHERE EXISTS (SELECT 1 FROM posts p WHERE p.id = u.post_id)"
+            + " ON CONFLICT (post_id, user_id) DO NOTHING RETURNING post_id";
+    private static final String DELETE_LIKES = "DELETE FROM post_likes l"
+            + " USING unnest(?::uuid[], ?::uuid[]) AS u(post_id, user_id)"
+            + " WHERE l.post_id = u.post_id AND l.user_id = u.user_id RETURNING l.post_id";
+    private static final String ADD_COUNTS = "UPDATE posts SET like_count = like_count + ?,"
+            + " comment_count = comment_count + ? WHERE id = ?";
+
+    public record LikeState(boolean liked, long likeCount) {}
+
+    public record Counts(long likes, long comments) {}
+
+    private record LikeKey(UUID postId, UUID userId) {}
+
+    private static final class Cell {
+        // ReentrantLock rather than synchronized so virtual threads waiting on a hot post are not pinned
+        final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+        final UuidHashSet[] likers = new UuidHashSet[STRIPES];
+        final LongAdder likes = new LongAdder();
+        final LongAdder comments = new LongAdder();
+        // not yet added to posts.comment_count / like_count
+        final LongAdder unflushedComments = new LongAdder();
+        final LongAdder likeCorrection = new LongAdder();
+        // System.nanoTime() of the last like, unlike or comment
+        volatile long lastUsed = System.nanoTime();
+        // set under every stripe lock as the cell leaves the map; a writer that finds it set retries on a fresh cell
+        boolean evicted;
+
+        Cell() {
+            for (int i = 0; i < STRIPES; i++) locks[i] = new ReentrantLock();
+        }
+    }
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+    private final Duration flushInterval;
+    private final Duration idleTimeout;
+    private final int maxPending;
+    private final Map<UUID, Cell> cells = new ConcurrentHashMap<>();
+    // latest like state per (post, user) not yet written; flushing removes an entry only if it is unchanged
+    private final Map<LikeKey, Boolean> pending = new ConcurrentHashMap<>();
+    private final Set<UUID> dirty = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "post-counter-flush");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public PostCounters(JdbcTemplate jdbc, PlatformTransactionManager txManager,
+                        @Value("${community.counters.flush-interval:PT1S}") Duration flushInterval,
+                        @Value("${community.counters.idle-timeout:PT10M}") Duration idleTimeout,
+                        @Value("${community.counters.max-pending:100000}") int maxPending) {
+        this.jdbc = jdbc;
+        this.tx = new TransactionTemplate(txManager);
+        this.flushInterval = flushInterval;
+        this.idleTimeout = idleTimeout;
+        this.maxPending = maxPending;
+    }
+
+    @PostConstruct
+    void start() {
+        long period = flushInterval.toMillis();
+        flusher.scheduleWithFixedDelay(this::flushQuietly, period, period, TimeUnit.MILLISECONDS);
+        // on the flusher thread too, so an eviction never sees a flush half done
+        long evictPeriod = Math.max(idleTimeout.toMillis() / 4, period);
+        flusher.scheduleWithFixedDelay(this::evictIdle, evictPeriod, evictPeriod, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        flusher.shutdown();
+        flusher.awaitTermination(10, TimeUnit.SECONDS);
+        flushQuietly();
+    }
+
+    public LikeState like(UUID postId, UUID userId) {
+        return setLiked(postId, userId, true);
+    }
+
+    public LikeState unlike(UUID postId, UUID userId) {
+        return setLiked(postId, userId, false);
+    }
+
+    /** Called after a comment row is committed. */
+    public void commentAdded(UUID postId) {
+        addComments(postId, 1);
+    }
+
+    public void commentRemoved(UUID postId) {
+        addComments(postId, -1);
+    }
+
+    /** Live counts for a post whose stored columns are {@code storedLikes} / {@code storedComments}. */
+    public Counts counts(UUID postId, long storedLikes, long storedComments) {
+        Cell cell = cells.get(postId);
+        return cell == null ? new Counts(storedLikes, storedComments) : new Counts(cell.likes.sum(), cell.comments.sum());
+    }
+
+    /** Which of {@code postIds} {@code userId} has liked; posts never touched here are looked up in one query. */
+    public Set<UUID> likedBy(UUID userId, Collection<UUID> postIds) {
+        Set<UUID> liked = new HashSet<>();
+        List<UUID> unloaded = new ArrayList<>();
+        for (UUID postId : postIds) {
+            Cell cell = cells.get(postId);
+            if (cell == null) unloaded.add(postId);
+            else if (contains(cell, userId)) liked.add(postId);
+        }
+        if (!unloaded.isEmpty()) {
+            jdbc.query(con -> {
+                PreparedStatement ps = con.prepareStatement(
+                        "SELECT post_id FROM post_likes WHERE user_id = ? AND post_id = ANY(?)");
+                ps.setObject(1, userId);
+                ps.setArray(2, con.createArrayOf("uuid", unloaded.toArray()));
+                return ps;
+            }, rs -> {
+                liked.add(rs.getObject(1, UUID.class));
+            });
+        }
+        return liked;
+    }
+
+    /** Drops a deleted post; its rows went with it, so nothing of it is flushed. */
+    public void forget(UUID postId) {
+        cells.remove(postId);
+        dirty.remove(postId);
+        pending.keySet().removeIf(k -> k.postId().equals(postId));
+    }
+
+    public int pendingLikes() {
+        return pending.size();
+    }
+
+    private LikeState setLiked(UUID postId, UUID userId, boolean liked) {
+        if (pending.size() >= maxPending) {
+            throw new CounterBacklogException("Too many likes waiting to be written, try again shortly");
+        }
+        int stripe = stripe(userId);
+        while (true) {
+            Cell cell = cell(postId);
+            ReentrantLock lock = cell.locks[stripe];
+            lock.lock();
+            try {
+                if (cell.evicted) continue;
+                UuidHashSet set = cell.likers[stripe];
+                if (set == null) set = cell.likers[stripe] = new UuidHashSet(4);
+                boolean changed = liked ? set.add(userId) : set.remove(userId);
+                if (changed) {
+                    cell.likes.add(liked ? 1 : -1);
+                    pending.put(new LikeKey(postId, userId), liked);
+                }
+                return new LikeState(liked, cell.likes.sum());
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void addComments(UUID postId, int delta) {
+        while (true) {
+            Cell cell = cell(postId);
+            // any stripe lock keeps the cell from being evicted under us
+            cell.locks[0].lock();
+            try {
+                if (cell.evicted) continue;
+                cell.comments.add(delta);
+                cell.unflushedComments.add(delta);
+                dirty.add(postId);
+                return;
+            } finally {
+                cell.locks[0].unlock();
+            }
+        }
+    }
+
+    private boolean contains(Cell cell, UUID userId) {
+        int stripe = stripe(userId);
+        cell.locks[stripe].lock();
+        try {
+            UuidHashSet set = cell.likers[stripe];
+            return set != null && set.contains(userId);
+        } finally {
+            cell.locks[stripe].unlock();
+        }
+    }
+
+    private Cell cell(UUID postId) {
+        Cell cell = cells.get(postId);
+        if (cell == null) {
+            // loaded outside the map so no bin lock is held across JDBC; a losing racer's copy is dropped unused
+            Cell loaded = load(postId);
+            cell = cells.putIfAbsent(postId, loaded);
+            if (cell == null) cell = loaded;
+        }
+        cell.lastUsed = System.nanoTime();
+        return cell;
+    }
+
+    private Cell load(UUID postId) {
+        List<long[]> stored = jdbc.query("SELECT like_count, comment_count FROM posts WHERE id = ?",
+                (rs, n) -> new long[] { rs.getLong(1), rs.getLong(2) }, postId);
+        if (stored.isEmpty()) throw new PostNotFoundException(postId);
+        Cell cell = new Cell();
+        jdbc.query("SELECT user_id FROM post_likes WHERE post_id = ?", rs -> {
+            UUID userId = rs.getObject(1, UUID.class);
+            int stripe = stripe(userId);
+            if (cell.likers[stripe] == null) cell.likers[stripe] = new UuidHashSet(16);
+            if (cell.likers[stripe].add(userId)) cell.likes.increment();
+        }, postId);
+        cell.comments.add(stored.get(0)[1]);
+        long drift = cell.likes.sum() - stored.get(0)[0];
+        if (drift != 0) {
+            // likes written around this service (the web app inserts them directly) are counted on next flush
+            cell.likeCorrection.add(drift);
+            dirty.add(postId);
+        }
+        return cell;
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Post counter flush failed; retrying next interval", e);
+        }
+    }
+
+    void flush() {
+        List<Map.Entry<LikeKey, Boolean>> ops = new ArrayList<>(pending.size());
+        pending.forEach((k, v) -> ops.add(Map.entry(k, v)));
+        Map<UUID, long[]> deltas = new HashMap<>();
+        for (UUID postId : dirty) {
+            dirty.remove(postId);
+            Cell cell = cells.get(postId);
+            if (cell == null) continue;
+            deltas.put(postId, new long[] { cell.likeCorrection.sum(), cell.unflushedComments.sum() });
+        }
+        if (ops.isEmpty() && deltas.isEmpty()) return;
+
+        List<UUID> likePosts = new ArrayList<>(), likeUsers = new ArrayList<>();
+        List<UUID> unlikePosts = new ArrayList<>(), unlikeUsers = new ArrayList<>();
+        for (Map.Entry<LikeKey, Boolean> op : ops) {
+            (op.getValue() ? likePosts : unlikePosts).add(op.getKey().postId());
+            (op.getValue() ? likeUsers : unlikeUsers).add(op.getKey().userId());
+        }
+        try {
+            tx.executeWithoutResult(status -> {
+                Map<UUID, long[]> totals = new HashMap<>();
+                deltas.forEach((id, d) -> totals.put(id, d.clone()));
+                for (UUID postId : changedRows(INSERT_LIKES, likePosts, likeUsers)) {
+                    totals.computeIfAbsent(postId, id -> new long[2])[0]++;
+                }
+                for (UUID postId : changedRows(DELETE_LIKES, unlikePosts, unlikeUsers)) {
+                    totals.computeIfAbsent(postId, id -> new long[2])[0]--;
+                }
+                // fixed row order, so concurrent flushes from other instances cannot deadlock
+                List<Map.Entry<UUID, long[]>> rows = totals.entrySet().stream()
+                        .filter(e -> e.getValue()[0] != 0 || e.getValue()[1] != 0)
+                        .sorted(Map.Entry.comparingByKey())
+                        .toList();
+                jdbc.batchUpdate(ADD_COUNTS, rows, rows.size(), (ps, e) -> {
+                    ps.setLong(1, e.getValue()[0]);
+                    ps.setLong(2, e.getValue()[1]);
+                    ps.setObject(3, e.getKey());
+                });
+            });
+        } catch (RuntimeException e) {
+            dirty.addAll(deltas.keySet());
+            throw e;
+        }
+        ops.forEach(op -> pending.remove(op.getKey(), op.getValue()));
+        deltas.forEach((postId, d) -> {
+            Cell cell = cells.get(postId);
+            if (cell == null) return;
+            cell.likeCorrection.add(-d[0]);
+            cell.unflushedComments.add(-d[1]);
+        });
+        if (log.isDebugEnabled()) log.debug("Flushed {} like changes and {} count deltas", ops.size(), deltas.size());
+    }
+
+    /** Drops idle cells that have nothing left to write; runs on the flusher thread, between flushes. */
+    void evictIdle() {
+        long cutoff = System.nanoTime() - idleTimeout.toNanos();
+        Set<UUID> pendingPosts = new HashSet<>();
+        pending.keySet().forEach(k -> pendingPosts.add(k.postId()));
+        int evicted = 0;
+        for (Map.Entry<UUID, Cell> e : cells.entrySet()) {
+            Cell cell = e.getValue();
+            if (cell.lastUsed - cutoff > 0 || pendingPosts.contains(e.getKey())) continue;
+            for (ReentrantLock lock : cell.locks) lock.lock();
+            try {
+                // a write since the checks above has moved lastUsed, and holds a stripe lock while it records
+                if (cell.lastUsed - cutoff > 0 || dirty.contains(e.getKey())
+                        || cell.unflushedComments.sum() != 0 || cell.likeCorrection.sum() != 0) continue;
+                cell.evicted = true;
+                cells.remove(e.getKey(), cell);
+                evicted++;
+            } finally {
+                for (ReentrantLock lock : cell.locks) lock.unlock();
+            }
+        }
+        if (evicted > 0 && log.isDebugEnabled()) log.debug("Evicted {} idle post counter cells", evicted);
+    }
+
+    private List<UUID> changedRows(String sql, List<UUID> posts, List<UUID> users) {
+        if (posts.isEmpty()) return List.of();
+        return jdbc.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            ps.setArray(1, con.createArrayOf("uuid", posts.toArray()));
+            ps.setArray(2, con.createArrayOf("uuid", users.toArray()));
+            return ps;
+        }, (rs, n) -> rs.getObject(1, UUID.class));
+    }
+
+    private static int stripe(UUID userId) {
+        return (int) (userId.getLeastSignificantBits() ^ userId.getMostSignificantBits() >>> 32) & (STRIPES - 1);
+    }
+}
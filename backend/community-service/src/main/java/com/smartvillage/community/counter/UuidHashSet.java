@@ -0,0 +1,101 @@
+package com.smartvillage.community.counter;
+
+import java.util.UUID;
+
+/**
+ * Open-addressing set of UUIDs stored as pairs of longs in one array: 16 bytes per slot instead of
+ * the ~80 a {@code HashSet<UUID>} entry costs. Linear probing with backward-shift deletion, so no
+ * tombstones build up under like/unlike churn. The nil UUID marks an empty slot and cannot be
+ * stored. Not thread-safe.
+ */
+final class UuidHashSet {
+
+    private long[] slots;
+    private int size;
+
+    UuidHashSet(int expected) {
+        int capacity = 8;
+        while (capacity * 3 < expected * 4) capacity <<= 1;
+        slots = new long[capacity * 2];
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean contains(UUID id) {
+        return find(id.getMostSignificantBits(), id.getLeastSignificantBits()) >= 0;
+    }
+
+    /** @return false if {@code id} was already present */
+    boolean add(UUID id) {
+        long hi = id.getMostSignificantBits(), lo = id.getLeastSignificantBits();
+        if (hi == 0 && lo == 0) throw new IllegalArgumentException("nil UUID");
+        if ((size + 1) * 4 > capacity() * 3) resize(capacity() * 2);
+        int mask = capacity() - 1;
+        for (int i = index(hi, lo, mask); ; i = (i + 1) & mask) {
+            long h = slots[2 * i], l = slots[2 * i + 1];
+            if (h == 0 && l == 0) {
+                slots[2 * i] = hi;
+                slots[2 * i + 1] = lo;
+                size++;
+                return true;
+            }
+            if (h == hi && l == lo) return false;
+        }
+    }
+
+    /** @return false if {@code id} was not present */
+    boolean remove(UUID id) {
+        int i = find(id.getMostSignificantBits(), id.getLeastSignificantBits());
+        if (i < 0) return false;
+        int mask = capacity() - 1;
+        // shift later members of the probe run back so lookups never stop at the hole
+        for (int j = (i + 1) & mask; ; j = (j + 1) & mask) {
+            long h = slots[2 * j], l = slots[2 * j + 1];
+            if (h == 0 && l == 0) break;
+            int home = index(h, l, mask);
+            if (((j - home) & mask) >= ((j - i) & mask)) {
+                slots[2 * i] = h;
+                slots[2 * i + 1] = l;
+                i = j;
+            }
+        }
+        slots[2 * i] = 0;
+        slots[2 * i + 1] = 0;
+        size--;
+        return true;
+    }
+
+    private int find(long hi, long lo) {
+        int mask = capacity() - 1;
+        for (int i = index(hi, lo, mask); ; i = (i + 1) & mask) {
+            long h = slots[2 * i], l = slots[2 * i + 1];
+            if (h == 0 && l == 0) return -1;
+            if (h == hi && l == lo) return i;
+        }
+    }
+
+    private int capacity() {
+        return slots.length >> 1;
+    }
+
+    private void resize(int capacity) {
+        long[] old = slots;
+        slots = new long[capacity * 2];
+        int mask = capacity - 1;
+        for (int k = 0; k < old.length; k += 2) {
+            long hi = old[k], lo = old[k + 1];
+            if (hi == 0 && lo == 0) continue;
+            int i = index(hi, lo, mask);
+            while (slots[2 * i] != 0 || slots[2 * i + 1] != 0) i = (i + 1) & mask;
+            slots[2 * i] = hi;
+            slots[2 * i + 1] = lo;
+        }
+    }
+
+    private static int index(long hi, long lo, int mask) {
+        long h = (hi ^ lo) * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 32) & mask;
+    }
+}
@@ -0,0 +1,6 @@
+package com.smartvillage.community.post;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record Comment(UUID id, UUID postId, UUID userId, String content, Instant createdAt) {}
@@ -0,0 +1,14 @@
+package com.smartvillage.community.post;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.UUID;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class CommentNotFoundException extends RuntimeException {
+
+    public CommentNotFoundException(UUID id) {
+        super("Comment not found: " + id);
+    }
+}
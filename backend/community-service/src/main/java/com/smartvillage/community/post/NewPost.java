@@ -0,0 +1,5 @@
+package com.smartvillage.community.post;
+
+import java.util.UUID;
+
+public record NewPost(UUID villageId, String title, String content, String imageUrl) {}
@@ -0,0 +1,13 @@
+package com.smartvillage.community.post;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/** Only the author, or an admin, may delete a post or comment. */
+@ResponseStatus(HttpStatus.FORBIDDEN)
+public class NotOwnerException extends RuntimeException {
+
+    public NotOwnerException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,15 @@
+package com.smartvillage.community.post;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A forum post with its counts. {@code likedByMe} is null when the request carries no user.
+ */
+public record Post(UUID id, UUID villageId, UUID userId, String title, String content, String imageUrl,
+                   Instant createdAt, long likeCount, long commentCount, Boolean likedByMe) {
+
+    Post withCounts(long likes, long comments, Boolean liked) {
+        return new Post(id, villageId, userId, title, content, imageUrl, createdAt, likes, comments, liked);
+    }
+}
@@ -0,0 +1,14 @@
+package com.smartvillage.community.post;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.UUID;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class PostNotFoundException extends RuntimeException {
+
+    public PostNotFoundException(UUID id) {
+        super("Post not found: " + id);
+    }
+}
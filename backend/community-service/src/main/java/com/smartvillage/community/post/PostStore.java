@@ -0,0 +1,129 @@
+package com.smartvillage.community.post;
+
+import com.smartvillage.common.paging.CursorPage;
+import com.smartvillage.common.paging.PageCursor;
+import com.smartvillage.community.counter.PostCounters;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Posts and comments. Reads take counts from the denormalized columns and overlay whatever
+ * {@link PostCounters} holds that has not been flushed yet, so no read ever counts rows.
+ */
+@Component
+public class PostStore {
+
+    private static final String POST_COLUMNS =
+            "id, village_id, user_id, title, content, image_url, created_at, like_count, comment_count";
+
+    private static final RowMapper<Post> POST = (rs, n) -> new Post(
+            rs.getObject("id", UUID.class), rs.getObject("village_id", UUID.class),
+            rs.getObject("user_id", UUID.class), rs.getString("title"), rs.getString("content"),
+            rs.getString("image_url"), rs.getTimestamp("created_at").toInstant(),
+            rs.getLong("like_count"), rs.getLong("comment_count"), null);
+
+    private static final RowMapper<Comment> COMMENT = (rs, n) -> new Comment(
+            rs.getObject("id", UUID.class), rs.getObject("post_id", UUID.class),
+            rs.getObject("user_id", UUID.class), rs.getString("content"), rs.getTimestamp("created_at").toInstant());
+
+    private final JdbcTemplate jdbc;
+    private final PostCounters counters;
+
+    public PostStore(JdbcTemplate jdbc, PostCounters counters) {
+        this.jdbc = jdbc;
+        this.counters = counters;
+    }
+
+    public Post create(UUID userId, NewPost post) {
+        if (post.title() == null || post.title().isBlank()) throw new IllegalArgumentException("title is required");
+        if (post.content() == null || post.content().isBlank()) throw new IllegalArgumentException("content is required");
+        return jdbc.queryForObject("INSERT INTO posts (village_id, user_id, title, content, image_url)"
+                        + " VALUES (?, ?, ?, ?, ?) RETURNING " + POST_COLUMNS,
+                POST, post.villageId(), userId, post.title().trim(), post.content(), post.imageUrl());
+    }
+
+    public Post get(UUID id, UUID viewer) {
+        List<Post> found = jdbc.query("SELECT " + POST_COLUMNS + " FROM posts WHERE id = ?", POST, id);
+        if (found.isEmpty()) throw new PostNotFoundException(id);
+        return withCounts(found, viewer).get(0);
+    }
+
+    /** Newest first, optionally for one village; {@code viewer} fills in {@code likedByMe}. */
+    public CursorPage<Post> feed(UUID villageId, String cursor, int limit, UUID viewer) {
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT ").append(POST_COLUMNS).append(" FROM posts WHERE true");
+        if (villageId != null) {
+            sql.append(" AND village_id = ?");
+            args.add(villageId);
+        }
+        if (cursor != null && !cursor.isBlank()) {
+            PageCursor after = PageCursor.decode(cursor);
+            sql.append(" AND (created_at, id) < (?, ?)");
+            args.add(Timestamp.from(after.createdAt()));
+            args.add(after.id());
+        }
+        sql.append(" ORDER BY created_at DESC, id DESC LIMIT ?");
+        args.add(limit + 1);
+        List<Post> rows = jdbc.query(sql.toString(), POST, args.toArray());
+        boolean more = rows.size() > limit;
+        if (more) rows = rows.subList(0, limit);
+        List<Post> items = withCounts(rows, viewer);
+        String next = more ? new PageCursor(rows.get(limit - 1).createdAt(), rows.get(limit - 1).id()).encode() : null;
+        return new CursorPage<>(items, next, items.size());
+    }
+
+    public void delete(UUID id, UUID userId, boolean admin) {
+        List<UUID> owner = jdbc.queryForList("SELECT user_id FROM posts WHERE id = ?", UUID.class, id);
+        if (owner.isEmpty()) throw new PostNotFoundException(id);
+        if (!admin && !owner.get(0).equals(userId)) throw new NotOwnerException("Only the author can delete this post");
+        jdbc.update("DELETE FROM posts WHERE id = ?", id);
+        counters.forget(id);
+    }
+
+    public List<Comment> comments(UUID postId) {
+        return jdbc.query("SELECT id, post_id, user_id, content, created_at FROM comments"
+                + " WHERE post_id = ? ORDER BY created_at", COMMENT, postId);
+    }
+
+    public Comment addComment(UUID postId, UUID userId, String content) {
+        if (content == null || content.isBlank()) throw new IllegalArgumentException("content is required");
+        List<Comment> added = jdbc.query("INSERT INTO comments (post_id, user_id, content)"
+                + " SELECT id, ?, ? FROM posts WHERE id = ?"
+                + " RETURNING id, post_id, user_id, content, created_at", COMMENT, userId, content, postId);
+        if (added.isEmpty()) throw new PostNotFoundException(postId);
+        counters.commentAdded(postId);
+        return added.get(0);
+    }
+
+    public void deleteComment(UUID id, UUID userId, boolean admin) {
+        List<Comment> found = jdbc.query("SELECT id, post_id, user_id, content, created_at FROM comments WHERE id = ?",
+                COMMENT, id);
+        if (found.isEmpty()) throw new CommentNotFoundException(id);
+        Comment c = found.get(0);
+        if (!admin && !c.userId().equals(userId)) throw new NotOwnerException("Only the author can delete this comment");
+        // the count only moves if this request is the one that removed the row
+        if (jdbc.update("DELETE FROM comments WHERE id = ?", id) != 1) return;
+        try {
+            counters.commentRemoved(c.postId());
+        } catch (PostNotFoundException e) {
+            // the post went too, and its counts with it
+        }
+    }
+
+    private List<Post> withCounts(List<Post> rows, UUID viewer) {
+        Set<UUID> liked = viewer == null ? Set.of() : counters.likedBy(viewer, rows.stream().map(Post::id).toList());
+        List<Post> out = new ArrayList<>(rows.size());
+        for (Post p : rows) {
+            PostCounters.Counts c = counters.counts(p.id(), p.likeCount(), p.commentCount());
+            out.add(p.withCounts(c.likes(), c.comments(), viewer == null ? null : liked.contains(p.id())));
+        }
+        return out;
+    }
+}
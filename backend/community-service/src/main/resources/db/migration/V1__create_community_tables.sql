@@ -0,0 +1,43 @@
+-- Flyway migration: community forum posts, comments and likes
+-- like_count / comment_count are denormalized and kept up to date by the service's counter flushes,
+-- so feeds never count post_likes or comments.
+CREATE TABLE IF NOT EXISTS posts (
+  id UUID NOT NULL DEFAULT gen_random_uuid() PRIMARY KEY,
+  village_id UUID,
+  user_id UUID NOT NULL,
+  title TEXT NOT NULL,
+  content TEXT NOT NULL,
+  image_url TEXT,
+  created_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+  updated_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+CREATE TABLE IF NOT EXISTS comments (
+  id UUID NOT NULL DEFAULT gen_random_uuid() PRIMARY KEY,
+  post_id UUID NOT NULL REFERENCES posts(id) ON DELETE CASCADE,
+  user_id UUID NOT NULL,
+  content TEXT NOT NULL,
+  created_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+  updated_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+CREATE TABLE IF NOT EXISTS post_likes (
+  id UUID NOT NULL DEFAULT gen_random_uuid() PRIMARY KEY,
+  post_id UUID NOT NULL REFERENCES posts(id) ON DELETE CASCADE,
+  user_id UUID NOT NULL,
+  created_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+  UNIQUE (post_id, user_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_posts_village_id ON posts (village_id);
+CREATE INDEX IF NOT EXISTS idx_posts_created_at ON posts (created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_comments_post_id ON comments (post_id, created_at);
+CREATE INDEX IF NOT EXISTS idx_post_likes_user_id ON post_likes (user_id);
+
+ALTER TABLE posts ADD COLUMN IF NOT EXISTS like_count BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE posts ADD COLUMN IF NOT EXISTS comment_count BIGINT NOT NULL DEFAULT 0;
+
+-- one-off backfill for posts created before the counters existed
+UPDATE posts p SET
+  like_count = (SELECT count(*) FROM post_likes l WHERE l.post_id = p.id),
+  comment_count = (SELECT count(*) FROM comments c WHERE c.post_id = p.id);
@@ -1,10 +1,23 @@
 package com.smartvillage.devwork.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.smartvillage.common.paging.CursorPage;
+import com.smartvillage.common.paging.KeysetPager;
+import com.smartvillage.common.sync.ChangeFeed;
+import com.smartvillage.common.sync.ChangeSet;
+import com.smartvillage.common.write.EntityWriter;
+import com.smartvillage.common.write.WritableTable;
 import com.smartvillage.devwork.entity.DevWork;
 import com.smartvillage.devwork.repository.DevWorkRepository;
+import com.smartvillage.devwork.stats.DevWorkStats;
+import com.smartvillage.devwork.stats.StatusStats;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -12,38 +25,102 @@ import java.util.UUID;
 @RestController
 @RequestMapping("/api/v1/devworks")
 public class DevWorkController {
+    private static final String RESOURCE = "devworks";
+    private static final WritableTable<DevWork> TABLE = WritableTable.of(DevWork.class)
+            .column("title").column("description").column("status").touch("updatedAt")
+            .previous("status", "previousStatus");
+
     private final DevWorkRepository repo;
+    private final KeysetPager pager;
+    private final ChangeFeed changes;
+    private final DevWorkStats stats;
+    private final EntityWriter writer;
 
-    public DevWorkController(DevWorkRepository repo) { this.repo = repo; }
+    public DevWorkController(DevWorkRepository repo, KeysetPager pager, ChangeFeed changes, DevWorkStats stats,
+                             EntityWriter writer) {
+        this.repo = repo;
+        this.pager = pager;
+        this.changes = changes;
+        this.stats = stats;
+        this.writer = writer;
+    }
 
     @GetMapping
     public List<DevWork> list() { return repo.findAll(); }
 
+    @GetMapping("/page")
+    public CursorPage<DevWork> page(@RequestParam(required = false) String cursor,
+                                    @RequestParam(required = false) Integer size) {
+        return pager.page(DevWork.class, null, cursor, size);
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    public StreamingResponseBody stream() { return pager.stream(DevWork.class, null); }
+
+    @GetMapping("/changes")
+    public ChangeSet<DevWork> changes(@RequestParam(required = false) String since,
+                                      @RequestParam(required = false) Integer limit) {
+        return changes.since(RESOURCE, DevWork.class, since, limit);
+    }
+
+    /** Dashboard counters, served from memory. */
+    @GetMapping("/stats")
+    public StatusStats stats() { return stats.stats(); }
+
     @GetMapping("/{id}")
     public ResponseEntity<?> get(@PathVariable UUID id) {
-        Optional<DevWork> w = repo.findById(id);
-        return w.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+        return repo.findById(id).<ResponseEntity<?>>map(w -> ResponseEntity.ok().eTag(EntityWriter.etag(w.getVersion())).body(w))
+                .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     @PostMapping
-    public DevWork create(@RequestBody DevWork work) { return repo.save(work); }
+    public DevWork create(@RequestBody DevWork work) {
+        DevWork saved = changes.upsert(RESOURCE, () -> {
+            DevWork w = repo.saveAndFlush(work);
+            stats.record(w.getId(), null, w.getStatus());
+            return Optional.of(w);
+        }).orElseThrow();
+        stats.catchUp();
+        return saved;
+    }
 
     @PutMapping("/{id}")
-    public ResponseEntity<?> update(@PathVariable UUID id, @RequestBody DevWork work) {
-        return repo.findById(id).map(existing -> {
-            existing.setTitle(work.getTitle());
-            existing.setDescription(work.getDescription());
-            existing.setStatus(work.getStatus());
-            repo.save(existing);
-            return ResponseEntity.ok(existing);
-        }).orElseGet(() -> ResponseEntity.notFound().build());
+    public ResponseEntity<?> update(@PathVariable UUID id, @RequestBody DevWork work,
+                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return changes.upsert(RESOURCE, () -> logged(writer.replace(TABLE, id, EntityWriter.versionFrom(ifMatch), work)))
+                .<ResponseEntity<?>>map(this::updated)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @PatchMapping(value = "/{id}", consumes = { EntityWriter.MERGE_PATCH_JSON, MediaType.APPLICATION_JSON_VALUE })
+    public ResponseEntity<?> patch(@PathVariable UUID id, @RequestBody JsonNode patch,
+                                   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return changes.upsert(RESOURCE, () -> logged(writer.patch(TABLE, id, EntityWriter.versionFrom(ifMatch), patch)))
+                .<ResponseEntity<?>>map(this::updated)
+                .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<?> delete(@PathVariable UUID id) {
-        return repo.findById(id).map(w -> {
-            repo.deleteById(id);
+    public ResponseEntity<?> delete(@PathVariable UUID id,
+                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return changes.delete(RESOURCE, () -> writer.delete(TABLE, id, EntityWriter.versionFrom(ifMatch)).map(w -> {
+            stats.recordDelete(id, w.getStatus());
+            return w;
+        })).map(w -> {
+            stats.catchUp();
             return ResponseEntity.ok().build();
         }).orElseGet(() -> ResponseEntity.notFound().build());
     }
+
+    // the previous status comes back from the UPDATE itself, so no transition is lost to a stale guess;
+    // called inside the write's transaction, so the transition commits (or rolls back) with it
+    private Optional<DevWork> logged(Optional<DevWork> written) {
+        written.ifPresent(w -> stats.record(w.getId(), w.getPreviousStatus(), w.getStatus()));
+        return written;
+    }
+
+    private ResponseEntity<DevWork> updated(DevWork w) {
+        stats.catchUp();
+        return ResponseEntity.ok().eTag(EntityWriter.etag(w.getVersion())).body(w);
+    }
 }
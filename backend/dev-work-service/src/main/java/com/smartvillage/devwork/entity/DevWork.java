@@ -1,11 +1,13 @@
 package com.smartvillage.devwork.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.smartvillage.common.paging.KeysetEntity;
 import jakarta.persistence.*;
 import java.time.Instant;
 
 @Entity
 @Table(name = "dev_works")
-public class DevWork {
+public class DevWork implements KeysetEntity {
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
     private java.util.UUID id;
@@ -14,6 +16,15 @@ public class DevWork {
     private String status; // planned, ongoing, completed
     private String description;
     private Instant createdAt = Instant.now();
+    private Instant updatedAt = Instant.now();
+
+    @Version
+    private long version;
+
+    // status before the write that returned this row; filled in by EntityWriter, never stored
+    @Transient
+    @JsonIgnore
+    private String previousStatus;
 
     public DevWork() {}
 
@@ -27,4 +38,9 @@ public class DevWork {
     public void setDescription(String description) { this.description = description; }
     public Instant getCreatedAt() { return createdAt; }
     public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+    public Instant getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt; }
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
+    public String getPreviousStatus() { return previousStatus; }
 }
@@ -0,0 +1,191 @@
+package com.smartvillage.devwork.stats;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SequencedSet;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Status counters for development works, folded from {@code dev_work_transitions}. Write handlers
+ * call {@link #record} inside the write's transaction, so a status change and its log row commit
+ * together, and {@link #catchUp} once it has. The counters are only ever advanced from the log
+ * (including this instance's own writes), so every instance converges and a restart rebuilds the same
+ * numbers. Reads return a prebuilt {@link StatusStats}.
+ */
+@Component
+public class DevWorkStats {
+
+    private static final Logger log = LoggerFactory.getLogger(DevWorkStats.class);
+
+    public static final String COMPLETED = "completed";
+    public static final String UNSPECIFIED = "unspecified";
+
+    // re-read this many sequence numbers below the last applied one; a transaction that took a
+    // lower number but committed later is still picked up, and RECENT stops double-application
+    private static final int SEQ_OVERLAP = 100;
+    private static final int RECENT = 1000;
+
+    private record WorkState(String status, Instant start, Duration completedIn) {}
+
+    private final JdbcTemplate jdbc;
+    private final Duration refreshInterval;
+    private final ScheduledExecutorService refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "devwork-stats-refresh");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // guarded by this
+    private final Map<UUID, WorkState> works = new HashMap<>();
+    private final Map<String, Long> byStatus = new TreeMap<>();
+    private final Map<YearMonth, Map<String, Long>> byMonth = new TreeMap<>();
+    private final SequencedSet<Long> recentSeqs = new LinkedHashSet<>();
+    private long completedNanos;
+    private long completedCount;
+    private long lastSeq;
+
+    private volatile StatusStats snapshot = new StatusStats(0, Map.of(), List.of(), null, 0);
+
+    public DevWorkStats(JdbcTemplate jdbc,
+                        @Value("${devwork-stats.refresh-interval:PT30S}") Duration refreshInterval) {
+        this.jdbc = jdbc;
+        this.refreshInterval = refreshInterval;
+    }
+
+    @PostConstruct
+    void start() {
+        catchUp();
+        log.info("Dev work stats rebuilt from transition log up to seq {}", snapshot.lastSeq());
+        long period = refreshInterval.toMillis();
+        refresher.scheduleWithFixedDelay(() -> {
+            try {
+                catchUp();
+            } catch (RuntimeException e) {
+                log.warn("Dev work stats refresh failed", e);
+            }
+        }, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        refresher.shutdownNow();
+    }
+
+    public StatusStats stats() {
+        return snapshot;
+    }
+
+    /** Logs a status change ({@code from == null} for a new work) in the caller's transaction. No-op when nothing changed. */
+    public void record(UUID workId, String from, String to) {
+        String f = from == null ? null : normalize(from), t = normalize(to);
+        if (t.equals(f)) return;
+        append(workId, f, t);
+    }
+
+    /** Logs that a work was deleted, in the caller's transaction; it leaves every counter except the per-month history. */
+    public void recordDelete(UUID workId, String status) {
+        append(workId, normalize(status), null);
+    }
+
+    /** Status is free text: counters are keyed by its trimmed, lower-cased form. */
+    public static String normalize(String status) {
+        if (status == null || status.isBlank()) return UNSPECIFIED;
+        return status.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private void append(UUID workId, String from, String to) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Dev work transitions are logged inside the write's transaction");
+        }
+        // the lock is held until commit, so seqs become visible in the order they were taken
+        jdbc.update("WITH l AS (SELECT pg_advisory_xact_lock(hashtext('dev_work_transitions')))"
+                + " INSERT INTO dev_work_transitions (work_id, from_status, to_status) SELECT ?, ?, ? FROM l", workId, from, to);
+    }
+
+    /** Applies whatever has been logged since; write handlers call it after their transaction commits. */
+    public synchronized void catchUp() {
+        long from = Math.max(0, lastSeq - SEQ_OVERLAP);
+        int[] applied = {0};
+        jdbc.query("SELECT seq, work_id, to_status, at FROM dev_work_transitions WHERE seq > ? ORDER BY seq",
+                rs -> {
+                    if (apply(rs)) applied[0]++;
+                }, from);
+        if (applied[0] > 0) snapshot = build();
+    }
+
+    private boolean apply(ResultSet rs) throws SQLException {
+        long seq = rs.getLong("seq");
+        if (seq <= lastSeq && recentSeqs.contains(seq)) return false;
+        remember(seq);
+        lastSeq = Math.max(lastSeq, seq);
+
+        UUID workId = rs.getObject("work_id", UUID.class);
+        String to = rs.getString("to_status");
+        Instant at = rs.getTimestamp("at").toInstant();
+
+        WorkState prev = works.get(workId);
+        if (prev != null) {
+            byStatus.merge(prev.status(), -1L, Long::sum);
+            byStatus.remove(prev.status(), 0L);
+            if (prev.completedIn() != null) {
+                completedNanos -= prev.completedIn().toNanos();
+                completedCount--;
+            }
+        }
+        if (to == null) {
+            works.remove(workId);
+            return true;
+        }
+        Instant start = prev != null ? prev.start() : at;
+        Duration completedIn = COMPLETED.equals(to) ? Duration.between(start, at) : null;
+        works.put(workId, new WorkState(to, start, completedIn));
+        byStatus.merge(to, 1L, Long::sum);
+        if (completedIn != null) {
+            completedNanos += completedIn.toNanos();
+            completedCount++;
+        }
+        byMonth.computeIfAbsent(YearMonth.from(at.atZone(ZoneOffset.UTC)), m -> new TreeMap<>()).merge(to, 1L, Long::sum);
+        return true;
+    }
+
+    private void remember(long seq) {
+        recentSeqs.add(seq);
+        if (recentSeqs.size() > RECENT) recentSeqs.removeFirst();
+    }
+
+    private StatusStats build() {
+        List<StatusStats.Month> months = new ArrayList<>(byMonth.size());
+        byMonth.forEach((m, counts) -> months.add(new StatusStats.Month(m.toString(), sorted(counts))));
+        Double avgDays = completedCount == 0 ? null
+                : completedNanos / (double) completedCount / Duration.ofDays(1).toNanos();
+        return new StatusStats(works.size(), sorted(byStatus), List.copyOf(months), avgDays, lastSeq);
+    }
+
+    private static Map<String, Long> sorted(Map<String, Long> counts) {
+        return Collections.unmodifiableMap(new TreeMap<>(counts));
+    }
+}
@@ -0,0 +1,14 @@
+package com.smartvillage.devwork.stats;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dashboard numbers for development works. {@code byStatus} counts works by current status;
+ * {@code byMonth} counts transitions into each status per calendar month (UTC), oldest first.
+ */
+public record StatusStats(long total, Map<String, Long> byStatus, List<Month> byMonth,
+                          Double avgDaysToComplete, long lastSeq) {
+
+    public record Month(String month, Map<String, Long> entered) {}
+}
@@ -0,0 +1,13 @@
+-- Flyway migration: change log behind the ?since= delta sync feed
+-- Shared by the CRUD services (keyed by resource), hence IF NOT EXISTS.
+-- op is U (created/updated) or D (tombstone); rows older than smartvillage.sync.retention are pruned.
+CREATE TABLE IF NOT EXISTS sync_changes (
+  seq BIGSERIAL PRIMARY KEY,
+  resource TEXT NOT NULL,
+  entity_id UUID NOT NULL,
+  op CHAR(1) NOT NULL,
+  changed_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+CREATE INDEX IF NOT EXISTS idx_sync_changes_resource_seq ON sync_changes (resource, seq);
+CREATE INDEX IF NOT EXISTS idx_sync_changes_changed_at ON sync_changes (changed_at);
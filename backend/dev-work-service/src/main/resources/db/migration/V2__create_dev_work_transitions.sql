@@ -0,0 +1,21 @@
+-- Flyway migration: append-only log of dev work status transitions
+-- to_status NULL means the work was deleted. The in-memory stats are a fold over this table.
+CREATE TABLE IF NOT EXISTS dev_work_transitions (
+  seq BIGSERIAL PRIMARY KEY,
+  work_id UUID NOT NULL,
+  from_status TEXT,
+  to_status TEXT,
+  at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+CREATE INDEX IF NOT EXISTS idx_dev_work_transitions_work ON dev_work_transitions (work_id, seq);
+
+-- works created before the log existed start from their current status
+DO $$
+BEGIN
+  IF to_regclass('dev_works') IS NOT NULL THEN
+    INSERT INTO dev_work_transitions (work_id, from_status, to_status, at)
+    SELECT id, NULL, COALESCE(NULLIF(lower(trim(status)), ''), 'unspecified'), COALESCE(created_at, now())
+    FROM dev_works;
+  END IF;
+END $$;
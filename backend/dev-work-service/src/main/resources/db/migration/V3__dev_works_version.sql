@@ -0,0 +1,8 @@
+-- Flyway migration: optimistic-locking version, sent to clients as the ETag
+-- dev_works is created by Hibernate (ddl-auto) on a fresh database, so only alter it if it exists yet
+DO $$
+BEGIN
+  IF to_regclass('dev_works') IS NOT NULL THEN
+    ALTER TABLE dev_works ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+  END IF;
+END $$;
@@ -0,0 +1,105 @@
+package com.smartvillage.exam.bank;
+
+import com.smartvillage.exam.grading.GradedAttempt;
+import com.smartvillage.exam.grading.InvalidSubmissionException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Immutable answer key for one exam: question id to correct option and marks. Grading reads it
+ * from many threads without locking; a re-import swaps in a new key rather than mutating this one.
+ */
+public final class AnswerKey {
+
+    public record Answer(char correct, int marks) {}
+
+    private final UUID examId;
+    private final Map<UUID, Answer> answers;
+    private final int totalMarks;
+    private final int passMarks;
+
+    private AnswerKey(UUID examId, Map<UUID, Answer> answers, int passMarks) {
+        this.examId = examId;
+        this.answers = Map.copyOf(answers);
+        this.totalMarks = this.answers.values().stream().mapToInt(Answer::marks).sum();
+        this.passMarks = passMarks;
+    }
+
+    public static Builder builder(UUID examId, int passMarks) {
+        return new Builder(examId, passMarks);
+    }
+
+    public UUID examId() { return examId; }
+    public int questionCount() { return answers.size(); }
+    public int totalMarks() { return totalMarks; }
+    public int passMarks() { return passMarks; }
+    public Set<UUID> questionIds() { return answers.keySet(); }
+
+    /** Builder seeded with this key's answers, for appending questions to an existing bank. */
+    public Builder toBuilder() {
+        Builder b = new Builder(examId, passMarks);
+        b.answers.putAll(answers);
+        return b;
+    }
+
+    /**
+     * Grades one attempt. Questions missing from {@code selected}, or mapped to null, count as
+     * unanswered; options are case-insensitive letters A-D.
+     */
+    public GradedAttempt grade(UUID attemptId, Map<UUID, String> selected) {
+        List<GradedAttempt.Row> rows = new ArrayList<>(selected.size());
+        int correct = 0;
+        int wrong = 0;
+        int score = 0;
+        for (Map.Entry<UUID, String> e : selected.entrySet()) {
+            if (e.getValue() == null || e.getValue().isBlank()) continue;
+            Answer answer = answers.get(e.getKey());
+            if (answer == null) {
+                throw new InvalidSubmissionException("Question " + e.getKey() + " is not part of exam " + examId);
+            }
+            char option = option(e.getValue());
+            boolean right = option == answer.correct();
+            if (right) {
+                correct++;
+                score += answer.marks();
+            } else {
+                wrong++;
+            }
+            rows.add(new GradedAttempt.Row(e.getKey(), option, right));
+        }
+        return new GradedAttempt(attemptId, score, totalMarks, score >= passMarks,
+                correct, wrong, answers.size() - correct - wrong, rows);
+    }
+
+    private static char option(String value) {
+        String v = value.trim();
+        char c = v.length() == 1 ? Character.toUpperCase(v.charAt(0)) : 0;
+        if (c < 'A' || c > 'D') throw new InvalidSubmissionException("Invalid option '" + value + "'");
+        return c;
+    }
+
+    public static final class Builder {
+        private final UUID examId;
+        private final int passMarks;
+        private final Map<UUID, Answer> answers = new HashMap<>();
+
+        private Builder(UUID examId, int passMarks) {
+            this.examId = examId;
+            this.passMarks = passMarks;
+        }
+
+        public Builder add(UUID questionId, char correct, int marks) {
+            answers.put(questionId, new Answer(correct, marks));
+            return this;
+        }
+
+        public AnswerKey build() {
+            return new AnswerKey(examId, answers, passMarks);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.smartvillage.exam.bank;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record Exam(UUID id, UUID villageId, String title, String subject, String description,
+                   int totalQuestions, int durationMinutes, Instant scheduledAt, Instant endsAt,
+                   String status, int passMarks, int totalMarks, Instant createdAt) {
+}
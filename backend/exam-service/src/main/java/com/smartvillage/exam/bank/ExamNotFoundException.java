@@ -0,0 +1,13 @@
+package com.smartvillage.exam.bank;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.UUID;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class ExamNotFoundException extends RuntimeException {
+    public ExamNotFoundException(UUID examId) {
+        super("Unknown exam " + examId);
+    }
+}
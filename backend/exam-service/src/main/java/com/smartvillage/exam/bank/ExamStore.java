@@ -0,0 +1,66 @@
+package com.smartvillage.exam.bank;
+
+import com.smartvillage.exam.dto.CreateExamRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+/** Plain JDBC access to the {@code exams} table. */
+@Component
+public class ExamStore {
+
+    private static final String COLUMNS = "id, village_id, title, subject, description, total_questions,"
+            + " duration_minutes, scheduled_at, ends_at, status, pass_marks, total_marks, created_at";
+
+    private final JdbcTemplate jdbc;
+
+    public ExamStore(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    public Exam create(CreateExamRequest r) {
+        return jdbc.queryForObject("INSERT INTO exams (id, village_id, title, subject, description,"
+                + " duration_minutes, scheduled_at, ends_at, status, pass_marks, created_by)"
+                + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) RETURNING " + COLUMNS,
+                ExamStore::map, UUID.randomUUID(), r.villageId(), r.title(), r.subject(), r.description(),
+                r.durationMinutes() == null ? 30 : r.durationMinutes(), timestamp(r.scheduledAt()),
+                timestamp(r.endsAt()), r.status() == null ? "draft" : r.status(),
+                r.passMarks() == null ? 0 : r.passMarks(), r.createdBy());
+    }
+
+    public Optional<Exam> find(UUID id) {
+        return jdbc.query("SELECT " + COLUMNS + " FROM exams WHERE id = ?", ExamStore::map, id).stream().findFirst();
+    }
+
+    public Exam get(UUID id) {
+        return find(id).orElseThrow(() -> new ExamNotFoundException(id));
+    }
+
+    void updateTotals(UUID id, int totalQuestions, int totalMarks) {
+        jdbc.update("UPDATE exams SET total_questions = ?, total_marks = ?, updated_at = now() WHERE id = ?",
+                totalQuestions, totalMarks, id);
+    }
+
+    private static Exam map(ResultSet rs, int row) throws SQLException {
+        return new Exam(rs.getObject("id", UUID.class), rs.getObject("village_id", UUID.class),
+                rs.getString("title"), rs.getString("subject"), rs.getString("description"),
+                rs.getInt("total_questions"), rs.getInt("duration_minutes"),
+                instant(rs.getTimestamp("scheduled_at")), instant(rs.getTimestamp("ends_at")),
+                rs.getString("status"), rs.getInt("pass_marks"), rs.getInt("total_marks"),
+                instant(rs.getTimestamp("created_at")));
+    }
+
+    private static Timestamp timestamp(Instant i) {
+        return i == null ? null : Timestamp.from(i);
+    }
+
+    private static Instant instant(Timestamp t) {
+        return t == null ? null : t.toInstant();
+    }
+}
@@ -0,0 +1,6 @@
+package com.smartvillage.exam.bank;
+
+import java.util.UUID;
+
+public record ImportResult(UUID examId, int imported, int totalQuestions, int totalMarks) {
+}
@@ -0,0 +1,12 @@
+package com.smartvillage.exam.bank;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/** A question bank document that cannot be imported; nothing from it is written. */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidQuestionBankException extends RuntimeException {
+    public InvalidQuestionBankException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.smartvillage.exam.bank;
+
+import java.util.List;
+
+/** One question as read from a bank document, before it has an id. */
+public record ParsedQuestion(String question, List<String> options, char correct, String explanation,
+                             String difficulty, String grade, String topic, int marks) {
+}
@@ -0,0 +1,170 @@
+package com.smartvillage.exam.bank;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory answer keys, one per exam. A key is built once, from the database on first use or
+ * while a bank document is streamed in, and then only ever replaced whole, so graders share it
+ * without locks.
+ */
+@Component
+public class QuestionBank {
+
+    private static final Logger log = LoggerFactory.getLogger(QuestionBank.class);
+
+    private static final String INSERT = "INSERT INTO exam_questions (id, exam_id, subject, question,"
+            + " option_a, option_b, option_c, option_d, correct_option, explanation, difficulty, class, topic,"
+            + " marks_per_question, position) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final int LOAD_FETCH_SIZE = 1000;
+
+    private record Row(UUID id, int position, ParsedQuestion q) {}
+
+    private final JdbcTemplate jdbc;
+    private final ExamStore exams;
+    private final QuestionJsonReader reader;
+    private final TransactionTemplate tx;
+    private final TransactionTemplate readTx;
+    private final int batchSize;
+    private final Map<UUID, AnswerKey> keys = new ConcurrentHashMap<>();
+
+    public QuestionBank(JdbcTemplate jdbc, ExamStore exams, ObjectMapper mapper,
+                        PlatformTransactionManager txManager,
+                        @Value("${exam.import.batch-size:500}") int batchSize) {
+        this.jdbc = jdbc;
+        this.exams = exams;
+        this.reader = new QuestionJsonReader(mapper.getFactory());
+        this.tx = new TransactionTemplate(txManager);
+        this.readTx = new TransactionTemplate(txManager);
+        this.readTx.setReadOnly(true);
+        this.batchSize = batchSize;
+    }
+
+    /** The exam's answer key, loaded from {@code exam_questions} the first time it is asked for. */
+    public AnswerKey key(UUID examId) {
+        return keys.computeIfAbsent(examId, id -> readTx.execute(status -> load(exams.get(id))));
+    }
+
+    /**
+     * Streams a bank document into {@code exam_questions} with batched inserts and installs the
+     * resulting key. With {@code replace} the existing questions go first, which is refused once
+     * anyone has started the exam; otherwise the new questions are appended after the current ones.
+     * Either way the import is all-or-nothing, and questions keep the order of the document.
+     */
+    public ImportResult importJson(UUID examId, InputStream in, boolean replace) {
+        Exam exam = exams.get(examId);
+        long start = System.nanoTime();
+        ImportResult[] result = new ImportResult[1];
+        AnswerKey key = tx.execute(status -> {
+            // conflicts with the key-share lock an attempt insert takes on its exam, so no attempt can
+            // start mid-import, and imports of one exam run one at a time and number positions in turn
+            jdbc.queryForObject("SELECT id FROM exams WHERE id = ? FOR UPDATE", UUID.class, examId);
+            AnswerKey.Builder builder;
+            int[] position = {0};
+            if (replace) {
+                // open attempts were started against the current questions too; their answers would
+                // point at deleted rows
+                Boolean started = jdbc.queryForObject("SELECT EXISTS (SELECT 1 FROM exam_attempts"
+                        + " WHERE exam_id = ?)", Boolean.class, examId);
+                if (Boolean.TRUE.equals(started)) throw new QuestionBankInUseException(examId);
+                jdbc.update("DELETE FROM exam_questions WHERE exam_id = ?", examId);
+                builder = AnswerKey.builder(examId, exam.passMarks());
+            } else {
+                builder = load(exam).toBuilder();
+                position[0] = jdbc.queryForObject("SELECT COALESCE(MAX(position), 0) FROM exam_questions"
+                        + " WHERE exam_id = ?", Integer.class, examId);
+            }
+            List<Row> pending = new ArrayList<>(batchSize);
+            int imported;
+            try {
+                imported = reader.read(in, q -> {
+                    Row row = new Row(UUID.randomUUID(), ++position[0], q);
+                    builder.add(row.id(), q.correct(), q.marks());
+                    pending.add(row);
+                    if (pending.size() == batchSize) insert(exam, pending);
+                });
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            insert(exam, pending);
+            AnswerKey built = builder.build();
+            exams.updateTotals(examId, built.questionCount(), built.totalMarks());
+            result[0] = new ImportResult(examId, imported, built.questionCount(), built.totalMarks());
+            return built;
+        });
+        keys.put(examId, key);
+        log.info("Imported {} questions into exam {} in {} ms", result[0].imported(), examId,
+                (System.nanoTime() - start) / 1_000_000);
+        return result[0];
+    }
+
+    /** Questions for the exam paper, without answers. */
+    public List<QuestionView> questions(UUID examId) {
+        exams.get(examId);
+        return jdbc.query("SELECT id, question, option_a, option_b, option_c, option_d, topic, marks_per_question"
+                        + " FROM exam_questions WHERE exam_id = ? ORDER BY position, id",
+                (rs, i) -> new QuestionView(rs.getObject("id", UUID.class), rs.getString("question"),
+                        List.of(rs.getString("option_a"), rs.getString("option_b"),
+                                rs.getString("option_c"), rs.getString("option_d")),
+                        rs.getString("topic"), rs.getInt("marks_per_question")),
+                examId);
+    }
+
+    /** Drops the cached key so the next grade reloads it, e.g. after questions were edited directly. */
+    public void evict(UUID examId) {
+        keys.remove(examId);
+    }
+
+    private AnswerKey load(Exam exam) {
+        AnswerKey.Builder builder = AnswerKey.builder(exam.id(), exam.passMarks());
+        // runs inside a transaction so the Postgres driver honours the fetch size and streams rows
+        jdbc.query(con -> {
+            PreparedStatement ps = con.prepareStatement("SELECT id, correct_option, marks_per_question"
+                            + " FROM exam_questions WHERE exam_id = ?",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(LOAD_FETCH_SIZE);
+            ps.setObject(1, exam.id());
+            return ps;
+        }, rs -> {
+            builder.add(rs.getObject(1, UUID.class), rs.getString(2).charAt(0), rs.getInt(3));
+        });
+        return builder.build();
+    }
+
+    private void insert(Exam exam, List<Row> rows) {
+        if (rows.isEmpty()) return;
+        jdbc.batchUpdate(INSERT, rows, rows.size(), (ps, r) -> {
+            ParsedQuestion q = r.q();
+            ps.setObject(1, r.id());
+            ps.setObject(2, exam.id());
+            ps.setString(3, exam.subject());
+            ps.setString(4, q.question());
+            for (int i = 0; i < 4; i++) ps.setString(5 + i, q.options().get(i));
+            ps.setString(9, String.valueOf(q.correct()));
+            ps.setString(10, q.explanation());
+            ps.setString(11, q.difficulty());
+            ps.setString(12, q.grade());
+            ps.setString(13, q.topic());
+            ps.setInt(14, q.marks());
+            ps.setInt(15, r.position());
+        });
+        rows.clear();
+    }
+}
@@ -0,0 +1,14 @@
+package com.smartvillage.exam.bank;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.UUID;
+
+/** Replacing a bank would cascade-delete answers of attempts started against it. */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class QuestionBankInUseException extends RuntimeException {
+    public QuestionBankInUseException(UUID examId) {
+        super("Exam " + examId + " already has attempts; append questions instead of replacing");
+    }
+}
@@ -0,0 +1,121 @@
+package com.smartvillage.exam.bank;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Reads a question bank token by token, handing each question to a sink as soon as its object
+ * closes, so a bank is never held as a tree. Accepts a top-level array or
+ * {@code {"questions": [...]}}, and either the {@code options} + {@code answer} shape of
+ * {@code data/*.json} or the table's {@code option_a..option_d} + {@code correct_option}.
+ */
+final class QuestionJsonReader {
+
+    private static final String LETTERS = "ABCD";
+    private static final Set<String> DIFFICULTIES = Set.of("easy", "medium", "hard");
+
+    private final JsonFactory factory;
+
+    QuestionJsonReader(JsonFactory factory) {
+        this.factory = factory;
+    }
+
+    /** Returns the number of questions handed to {@code sink}. */
+    int read(InputStream in, Consumer<ParsedQuestion> sink) throws IOException {
+        try (JsonParser p = factory.createParser(in)) {
+            JsonToken t = p.nextToken();
+            if (t == JsonToken.START_OBJECT) {
+                while ((t = p.nextToken()) == JsonToken.FIELD_NAME && !"questions".equals(p.currentName())) {
+                    p.nextToken();
+                    p.skipChildren();
+                }
+                t = t == JsonToken.FIELD_NAME ? p.nextToken() : null;
+            }
+            if (t != JsonToken.START_ARRAY) {
+                throw new InvalidQuestionBankException("Expected an array of questions");
+            }
+            int n = 0;
+            while ((t = p.nextToken()) == JsonToken.START_OBJECT) {
+                sink.accept(question(p, ++n));
+            }
+            if (t != JsonToken.END_ARRAY) {
+                throw new InvalidQuestionBankException("Question " + (n + 1) + ": expected an object");
+            }
+            return n;
+        }
+    }
+
+    private static ParsedQuestion question(JsonParser p, int n) throws IOException {
+        String text = null, answer = null, explanation = null, difficulty = null, grade = null, topic = null;
+        String[] options = new String[4];
+        List<String> optionList = null;
+        int marks = 1;
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            JsonToken value = p.nextToken();
+            switch (field) {
+                case "question", "text" -> text = p.getValueAsString();
+                case "options" -> optionList = options(p, value, n);
+                case "option_a" -> options[0] = p.getValueAsString();
+                case "option_b" -> options[1] = p.getValueAsString();
+                case "option_c" -> options[2] = p.getValueAsString();
+                case "option_d" -> options[3] = p.getValueAsString();
+                case "answer", "correct_option" -> answer = p.getValueAsString();
+                case "explanation" -> explanation = p.getValueAsString();
+                case "difficulty" -> difficulty = p.getValueAsString();
+                case "class" -> grade = p.getValueAsString();
+                case "topic" -> topic = p.getValueAsString();
+                case "marks", "marks_per_question" -> marks = p.getValueAsInt(1);
+                default -> p.skipChildren();
+            }
+        }
+        if (optionList == null) optionList = Arrays.asList(options);
+        if (text == null || text.isBlank()) throw invalid(n, "missing question text");
+        if (optionList.size() != 4 || optionList.stream().anyMatch(o -> o == null || o.isBlank())) {
+            throw invalid(n, "needs exactly four options");
+        }
+        if (marks < 1) throw invalid(n, "marks must be positive");
+        if (difficulty != null) {
+            difficulty = difficulty.trim().toLowerCase(Locale.ROOT);
+            if (!DIFFICULTIES.contains(difficulty)) throw invalid(n, "difficulty must be easy, medium or hard");
+        }
+        return new ParsedQuestion(text, List.copyOf(optionList), correct(answer, optionList, n),
+                explanation, difficulty, grade, topic, marks);
+    }
+
+    private static List<String> options(JsonParser p, JsonToken value, int n) throws IOException {
+        if (value != JsonToken.START_ARRAY) throw invalid(n, "options must be an array");
+        List<String> list = new ArrayList<>(4);
+        while (p.nextToken() != JsonToken.END_ARRAY) {
+            list.add(p.getValueAsString());
+        }
+        return list;
+    }
+
+    /** The answer may be the option letter or the option text itself. */
+    private static char correct(String answer, List<String> options, int n) {
+        if (answer == null) throw invalid(n, "missing answer");
+        String a = answer.trim();
+        if (a.length() == 1 && LETTERS.indexOf(Character.toUpperCase(a.charAt(0))) >= 0) {
+            return Character.toUpperCase(a.charAt(0));
+        }
+        for (int i = 0; i < options.size(); i++) {
+            if (options.get(i).trim().equalsIgnoreCase(a)) return LETTERS.charAt(i);
+        }
+        throw invalid(n, "answer '" + answer + "' is not one of the options");
+    }
+
+    private static InvalidQuestionBankException invalid(int n, String reason) {
+        return new InvalidQuestionBankException("Question " + n + ": " + reason);
+    }
+}
@@ -0,0 +1,8 @@
+package com.smartvillage.exam.bank;
+
+import java.util.List;
+import java.util.UUID;
+
+/** A question as shown to students: no correct option, no explanation. */
+public record QuestionView(UUID id, String question, List<String> options, String topic, int marks) {
+}
@@ -0,0 +1,158 @@
+package com.smartvillage.exam.controller;
+
+import com.smartvillage.common.execution.ConcurrencyLimit;
+import com.smartvillage.exam.bank.AnswerKey;
+import com.smartvillage.exam.bank.Exam;
+import com.smartvillage.exam.bank.ExamStore;
+import com.smartvillage.exam.bank.ImportResult;
+import com.smartvillage.exam.bank.QuestionBank;
+import com.smartvillage.exam.bank.QuestionView;
+import com.smartvillage.exam.dto.CreateExamRequest;
+import com.smartvillage.exam.dto.StartAttemptRequest;
+import com.smartvillage.exam.dto.SubmissionResult;
+import com.smartvillage.exam.dto.SubmitRequest;
+import com.smartvillage.exam.grading.Attempt;
+import com.smartvillage.exam.grading.AttemptStore;
+import com.smartvillage.exam.grading.GradedAttempt;
+import com.smartvillage.exam.grading.GradingQueueFullException;
+import com.smartvillage.exam.grading.Submission;
+import com.smartvillage.exam.grading.SubmissionBatcher;
+import com.smartvillage.exam.leaderboard.Leaderboards;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+@RestController
+@RequestMapping("/api/v1/exams")
+public class ExamController {
+
+    private final ExamStore exams;
+    private final QuestionBank bank;
+    private final AttemptStore attempts;
+    private final SubmissionBatcher batcher;
+    private final Leaderboards leaderboards;
+    private final int maxBulk;
+    private final int maxLeaderboardLimit;
+
+    public ExamController(ExamStore exams, QuestionBank bank, AttemptStore attempts, SubmissionBatcher batcher,
+                          Leaderboards leaderboards,
+                          @Value("${exam.grading.max-bulk:1000}") int maxBulk,
+                          @Value("${exam.leaderboard.max-limit:500}") int maxLeaderboardLimit) {
+        this.exams = exams;
+        this.bank = bank;
+        this.attempts = attempts;
+        this.batcher = batcher;
+        this.leaderboards = leaderboards;
+        this.maxBulk = maxBulk;
+        this.maxLeaderboardLimit = maxLeaderboardLimit;
+    }
+
+    @PostMapping
+    public ResponseEntity<?> create(@RequestBody CreateExamRequest request) {
+        if (request.title() == null || request.title().isBlank() || request.subject() == null) {
+            return ResponseEntity.badRequest().body("title and subject are required");
+        }
+        return ResponseEntity.status(HttpStatus.CREATED).body(exams.create(request));
+    }
+
+    @GetMapping("/{id}")
+    public Exam get(@PathVariable UUID id) {
+        return exams.get(id);
+    }
+
+    /** Streams a question bank document in; {@code replace=true} swaps the whole bank. */
+    @PostMapping(value = "/{id}/questions/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ImportResult importQuestions(@PathVariable UUID id, InputStream body,
+                                        @RequestParam(defaultValue = "false") boolean replace) {
+        return bank.importJson(id, body, replace);
+    }
+
+    @GetMapping("/{id}/questions")
+    public List<QuestionView> questions(@PathVariable UUID id) {
+        return bank.questions(id);
+    }
+
+    @PostMapping("/{id}/attempts")
+    public ResponseEntity<?> startAttempt(@PathVariable UUID id, @RequestBody StartAttemptRequest request) {
+        if (request.userId() == null || request.studentName() == null || request.studentName().isBlank()) {
+            return ResponseEntity.badRequest().body("userId and studentName are required");
+        }
+        AnswerKey key = bank.key(id);
+        Attempt attempt = attempts.start(id, key.questionCount(), request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(attempt);
+    }
+
+    /**
+     * Submits a whole attempt in one request and answers with the graded result and rank. The
+     * handler only waits on the batcher, whose queue does the back-pressure, so it is not held
+     * to the pool-sized default limit.
+     */
+    @ConcurrencyLimit(2000)
+    @PostMapping("/{id}/attempts/{attemptId}/submit")
+    public Map<String, Object> submit(@PathVariable UUID id, @PathVariable UUID attemptId,
+                                      @RequestBody SubmitRequest request) {
+        GradedAttempt graded = batcher.submit(id, bank.key(id),
+                new Submission(attemptId, request.answers(), request.endSnapshotUrl()));
+        return Map.of("result", graded,
+                "rank", leaderboards.rank(id, attemptId),
+                "participants", leaderboards.participants(id));
+    }
+
+    /** Submits many attempts at once, e.g. a school's collected answer sheets. */
+    @ConcurrencyLimit(100)
+    @PostMapping("/{id}/submissions")
+    public ResponseEntity<?> submitBulk(@PathVariable UUID id, @RequestBody List<Submission> submissions) {
+        if (submissions.size() > maxBulk) {
+            return ResponseEntity.badRequest().body("At most " + maxBulk + " submissions per request");
+        }
+        List<CompletableFuture<GradedAttempt>> futures = batcher.enqueue(id, bank.key(id), submissions);
+        List<SubmissionResult> results = new ArrayList<>(futures.size());
+        for (int i = 0; i < futures.size(); i++) {
+            UUID attemptId = submissions.get(i).attemptId();
+            try {
+                results.add(new SubmissionResult(attemptId, HttpStatus.OK.value(), batcher.await(futures.get(i)), null));
+            } catch (RuntimeException e) {
+                results.add(new SubmissionResult(attemptId, statusOf(e), null, e.getMessage()));
+            }
+        }
+        return ResponseEntity.ok(Map.of("results", results));
+    }
+
+    @ConcurrencyLimit(1000)
+    @GetMapping("/{id}/leaderboard")
+    public Map<String, Object> leaderboard(@PathVariable UUID id, @RequestParam(defaultValue = "50") int limit) {
+        exams.get(id);
+        return Map.of("examId", id,
+                "participants", leaderboards.participants(id),
+                "standings", leaderboards.top(id, Math.max(1, Math.min(limit, maxLeaderboardLimit))));
+    }
+
+    @ExceptionHandler(GradingQueueFullException.class)
+    public ResponseEntity<?> queueFull(GradingQueueFullException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(e.getMessage());
+    }
+
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<?> invalid(DataIntegrityViolationException e) {
+        return ResponseEntity.badRequest().body(e.getMostSpecificCause().getMessage());
+    }
+
+    private static int statusOf(RuntimeException e) {
+        ResponseStatus status = AnnotatedElementUtils.findMergedAnnotation(e.getClass(), ResponseStatus.class);
+        return status != null ? status.code().value() : HttpStatus.INTERNAL_SERVER_ERROR.value();
+    }
+}
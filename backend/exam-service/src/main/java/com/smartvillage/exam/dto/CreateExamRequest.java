@@ -0,0 +1,9 @@
+package com.smartvillage.exam.dto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record CreateExamRequest(UUID villageId, String title, String subject, String description,
+                                Integer durationMinutes, Instant scheduledAt, Instant endsAt,
+                                String status, Integer passMarks, UUID createdBy) {
+}
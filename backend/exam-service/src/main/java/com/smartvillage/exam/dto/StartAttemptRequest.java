@@ -0,0 +1,7 @@
+package com.smartvillage.exam.dto;
+
+import java.util.UUID;
+
+public record StartAttemptRequest(UUID userId, String studentName, boolean integrityPledgeAccepted,
+                                  String startSnapshotUrl) {
+}
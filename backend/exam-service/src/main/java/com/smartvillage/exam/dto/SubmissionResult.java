@@ -0,0 +1,11 @@
+package com.smartvillage.exam.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.smartvillage.exam.grading.GradedAttempt;
+
+import java.util.UUID;
+
+/** Per-attempt outcome of a bulk submission: the graded result, or the status and reason it failed. */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record SubmissionResult(UUID attemptId, int status, GradedAttempt result, String error) {
+}
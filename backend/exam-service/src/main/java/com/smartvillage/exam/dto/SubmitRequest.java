@@ -0,0 +1,7 @@
+package com.smartvillage.exam.dto;
+
+import java.util.Map;
+import java.util.UUID;
+
+public record SubmitRequest(Map<UUID, String> answers, String endSnapshotUrl) {
+}
@@ -0,0 +1,8 @@
+package com.smartvillage.exam.grading;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record Attempt(UUID id, UUID examId, UUID userId, String studentName, Instant startTime,
+                      int totalQuestions) {
+}
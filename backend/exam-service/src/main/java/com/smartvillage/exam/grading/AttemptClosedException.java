@@ -0,0 +1,18 @@
+package com.smartvillage.exam.grading;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.UUID;
+
+/** The attempt does not belong to the exam, or its answers were already submitted. */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class AttemptClosedException extends RuntimeException {
+    public AttemptClosedException(UUID attemptId) {
+        super("Attempt " + attemptId + " is unknown or already submitted");
+    }
+
+    public AttemptClosedException(String message) {
+        super(message);
+    }
+}
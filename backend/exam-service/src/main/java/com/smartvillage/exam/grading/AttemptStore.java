@@ -0,0 +1,47 @@
+package com.smartvillage.exam.grading;
+
+import com.smartvillage.exam.dto.StartAttemptRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.UUID;
+
+@Component
+public class AttemptStore {
+
+    private static final String COLUMNS = "id, exam_id, user_id, student_name, start_time, total_questions";
+
+    private final JdbcTemplate jdbc;
+
+    public AttemptStore(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * Opens the user's attempt at an exam. Starting again before submitting returns the open
+     * attempt, so a reloaded page resumes rather than failing on the one-attempt constraint.
+     */
+    public Attempt start(UUID examId, int totalQuestions, StartAttemptRequest r) {
+        List<Attempt> created = jdbc.query("INSERT INTO exam_attempts (id, exam_id, user_id, student_name,"
+                        + " total_questions, integrity_pledge_accepted, start_snapshot_url)"
+                        + " VALUES (?, ?, ?, ?, ?, ?, ?)"
+                        + " ON CONFLICT (exam_id, user_id) DO NOTHING RETURNING " + COLUMNS,
+                AttemptStore::map, UUID.randomUUID(), examId, r.userId(), r.studentName(), totalQuestions,
+                r.integrityPledgeAccepted(), r.startSnapshotUrl());
+        if (!created.isEmpty()) return created.get(0);
+        return jdbc.query("SELECT " + COLUMNS + " FROM exam_attempts"
+                        + " WHERE exam_id = ? AND user_id = ? AND end_time IS NULL",
+                AttemptStore::map, examId, r.userId()).stream().findFirst()
+                .orElseThrow(() -> new AttemptClosedException(
+                        "User " + r.userId() + " has already submitted exam " + examId));
+    }
+
+    private static Attempt map(ResultSet rs, int row) throws SQLException {
+        return new Attempt(rs.getObject("id", UUID.class), rs.getObject("exam_id", UUID.class),
+                rs.getObject("user_id", UUID.class), rs.getString("student_name"),
+                rs.getTimestamp("start_time").toInstant(), rs.getInt("total_questions"));
+    }
+}
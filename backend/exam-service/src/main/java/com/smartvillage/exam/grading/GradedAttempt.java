@@ -0,0 +1,14 @@
+package com.smartvillage.exam.grading;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.util.List;
+import java.util.UUID;
+
+public record GradedAttempt(UUID attemptId, int score, int totalMarks, boolean passed,
+                            int correct, int wrong, int unanswered,
+                            @JsonIgnore List<Row> answers) {
+
+    /** One {@code exam_answers} row. */
+    public record Row(UUID questionId, char selected, boolean correct) {}
+}
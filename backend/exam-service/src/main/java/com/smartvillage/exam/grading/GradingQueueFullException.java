@@ -0,0 +1,10 @@
+package com.smartvillage.exam.grading;
+
+/**
+ * Thrown when the grading queue has no room. Callers should answer 503 so clients back off.
+ */
+public class GradingQueueFullException extends RuntimeException {
+    public GradingQueueFullException(String message) {
+        super(message);
+    }
+}
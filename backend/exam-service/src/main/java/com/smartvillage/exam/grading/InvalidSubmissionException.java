@@ -0,0 +1,11 @@
+package com.smartvillage.exam.grading;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidSubmissionException extends RuntimeException {
+    public InvalidSubmissionException(String message) {
+        super(message);
+    }
+}
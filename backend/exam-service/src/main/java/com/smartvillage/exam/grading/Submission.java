@@ -0,0 +1,8 @@
+package com.smartvillage.exam.grading;
+
+import java.util.Map;
+import java.util.UUID;
+
+/** A whole attempt's answers: question id to option letter. */
+public record Submission(UUID attemptId, Map<UUID, String> answers, String endSnapshotUrl) {
+}
@@ -0,0 +1,286 @@
+package com.smartvillage.exam.grading;
+
+import com.smartvillage.exam.bank.AnswerKey;
+import com.smartvillage.exam.leaderboard.LeaderboardEntry;
+import com.smartvillage.exam.leaderboard.Leaderboards;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Grades submitted attempts in batches. Requests enqueue whole attempts; a single flusher thread
+ * drains the queue, grades the batch in parallel on a dedicated fork-join pool, then closes the
+ * attempts and writes every {@code exam_answers} row with JDBC batches in one transaction, so a
+ * school submitting at once costs a handful of round trips instead of one per answer. A bulk
+ * submission reserves room for all of its attempts before any is queued, so it is accepted or
+ * refused whole and a retry never regrades the part that got in.
+ */
+@Component
+public class SubmissionBatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(SubmissionBatcher.class);
+
+    private static final String CLOSE_ATTEMPT = "UPDATE exam_attempts SET end_time = ?, score = ?,"
+            + " correct_answers = ?, wrong_answers = ?, unanswered = ?,"
+            + " end_snapshot_url = COALESCE(?, end_snapshot_url)"
+            + " WHERE id = ? AND exam_id = ? AND end_time IS NULL";
+    private static final String UPSERT_ANSWER = "INSERT INTO exam_answers"
+            + " (id, attempt_id, question_id, selected_option, is_correct, answered_at) VALUES (?, ?, ?, ?, ?, ?)"
+            + " ON CONFLICT (attempt_id, question_id) DO UPDATE SET selected_option = EXCLUDED.selected_option,"
+            + " is_correct = EXCLUDED.is_correct, answered_at = EXCLUDED.answered_at";
+    private static final int ANSWER_BATCH_SIZE = 1000;
+
+    private record Pending(UUID examId, AnswerKey key, Submission submission, Instant receivedAt,
+                           CompletableFuture<GradedAttempt> done) {}
+
+    /** A pending submission after grading; exactly one of {@code graded} and {@code error} is set. */
+    private record Outcome(Pending pending, GradedAttempt graded, RuntimeException error) {}
+
+    private record AnswerRow(UUID attemptId, Instant at, GradedAttempt.Row row) {}
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+    private final Leaderboards leaderboards;
+    private final ForkJoinPool graders;
+    // unbounded itself; room holds one permit per free slot of exam.grading.queue-capacity
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final Semaphore room;
+    private final int queueCapacity;
+    private final int batchSize;
+    private final long maxDelayMs;
+    private final long enqueueTimeoutMs;
+    private final Thread flusher;
+    private volatile boolean running = true;
+
+    public SubmissionBatcher(JdbcTemplate jdbc, PlatformTransactionManager txManager, Leaderboards leaderboards,
+                             @Value("${exam.grading.parallelism:0}") int parallelism,
+                             @Value("${exam.grading.queue-capacity:20000}") int queueCapacity,
+                             @Value("${exam.grading.batch-size:500}") int batchSize,
+                             @Value("${exam.grading.max-delay-ms:20}") long maxDelayMs,
+                             @Value("${exam.grading.enqueue-timeout-ms:200}") long enqueueTimeoutMs) {
+        this.jdbc = jdbc;
+        this.tx = new TransactionTemplate(txManager);
+        this.leaderboards = leaderboards;
+        int workers = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.graders = new ForkJoinPool(workers, pool -> {
+            ForkJoinWorkerThread t = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            t.setName("exam-grader-" + t.getPoolIndex());
+            return t;
+        }, null, false);
+        // fair, so a school's batch waiting for room is not overtaken by a stream of single submits
+        this.room = new Semaphore(queueCapacity, true);
+        this.queueCapacity = queueCapacity;
+        this.batchSize = batchSize;
+        this.maxDelayMs = maxDelayMs;
+        this.enqueueTimeoutMs = enqueueTimeoutMs;
+        this.flusher = new Thread(this::run, "exam-grading-flusher");
+    }
+
+    @PostConstruct
+    public void start() {
+        flusher.start();
+    }
+
+    /** Grades one attempt and returns once it is persisted. */
+    public GradedAttempt submit(UUID examId, AnswerKey key, Submission submission) {
+        return await(enqueue(examId, key, List.of(submission)).get(0));
+    }
+
+    /**
+     * Enqueues several attempts of the same exam, all of them or none. Each future completes on
+     * its own, so one bad attempt does not fail the rest.
+     */
+    public List<CompletableFuture<GradedAttempt>> enqueue(UUID examId, AnswerKey key,
+                                                          List<Submission> submissions) {
+        Instant now = Instant.now();
+        List<CompletableFuture<GradedAttempt>> futures = new ArrayList<>(submissions.size());
+        for (Submission s : submissions) {
+            if (s.attemptId() == null || s.answers() == null) {
+                throw new InvalidSubmissionException("attemptId and answers are required");
+            }
+        }
+        if (submissions.size() > queueCapacity) {
+            throw new GradingQueueFullException("Grading queue holds at most " + queueCapacity + " submissions");
+        }
+        try {
+            if (!room.tryAcquire(submissions.size(), enqueueTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new GradingQueueFullException("Grading queue has no room for "
+                        + submissions.size() + " submissions");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GradingQueueFullException("Interrupted while enqueueing submissions");
+        }
+        for (Submission s : submissions) {
+            CompletableFuture<GradedAttempt> done = new CompletableFuture<>();
+            queue.add(new Pending(examId, key, s, now, done));
+            futures.add(done);
+        }
+        return futures;
+    }
+
+    public GradedAttempt await(CompletableFuture<GradedAttempt> done) {
+        try {
+            return done.get(enqueueTimeoutMs + maxDelayMs + 10_000, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for grading", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException r) throw r;
+            throw new IllegalStateException("Submission was not graded", e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Submission was not graded in time", e);
+        }
+    }
+
+    public int queueDepth() {
+        return queue.size();
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(maxDelayMs, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                flush(batch);
+            } catch (InterruptedException e) {
+                running = false;
+            } finally {
+                room.release(batch.size());
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<Pending> batch) {
+        List<Outcome> outcomes = graders.submit(() -> batch.parallelStream()
+                .map(SubmissionBatcher::grade).toList()).join();
+        List<Outcome> graded = new ArrayList<>(outcomes.size());
+        for (Outcome o : outcomes) {
+            if (o.error() != null) o.pending().done().completeExceptionally(o.error());
+            else graded.add(o);
+        }
+        if (graded.isEmpty()) return;
+        boolean[] closed;
+        try {
+            closed = tx.execute(status -> persist(graded));
+        } catch (RuntimeException e) {
+            log.error("Failed to persist {} graded attempts", graded.size(), e);
+            graded.forEach(o -> o.pending().done().completeExceptionally(e));
+            return;
+        }
+        List<Outcome> accepted = new ArrayList<>(graded.size());
+        for (int i = 0; i < graded.size(); i++) {
+            if (closed[i]) accepted.add(graded.get(i));
+        }
+        try {
+            rank(accepted);
+        } catch (RuntimeException e) {
+            // results are committed; the boards catch up when they are next loaded
+            log.warn("Failed to update leaderboards for {} attempts", accepted.size(), e);
+        }
+        for (int i = 0; i < graded.size(); i++) {
+            Outcome o = graded.get(i);
+            if (closed[i]) o.pending().done().complete(o.graded());
+            else o.pending().done().completeExceptionally(new AttemptClosedException(o.graded().attemptId()));
+        }
+    }
+
+    private static Outcome grade(Pending p) {
+        try {
+            return new Outcome(p, p.key().grade(p.submission().attemptId(), p.submission().answers()), null);
+        } catch (RuntimeException e) {
+            return new Outcome(p, null, e);
+        }
+    }
+
+    /** Closes the attempts and writes answers for those that were still open, which are flagged. */
+    private boolean[] persist(List<Outcome> graded) {
+        int[][] counts = jdbc.batchUpdate(CLOSE_ATTEMPT, graded, graded.size(), (ps, o) -> {
+            GradedAttempt g = o.graded();
+            ps.setTimestamp(1, Timestamp.from(o.pending().receivedAt()));
+            ps.setInt(2, g.score());
+            ps.setInt(3, g.correct());
+            ps.setInt(4, g.wrong());
+            ps.setInt(5, g.unanswered());
+            ps.setString(6, o.pending().submission().endSnapshotUrl());
+            ps.setObject(7, g.attemptId());
+            ps.setObject(8, o.pending().examId());
+        });
+        boolean[] closed = new boolean[graded.size()];
+        List<AnswerRow> answers = new ArrayList<>();
+        for (int i = 0; i < graded.size(); i++) {
+            if (counts[0][i] != 1) continue;
+            closed[i] = true;
+            Outcome o = graded.get(i);
+            for (GradedAttempt.Row r : o.graded().answers()) {
+                answers.add(new AnswerRow(o.graded().attemptId(), o.pending().receivedAt(), r));
+            }
+        }
+        jdbc.batchUpdate(UPSERT_ANSWER, answers, ANSWER_BATCH_SIZE, (ps, a) -> {
+            ps.setObject(1, UUID.randomUUID());
+            ps.setObject(2, a.attemptId());
+            ps.setObject(3, a.row().questionId());
+            ps.setString(4, String.valueOf(a.row().selected()));
+            ps.setBoolean(5, a.row().correct());
+            ps.setTimestamp(6, Timestamp.from(a.at()));
+        });
+        return closed;
+    }
+
+    /** Feeds committed results to the leaderboards; names and start times come from one lookup. */
+    private void rank(List<Outcome> closed) {
+        if (closed.isEmpty()) return;
+        Map<UUID, Outcome> byAttempt = new HashMap<>();
+        closed.forEach(o -> byAttempt.put(o.graded().attemptId(), o));
+        Map<UUID, List<LeaderboardEntry>> byExam = new HashMap<>();
+        jdbc.query(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                    "SELECT id, student_name, start_time FROM exam_attempts WHERE id = ANY(?)");
+            ps.setArray(1, con.createArrayOf("uuid", byAttempt.keySet().toArray()));
+            return ps;
+        }, rs -> {
+            Outcome o = byAttempt.get(rs.getObject("id", UUID.class));
+            Instant end = o.pending().receivedAt();
+            byExam.computeIfAbsent(o.pending().examId(), id -> new ArrayList<>())
+                    .add(new LeaderboardEntry(o.graded().attemptId(), rs.getString("student_name"),
+                            o.graded().score(),
+                            Leaderboards.durationSeconds(rs.getTimestamp("start_time").toInstant(), end), end));
+        });
+        byExam.forEach(leaderboards::record);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        flusher.join(10_000);
+        graders.shutdown();
+    }
+}
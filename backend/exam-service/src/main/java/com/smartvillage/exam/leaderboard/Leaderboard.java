@@ -0,0 +1,52 @@
+package com.smartvillage.exam.leaderboard;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * One exam's standings, kept sorted as results arrive: highest score first, then fastest, then
+ * earliest submitted.
+ */
+final class Leaderboard {
+
+    private static final Comparator<LeaderboardEntry> ORDER = Comparator
+            .comparingInt(LeaderboardEntry::score).reversed()
+            .thenComparingLong(LeaderboardEntry::durationSeconds)
+            .thenComparing(LeaderboardEntry::submittedAt)
+            .thenComparing(LeaderboardEntry::attemptId);
+
+    private final TreeSet<LeaderboardEntry> ranked = new TreeSet<>(ORDER);
+    private final Map<UUID, LeaderboardEntry> byAttempt = new HashMap<>();
+
+    synchronized void put(LeaderboardEntry entry) {
+        LeaderboardEntry previous = byAttempt.put(entry.attemptId(), entry);
+        if (previous != null) ranked.remove(previous);
+        ranked.add(entry);
+    }
+
+    synchronized List<Standing> top(int limit) {
+        List<Standing> out = new ArrayList<>(Math.min(limit, ranked.size()));
+        Iterator<LeaderboardEntry> it = ranked.iterator();
+        while (it.hasNext() && out.size() < limit) {
+            LeaderboardEntry e = it.next();
+            out.add(new Standing(out.size() + 1, e.attemptId(), e.studentName(), e.score(), e.durationSeconds()));
+        }
+        return out;
+    }
+
+    /** 1-based rank, or 0 when the attempt has no result yet. */
+    synchronized int rank(UUID attemptId) {
+        LeaderboardEntry e = byAttempt.get(attemptId);
+        return e == null ? 0 : ranked.headSet(e).size() + 1;
+    }
+
+    synchronized int size() {
+        return byAttempt.size();
+    }
+}
@@ -0,0 +1,8 @@
+package com.smartvillage.exam.leaderboard;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record LeaderboardEntry(UUID attemptId, String studentName, int score, long durationSeconds,
+                               Instant submittedAt) {
+}
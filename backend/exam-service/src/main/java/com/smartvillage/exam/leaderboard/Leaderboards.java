@@ -0,0 +1,85 @@
+package com.smartvillage.exam.leaderboard;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory leaderboards. A board is folded from {@code exam_attempts} the first time it is read
+ * and from then on updated with each graded batch, so reads never sort in the database.
+ */
+@Component
+public class Leaderboards {
+
+    private static final int LOAD_FETCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate readTx;
+    private final Map<UUID, Leaderboard> boards = new ConcurrentHashMap<>();
+
+    public Leaderboards(JdbcTemplate jdbc, PlatformTransactionManager txManager) {
+        this.jdbc = jdbc;
+        this.readTx = new TransactionTemplate(txManager);
+        this.readTx.setReadOnly(true);
+    }
+
+    public List<Standing> top(UUID examId, int limit) {
+        return board(examId).top(limit);
+    }
+
+    public int rank(UUID examId, UUID attemptId) {
+        return board(examId).rank(attemptId);
+    }
+
+    public int participants(UUID examId) {
+        return board(examId).size();
+    }
+
+    /**
+     * Adds committed results. Boards nobody has read yet are left alone; they will include these
+     * rows when they are loaded.
+     */
+    public void record(UUID examId, Collection<LeaderboardEntry> entries) {
+        boards.computeIfPresent(examId, (id, board) -> {
+            entries.forEach(board::put);
+            return board;
+        });
+    }
+
+    public static long durationSeconds(Instant start, Instant end) {
+        return Math.max(0, Duration.between(start, end).toSeconds());
+    }
+
+    private Leaderboard board(UUID examId) {
+        return boards.computeIfAbsent(examId, this::load);
+    }
+
+    private Leaderboard load(UUID examId) {
+        Leaderboard board = new Leaderboard();
+        // a transaction lets the Postgres driver honour the fetch size and stream the rows
+        readTx.executeWithoutResult(tx -> jdbc.query(con -> {
+            PreparedStatement ps = con.prepareStatement("SELECT id, student_name, score, start_time, end_time"
+                            + " FROM exam_attempts WHERE exam_id = ? AND score IS NOT NULL",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(LOAD_FETCH_SIZE);
+            ps.setObject(1, examId);
+            return ps;
+        }, rs -> {
+            Instant end = rs.getTimestamp("end_time").toInstant();
+            board.put(new LeaderboardEntry(rs.getObject("id", UUID.class), rs.getString("student_name"),
+                    rs.getInt("score"), durationSeconds(rs.getTimestamp("start_time").toInstant(), end), end));
+        }));
+        return board;
+    }
+}
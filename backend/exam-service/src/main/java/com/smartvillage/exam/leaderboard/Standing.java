@@ -0,0 +1,6 @@
+package com.smartvillage.exam.leaderboard;
+
+import java.util.UUID;
+
+public record Standing(int rank, UUID attemptId, String studentName, int score, long durationSeconds) {
+}
@@ -0,0 +1,73 @@
+-- Exam tables for a plain Postgres. IF NOT EXISTS keeps it a no-op on Supabase, whose tables differ:
+-- subject and status are the exam_subject/exam_status enums there rather than TEXT with CHECKs
+-- (the datasource binds strings untyped so both work), and scheduled_at/ends_at are NOT NULL.
+CREATE TABLE IF NOT EXISTS exams (
+    id UUID PRIMARY KEY,
+    village_id UUID,
+    title TEXT NOT NULL,
+    subject TEXT NOT NULL CHECK (subject IN ('GK', 'Science', 'Math', 'English')),
+    description TEXT,
+    total_questions INTEGER NOT NULL DEFAULT 0,
+    duration_minutes INTEGER NOT NULL DEFAULT 30,
+    scheduled_at TIMESTAMPTZ,
+    ends_at TIMESTAMPTZ,
+    status TEXT NOT NULL DEFAULT 'draft'
+        CHECK (status IN ('draft', 'scheduled', 'active', 'completed', 'cancelled')),
+    pass_marks INTEGER NOT NULL DEFAULT 0,
+    total_marks INTEGER NOT NULL DEFAULT 0,
+    is_active BOOLEAN NOT NULL DEFAULT TRUE,
+    created_by UUID,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+    updated_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+CREATE TABLE IF NOT EXISTS exam_questions (
+    id UUID PRIMARY KEY,
+    exam_id UUID NOT NULL REFERENCES exams(id) ON DELETE CASCADE,
+    subject TEXT,
+    question TEXT NOT NULL,
+    option_a TEXT NOT NULL,
+    option_b TEXT NOT NULL,
+    option_c TEXT NOT NULL,
+    option_d TEXT NOT NULL,
+    correct_option TEXT NOT NULL CHECK (correct_option IN ('A', 'B', 'C', 'D')),
+    explanation TEXT,
+    difficulty TEXT CHECK (difficulty IN ('easy', 'medium', 'hard')),
+    class TEXT,
+    topic TEXT,
+    marks_per_question INTEGER NOT NULL DEFAULT 1,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+    updated_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+CREATE TABLE IF NOT EXISTS exam_attempts (
+    id UUID PRIMARY KEY,
+    exam_id UUID NOT NULL REFERENCES exams(id) ON DELETE CASCADE,
+    user_id UUID NOT NULL,
+    student_name TEXT NOT NULL,
+    start_time TIMESTAMPTZ NOT NULL DEFAULT now(),
+    end_time TIMESTAMPTZ,
+    score INTEGER,
+    total_questions INTEGER NOT NULL,
+    correct_answers INTEGER NOT NULL DEFAULT 0,
+    wrong_answers INTEGER NOT NULL DEFAULT 0,
+    unanswered INTEGER NOT NULL DEFAULT 0,
+    integrity_pledge_accepted BOOLEAN NOT NULL DEFAULT FALSE,
+    start_snapshot_url TEXT,
+    end_snapshot_url TEXT,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+    UNIQUE (exam_id, user_id)
+);
+
+CREATE TABLE IF NOT EXISTS exam_answers (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    attempt_id UUID NOT NULL REFERENCES exam_attempts(id) ON DELETE CASCADE,
+    question_id UUID NOT NULL REFERENCES exam_questions(id) ON DELETE CASCADE,
+    selected_option TEXT CHECK (selected_option IN ('A', 'B', 'C', 'D')),
+    is_correct BOOLEAN NOT NULL DEFAULT FALSE,
+    answered_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+    UNIQUE (attempt_id, question_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_exam_questions_exam ON exam_questions (exam_id);
+CREATE INDEX IF NOT EXISTS idx_exam_attempts_exam_score ON exam_attempts (exam_id, score DESC) WHERE score IS NOT NULL;
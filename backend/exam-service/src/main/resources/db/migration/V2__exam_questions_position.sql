@@ -0,0 +1,10 @@
+-- Flyway migration: explicit question order, since one import shares a single created_at
+ALTER TABLE exam_questions ADD COLUMN IF NOT EXISTS position INTEGER;
+
+-- questions imported before this keep the order they were listed in until now
+UPDATE exam_questions q SET position = o.position
+  FROM (SELECT id, row_number() OVER (PARTITION BY exam_id ORDER BY created_at, id) AS position
+          FROM exam_questions) o
+ WHERE q.id = o.id AND q.position IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_exam_questions_exam_position ON exam_questions (exam_id, position);
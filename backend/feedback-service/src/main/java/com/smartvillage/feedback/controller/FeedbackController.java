@@ -1,48 +1,129 @@
 package com.smartvillage.feedback.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.smartvillage.common.paging.CursorPage;
+import com.smartvillage.common.paging.KeysetPager;
+import com.smartvillage.common.write.EntityWriter;
+import com.smartvillage.common.write.WritableTable;
 import com.smartvillage.feedback.entity.Feedback;
+import com.smartvillage.feedback.ingest.FeedbackIngestor;
+import com.smartvillage.feedback.ingest.IngestQueueFullException;
 import com.smartvillage.feedback.repository.FeedbackRepository;
+import com.smartvillage.feedback.village.VillageFeedbackCounts;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/v1/feedback")
 public class FeedbackController {
+    private static final WritableTable<Feedback> TABLE = WritableTable.of(Feedback.class)
+            .column("message").column("status");
+
     private final FeedbackRepository repo;
+    private final KeysetPager pager;
+    private final FeedbackIngestor ingestor;
+    private final VillageFeedbackCounts villageCounts;
+    private final EntityWriter writer;
+    private final int maxBulk;
 
-    public FeedbackController(FeedbackRepository repo) { this.repo = repo; }
+    public FeedbackController(FeedbackRepository repo, KeysetPager pager, FeedbackIngestor ingestor,
+                              VillageFeedbackCounts villageCounts, EntityWriter writer,
+                              @Value("${feedback.ingest.max-bulk:500}") int maxBulk) {
+        this.repo = repo;
+        this.pager = pager;
+        this.ingestor = ingestor;
+        this.villageCounts = villageCounts;
+        this.writer = writer;
+        this.maxBulk = maxBulk;
+    }
 
     @GetMapping
     public List<Feedback> list() { return repo.findAll(); }
 
+    @GetMapping("/page")
+    public CursorPage<Feedback> page(@RequestParam(required = false) String cursor,
+                                     @RequestParam(required = false) Integer size) {
+        return pager.page(Feedback.class, null, cursor, size);
+    }
+
+    @GetMapping("/village/{villageId}")
+    public CursorPage<Feedback> pageForVillage(@PathVariable UUID villageId,
+                                               @RequestParam(required = false) String cursor,
+                                               @RequestParam(required = false) Integer size) {
+        return pager.page(Feedback.class, "e.villageId = :villageId", Map.of("villageId", villageId), cursor, size);
+    }
+
+    @GetMapping("/village/{villageId}/counts")
+    public VillageFeedbackCounts.Counts countsForVillage(@PathVariable UUID villageId) {
+        return villageCounts.get(villageId);
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    public StreamingResponseBody stream() { return pager.stream(Feedback.class, null); }
+
     @GetMapping("/{id}")
     public ResponseEntity<?> get(@PathVariable UUID id) {
-        Optional<Feedback> f = repo.findById(id);
-        return f.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+        return repo.findById(id).<ResponseEntity<?>>map(f -> ResponseEntity.ok().eTag(EntityWriter.etag(f.getVersion())).body(f))
+                .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     @PostMapping
-    public Feedback create(@RequestBody Feedback feedback) { return repo.save(feedback); }
+    public ResponseEntity<Feedback> create(@RequestBody Feedback feedback) {
+        ingestor.submit(feedback);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(feedback);
+    }
+
+    @PostMapping("/bulk")
+    public ResponseEntity<?> createBulk(@RequestBody List<Feedback> items) {
+        if (items.size() > maxBulk) {
+            return ResponseEntity.badRequest().body("At most " + maxBulk + " items per request");
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(Map.of("ids", ingestor.submitAll(items)));
+    }
 
     @PutMapping("/{id}")
-    public ResponseEntity<?> update(@PathVariable UUID id, @RequestBody Feedback feedback) {
-        return repo.findById(id).map(existing -> {
-            existing.setMessage(feedback.getMessage());
-            existing.setStatus(feedback.getStatus());
-            repo.save(existing);
-            return ResponseEntity.ok(existing);
-        }).orElseGet(() -> ResponseEntity.notFound().build());
+    public ResponseEntity<?> update(@PathVariable UUID id, @RequestBody Feedback feedback,
+                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return writer.replace(TABLE, id, EntityWriter.versionFrom(ifMatch), feedback)
+                .<ResponseEntity<?>>map(this::updated)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @PatchMapping(value = "/{id}", consumes = { EntityWriter.MERGE_PATCH_JSON, MediaType.APPLICATION_JSON_VALUE })
+    public ResponseEntity<?> patch(@PathVariable UUID id, @RequestBody JsonNode patch,
+                                   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return writer.patch(TABLE, id, EntityWriter.versionFrom(ifMatch), patch)
+                .<ResponseEntity<?>>map(this::updated)
+                .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<?> delete(@PathVariable UUID id) {
-        return repo.findById(id).map(f -> {
-            repo.deleteById(id);
+    public ResponseEntity<?> delete(@PathVariable UUID id,
+                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return writer.delete(TABLE, id, EntityWriter.versionFrom(ifMatch)).map(f -> {
+            villageCounts.invalidate(f.getVillageId());
             return ResponseEntity.ok().build();
         }).orElseGet(() -> ResponseEntity.notFound().build());
     }
+
+    private ResponseEntity<Feedback> updated(Feedback f) {
+        villageCounts.invalidate(f.getVillageId());
+        return ResponseEntity.ok().eTag(EntityWriter.etag(f.getVersion())).body(f);
+    }
+
+    @ExceptionHandler(IngestQueueFullException.class)
+    public ResponseEntity<?> queueFull(IngestQueueFullException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(e.getMessage());
+    }
 }
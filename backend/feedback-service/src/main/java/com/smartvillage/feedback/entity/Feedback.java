@@ -1,11 +1,12 @@
 package com.smartvillage.feedback.entity;
 
+import com.smartvillage.common.paging.KeysetEntity;
 import jakarta.persistence.*;
 import java.time.Instant;
 
 @Entity
 @Table(name = "feedback_submissions")
-public class Feedback {
+public class Feedback implements KeysetEntity {
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
     private java.util.UUID id;
@@ -19,6 +20,9 @@ public class Feedback {
     private String status = "new";
     private Instant createdAt = Instant.now();
 
+    @Version
+    private long version;
+
     public Feedback() {}
 
     public java.util.UUID getId() { return id; }
@@ -37,4 +41,6 @@ public class Feedback {
     public void setStatus(String status) { this.status = status; }
     public Instant getCreatedAt() { return createdAt; }
     public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
 }
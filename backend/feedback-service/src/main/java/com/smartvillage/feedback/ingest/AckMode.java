@@ -0,0 +1,11 @@
+package com.smartvillage.feedback.ingest;
+
+/**
+ * When a submission is acknowledged to the client.
+ */
+public enum AckMode {
+    /** As soon as it is in the in-memory queue. Fastest; a crash loses whatever was not flushed yet. */
+    ENQUEUE,
+    /** Once the batch containing it has been committed. */
+    FLUSH
+}
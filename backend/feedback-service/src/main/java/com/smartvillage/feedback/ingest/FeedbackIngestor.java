@@ -0,0 +1,217 @@
+package com.smartvillage.feedback.ingest;
+
+import com.smartvillage.feedback.entity.Feedback;
+import com.smartvillage.feedback.village.VillageFeedbackCounts;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Write-behind ingestion for feedback submissions. Requests assign the id and enqueue; a single
+ * flusher thread drains the queue and writes each batch with one JDBC batch insert
+ * (rewritten to multi-row inserts by the driver when {@code reWriteBatchedInserts=true}).
+ * A bulk submission is checked and reserves room for all of its items before any is queued, so it
+ * is either accepted whole or refused whole and a retry never duplicates part of it. If a batch
+ * insert still fails, its rows are retried one by one so only the offending one is lost.
+ */
+@Component
+public class FeedbackIngestor {
+
+    private static final Logger log = LoggerFactory.getLogger(FeedbackIngestor.class);
+
+    private static final String INSERT = "INSERT INTO feedback_submissions "
+            + "(id, village_id, name, mobile, type, message, status, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    // rows of a failed batch may have been written before the failing one
+    private static final String INSERT_ONE = INSERT + " ON CONFLICT (id) DO NOTHING";
+    // the CHECK on feedback_submissions.type
+    private static final Set<String> TYPES = Set.of("feedback", "suggestion", "complaint");
+
+    private record Pending(Feedback feedback, CompletableFuture<UUID> done) {}
+
+    private final JdbcTemplate jdbc;
+    private final VillageFeedbackCounts villageCounts;
+    // unbounded itself; room holds one permit per free slot of feedback.ingest.queue-capacity
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final Semaphore room;
+    private final int queueCapacity;
+    private final int batchSize;
+    private final long maxDelayMs;
+    private final long enqueueTimeoutMs;
+    private final AckMode ackMode;
+    private final Thread flusher;
+    private volatile boolean running = true;
+
+    public FeedbackIngestor(JdbcTemplate jdbc, VillageFeedbackCounts villageCounts,
+                            @Value("${feedback.ingest.queue-capacity:10000}") int queueCapacity,
+                            @Value("${feedback.ingest.batch-size:200}") int batchSize,
+                            @Value("${feedback.ingest.max-delay-ms:50}") long maxDelayMs,
+                            @Value("${feedback.ingest.enqueue-timeout-ms:100}") long enqueueTimeoutMs,
+                            @Value("${feedback.ingest.ack:ENQUEUE}") AckMode ackMode) {
+        this.jdbc = jdbc;
+        this.villageCounts = villageCounts;
+        // fair, so a large batch waiting for room is not overtaken by a stream of single submissions
+        this.room = new Semaphore(queueCapacity, true);
+        this.queueCapacity = queueCapacity;
+        this.batchSize = batchSize;
+        this.maxDelayMs = maxDelayMs;
+        this.enqueueTimeoutMs = enqueueTimeoutMs;
+        this.ackMode = ackMode;
+        this.flusher = new Thread(this::run, "feedback-flusher");
+    }
+
+    @PostConstruct
+    public void start() {
+        flusher.start();
+    }
+
+    /** Accepts one submission and returns its id according to the configured {@link AckMode}. */
+    public UUID submit(Feedback feedback) {
+        return submitAll(List.of(feedback)).get(0);
+    }
+
+    /** Accepts all of {@code items} or none of them. */
+    public List<UUID> submitAll(List<Feedback> items) {
+        for (int i = 0; i < items.size(); i++) {
+            String problem = validate(items.get(i));
+            if (problem != null) {
+                throw new InvalidFeedbackException(items.size() == 1 ? problem : "Item " + i + ": " + problem);
+            }
+        }
+        if (items.size() > queueCapacity) {
+            throw new IngestQueueFullException("Feedback queue holds at most " + queueCapacity + " items");
+        }
+        try {
+            if (!room.tryAcquire(items.size(), enqueueTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new IngestQueueFullException("Feedback queue has no room for " + items.size() + " items");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IngestQueueFullException("Interrupted while enqueueing feedback");
+        }
+        List<CompletableFuture<UUID>> futures = new ArrayList<>(items.size());
+        for (Feedback f : items) {
+            prepare(f);
+            CompletableFuture<UUID> done = new CompletableFuture<>();
+            queue.add(new Pending(f, done));
+            futures.add(done);
+        }
+        List<UUID> ids = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            ids.add(ackMode == AckMode.FLUSH ? await(futures.get(i)) : items.get(i).getId());
+        }
+        return ids;
+    }
+
+    public int queueDepth() {
+        return queue.size();
+    }
+
+    /** What the table's NOT NULL and CHECK constraints would reject, or null. */
+    private static String validate(Feedback f) {
+        if (f == null) return "feedback is required";
+        if (isBlank(f.getName()) || isBlank(f.getMobile()) || isBlank(f.getMessage())) {
+            return "name, mobile and message are required";
+        }
+        if (!TYPES.contains(f.getType())) return "type must be one of " + TYPES;
+        return null;
+    }
+
+    private static boolean isBlank(String s) {
+        return s == null || s.isBlank();
+    }
+
+    private void prepare(Feedback f) {
+        f.setId(UUID.randomUUID());
+        if (f.getCreatedAt() == null) f.setCreatedAt(Instant.now());
+        if (f.getStatus() == null) f.setStatus("new");
+    }
+
+    private UUID await(CompletableFuture<UUID> done) {
+        try {
+            return done.get(enqueueTimeoutMs + maxDelayMs + 5_000, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for feedback flush", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Feedback was not persisted", e);
+        }
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(maxDelayMs, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                flush(batch);
+            } catch (InterruptedException e) {
+                running = false;
+            } finally {
+                room.release(batch.size());
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<Pending> batch) {
+        try {
+            jdbc.batchUpdate(INSERT, batch, batch.size(), (ps, p) -> bind(ps, p.feedback()));
+            batch.forEach(this::written);
+        } catch (RuntimeException e) {
+            log.warn("Failed to flush {} feedback submissions, retrying one by one", batch.size(), e);
+            for (Pending p : batch) {
+                try {
+                    jdbc.update(INSERT_ONE, ps -> bind(ps, p.feedback()));
+                    written(p);
+                } catch (RuntimeException rowError) {
+                    log.error("Dropped feedback submission {}", p.feedback().getId(), rowError);
+                    p.done().completeExceptionally(rowError);
+                }
+            }
+        }
+    }
+
+    private void written(Pending p) {
+        villageCounts.recordCreated(p.feedback());
+        p.done().complete(p.feedback().getId());
+    }
+
+    private static void bind(PreparedStatement ps, Feedback f) throws SQLException {
+        ps.setObject(1, f.getId());
+        ps.setObject(2, f.getVillageId());
+        ps.setString(3, f.getName());
+        ps.setString(4, f.getMobile());
+        ps.setString(5, f.getType());
+        ps.setString(6, f.getMessage());
+        ps.setString(7, f.getStatus());
+        ps.setTimestamp(8, Timestamp.from(f.getCreatedAt()));
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        flusher.join(10_000);
+    }
+}
@@ -0,0 +1,10 @@
+package com.smartvillage.feedback.ingest;
+
+/**
+ * Thrown when the ingestion queue has no room. Callers should answer 503 so clients back off.
+ */
+public class IngestQueueFullException extends RuntimeException {
+    public IngestQueueFullException(String message) {
+        super(message);
+    }
+}
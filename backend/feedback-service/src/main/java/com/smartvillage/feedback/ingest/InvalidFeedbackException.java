@@ -0,0 +1,15 @@
+package com.smartvillage.feedback.ingest;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown before a submission is queued when the table would refuse it, so a client is never acked
+ * for a row that cannot be written.
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidFeedbackException extends RuntimeException {
+    public InvalidFeedbackException(String message) {
+        super(message);
+    }
+}
@@ -2,8 +2,19 @@ package com.smartvillage.feedback.repository;
 
 import com.smartvillage.feedback.entity.Feedback;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.UUID;
 
 public interface FeedbackRepository extends JpaRepository<Feedback, UUID> {
+
+    interface StatusCount {
+        String getStatus();
+        long getCount();
+    }
+
+    @Query("select f.status as status, count(f) as count from Feedback f where f.villageId = :villageId group by f.status")
+    List<StatusCount> countByStatus(@Param("villageId") UUID villageId);
 }
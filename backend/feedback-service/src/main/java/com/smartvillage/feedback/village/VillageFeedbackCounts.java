@@ -0,0 +1,91 @@
+package com.smartvillage.feedback.village;
+
+import com.smartvillage.feedback.entity.Feedback;
+import com.smartvillage.feedback.repository.FeedbackRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Per-village feedback counts by status, loaded with one indexed group-by and then kept in memory
+ * for the {@code feedback.village-counts.max-villages} most recently used villages. New submissions
+ * are added as they are flushed; status edits and deletes reload the village.
+ */
+@Component
+public class VillageFeedbackCounts {
+
+    private static final Set<String> CLOSED = Set.of("resolved", "closed");
+
+    public record Counts(Map<String, Long> byStatus, long open, long total) {
+        static Counts of(Map<String, Long> byStatus) {
+            long total = 0;
+            long open = 0;
+            for (Map.Entry<String, Long> e : byStatus.entrySet()) {
+                total += e.getValue();
+                if (!CLOSED.contains(e.getKey())) open += e.getValue();
+            }
+            return new Counts(Map.copyOf(byStatus), open, total);
+        }
+
+        Counts plus(String status) {
+            Map<String, Long> next = new HashMap<>(byStatus);
+            next.merge(status, 1L, Long::sum);
+            return of(next);
+        }
+    }
+
+    // counts is null while a load is in flight; that entry's identity tells the load whether a write came first
+    private record Entry(Counts counts) {}
+
+    private final FeedbackRepository repo;
+    // Guarded by this, and held only for map updates; loads run outside it.
+    private final LinkedHashMap<UUID, Entry> byVillage;
+
+    public VillageFeedbackCounts(FeedbackRepository repo,
+                                 @Value("${feedback.village-counts.max-villages:10000}") int maxVillages) {
+        this.repo = repo;
+        this.byVillage = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, Entry> eldest) {
+                return size() > maxVillages;
+            }
+        };
+    }
+
+    public Counts get(UUID villageId) {
+        Entry loading = new Entry(null);
+        synchronized (this) {
+            Entry e = byVillage.get(villageId);
+            if (e != null && e.counts() != null) return e.counts();
+            byVillage.put(villageId, loading);
+        }
+        Map<String, Long> byStatus = new HashMap<>();
+        for (FeedbackRepository.StatusCount sc : repo.countByStatus(villageId)) {
+            byStatus.put(sc.getStatus() != null ? sc.getStatus() : "new", sc.getCount());
+        }
+        Counts c = Counts.of(byStatus);
+        synchronized (this) {
+            // a write or another load since ours replaced the marker, so ours may be stale
+            byVillage.computeIfPresent(villageId, (k, e) -> e == loading ? new Entry(c) : e);
+        }
+        return c;
+    }
+
+    /** Called once a new submission is committed. */
+    public synchronized void recordCreated(Feedback f) {
+        if (f.getVillageId() == null) return;
+        // a load in flight may or may not see the new row, so it is dropped rather than stored
+        byVillage.computeIfPresent(f.getVillageId(),
+                (k, e) -> e.counts() == null ? null : new Entry(e.counts().plus(f.getStatus())));
+    }
+
+    public synchronized void invalidate(UUID villageId) {
+        if (villageId == null) return;
+        byVillage.remove(villageId);
+    }
+}
@@ -0,0 +1,11 @@
+-- Flyway migration: create feedback_submissions table
+CREATE TABLE IF NOT EXISTS feedback_submissions (
+  id UUID PRIMARY KEY,
+  village_id UUID,
+  name TEXT,
+  mobile TEXT,
+  type TEXT,
+  message TEXT,
+  status TEXT DEFAULT 'new',
+  created_at TIMESTAMPTZ DEFAULT now()
+);
@@ -0,0 +1,5 @@
+-- Flyway migration: village-scoped feedback listing and per-status counts
+CREATE INDEX IF NOT EXISTS idx_feedback_village_created
+  ON feedback_submissions (village_id, created_at DESC);
+CREATE INDEX IF NOT EXISTS idx_feedback_village_status
+  ON feedback_submissions (village_id, status);
@@ -0,0 +1,10 @@
+package com.smartvillage.gateway.auth;
+
+import java.time.Instant;
+
+/** Verified token contents; same claims as auth-service's {@code TokenClaims}. */
+public record EdgeClaims(String subject, String userId, String role, Instant expiresAt) {
+
+    /** Request attribute holding the caller's claims once the token has been checked. */
+    public static final String ATTRIBUTE = EdgeClaims.class.getName();
+}
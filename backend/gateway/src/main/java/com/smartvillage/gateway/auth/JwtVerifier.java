@@ -0,0 +1,56 @@
+package com.smartvillage.gateway.auth;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Checks tokens issued by auth-service (HS256, shared {@code jwt.secret}). Verified tokens are kept
+ * until they expire, so a client's repeat requests skip the signature check.
+ */
+@Component
+public class JwtVerifier {
+
+    private final JwtParser parser;
+    private final int verifiedCacheSize;
+    private final Map<String, EdgeClaims> verified = new ConcurrentHashMap<>();
+
+    public JwtVerifier(@Value("${jwt.secret:changeme}") String secret,
+                       @Value("${jwt.verified-cache-size:10000}") int verifiedCacheSize) {
+        this.parser = Jwts.parserBuilder().setSigningKey(Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8))).build();
+        this.verifiedCacheSize = verifiedCacheSize;
+    }
+
+    /** Throws a {@link io.jsonwebtoken.JwtException} if the token is invalid or expired. */
+    public EdgeClaims verify(String token) {
+        EdgeClaims cached = verified.get(token);
+        if (cached != null) {
+            if (cached.expiresAt().isAfter(Instant.now())) return cached;
+            verified.remove(token, cached);
+        }
+        Claims body = parser.parseClaimsJws(token).getBody();
+        Date exp = body.getExpiration();
+        EdgeClaims claims = new EdgeClaims(body.getSubject(), body.get("uid", String.class),
+                body.get("role", String.class), exp != null ? exp.toInstant() : Instant.EPOCH);
+        if (exp != null) remember(token, claims);
+        return claims;
+    }
+
+    private void remember(String token, EdgeClaims claims) {
+        if (verified.size() >= verifiedCacheSize) {
+            Instant now = Instant.now();
+            verified.values().removeIf(c -> !c.expiresAt().isAfter(now));
+            if (verified.size() >= verifiedCacheSize) return;
+        }
+        verified.put(token, claims);
+    }
+}
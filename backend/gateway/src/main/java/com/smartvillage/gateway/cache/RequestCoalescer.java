@@ -0,0 +1,55 @@
+package com.smartvillage.gateway.cache;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Single-flight for upstream calls: while a call for a key is running, identical requests wait for
+ * its result instead of issuing their own. Nothing is kept once the call finishes; retention is the
+ * {@link ResponseCache}'s job.
+ */
+class RequestCoalescer<T> {
+
+    interface Call<T> {
+        T run() throws IOException, InterruptedException;
+    }
+
+    record Outcome<T>(T value, boolean shared) {}
+
+    private final ConcurrentHashMap<String, CompletableFuture<T>> inFlight = new ConcurrentHashMap<>();
+
+    Outcome<T> call(String key, Call<T> call) throws IOException, InterruptedException {
+        CompletableFuture<T> mine = new CompletableFuture<>();
+        CompletableFuture<T> leader = inFlight.putIfAbsent(key, mine);
+        if (leader != null) return new Outcome<>(await(leader), true);
+        try {
+            T value = call.run();
+            mine.complete(value);
+            return new Outcome<>(value, false);
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    int inFlight() {
+        return inFlight.size();
+    }
+
+    // the leader's own timeout bounds the wait, so followers need none of their own
+    private static <T> T await(CompletableFuture<T> leader) throws IOException, InterruptedException {
+        try {
+            return leader.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) throw io;
+            if (cause instanceof InterruptedException ie) throw ie;
+            if (cause instanceof RuntimeException re) throw re;
+            throw new IOException("Upstream call failed", cause);
+        }
+    }
+}
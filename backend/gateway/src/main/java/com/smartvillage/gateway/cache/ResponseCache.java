@@ -0,0 +1,83 @@
+package com.smartvillage.gateway.cache;
+
+import com.smartvillage.gateway.upstream.UpstreamResponse;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded LRU of shared GET responses. Entries are fresh for their TTL; after that they are kept
+ * (while there is room) so the next request can revalidate them with {@code If-None-Match} instead
+ * of downloading the body again. Each route has a generation, bumped by every write through the
+ * gateway, so a response fetched before a write is never stored after it.
+ */
+class ResponseCache {
+
+    record Entry(UpstreamResponse response, String route, long freshUntil) {
+        boolean isFresh(long now) {
+            return now - freshUntil < 0;
+        }
+    }
+
+    private final Duration ttl;
+    private final Duration maxTtl;
+    private final int maxBodySize;
+
+    // guarded by this
+    private final LinkedHashMap<String, Entry> entries;
+    private final Map<String, Long> generations = new HashMap<>();
+
+    ResponseCache(Duration ttl, Duration maxTtl, int maxEntries, int maxBodySize) {
+        this.ttl = ttl;
+        this.maxTtl = maxTtl;
+        this.maxBodySize = maxBodySize;
+        this.entries = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    synchronized Entry get(String key) {
+        return entries.get(key);
+    }
+
+    synchronized long generation(String route) {
+        return generations.getOrDefault(route, 0L);
+    }
+
+    /** Stores {@code response} unless it is not storable or the route was written since {@code generation}. */
+    synchronized void put(String key, String route, UpstreamResponse response, long generation) {
+        if (!response.isStorable() || response.body().length > maxBodySize) {
+            entries.remove(key);
+            return;
+        }
+        if (generation(route) != generation) return;
+        entries.put(key, new Entry(response, route, freshUntil(response)));
+    }
+
+    /** A 304 from the upstream: the stored body is still current, restart its freshness. */
+    synchronized Entry renew(String key, Entry entry, UpstreamResponse notModified, long generation) {
+        // the 304 may carry a newer Cache-Control; otherwise keep the stored one
+        UpstreamResponse freshness = notModified.headers().getCacheControl() != null ? notModified : entry.response();
+        Entry renewed = new Entry(entry.response(), entry.route(), freshUntil(freshness));
+        if (generation(entry.route()) == generation) entries.put(key, renewed);
+        return renewed;
+    }
+
+    synchronized void invalidate(String route) {
+        generations.merge(route, 1L, Long::sum);
+        entries.values().removeIf(e -> e.route().equals(route));
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    private long freshUntil(UpstreamResponse response) {
+        return System.nanoTime() + response.freshFor(ttl, maxTtl).toNanos();
+    }
+}
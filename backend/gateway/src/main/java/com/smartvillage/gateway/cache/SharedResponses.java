@@ -0,0 +1,72 @@
+package com.smartvillage.gateway.cache;
+
+import com.smartvillage.gateway.route.GatewayProperties;
+import com.smartvillage.gateway.upstream.UpstreamResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Shared GETs: served from the {@link ResponseCache} while fresh, otherwise fetched (or revalidated
+ * with the stored ETag) once per key no matter how many callers are waiting for it.
+ */
+@Component
+public class SharedResponses {
+
+    public enum Source { HIT, MISS, REVALIDATED, COALESCED }
+
+    public record Result(UpstreamResponse response, Source source) {}
+
+    /** Fetches from the upstream, conditionally when {@code ifNoneMatch} is not null. */
+    public interface Fetch {
+        UpstreamResponse fetch(String ifNoneMatch) throws IOException, InterruptedException;
+    }
+
+    private final ResponseCache cache;
+    private final RequestCoalescer<Result> coalescer = new RequestCoalescer<>();
+    private final Map<Source, Counter> counters = new EnumMap<>(Source.class);
+
+    public SharedResponses(GatewayProperties props, MeterRegistry registry) {
+        GatewayProperties.Cache c = props.getCache();
+        this.cache = new ResponseCache(c.getTtl(), c.getMaxTtl(), c.getMaxEntries(), c.getMaxBodySize());
+        for (Source s : Source.values()) {
+            counters.put(s, Counter.builder("gateway.cache.requests").tag("source", s.name().toLowerCase()).register(registry));
+        }
+        Gauge.builder("gateway.cache.entries", cache, ResponseCache::size).register(registry);
+        Gauge.builder("gateway.inflight", coalescer, RequestCoalescer::inFlight).register(registry);
+    }
+
+    public Result get(String key, String route, Fetch fetch) throws IOException, InterruptedException {
+        ResponseCache.Entry entry = cache.get(key);
+        if (entry != null && entry.isFresh(System.nanoTime())) return count(new Result(entry.response(), Source.HIT));
+
+        RequestCoalescer.Outcome<Result> outcome = coalescer.call(key, () -> {
+            long generation = cache.generation(route);
+            String etag = entry != null ? entry.response().etag() : null;
+            UpstreamResponse r = fetch.fetch(etag);
+            if (r.status() == 304 && entry != null) {
+                cache.renew(key, entry, r, generation);
+                return new Result(entry.response(), Source.REVALIDATED);
+            }
+            cache.put(key, route, r, generation);
+            return new Result(r, Source.MISS);
+        });
+        Result result = outcome.shared() ? new Result(outcome.value().response(), Source.COALESCED) : outcome.value();
+        return count(result);
+    }
+
+    /** Drops the route's entries after a write passed through the gateway. */
+    public void invalidate(String route) {
+        cache.invalidate(route);
+    }
+
+    private Result count(Result r) {
+        counters.get(r.source()).increment();
+        return r;
+    }
+}
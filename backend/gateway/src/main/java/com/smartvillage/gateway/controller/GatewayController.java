@@ -0,0 +1,173 @@
+package com.smartvillage.gateway.controller;
+
+import com.smartvillage.gateway.auth.EdgeClaims;
+import com.smartvillage.gateway.cache.SharedResponses;
+import com.smartvillage.gateway.route.GatewayProperties;
+import com.smartvillage.gateway.route.RouteTable;
+import com.smartvillage.gateway.upstream.UpstreamClient;
+import com.smartvillage.gateway.upstream.UpstreamResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Routes {@code /api/v1/**} to the owning service. GETs on shared routes go through
+ * {@link SharedResponses} (coalesced, cached, answered with 304 when the client's ETag matches);
+ * everything else is streamed through, and a successful write invalidates its route's cache.
+ */
+@RestController
+public class GatewayController {
+
+    static final String CACHE_HEADER = "X-Gateway-Cache";
+
+    // identity and client address are only ever set by the gateway
+    private static final Set<String> IDENTITY = Set.of("x-user-subject", "x-user-id", "x-user-role", "x-forwarded-for");
+    // per-caller headers left out of shared upstream calls
+    private static final Set<String> NOT_SHARED = Set.of("authorization", "cookie", "if-none-match",
+            "if-modified-since", "accept-encoding");
+    private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+
+    private final RouteTable routes;
+    private final UpstreamClient upstream;
+    private final SharedResponses shared;
+
+    public GatewayController(RouteTable routes, UpstreamClient upstream, SharedResponses shared) {
+        this.routes = routes;
+        this.upstream = upstream;
+        this.shared = shared;
+    }
+
+    @RequestMapping("/api/v1/**")
+    public ResponseEntity<StreamingResponseBody> proxy(HttpServletRequest request) throws IOException, InterruptedException {
+        String path = request.getRequestURI();
+        GatewayProperties.Route route = routes.resolve(path).orElse(null);
+        if (route == null) return ResponseEntity.notFound().build();
+
+        String query = request.getQueryString();
+        URI target = URI.create(stripSlash(route.getUri().toString()) + path + (query != null ? "?" + query : ""));
+        if (request.getMethod().equals("GET") && route.isShared() && !routes.isStreaming(path)) {
+            return sharedGet(request, route, target);
+        }
+        return passThrough(request, route, target);
+    }
+
+    private ResponseEntity<StreamingResponseBody> sharedGet(HttpServletRequest request, GatewayProperties.Route route, URI target)
+            throws IOException, InterruptedException {
+        boolean gzip = acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        HttpHeaders headers = new HttpHeaders();
+        for (String name : Collections.list(request.getHeaderNames())) {
+            String lower = name.toLowerCase(Locale.ROOT);
+            if (NOT_SHARED.contains(lower) || IDENTITY.contains(lower)) continue;
+            headers.addAll(name, Collections.list(request.getHeaders(name)));
+        }
+        if (gzip) headers.set(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        String key = target + "|" + request.getHeader(HttpHeaders.ACCEPT) + "|"
+                + request.getHeader(HttpHeaders.ACCEPT_LANGUAGE) + "|" + gzip;
+
+        SharedResponses.Result result = shared.get(key, route.getPrefix(), ifNoneMatch -> {
+            HttpHeaders h = new HttpHeaders();
+            h.addAll(headers);
+            if (ifNoneMatch != null) h.set(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+            return upstream.fetch("GET", target, h, null);
+        });
+
+        UpstreamResponse r = result.response();
+        HttpHeaders out = new HttpHeaders();
+        out.addAll(r.headers());
+        out.set(CACHE_HEADER, result.source().name());
+        String etag = r.etag();
+        if (r.status() == 200 && etag != null && etagMatches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            out.remove(HttpHeaders.CONTENT_TYPE);
+            out.remove(HttpHeaders.CONTENT_ENCODING);
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(out).build();
+        }
+        byte[] body = r.body();
+        return ResponseEntity.status(r.status()).headers(out).body(os -> os.write(body));
+    }
+
+    private ResponseEntity<StreamingResponseBody> passThrough(HttpServletRequest request, GatewayProperties.Route route,
+                                                              URI target) throws IOException, InterruptedException {
+        HttpHeaders headers = new HttpHeaders();
+        for (String name : Collections.list(request.getHeaderNames())) {
+            if (IDENTITY.contains(name.toLowerCase(Locale.ROOT))) continue;
+            headers.addAll(name, Collections.list(request.getHeaders(name)));
+        }
+        if (request.getAttribute(EdgeClaims.ATTRIBUTE) instanceof EdgeClaims claims) {
+            headers.set("X-User-Subject", claims.subject());
+            if (claims.userId() != null) headers.set("X-User-Id", claims.userId());
+            if (claims.role() != null) headers.set("X-User-Role", claims.role());
+        }
+        // services rate-limit public endpoints per client address
+        headers.set("X-Forwarded-For", request.getRemoteAddr());
+        byte[] body = request.getInputStream().readAllBytes();
+
+        HttpResponse<InputStream> response = upstream.stream(request.getMethod(), target, headers, body);
+        if (!SAFE_METHODS.contains(request.getMethod()) && response.statusCode() / 100 == 2) {
+            shared.invalidate(route.getPrefix());
+        }
+        StreamingResponseBody out = os -> {
+            try (InputStream in = response.body()) {
+                byte[] buf = new byte[8192];
+                int n;
+                while ((n = in.read(buf)) != -1) {
+                    os.write(buf, 0, n);
+                    // flush per chunk so server-sent events are not held back
+                    os.flush();
+                }
+            }
+        };
+        return ResponseEntity.status(response.statusCode()).headers(UpstreamClient.responseHeaders(response)).body(out);
+    }
+
+    @ExceptionHandler({ ConnectException.class, HttpConnectTimeoutException.class })
+    public ResponseEntity<?> upstreamDown(IOException e) {
+        return ResponseEntity.status(HttpStatus.BAD_GATEWAY).body("Upstream unavailable");
+    }
+
+    @ExceptionHandler(HttpTimeoutException.class)
+    public ResponseEntity<?> upstreamTimeout(HttpTimeoutException e) {
+        return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).body("Upstream timed out");
+    }
+
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) return false;
+        for (String part : acceptEncoding.split(",")) {
+            String[] p = part.trim().split(";");
+            if (!p[0].trim().equalsIgnoreCase("gzip")) continue;
+            return p.length < 2 || !p[1].trim().matches("q=0(\\.0*)?");
+        }
+        return false;
+    }
+
+    static boolean etagMatches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) return false;
+        String strong = etag.startsWith("W/") ? etag.substring(2) : etag;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String c = candidate.trim();
+            if (c.equals("*")) return true;
+            if (c.startsWith("W/")) c = c.substring(2);
+            if (c.equals(strong)) return true;
+        }
+        return false;
+    }
+
+    private static String stripSlash(String uri) {
+        return uri.endsWith("/") ? uri.substring(0, uri.length() - 1) : uri;
+    }
+}
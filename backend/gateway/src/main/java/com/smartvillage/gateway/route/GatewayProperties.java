@@ -0,0 +1,70 @@
+package com.smartvillage.gateway.route;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "gateway")
+public class GatewayProperties {
+
+    public static class Route {
+        /** Path prefix owned by the upstream, e.g. {@code /api/v1/notices}. */
+        private String prefix;
+        /** Base URI of the upstream service; the request path is appended unchanged. */
+        private URI uri;
+        /** GETs on this route may be coalesced and cached across callers; only for responses that do not vary by user. */
+        private boolean shared = true;
+        /** Reject requests without a valid token. Tokens that are present are always checked. */
+        private boolean authenticated;
+
+        public String getPrefix() { return prefix; }
+        public void setPrefix(String prefix) { this.prefix = prefix; }
+        public URI getUri() { return uri; }
+        public void setUri(URI uri) { this.uri = uri; }
+        public boolean isShared() { return shared; }
+        public void setShared(boolean shared) { this.shared = shared; }
+        public boolean isAuthenticated() { return authenticated; }
+        public void setAuthenticated(boolean authenticated) { this.authenticated = authenticated; }
+    }
+
+    public static class Cache {
+        /** Freshness when the upstream sends no {@code max-age}. */
+        private Duration ttl = Duration.ofSeconds(5);
+        /** Upper bound on any upstream {@code max-age}; after it the entry is revalidated with its ETag. */
+        private Duration maxTtl = Duration.ofMinutes(5);
+        private int maxEntries = 2000;
+        /** Larger responses are passed through but not kept. */
+        private int maxBodySize = 1024 * 1024;
+
+        public Duration getTtl() { return ttl; }
+        public void setTtl(Duration ttl) { this.ttl = ttl; }
+        public Duration getMaxTtl() { return maxTtl; }
+        public void setMaxTtl(Duration maxTtl) { this.maxTtl = maxTtl; }
+        public int getMaxEntries() { return maxEntries; }
+        public void setMaxEntries(int maxEntries) { this.maxEntries = maxEntries; }
+        public int getMaxBodySize() { return maxBodySize; }
+        public void setMaxBodySize(int maxBodySize) { this.maxBodySize = maxBodySize; }
+    }
+
+    private List<Route> routes = new ArrayList<>();
+    private Cache cache = new Cache();
+    private Duration connectTimeout = Duration.ofSeconds(2);
+    /** Applies to buffered (coalesced) calls; streamed responses run until the upstream closes them. */
+    private Duration requestTimeout = Duration.ofSeconds(10);
+    /** GETs whose path ends with one of these are streamed through, never buffered or cached. */
+    private List<String> streamingSuffixes = new ArrayList<>(List.of("/stream", "/events"));
+
+    public List<Route> getRoutes() { return routes; }
+    public void setRoutes(List<Route> routes) { this.routes = routes; }
+    public Cache getCache() { return cache; }
+    public void setCache(Cache cache) { this.cache = cache; }
+    public Duration getConnectTimeout() { return connectTimeout; }
+    public void setConnectTimeout(Duration connectTimeout) { this.connectTimeout = connectTimeout; }
+    public Duration getRequestTimeout() { return requestTimeout; }
+    public void setRequestTimeout(Duration requestTimeout) { this.requestTimeout = requestTimeout; }
+    public List<String> getStreamingSuffixes() { return streamingSuffixes; }
+    public void setStreamingSuffixes(List<String> streamingSuffixes) { this.streamingSuffixes = streamingSuffixes; }
+}
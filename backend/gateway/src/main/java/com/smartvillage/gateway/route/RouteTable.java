@@ -0,0 +1,39 @@
+package com.smartvillage.gateway.route;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/** Longest-prefix match of request paths onto the configured upstreams. */
+@Component
+public class RouteTable {
+
+    private final List<GatewayProperties.Route> routes;
+    private final List<String> streamingSuffixes;
+
+    public RouteTable(GatewayProperties props) {
+        this.routes = props.getRoutes().stream()
+                .sorted(Comparator.comparingInt((GatewayProperties.Route r) -> r.getPrefix().length()).reversed())
+                .toList();
+        this.streamingSuffixes = List.copyOf(props.getStreamingSuffixes());
+    }
+
+    public Optional<GatewayProperties.Route> resolve(String path) {
+        for (GatewayProperties.Route r : routes) {
+            String p = r.getPrefix();
+            if (path.startsWith(p) && (path.length() == p.length() || path.charAt(p.length()) == '/')) {
+                return Optional.of(r);
+            }
+        }
+        return Optional.empty();
+    }
+
+    public boolean isStreaming(String path) {
+        for (String suffix : streamingSuffixes) {
+            if (path.endsWith(suffix)) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,113 @@
+package com.smartvillage.gateway.stub;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Local stand-in for every upstream, started with the {@code stub} profile so the gateway can be
+ * exercised without Postgres or the services. Each path answers GETs with a small JSON body and a
+ * strong ETag (honouring {@code If-None-Match}), after {@code gateway.stub.latency}; any other method
+ * bumps that path's version. Paths ending in {@code /events} stream a few server-sent events.
+ * {@code GET /__stub/hits} returns the number of requests each path actually received.
+ */
+@Component
+@Profile("stub")
+public class StubUpstream {
+
+    private static final Logger log = LoggerFactory.getLogger(StubUpstream.class);
+
+    private final HttpServer server;
+    private final Duration latency;
+    private final AtomicLong version = new AtomicLong(1);
+    private final Map<String, LongAdder> hits = new ConcurrentHashMap<>();
+
+    public StubUpstream(@Value("${gateway.stub.port:9090}") int port,
+                        @Value("${gateway.stub.latency:PT0.2S}") Duration latency) throws IOException {
+        this.latency = latency;
+        this.server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/", this::handle);
+        server.start();
+        log.info("Stub upstream listening on http://localhost:{}", port);
+    }
+
+    private void handle(HttpExchange ex) throws IOException {
+        try (ex) {
+            String path = ex.getRequestURI().getPath();
+            if (path.equals("/__stub/hits")) {
+                send(ex, 200, hits.toString().getBytes(StandardCharsets.UTF_8), null);
+                return;
+            }
+            hits.computeIfAbsent(path, p -> new LongAdder()).increment();
+            sleep(latency);
+            if (path.endsWith("/events")) {
+                events(ex);
+                return;
+            }
+            if (!ex.getRequestMethod().equals("GET")) {
+                version.incrementAndGet();
+                send(ex, 200, "{\"ok\":true}".getBytes(StandardCharsets.UTF_8), null);
+                return;
+            }
+            long v = version.get();
+            String etag = "\"" + v + "\"";
+            if (etag.equals(ex.getRequestHeaders().getFirst("If-None-Match"))) {
+                ex.getResponseHeaders().set("ETag", etag);
+                ex.sendResponseHeaders(304, -1);
+                return;
+            }
+            String user = ex.getRequestHeaders().getFirst("X-User-Subject");
+            String body = "{\"path\":\"" + path + "\",\"version\":" + v
+                    + (user != null ? ",\"user\":\"" + user + "\"" : "") + "}";
+            send(ex, 200, body.getBytes(StandardCharsets.UTF_8), etag);
+        }
+    }
+
+    private void events(HttpExchange ex) throws IOException {
+        ex.getResponseHeaders().set("Content-Type", "text/event-stream");
+        ex.sendResponseHeaders(200, 0);
+        OutputStream os = ex.getResponseBody();
+        for (int i = 1; i <= 3; i++) {
+            os.write(("data: {\"tick\":" + i + "}\n\n").getBytes(StandardCharsets.UTF_8));
+            os.flush();
+            sleep(Duration.ofMillis(500));
+        }
+    }
+
+    private static void send(HttpExchange ex, int status, byte[] body, String etag) throws IOException {
+        ex.getResponseHeaders().set("Content-Type", "application/json");
+        if (etag != null) ex.getResponseHeaders().set("ETag", etag);
+        ex.sendResponseHeaders(status, body.length);
+        ex.getResponseBody().write(body);
+    }
+
+    private static void sleep(Duration d) {
+        try {
+            Thread.sleep(d);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        server.stop(0);
+    }
+}
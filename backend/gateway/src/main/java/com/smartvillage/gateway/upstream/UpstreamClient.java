@@ -0,0 +1,82 @@
+package com.smartvillage.gateway.upstream;
+
+import com.smartvillage.gateway.route.GatewayProperties;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * HTTP/1.1 client for all upstreams. The JDK client keeps idle connections per host alive and
+ * reuses them, so steady traffic to a service runs over a handful of warm sockets instead of a
+ * connect per request.
+ */
+@Component
+public class UpstreamClient {
+
+    // hop-by-hop headers (RFC 9110 7.6.1) plus the ones the JDK client sets itself
+    private static final Set<String> NOT_FORWARDED = Set.of(
+            "connection", "keep-alive", "proxy-connection", "proxy-authenticate", "proxy-authorization",
+            "te", "trailer", "transfer-encoding", "upgrade", "host", "content-length", "expect");
+
+    private final HttpClient client;
+    private final Duration requestTimeout;
+
+    public UpstreamClient(GatewayProperties props) {
+        this.requestTimeout = props.getRequestTimeout();
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(props.getConnectTimeout())
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+    }
+
+    /** Buffered call, for responses that may be shared between callers. */
+    public UpstreamResponse fetch(String method, URI uri, HttpHeaders headers, byte[] body)
+            throws IOException, InterruptedException {
+        HttpRequest request = request(method, uri, headers, body).timeout(requestTimeout).build();
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        return new UpstreamResponse(response.statusCode(), responseHeaders(response), response.body());
+    }
+
+    /** Streamed call: the body is handed over as it arrives (SSE, large listings, writes). */
+    public HttpResponse<InputStream> stream(String method, URI uri, HttpHeaders headers, byte[] body)
+            throws IOException, InterruptedException {
+        return client.send(request(method, uri, headers, body).build(), HttpResponse.BodyHandlers.ofInputStream());
+    }
+
+    public static HttpHeaders responseHeaders(HttpResponse<?> response) {
+        HttpHeaders out = new HttpHeaders();
+        for (Map.Entry<String, List<String>> h : response.headers().map().entrySet()) {
+            if (h.getKey().startsWith(":") || !forwarded(h.getKey())) continue;
+            out.addAll(h.getKey(), h.getValue());
+        }
+        return HttpHeaders.readOnlyHttpHeaders(out);
+    }
+
+    public static boolean forwarded(String header) {
+        return !NOT_FORWARDED.contains(header.toLowerCase(Locale.ROOT));
+    }
+
+    private static HttpRequest.Builder request(String method, URI uri, HttpHeaders headers, byte[] body) {
+        HttpRequest.BodyPublisher publisher = body == null || body.length == 0
+                ? HttpRequest.BodyPublishers.noBody()
+                : HttpRequest.BodyPublishers.ofByteArray(body);
+        HttpRequest.Builder b = HttpRequest.newBuilder(uri).method(method, publisher);
+        headers.forEach((name, values) -> {
+            if (!forwarded(name)) return;
+            for (String v : values) b.header(name, v);
+        });
+        return b;
+    }
+}
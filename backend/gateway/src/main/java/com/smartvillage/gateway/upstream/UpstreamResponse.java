@@ -0,0 +1,48 @@
+package com.smartvillage.gateway.upstream;
+
+import org.springframework.http.HttpHeaders;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/** A fully buffered upstream response, shared by every caller of a coalesced request. */
+public record UpstreamResponse(int status, HttpHeaders headers, byte[] body) {
+
+    public String etag() {
+        return headers.getETag();
+    }
+
+    /** Whether the upstream allows a shared cache to keep this response at all. */
+    public boolean isStorable() {
+        if (status != 200) return false;
+        String cc = cacheControl();
+        return !cc.contains("no-store") && !cc.contains("private");
+    }
+
+    /**
+     * How long the response may be served without revalidation: the upstream {@code max-age} (zero for
+     * {@code no-cache}), else {@code fallback}; never more than {@code max}.
+     */
+    public Duration freshFor(Duration fallback, Duration max) {
+        String cc = cacheControl();
+        if (cc.contains("no-cache")) return Duration.ZERO;
+        Duration fresh = fallback;
+        for (String directive : cc.split(",")) {
+            String d = directive.trim();
+            if (d.startsWith("s-maxage=") || d.startsWith("max-age=")) {
+                try {
+                    fresh = Duration.ofSeconds(Long.parseLong(d.substring(d.indexOf('=') + 1)));
+                } catch (NumberFormatException ignored) {
+                    // malformed directive: keep the fallback
+                }
+                if (d.startsWith("s-maxage=")) break;
+            }
+        }
+        return fresh.compareTo(max) > 0 ? max : fresh;
+    }
+
+    private String cacheControl() {
+        String cc = headers.getCacheControl();
+        return cc == null ? "" : cc.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,13 @@
+package com.smartvillage.marketplace.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/** Moderation and edits are for admins, whose role the gateway forwards as {@code X-User-Role}. */
+@ResponseStatus(HttpStatus.FORBIDDEN)
+public class AdminRequiredException extends RuntimeException {
+
+    public AdminRequiredException() {
+        super("Only admins can moderate or edit listings");
+    }
+}
@@ -0,0 +1,178 @@
+package com.smartvillage.marketplace.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.smartvillage.common.execution.ConcurrencyLimit;
+import com.smartvillage.common.write.EntityWriter;
+import com.smartvillage.common.write.WritableTable;
+import com.smartvillage.marketplace.entity.Item;
+import com.smartvillage.marketplace.index.BrowseQuery;
+import com.smartvillage.marketplace.index.ListingIndex;
+import com.smartvillage.marketplace.index.ListingPage;
+import com.smartvillage.marketplace.index.ListingSort;
+import com.smartvillage.marketplace.repository.ItemRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Marketplace listings. Anyone may list an item and see approved ones; reviewing, editing and
+ * deleting are for admins, as the Supabase policies have it. The caller's role is the
+ * {@code X-User-Role} header the gateway sets from a verified token.
+ */
+@RestController
+@RequestMapping("/api/v1/marketplace/items")
+public class ItemController {
+    private static final WritableTable<Item> TABLE = WritableTable.of(Item.class)
+            .column("itemName").column("category").column("price").column("description").column("village")
+            .column("contact").column("imageUrls").column("sellerName").column("sold").column("available")
+            .touch("updatedAt");
+    // only written by review(), never by PUT/PATCH
+    private static final WritableTable<Item> REVIEW = WritableTable.of(Item.class)
+            .column("status").column("reviewedBy").column("reviewedAt").column("rejectionReason")
+            .touch("updatedAt");
+    private static final Set<String> VERDICTS = Set.of("approved", "rejected");
+
+    private static final String USER = "X-User-Id";
+    private static final String ROLE = "X-User-Role";
+
+    private final ItemRepository repo;
+    private final ListingIndex index;
+    private final EntityWriter writer;
+    private final int defaultLimit;
+    private final int maxLimit;
+
+    public ItemController(ItemRepository repo, ListingIndex index, EntityWriter writer,
+                          @Value("${marketplace.browse.default-limit:20}") int defaultLimit,
+                          @Value("${marketplace.browse.max-limit:100}") int maxLimit) {
+        this.repo = repo;
+        this.index = index;
+        this.writer = writer;
+        this.defaultLimit = defaultLimit;
+        this.maxLimit = maxLimit;
+    }
+
+    /**
+     * Listed items only, served from the in-memory index:
+     * {@code ?category=Animals&minPrice=10000&maxPrice=50000&sort=newest&offset=0&limit=20}.
+     */
+    @ConcurrencyLimit(1000)
+    @GetMapping
+    public ResponseEntity<?> browse(@RequestParam(required = false) String category,
+                                    @RequestParam(required = false) BigDecimal minPrice,
+                                    @RequestParam(required = false) BigDecimal maxPrice,
+                                    @RequestParam(required = false) String village,
+                                    @RequestParam(required = false) String sort,
+                                    @RequestParam(defaultValue = "0") int offset,
+                                    @RequestParam(required = false) Integer limit) {
+        ListingSort order;
+        try {
+            order = ListingSort.parse(sort);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Unknown sort '" + sort + "'");
+        }
+        int size = Math.min(limit == null ? defaultLimit : limit, maxLimit);
+        ListingPage page = index.browse(new BrowseQuery(category, minPrice, maxPrice, village, order, offset, size));
+        return ResponseEntity.ok(page);
+    }
+
+    @ConcurrencyLimit(1000)
+    @GetMapping("/categories")
+    public List<ListingIndex.Facet> categories() { return index.facets(); }
+
+    /** Pending and rejected items are only visible to admins. */
+    @GetMapping("/{id}")
+    public ResponseEntity<?> get(@PathVariable UUID id, @RequestHeader(value = ROLE, required = false) String role) {
+        return repo.findById(id).filter(i -> "approved".equals(i.getStatus()) || isAdmin(role))
+                .<ResponseEntity<?>>map(i -> ResponseEntity.ok().eTag(EntityWriter.etag(i.getVersion())).body(i))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /** New items wait for moderation and only enter the browse index once approved. */
+    @PostMapping
+    public ResponseEntity<Item> create(@RequestBody Item item) {
+        item.setId(null);
+        item.setStatus("pending");
+        item.setCreatedAt(Instant.now());
+        item.setUpdatedAt(item.getCreatedAt());
+        Item saved = repo.save(item);
+        index.put(saved);
+        return ResponseEntity.status(HttpStatus.CREATED).eTag(EntityWriter.etag(saved.getVersion())).body(saved);
+    }
+
+    /** Approves or rejects an item: {@code {"status": "rejected", "rejectionReason": "..."}}. */
+    @PostMapping("/{id}/review")
+    public ResponseEntity<?> review(@PathVariable UUID id, @RequestBody Map<String, String> body,
+                                    @RequestHeader(value = USER, required = false) UUID reviewer,
+                                    @RequestHeader(value = ROLE, required = false) String role,
+                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        requireAdmin(role);
+        String status = body.get("status");
+        if (!VERDICTS.contains(status)) {
+            return ResponseEntity.badRequest().body("status must be one of " + VERDICTS);
+        }
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("status", status);
+        values.put("reviewedBy", reviewer);
+        values.put("reviewedAt", Instant.now());
+        values.put("rejectionReason", "rejected".equals(status) ? body.get("rejectionReason") : null);
+        return writer.update(REVIEW, id, EntityWriter.versionFrom(ifMatch), values)
+                .<ResponseEntity<?>>map(this::updated)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @PutMapping("/{id}")
+    public ResponseEntity<?> update(@PathVariable UUID id, @RequestBody Item item,
+                                    @RequestHeader(value = ROLE, required = false) String role,
+                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        requireAdmin(role);
+        return writer.replace(TABLE, id, EntityWriter.versionFrom(ifMatch), item)
+                .<ResponseEntity<?>>map(this::updated)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @PatchMapping(value = "/{id}", consumes = { EntityWriter.MERGE_PATCH_JSON, MediaType.APPLICATION_JSON_VALUE })
+    public ResponseEntity<?> patch(@PathVariable UUID id, @RequestBody JsonNode patch,
+                                   @RequestHeader(value = ROLE, required = false) String role,
+                                   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        requireAdmin(role);
+        return writer.patch(TABLE, id, EntityWriter.versionFrom(ifMatch), patch)
+                .<ResponseEntity<?>>map(this::updated)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<?> delete(@PathVariable UUID id,
+                                    @RequestHeader(value = ROLE, required = false) String role,
+                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        requireAdmin(role);
+        return writer.delete(TABLE, id, EntityWriter.versionFrom(ifMatch)).map(i -> {
+            index.delete(id);
+            return ResponseEntity.ok().build();
+        }).orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    private ResponseEntity<Item> updated(Item i) {
+        index.put(i);
+        return ResponseEntity.ok().eTag(EntityWriter.etag(i.getVersion())).body(i);
+    }
+
+    // the app's roles are USER/ADMIN, Supabase's app_role is lower case
+    private static boolean isAdmin(String role) {
+        return "admin".equalsIgnoreCase(role);
+    }
+
+    private static void requireAdmin(String role) {
+        if (!isAdmin(role)) throw new AdminRequiredException();
+    }
+}
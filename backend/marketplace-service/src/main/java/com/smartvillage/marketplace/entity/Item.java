@@ -0,0 +1,92 @@
+package com.smartvillage.marketplace.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+@Entity
+@Table(name = "items")
+public class Item {
+    public static final String APPROVED = "approved";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private UUID id;
+
+    private String itemName;
+    private String category;
+    private BigDecimal price;
+    private String description;
+    private String village;
+    private String contact;
+
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    private String[] imageUrls;
+
+    private UUID userId;
+    private String sellerName;
+    private Boolean sold = false;
+
+    @Column(name = "is_available")
+    private boolean available = true;
+
+    private String status = "pending";
+    private UUID reviewedBy;
+    private Instant reviewedAt;
+    private String rejectionReason;
+    private Instant createdAt = Instant.now();
+    private Instant updatedAt = Instant.now();
+
+    @Version
+    private long version;
+
+    public Item() {}
+
+    /** Shown on the buy page: approved, not sold, and not hidden by the seller. */
+    public boolean isListed() {
+        return APPROVED.equals(status) && available && !Boolean.TRUE.equals(sold);
+    }
+
+    public UUID getId() { return id; }
+    public void setId(UUID id) { this.id = id; }
+    public String getItemName() { return itemName; }
+    public void setItemName(String itemName) { this.itemName = itemName; }
+    public String getCategory() { return category; }
+    public void setCategory(String category) { this.category = category; }
+    public BigDecimal getPrice() { return price; }
+    public void setPrice(BigDecimal price) { this.price = price; }
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+    public String getVillage() { return village; }
+    public void setVillage(String village) { this.village = village; }
+    public String getContact() { return contact; }
+    public void setContact(String contact) { this.contact = contact; }
+    public String[] getImageUrls() { return imageUrls; }
+    public void setImageUrls(String[] imageUrls) { this.imageUrls = imageUrls; }
+    public UUID getUserId() { return userId; }
+    public void setUserId(UUID userId) { this.userId = userId; }
+    public String getSellerName() { return sellerName; }
+    public void setSellerName(String sellerName) { this.sellerName = sellerName; }
+    public Boolean getSold() { return sold; }
+    public void setSold(Boolean sold) { this.sold = sold; }
+    public boolean isAvailable() { return available; }
+    public void setAvailable(boolean available) { this.available = available; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    public UUID getReviewedBy() { return reviewedBy; }
+    public void setReviewedBy(UUID reviewedBy) { this.reviewedBy = reviewedBy; }
+    public Instant getReviewedAt() { return reviewedAt; }
+    public void setReviewedAt(Instant reviewedAt) { this.reviewedAt = reviewedAt; }
+    public String getRejectionReason() { return rejectionReason; }
+    public void setRejectionReason(String rejectionReason) { this.rejectionReason = rejectionReason; }
+    public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+    public Instant getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt; }
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
+}
@@ -0,0 +1,8 @@
+package com.smartvillage.marketplace.index;
+
+import java.math.BigDecimal;
+
+/** A browse request; null filters match everything. */
+public record BrowseQuery(String category, BigDecimal minPrice, BigDecimal maxPrice, String village,
+                          ListingSort sort, int offset, int limit) {
+}
@@ -0,0 +1,21 @@
+package com.smartvillage.marketplace.index;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.smartvillage.marketplace.entity.Item;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/** Immutable copy of a listed item as held by {@link ListingIndex}. */
+public record Listing(UUID id, String itemName, String category, BigDecimal price, String description,
+                      String village, String sellerName, String contact, List<String> imageUrls,
+                      Instant createdAt, @JsonIgnore long version) {
+
+    static Listing of(Item i) {
+        return new Listing(i.getId(), i.getItemName(), ListingIndex.categoryOf(i.getCategory()), i.getPrice(),
+                i.getDescription(), i.getVillage(), i.getSellerName(), i.getContact(),
+                i.getImageUrls() == null ? List.of() : List.of(i.getImageUrls()), i.getCreatedAt(), i.getVersion());
+    }
+}
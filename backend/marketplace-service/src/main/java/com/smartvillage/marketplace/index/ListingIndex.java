@@ -0,0 +1,502 @@
+package com.smartvillage.marketplace.index;
+
+import com.smartvillage.marketplace.entity.Item;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory index of listed marketplace items. Each listing gets an int slot; price (in paise),
+ * creation time and village are held in primitive arrays indexed by slot, and every category keeps
+ * its slots in two sorted int arrays, by price and by recency. A browse binary-searches the price
+ * range and walks whichever array matches the requested order, so a page costs about
+ * {@code offset + limit} steps when only category and price are filtered. Loaded once at startup
+ * and kept current by the write handlers through {@link #put} / {@link #delete}; writes made through
+ * other instances are picked up every {@code marketplace.index.refresh-interval} from {@code updated_at}.
+ * Rows deleted through another instance stay listed here until the next restart.
+ */
+@Component
+public class ListingIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ListingIndex.class);
+
+    static final String UNCATEGORIZED = "Other";
+
+    private static final String COLUMNS = "id, item_name, category, price, description, village, seller_name,"
+            + " contact, image_urls, created_at, version";
+    private static final int LOAD_FETCH_SIZE = 1000;
+    private static final int INITIAL_CAPACITY = 1024;
+    // price ranges up to 1/16 of a bucket are gathered and sorted rather than found by a recency scan
+    private static final int GATHER_RATIO = 16;
+    // position bits in the packed sort keys; (1 << 43) ms runs past the year 2200
+    private static final int GATHER_INDEX_BITS = 20;
+    // re-read this far back so rows from transactions that committed late are not missed
+    private static final Duration REFRESH_OVERLAP = Duration.ofMinutes(1);
+    // a removed id remembers its version this long, well past any write still racing to put it back
+    private static final Duration TOMBSTONE_TTL = Duration.ofMinutes(5);
+
+    public record Facet(String category, int count) {}
+
+    private record Tombstone(long version, Instant at) {}
+
+    private record Row(Listing listing, boolean listed, Instant updatedAt) {}
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate readTx;
+    private final Duration refreshInterval;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ScheduledExecutorService refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "listing-index-refresh");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // guarded by lock; the primitive columns are indexed by slot
+    private Listing[] listings = new Listing[INITIAL_CAPACITY];
+    private long[] price = new long[INITIAL_CAPACITY];
+    private long[] created = new long[INITIAL_CAPACITY];
+    private int[] village = new int[INITIAL_CAPACITY];
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+    private int slotCount;
+    private final Map<UUID, Integer> slotOf = new HashMap<>();
+    // ids that left the index, so a write that lost the race cannot put an older version back
+    private final Map<UUID, Tombstone> removed = new HashMap<>();
+    private final Map<String, Integer> villageCodes = new HashMap<>();
+    private final Map<String, Bucket> byCategory = new HashMap<>();
+    private final Bucket all = new Bucket();
+    // replaced on every write, read without the lock
+    private volatile List<Facet> facets = List.of();
+    // only touched by init and the refresher thread
+    private Instant loadedUpTo = Instant.EPOCH;
+
+    public ListingIndex(JdbcTemplate jdbc, PlatformTransactionManager txManager,
+                        @Value("${marketplace.index.refresh-interval:PT30S}") Duration refreshInterval) {
+        this.jdbc = jdbc;
+        this.refreshInterval = refreshInterval;
+        this.readTx = new TransactionTemplate(txManager);
+        this.readTx.setReadOnly(true);
+    }
+
+    @PostConstruct
+    public void init() {
+        long start = System.nanoTime();
+        loadedUpTo = Instant.now();
+        lock.writeLock().lock();
+        try {
+            // a transaction lets the Postgres driver honour the fetch size and stream the rows
+            readTx.executeWithoutResult(tx -> jdbc.query(con -> {
+                PreparedStatement ps = con.prepareStatement("SELECT " + COLUMNS + " FROM items WHERE status = '"
+                                + Item.APPROVED + "' AND is_available AND NOT COALESCE(sold, FALSE)",
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(LOAD_FETCH_SIZE);
+                return ps;
+            }, rs -> {
+                add(map(rs), false);
+            }));
+            all.sort();
+            byCategory.values().forEach(Bucket::sort);
+            facets = computeFacets();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Marketplace index loaded: {} listings, {} categories in {} ms",
+                slotOf.size(), facets.size(), (System.nanoTime() - start) / 1_000_000);
+        long period = refreshInterval.toMillis();
+        refresher.scheduleWithFixedDelay(this::refreshQuietly, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        refresher.shutdownNow();
+    }
+
+    /**
+     * Applies a committed write. Items that are no longer listed (pending, rejected, sold, hidden)
+     * leave the index; a write carrying an older version than the one held, or than the one that
+     * removed the item, is ignored.
+     */
+    public void put(Item item) {
+        lock.writeLock().lock();
+        try {
+            if (item.isListed()) list(Listing.of(item));
+            else unlist(item.getId(), item.getVersion());
+            facets = computeFacets();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Applies a committed delete; no later put brings the id back. */
+    public void delete(UUID id) {
+        lock.writeLock().lock();
+        try {
+            unlist(id, Long.MAX_VALUE);
+            facets = computeFacets();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Re-reads the rows updated since the last refresh, so writes made through other instances show up. */
+    void refresh() {
+        Instant since = loadedUpTo.minus(REFRESH_OVERLAP);
+        List<Row> rows = jdbc.query("SELECT " + COLUMNS + ", status = '" + Item.APPROVED + "' AND is_available"
+                        + " AND NOT COALESCE(sold, FALSE) AS listed, updated_at FROM items WHERE updated_at > ?"
+                        + " ORDER BY updated_at",
+                (rs, n) -> new Row(map(rs), rs.getBoolean("listed"), rs.getTimestamp("updated_at").toInstant()),
+                Timestamp.from(since));
+        Instant expired = Instant.now().minus(TOMBSTONE_TTL);
+        lock.writeLock().lock();
+        try {
+            for (Row r : rows) {
+                if (r.listed()) list(r.listing());
+                else unlist(r.listing().id(), r.listing().version());
+            }
+            removed.values().removeIf(t -> t.at().isBefore(expired));
+            if (!rows.isEmpty()) facets = computeFacets();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (!rows.isEmpty()) {
+            Instant last = rows.get(rows.size() - 1).updatedAt();
+            if (last.isAfter(loadedUpTo)) loadedUpTo = last;
+        }
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            log.warn("Marketplace index refresh failed", e);
+        }
+    }
+
+    /** Caller holds the write lock. */
+    private void list(Listing listing) {
+        Tombstone gone = removed.get(listing.id());
+        if (gone != null) {
+            if (gone.version() >= listing.version()) return;
+            removed.remove(listing.id());
+        }
+        Integer slot = slotOf.get(listing.id());
+        if (slot != null) {
+            if (listings[slot].version() >= listing.version()) return;
+            drop(slot);
+        }
+        add(listing, true);
+    }
+
+    /** Caller holds the write lock. */
+    private void unlist(UUID id, long version) {
+        Integer slot = slotOf.get(id);
+        if (slot != null) {
+            if (listings[slot].version() > version) return;
+            drop(slot);
+        }
+        Tombstone gone = removed.get(id);
+        if (gone == null || gone.version() < version) removed.put(id, new Tombstone(version, Instant.now()));
+    }
+
+    /** Categories with listing counts, largest first. */
+    public List<Facet> facets() {
+        return facets;
+    }
+
+    public ListingPage browse(BrowseQuery q) {
+        long min = q.minPrice() == null ? Long.MIN_VALUE : paise(q.minPrice());
+        long max = q.maxPrice() == null ? Long.MAX_VALUE : paise(q.maxPrice());
+        int offset = Math.max(0, q.offset());
+        int limit = Math.max(0, q.limit());
+        lock.readLock().lock();
+        try {
+            Bucket bucket = q.category() == null || q.category().isBlank()
+                    ? all : byCategory.get(categoryOf(q.category()));
+            int villageCode = -1;
+            if (q.village() != null && !q.village().isBlank()) {
+                villageCode = villageCodes.getOrDefault(q.village().trim(), -2);
+            }
+            if (bucket == null || villageCode == -2 || min > max) return new ListingPage(List.of(), 0, offset, limit);
+            return bucket.page(min, max, villageCode, q.sort() == null ? ListingSort.NEWEST : q.sort(), offset, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slotOf.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static String categoryOf(String category) {
+        return category == null || category.isBlank() ? UNCATEGORIZED : category.trim();
+    }
+
+    static long paise(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValue();
+    }
+
+    /** Adds a listing; with {@code sorted} false the buckets are only appended to and must be sorted after. */
+    private void add(Listing l, boolean sorted) {
+        int slot = freeCount > 0 ? freeSlots[--freeCount] : slotCount++;
+        if (slot == listings.length) grow();
+        listings[slot] = l;
+        price[slot] = l.price() == null ? 0 : paise(l.price());
+        created[slot] = l.createdAt() == null ? 0 : l.createdAt().toEpochMilli();
+        village[slot] = l.village() == null
+                ? -1 : villageCodes.computeIfAbsent(l.village().trim(), v -> villageCodes.size());
+        slotOf.put(l.id(), slot);
+        Bucket bucket = byCategory.computeIfAbsent(l.category(), c -> new Bucket());
+        if (sorted) {
+            all.insert(slot);
+            bucket.insert(slot);
+        } else {
+            all.append(slot);
+            bucket.append(slot);
+        }
+    }
+
+    private void drop(int slot) {
+        Listing l = listings[slot];
+        all.delete(slot);
+        Bucket bucket = byCategory.get(l.category());
+        bucket.delete(slot);
+        if (bucket.size == 0) byCategory.remove(l.category());
+        slotOf.remove(l.id());
+        listings[slot] = null;
+        if (freeCount == freeSlots.length) freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        freeSlots[freeCount++] = slot;
+    }
+
+    private void grow() {
+        int capacity = listings.length * 2;
+        listings = Arrays.copyOf(listings, capacity);
+        price = Arrays.copyOf(price, capacity);
+        created = Arrays.copyOf(created, capacity);
+        village = Arrays.copyOf(village, capacity);
+    }
+
+    private List<Facet> computeFacets() {
+        List<Facet> out = new ArrayList<>(byCategory.size());
+        byCategory.forEach((c, bucket) -> out.add(new Facet(c, bucket.size)));
+        out.sort(Comparator.comparingInt(Facet::count).reversed().thenComparing(Facet::category));
+        return List.copyOf(out);
+    }
+
+    private interface SlotOrder {
+        boolean before(int a, int b);
+    }
+
+    /** Cheaper price first; equal prices newest first. */
+    private boolean priceBefore(int a, int b) {
+        return price[a] != price[b] ? price[a] < price[b] : newerBefore(a, b);
+    }
+
+    /** Newest first; equal times by slot so the order is total. */
+    private boolean newerBefore(int a, int b) {
+        return created[a] != created[b] ? created[a] > created[b] : a < b;
+    }
+
+    /** Stable bottom-up merge sort of {@code a[0, n)}; the JDK has no comparator sort for int arrays. */
+    private static void mergeSort(int[] a, int n, SlotOrder order) {
+        int[] src = a, dst = new int[n];
+        for (int width = 1; width < n; width *= 2) {
+            for (int lo = 0; lo < n; lo += 2 * width) {
+                int mid = Math.min(lo + width, n), hi = Math.min(lo + 2 * width, n);
+                int i = lo, j = mid, k = lo;
+                while (i < mid && j < hi) dst[k++] = order.before(src[j], src[i]) ? src[j++] : src[i++];
+                while (i < mid) dst[k++] = src[i++];
+                while (j < hi) dst[k++] = src[j++];
+            }
+            int[] t = src;
+            src = dst;
+            dst = t;
+        }
+        if (src != a) System.arraycopy(src, 0, a, 0, n);
+    }
+
+    private static Listing map(ResultSet rs) throws SQLException {
+        Array images = rs.getArray("image_urls");
+        return new Listing(rs.getObject("id", UUID.class), rs.getString("item_name"),
+                categoryOf(rs.getString("category")), rs.getBigDecimal("price"), rs.getString("description"),
+                rs.getString("village"), rs.getString("seller_name"), rs.getString("contact"),
+                images == null ? List.of() : List.of((String[]) images.getArray()),
+                rs.getTimestamp("created_at").toInstant(), rs.getLong("version"));
+    }
+
+    /** One category's slots, sorted twice. */
+    private final class Bucket {
+        int[] byPrice = new int[16];
+        int[] byNewest = new int[16];
+        int size;
+
+        void insert(int slot) {
+            ensureCapacity();
+            insertAt(byPrice, searchPrice(slot), slot);
+            insertAt(byNewest, searchNewest(slot), slot);
+            size++;
+        }
+
+        void append(int slot) {
+            ensureCapacity();
+            byPrice[size] = slot;
+            byNewest[size] = slot;
+            size++;
+        }
+
+        /** Restores both orders after a run of {@link #append}s. */
+        void sort() {
+            mergeSort(byPrice, size, ListingIndex.this::priceBefore);
+            mergeSort(byNewest, size, ListingIndex.this::newerBefore);
+        }
+
+        private void ensureCapacity() {
+            if (size == byPrice.length) {
+                byPrice = Arrays.copyOf(byPrice, size * 2);
+                byNewest = Arrays.copyOf(byNewest, size * 2);
+            }
+        }
+
+        void delete(int slot) {
+            deleteAt(byPrice, searchPrice(slot));
+            deleteAt(byNewest, searchNewest(slot));
+            size--;
+        }
+
+        ListingPage page(long min, long max, int villageCode, ListingSort sort, int offset, int limit) {
+            int lo = min == Long.MIN_VALUE ? 0 : firstPriceAbove(min - 1);
+            int hi = max == Long.MAX_VALUE ? size : firstPriceAbove(max);
+            // the binary search already counted the price range; only a village filter needs a full count
+            int known = villageCode < 0 ? hi - lo : -1;
+            List<Listing> out = new ArrayList<>(Math.min(limit, hi - lo));
+            int total;
+            if (sort == ListingSort.PRICE_LOW || sort == ListingSort.PRICE_HIGH) {
+                total = collect(byPrice, lo, hi, sort == ListingSort.PRICE_LOW, Long.MIN_VALUE, Long.MAX_VALUE,
+                        villageCode, offset, limit, known, out);
+            } else if (hi - lo < size && hi - lo <= size / GATHER_RATIO) {
+                int[] gathered = gatherNewestFirst(lo, hi);
+                total = collect(gathered, 0, gathered.length, sort == ListingSort.NEWEST, Long.MIN_VALUE,
+                        Long.MAX_VALUE, villageCode, offset, limit, known, out);
+            } else {
+                total = collect(byNewest, 0, size, sort == ListingSort.NEWEST, min, max,
+                        villageCode, offset, limit, known, out);
+            }
+            return new ListingPage(out, total, offset, limit);
+        }
+
+        /**
+         * Walks {@code slots[from, to)} in the given direction, keeping the matches that fall in
+         * {@code [offset, offset + limit)}. With a known total the walk stops once the page is full,
+         * and with nothing left to filter the page is a plain slice.
+         */
+        private int collect(int[] slots, int from, int to, boolean forward, long min, long max, int villageCode,
+                            int offset, int limit, int knownTotal, List<Listing> out) {
+            int n = to - from;
+            if (min == Long.MIN_VALUE && max == Long.MAX_VALUE && villageCode < 0) {
+                for (int k = offset; k < n && out.size() < limit; k++) {
+                    out.add(listings[slots[forward ? from + k : to - 1 - k]]);
+                }
+                return n;
+            }
+            int matched = 0;
+            for (int k = 0; k < n; k++) {
+                int slot = slots[forward ? from + k : to - 1 - k];
+                if (price[slot] < min || price[slot] > max) continue;
+                if (villageCode >= 0 && village[slot] != villageCode) continue;
+                if (matched++ >= offset) {
+                    if (out.size() < limit) out.add(listings[slot]);
+                    else if (knownTotal >= 0) return knownTotal;
+                }
+            }
+            return matched;
+        }
+
+        /**
+         * The slots of a narrow price range {@code byPrice[lo, hi)}, newest first. Sorting
+         * (time, position) pairs packed into longs keeps it to one primitive sort.
+         */
+        private int[] gatherNewestFirst(int lo, int hi) {
+            long[] keys = new long[hi - lo];
+            for (int i = lo; i < hi; i++) {
+                keys[i - lo] = (created[byPrice[i]] << GATHER_INDEX_BITS) | (i - lo);
+            }
+            Arrays.sort(keys);
+            int[] out = new int[keys.length];
+            long mask = (1L << GATHER_INDEX_BITS) - 1;
+            for (int i = 0; i < keys.length; i++) {
+                out[keys.length - 1 - i] = byPrice[lo + (int) (keys[i] & mask)];
+            }
+            return out;
+        }
+
+        private int firstPriceAbove(long value) {
+            int lo = 0, hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (price[byPrice[mid]] <= value) lo = mid + 1;
+                else hi = mid;
+            }
+            return lo;
+        }
+
+        private int searchPrice(int slot) {
+            int lo = 0, hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (priceBefore(byPrice[mid], slot)) lo = mid + 1;
+                else hi = mid;
+            }
+            return lo;
+        }
+
+        private int searchNewest(int slot) {
+            int lo = 0, hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (newerBefore(byNewest[mid], slot)) lo = mid + 1;
+                else hi = mid;
+            }
+            return lo;
+        }
+
+        private void insertAt(int[] a, int pos, int slot) {
+            System.arraycopy(a, pos, a, pos + 1, size - pos);
+            a[pos] = slot;
+        }
+
+        private void deleteAt(int[] a, int pos) {
+            System.arraycopy(a, pos + 1, a, pos, size - pos - 1);
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package com.smartvillage.marketplace.index;
+
+import java.util.List;
+
+public record ListingPage(List<Listing> items, int total, int offset, int limit) {
+}
@@ -0,0 +1,11 @@
+package com.smartvillage.marketplace.index;
+
+public enum ListingSort {
+    NEWEST, OLDEST, PRICE_LOW, PRICE_HIGH;
+
+    /** Accepts the web client's values ({@code newest}, {@code price-low}, ...). */
+    public static ListingSort parse(String value) {
+        if (value == null || value.isBlank()) return NEWEST;
+        return valueOf(value.trim().replace('-', '_').toUpperCase());
+    }
+}
@@ -0,0 +1,9 @@
+package com.smartvillage.marketplace.repository;
+
+import com.smartvillage.marketplace.entity.Item;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.UUID;
+
+public interface ItemRepository extends JpaRepository<Item, UUID> {
+}
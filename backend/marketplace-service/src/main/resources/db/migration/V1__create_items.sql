@@ -0,0 +1,26 @@
+-- Same shape as the Supabase marketplace table, created here for plain Postgres; where the table
+-- already exists only the missing columns are added.
+CREATE TABLE IF NOT EXISTS items (
+    id UUID PRIMARY KEY,
+    item_name TEXT NOT NULL,
+    category TEXT NOT NULL,
+    price NUMERIC NOT NULL,
+    description TEXT,
+    village TEXT NOT NULL DEFAULT 'Shivankhed Khurd',
+    contact TEXT NOT NULL,
+    image_urls TEXT[] DEFAULT ARRAY[]::TEXT[],
+    user_id UUID,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+    updated_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+ALTER TABLE items
+    ADD COLUMN IF NOT EXISTS status TEXT NOT NULL DEFAULT 'pending',
+    ADD COLUMN IF NOT EXISTS reviewed_by UUID,
+    ADD COLUMN IF NOT EXISTS reviewed_at TIMESTAMPTZ,
+    ADD COLUMN IF NOT EXISTS rejection_reason TEXT,
+    ADD COLUMN IF NOT EXISTS seller_name TEXT,
+    ADD COLUMN IF NOT EXISTS sold BOOLEAN DEFAULT FALSE,
+    ADD COLUMN IF NOT EXISTS is_available BOOLEAN NOT NULL DEFAULT TRUE,
+    -- optimistic locking for the single-statement writes
+    ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,149 @@
+package com.smartvillage.noticeboard.cache;
+
+import com.smartvillage.common.web.CachedPayload;
+import com.smartvillage.common.web.PayloadEncoders;
+import com.smartvillage.common.write.EntityWriter;
+import com.smartvillage.noticeboard.entity.Notice;
+import com.smartvillage.noticeboard.repository.NoticeRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Read-through cache in front of {@link NoticeRepository}. Responses are kept as {@link CachedPayload}s
+ * (encoded and gzipped once per representation) with a strong ETag, so conditional GETs and repeat
+ * reads never reach Postgres. Besides the global active
+ * list it holds one snapshot per village, so a village homepage never reads other tenants' rows.
+ * The cache is per instance; every write handler in this service must call one of the invalidate methods.
+ */
+@Component
+public class NoticeCache {
+
+    public record Stats(long hits, long misses, long evictions, int size) {}
+
+    private final NoticeRepository repo;
+    private final PayloadEncoders encoders;
+    private final int maxEntries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    // Guarded by this. Writes are rare, so a plain lock keeps fills and invalidations ordered.
+    private CachedPayload active;
+    private final LinkedHashMap<UUID, CachedPayload> byId;
+    private final LinkedHashMap<UUID, CachedPayload> byVillage;
+    private long generation;
+
+    public NoticeCache(NoticeRepository repo, PayloadEncoders encoders,
+                       @Value("${notice-cache.max-entries:1000}") int maxEntries) {
+        this.repo = repo;
+        this.encoders = encoders;
+        this.maxEntries = maxEntries;
+        this.byId = lruMap();
+        this.byVillage = lruMap();
+    }
+
+    private LinkedHashMap<UUID, CachedPayload> lruMap() {
+        return new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, CachedPayload> eldest) {
+                if (size() > maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public CachedPayload activeNotices() {
+        long gen;
+        synchronized (this) {
+            if (active != null) {
+                hits.increment();
+                return active;
+            }
+            gen = generation;
+        }
+        misses.increment();
+        CachedPayload e = listEntry("active", repo.findByIsActiveTrueOrderByNoticeDateDesc());
+        synchronized (this) {
+            if (generation == gen) active = e;
+        }
+        return e;
+    }
+
+    /** Active notices of one village, served from its snapshot. */
+    public CachedPayload activeNotices(UUID villageId) {
+        long gen;
+        synchronized (this) {
+            CachedPayload e = byVillage.get(villageId);
+            if (e != null) {
+                hits.increment();
+                return e;
+            }
+            gen = generation;
+        }
+        misses.increment();
+        CachedPayload e = listEntry(villageId.toString(), repo.findByVillageIdAndIsActiveTrueOrderByNoticeDateDesc(villageId));
+        synchronized (this) {
+            if (generation == gen) byVillage.put(villageId, e);
+        }
+        return e;
+    }
+
+    public Optional<CachedPayload> find(UUID id) {
+        long gen;
+        synchronized (this) {
+            CachedPayload e = byId.get(id);
+            if (e != null) {
+                hits.increment();
+                return Optional.of(e);
+            }
+            gen = generation;
+        }
+        misses.increment();
+        return repo.findById(id).map(n -> {
+            // the version, so the ETag of a read can go straight back in If-Match
+            CachedPayload e = encoders.cache(n, EntityWriter.etag(n.getVersion()));
+            synchronized (this) {
+                if (generation == gen) byId.put(id, e);
+            }
+            return e;
+        });
+    }
+
+    /** A notice was created in {@code villageId} (may be null): only the lists can have changed. */
+    public synchronized void invalidateList(UUID villageId) {
+        generation++;
+        active = null;
+        if (villageId != null) byVillage.remove(villageId);
+    }
+
+    /** A notice of {@code villageId} was updated or deleted. */
+    public synchronized void invalidate(UUID id, UUID villageId) {
+        invalidateList(villageId);
+        byId.remove(id);
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(),
+                byId.size() + byVillage.size() + (active != null ? 1 : 0));
+    }
+
+    private CachedPayload listEntry(String scope, List<Notice> rows) {
+        Instant latest = rows.stream().map(Notice::getUpdatedAt).filter(Objects::nonNull)
+                .max(Comparator.naturalOrder()).orElse(Instant.EPOCH);
+        return encoders.cache(rows, "\"" + scope + "-" + rows.size() + "-" + latest.toEpochMilli() + "\"");
+    }
+}
@@ -1,9 +1,21 @@
 package com.smartvillage.noticeboard.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.smartvillage.common.paging.CursorPage;
+import com.smartvillage.common.paging.KeysetPager;
+import com.smartvillage.common.sync.ChangeFeed;
+import com.smartvillage.common.sync.ChangeSet;
+import com.smartvillage.common.write.EntityWriter;
+import com.smartvillage.common.write.WritableTable;
+import com.smartvillage.noticeboard.cache.NoticeCache;
 import com.smartvillage.noticeboard.entity.Notice;
+import com.smartvillage.noticeboard.search.NoticeSearch;
 import com.smartvillage.noticeboard.repository.NoticeRepository;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.Optional;
@@ -13,41 +25,106 @@ import java.util.UUID;
 @RequestMapping("/api/v1/notices")
 public class NoticeController {
 
+    private static final String RESOURCE = "notices";
+    private static final WritableTable<Notice> TABLE = WritableTable.of(Notice.class)
+            .column("title").column("description").column("category").column("noticeDate")
+            .column("attachmentUrl").column("active", "isActive").touch("updatedAt");
+
     private final NoticeRepository repo;
+    private final KeysetPager pager;
+    private final NoticeCache cache;
+    private final NoticeSearch search;
+    private final ChangeFeed changes;
+    private final EntityWriter writer;
 
-    public NoticeController(NoticeRepository repo) { this.repo = repo; }
+    public NoticeController(NoticeRepository repo, KeysetPager pager, NoticeCache cache, NoticeSearch search,
+                            ChangeFeed changes, EntityWriter writer) {
+        this.repo = repo;
+        this.pager = pager;
+        this.cache = cache;
+        this.search = search;
+        this.changes = changes;
+        this.writer = writer;
+    }
 
     @GetMapping
-    public List<Notice> list() { return repo.findByIsActiveTrueOrderByNoticeDateDesc(); }
+    public ResponseEntity<byte[]> list(@RequestHeader HttpHeaders headers) {
+        return cache.activeNotices().render(headers);
+    }
+
+    @GetMapping("/village/{villageId}")
+    public ResponseEntity<byte[]> listForVillage(@PathVariable UUID villageId, @RequestHeader HttpHeaders headers) {
+        return cache.activeNotices(villageId).render(headers);
+    }
+
+    @GetMapping("/page")
+    public CursorPage<Notice> page(@RequestParam(required = false) String cursor,
+                                   @RequestParam(required = false) Integer size) {
+        return pager.page(Notice.class, "e.isActive = true", cursor, size);
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    public StreamingResponseBody stream() { return pager.stream(Notice.class, "e.isActive = true"); }
+
+    @GetMapping("/changes")
+    public ChangeSet<Notice> changes(@RequestParam(required = false) String since,
+                                     @RequestParam(required = false) Integer limit) {
+        return changes.since(RESOURCE, Notice.class, since, limit);
+    }
+
+    @GetMapping("/search")
+    public List<Notice> search(@RequestParam String q,
+                               @RequestParam(defaultValue = "20") int limit,
+                               @RequestParam(defaultValue = "true") boolean prefix) {
+        return search.search(q, Math.min(limit, 100), prefix);
+    }
+
+    @GetMapping("/cache/stats")
+    public NoticeCache.Stats cacheStats() { return cache.stats(); }
 
     @GetMapping("/{id}")
-    public ResponseEntity<?> get(@PathVariable UUID id) {
-        Optional<Notice> n = repo.findById(id);
-        return n.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+    public ResponseEntity<?> get(@PathVariable UUID id, @RequestHeader HttpHeaders headers) {
+        return cache.find(id).<ResponseEntity<?>>map(e -> e.render(headers))
+                .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     @PostMapping
-    public Notice create(@RequestBody Notice notice) { return repo.save(notice); }
+    public Notice create(@RequestBody Notice notice) {
+        Notice saved = changes.upsert(RESOURCE, () -> Optional.of(repo.saveAndFlush(notice))).orElseThrow();
+        cache.invalidateList(saved.getVillageId());
+        search.put(saved);
+        return saved;
+    }
 
     @PutMapping("/{id}")
-    public ResponseEntity<?> update(@PathVariable UUID id, @RequestBody Notice notice) {
-        return repo.findById(id).map(existing -> {
-            existing.setTitle(notice.getTitle());
-            existing.setDescription(notice.getDescription());
-            existing.setCategory(notice.getCategory());
-            existing.setNoticeDate(notice.getNoticeDate());
-            existing.setAttachmentUrl(notice.getAttachmentUrl());
-            existing.setActive(notice.isActive());
-            repo.save(existing);
-            return ResponseEntity.ok(existing);
-        }).orElseGet(() -> ResponseEntity.notFound().build());
+    public ResponseEntity<?> update(@PathVariable UUID id, @RequestBody Notice notice,
+                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return changes.upsert(RESOURCE, () -> writer.replace(TABLE, id, EntityWriter.versionFrom(ifMatch), notice))
+                .<ResponseEntity<?>>map(this::updated)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @PatchMapping(value = "/{id}", consumes = { EntityWriter.MERGE_PATCH_JSON, MediaType.APPLICATION_JSON_VALUE })
+    public ResponseEntity<?> patch(@PathVariable UUID id, @RequestBody JsonNode patch,
+                                   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return changes.upsert(RESOURCE, () -> writer.patch(TABLE, id, EntityWriter.versionFrom(ifMatch), patch))
+                .<ResponseEntity<?>>map(this::updated)
+                .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<?> delete(@PathVariable UUID id) {
-        return repo.findById(id).map(n -> {
-            repo.deleteById(id);
+    public ResponseEntity<?> delete(@PathVariable UUID id,
+                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return changes.delete(RESOURCE, () -> writer.delete(TABLE, id, EntityWriter.versionFrom(ifMatch))).map(n -> {
+            cache.invalidate(id, n.getVillageId());
+            search.remove(id);
             return ResponseEntity.ok().build();
         }).orElseGet(() -> ResponseEntity.notFound().build());
     }
+
+    private ResponseEntity<Notice> updated(Notice n) {
+        cache.invalidate(n.getId(), n.getVillageId());
+        search.put(n);
+        return ResponseEntity.ok().eTag(EntityWriter.etag(n.getVersion())).body(n);
+    }
 }
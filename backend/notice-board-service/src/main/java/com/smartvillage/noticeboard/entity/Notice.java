@@ -1,12 +1,13 @@
 package com.smartvillage.noticeboard.entity;
 
+import com.smartvillage.common.paging.KeysetEntity;
 import jakarta.persistence.*;
 import java.time.LocalDate;
 import java.time.Instant;
 
 @Entity
 @Table(name = "notices")
-public class Notice {
+public class Notice implements KeysetEntity {
 
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
@@ -31,6 +32,9 @@ public class Notice {
     private Instant createdAt = Instant.now();
     private Instant updatedAt = Instant.now();
 
+    @Version
+    private long version;
+
     public Notice() {}
 
     // getters and setters
@@ -54,4 +58,6 @@ public class Notice {
     public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
     public Instant getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt; }
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
 }
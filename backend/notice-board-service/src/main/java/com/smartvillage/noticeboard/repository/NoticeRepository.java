@@ -2,10 +2,19 @@ package com.smartvillage.noticeboard.repository;
 
 import com.smartvillage.noticeboard.entity.Notice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
 
 public interface NoticeRepository extends JpaRepository<Notice, UUID> {
     List<Notice> findByIsActiveTrueOrderByNoticeDateDesc();
+
+    List<Notice> findByVillageIdAndIsActiveTrueOrderByNoticeDateDesc(UUID villageId);
+
+    List<Notice> findByUpdatedAtAfter(Instant since);
+
+    @Query("select n.id from Notice n")
+    List<UUID> findAllIds();
 }
@@ -0,0 +1,90 @@
+package com.smartvillage.noticeboard.search;
+
+import com.smartvillage.common.search.SearchHit;
+import com.smartvillage.common.search.SearchIndex;
+import com.smartvillage.common.search.SearchIndexSnapshotter;
+import com.smartvillage.noticeboard.entity.Notice;
+import com.smartvillage.noticeboard.repository.NoticeRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Full-text index over active notices (title, description, category). Kept current by the write
+ * handlers and snapshotted to disk; on restart the snapshot is reconciled against the table instead
+ * of reindexing everything.
+ */
+@Component
+public class NoticeSearch {
+
+    private static final Logger log = LoggerFactory.getLogger(NoticeSearch.class);
+
+    private final NoticeRepository repo;
+    private final Path snapshotPath;
+    private final Duration snapshotInterval;
+    private final SearchIndex index = new SearchIndex(3f, 1f, 2f);
+    private SearchIndexSnapshotter snapshotter;
+
+    public NoticeSearch(NoticeRepository repo,
+                        @Value("${notice-search.snapshot-path:data/notice-search.idx}") Path snapshotPath,
+                        @Value("${notice-search.snapshot-interval:PT1M}") Duration snapshotInterval) {
+        this.repo = repo;
+        this.snapshotPath = snapshotPath;
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    @PostConstruct
+    public void init() {
+        Instant since = null;
+        try {
+            since = index.loadSnapshot(snapshotPath);
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable notice search snapshot {}", snapshotPath, e);
+        }
+        if (since == null) {
+            repo.findAll().forEach(this::put);
+        } else {
+            repo.findByUpdatedAtAfter(since).forEach(this::put);
+            index.retainAll(new HashSet<>(repo.findAllIds()));
+        }
+        snapshotter = new SearchIndexSnapshotter(index, snapshotPath, snapshotInterval);
+    }
+
+    public void put(Notice n) {
+        if (n.isActive()) {
+            index.put(n.getId(), n.getTitle(), n.getDescription(), n.getCategory());
+        } else {
+            index.remove(n.getId());
+        }
+    }
+
+    public void remove(UUID id) {
+        index.remove(id);
+    }
+
+    public List<Notice> search(String query, int limit, boolean prefix) {
+        List<SearchHit> hits = index.search(query, limit, prefix);
+        Map<UUID, Notice> byId = repo.findAllById(hits.stream().map(SearchHit::id).toList()).stream()
+                .collect(Collectors.toMap(Notice::getId, Function.identity()));
+        return hits.stream().map(h -> byId.get(h.id())).filter(n -> n != null && n.isActive()).toList();
+    }
+
+    @PreDestroy
+    public void close() {
+        if (snapshotter != null) snapshotter.close();
+    }
+}
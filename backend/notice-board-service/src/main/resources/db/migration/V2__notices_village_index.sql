@@ -0,0 +1,5 @@
+-- Flyway migration: village-scoped notice listing
+-- Serves "active notices of village X, newest first" from the index alone.
+CREATE INDEX IF NOT EXISTS idx_notices_village_date
+  ON notices (village_id, notice_date DESC)
+  WHERE is_active;
@@ -0,0 +1,2 @@
+-- Flyway migration: optimistic-locking version, sent to clients as the ETag
+ALTER TABLE notices ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
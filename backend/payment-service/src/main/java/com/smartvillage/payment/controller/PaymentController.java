@@ -1,31 +1,66 @@
 package com.smartvillage.payment.controller;
 
+import com.smartvillage.payment.dto.TaxPaymentRequest;
+import com.smartvillage.payment.ledger.Payment;
+import com.smartvillage.payment.ledger.PaymentLedger;
+import com.smartvillage.payment.notify.PaymentStatusNotifier;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/v1/payments")
 public class PaymentController {
 
+    private final PaymentLedger ledger;
+    private final PaymentStatusNotifier notifier;
+
+    public PaymentController(PaymentLedger ledger, PaymentStatusNotifier notifier) {
+        this.ledger = ledger;
+        this.notifier = notifier;
+    }
+
+    /** Retries with the same Idempotency-Key return the original payment instead of opening a new order. */
     @PostMapping("/tax")
-    public ResponseEntity<?> mockTaxPayment(@RequestBody Map<String, Object> body) {
-        // Very small mock: return a fake payment id and status
-        return ResponseEntity.ok(Map.of(
-                "payment_id", UUID.randomUUID().toString(),
-                "order_id", UUID.randomUUID().toString(),
-                "status", "pending",
-                "amount", body.getOrDefault("amount", 0)
-        ));
+    public ResponseEntity<?> createTaxPayment(@RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+                                              @RequestBody TaxPaymentRequest request) {
+        if (request.getAmount() == null || request.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
+            return ResponseEntity.badRequest().body(Map.of("error", "amount must be positive"));
+        }
+        return ResponseEntity.ok(view(ledger.open(idempotencyKey, request)));
+    }
+
+    @PostMapping("/{paymentId}/verify")
+    public ResponseEntity<?> verify(@PathVariable String paymentId) {
+        return ResponseEntity.ok(view(ledger.verify(paymentId)));
     }
 
+    // served from the in-memory index; only a pending payment is checked against the log
     @GetMapping("/status/{paymentId}")
     public ResponseEntity<?> getStatus(@PathVariable String paymentId) {
-        return ResponseEntity.ok(Map.of(
-                "payment_id", paymentId,
-                "status", "success"
-        ));
+        return ledger.find(paymentId)
+                .<ResponseEntity<?>>map(p -> ResponseEntity.ok(view(p)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /** Use instead of polling /status: one event is pushed when the payment is verified or fails. */
+    @GetMapping(value = "/status/{paymentId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter statusEvents(@PathVariable String paymentId) {
+        return notifier.subscribe(paymentId);
+    }
+
+    static Map<String, Object> view(Payment p) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("payment_id", p.paymentId());
+        body.put("order_id", p.orderId());
+        body.put("status", p.status().name().toLowerCase());
+        body.put("amount", p.amount());
+        body.put("updated_at", p.updatedAt());
+        return body;
     }
 }
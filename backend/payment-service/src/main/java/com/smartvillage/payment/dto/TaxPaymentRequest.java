@@ -0,0 +1,25 @@
+package com.smartvillage.payment.dto;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+public class TaxPaymentRequest {
+    private BigDecimal amount;
+    private UUID villageId;
+    private String taxType;
+    private String payerName;
+    private String payerMobile;
+
+    public TaxPaymentRequest() {}
+
+    public BigDecimal getAmount() { return amount; }
+    public void setAmount(BigDecimal amount) { this.amount = amount; }
+    public UUID getVillageId() { return villageId; }
+    public void setVillageId(UUID villageId) { this.villageId = villageId; }
+    public String getTaxType() { return taxType; }
+    public void setTaxType(String taxType) { this.taxType = taxType; }
+    public String getPayerName() { return payerName; }
+    public void setPayerName(String payerName) { this.payerName = payerName; }
+    public String getPayerMobile() { return payerMobile; }
+    public void setPayerMobile(String payerMobile) { this.payerMobile = payerMobile; }
+}
@@ -0,0 +1,17 @@
+package com.smartvillage.payment.gateway;
+
+import java.math.BigDecimal;
+
+/**
+ * The external payment provider. Only the two calls the ledger needs: open an order and ask
+ * what happened to it.
+ */
+public interface PaymentGateway {
+
+    enum OrderState { ACTIVE, PAID, FAILED }
+
+    /** Returns the gateway's order id for a new payment. */
+    String createOrder(String paymentId, BigDecimal amount);
+
+    OrderState fetchOrderState(String orderId);
+}
@@ -0,0 +1,42 @@
+package com.smartvillage.payment.gateway;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Local stand-in for the real gateway: every order is paid once it is older than
+ * {@code payment.stub.settle-after}. Unknown order ids report FAILED.
+ */
+@Component
+@ConditionalOnProperty(name = "payment.gateway", havingValue = "stub", matchIfMissing = true)
+public class StubPaymentGateway implements PaymentGateway {
+
+    private final Duration settleAfter;
+    private final Map<String, Instant> orders = new ConcurrentHashMap<>();
+
+    public StubPaymentGateway(@Value("${payment.stub.settle-after:PT0S}") Duration settleAfter) {
+        this.settleAfter = settleAfter;
+    }
+
+    @Override
+    public String createOrder(String paymentId, BigDecimal amount) {
+        String orderId = "order_stub_" + UUID.randomUUID().toString().replace("-", "");
+        orders.put(orderId, Instant.now());
+        return orderId;
+    }
+
+    @Override
+    public OrderState fetchOrderState(String orderId) {
+        Instant created = orders.get(orderId);
+        if (created == null) return OrderState.FAILED;
+        return created.plus(settleAfter).isAfter(Instant.now()) ? OrderState.ACTIVE : OrderState.PAID;
+    }
+}
@@ -0,0 +1,86 @@
+package com.smartvillage.payment.ledger;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Idempotency-Key -> payment id for {@code payment.idempotency.ttl}. A retry that arrives while the
+ * first request is still running waits for its result instead of opening a second order.
+ */
+@Component
+public class IdempotencyCache {
+
+    private record Entry(CompletableFuture<String> result, Instant expiresAt) {
+        boolean expired(Instant now) { return expiresAt.isBefore(now); }
+    }
+
+    private final Duration ttl;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "idempotency-sweeper");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public IdempotencyCache(@Value("${payment.idempotency.ttl:PT24H}") Duration ttl) {
+        this.ttl = ttl;
+        long period = Math.max(1, Math.min(ttl.toSeconds(), 60));
+        sweeper.scheduleWithFixedDelay(this::sweep, period, period, TimeUnit.SECONDS);
+    }
+
+    public String getOrCompute(String key, Supplier<String> create) {
+        Instant now = Instant.now();
+        Entry mine = new Entry(new CompletableFuture<>(), now.plus(ttl));
+        Entry current = entries.compute(key, (k, e) -> e == null || e.expired(now) ? mine : e);
+        if (current != mine) {
+            try {
+                return current.result().join();
+            } catch (CompletionException e) {
+                // the first attempt failed and released the key; this retry gets its own go
+                return getOrCompute(key, create);
+            }
+        }
+        try {
+            String paymentId = create.get();
+            mine.result().complete(paymentId);
+            return paymentId;
+        } catch (RuntimeException e) {
+            entries.remove(key, mine);
+            mine.result().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /** Re-registers a key found in the event log at startup, if it has not expired yet. */
+    void remember(String key, String paymentId, Instant createdAt) {
+        Instant expiresAt = createdAt.plus(ttl);
+        if (expiresAt.isBefore(Instant.now())) return;
+        entries.putIfAbsent(key, new Entry(CompletableFuture.completedFuture(paymentId), expiresAt));
+    }
+
+    public Duration ttl() {
+        return ttl;
+    }
+
+    private void sweep() {
+        Instant now = Instant.now();
+        entries.values().removeIf(e -> e.result().isDone() && e.expired(now));
+    }
+
+    @PreDestroy
+    void stop() {
+        sweeper.shutdownNow();
+    }
+}
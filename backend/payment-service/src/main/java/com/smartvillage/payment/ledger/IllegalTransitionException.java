@@ -0,0 +1,11 @@
+package com.smartvillage.payment.ledger;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class IllegalTransitionException extends RuntimeException {
+    public IllegalTransitionException(String paymentId, PaymentStatus from, PaymentStatus to) {
+        super("Payment " + paymentId + " cannot move from " + from + " to " + to);
+    }
+}
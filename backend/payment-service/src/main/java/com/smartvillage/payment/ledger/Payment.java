@@ -0,0 +1,14 @@
+package com.smartvillage.payment.ledger;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+/** Current state of one payment, folded from its events. */
+public record Payment(String paymentId, String orderId, PaymentStatus status, BigDecimal amount,
+                      UUID villageId, String taxType, Instant createdAt, Instant updatedAt) {
+
+    Payment withStatus(PaymentStatus next, Instant at) {
+        return new Payment(paymentId, orderId, next, amount, villageId, taxType, createdAt, at);
+    }
+}
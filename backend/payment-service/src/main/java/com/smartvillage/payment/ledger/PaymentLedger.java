@@ -0,0 +1,270 @@
+package com.smartvillage.payment.ledger;
+
+import com.smartvillage.payment.dto.TaxPaymentRequest;
+import com.smartvillage.payment.gateway.PaymentGateway;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Append-only payment ledger. Every state change is an INSERT into {@code payment_events}; the
+ * current state of each payment lives in an in-memory index that is folded from the log at
+ * startup, so reads of settled payments never touch the database. A pending payment may have been
+ * settled by another instance, so reading one checks its latest event, and events written elsewhere
+ * are folded in every {@code payment.ledger.refresh-interval}. Transitions are serialized across
+ * instances by an advisory lock on the payment and decided against its latest event.
+ */
+@Component
+public class PaymentLedger {
+
+    private static final Logger log = LoggerFactory.getLogger(PaymentLedger.class);
+
+    private static final String COLUMNS =
+            "payment_id, order_id, status, amount, village_id, tax_type, idempotency_key, created_at";
+    private static final String INSERT =
+            "INSERT INTO payment_events (payment_id, order_id, status, amount, village_id, tax_type,"
+                    + " payer_name, payer_mobile, idempotency_key, reason, created_at)"
+                    + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String LATEST =
+            "SELECT status, created_at FROM payment_events WHERE payment_id = ? ORDER BY seq DESC LIMIT 1";
+    private static final int REPLAY_FETCH_SIZE = 1000;
+    private static final int LOCK_STRIPES = 64;
+    // re-read this far back so events from transactions that committed late, or were stamped by an
+    // instance with a slower clock, are not missed
+    private static final Duration REFRESH_OVERLAP = Duration.ofMinutes(1);
+
+    private record Latest(PaymentStatus status, Instant at) {}
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+    private final TransactionTemplate readTx;
+    private final PaymentGateway gateway;
+    private final IdempotencyCache idempotency;
+    private final ApplicationEventPublisher events;
+    private final Map<String, Payment> index = new ConcurrentHashMap<>();
+    // queue this instance's callers here rather than on pooled connections waiting for the advisory
+    // lock; ReentrantLock rather than synchronized so virtual threads are not pinned across JDBC calls
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+    private final Duration refreshInterval;
+    private final ScheduledExecutorService refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "payment-ledger-refresh");
+        t.setDaemon(true);
+        return t;
+    });
+    private volatile Instant loadedUpTo = Instant.EPOCH;
+
+    public PaymentLedger(JdbcTemplate jdbc, PlatformTransactionManager txManager,
+                         PaymentGateway gateway, IdempotencyCache idempotency,
+                         ApplicationEventPublisher events,
+                         @Value("${payment.ledger.refresh-interval:PT5S}") Duration refreshInterval) {
+        this.jdbc = jdbc;
+        this.tx = new TransactionTemplate(txManager);
+        this.readTx = new TransactionTemplate(txManager);
+        this.readTx.setReadOnly(true);
+        this.gateway = gateway;
+        this.idempotency = idempotency;
+        this.events = events;
+        this.refreshInterval = refreshInterval;
+        for (int i = 0; i < LOCK_STRIPES; i++) locks[i] = new ReentrantLock();
+    }
+
+    @PostConstruct
+    void rebuild() {
+        long start = System.nanoTime();
+        loadedUpTo = Instant.now();
+        int[] events = {0};
+        // a transaction lets the Postgres driver honour the fetch size and stream the log
+        readTx.executeWithoutResult(tx -> jdbc.query(con -> {
+            PreparedStatement ps = con.prepareStatement("SELECT " + COLUMNS + " FROM payment_events ORDER BY seq",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(REPLAY_FETCH_SIZE);
+            return ps;
+        }, rs -> {
+            apply(rs);
+            events[0]++;
+        }));
+        log.info("Payment ledger replayed {} events into {} payments in {} ms",
+                events[0], index.size(), (System.nanoTime() - start) / 1_000_000);
+        long period = refreshInterval.toMillis();
+        refresher.scheduleWithFixedDelay(this::refreshQuietly, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        refresher.shutdownNow();
+    }
+
+    /**
+     * Opens a payment with the gateway and records it as pending. Requests carrying an
+     * idempotency key already seen within the TTL get the original payment back.
+     */
+    public Payment open(String idempotencyKey, TaxPaymentRequest request) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return index.get(create(null, request));
+        }
+        String paymentId = idempotency.getOrCompute(idempotencyKey, () -> create(idempotencyKey, request));
+        return find(paymentId).orElseThrow(() -> new PaymentNotFoundException(paymentId));
+    }
+
+    public Optional<Payment> find(String paymentId) {
+        Payment payment = index.get(paymentId);
+        // written by another instance since our replay
+        if (payment == null) return replay(paymentId);
+        if (payment.status() != PaymentStatus.PENDING) return Optional.of(payment);
+        // another instance may have verified or failed it since
+        return Optional.of(latest(paymentId).map(l -> advance(paymentId, l)).orElse(payment));
+    }
+
+    /** Asks the gateway what happened to the order and records the outcome. */
+    public Payment verify(String paymentId) {
+        Payment payment = find(paymentId).orElseThrow(() -> new PaymentNotFoundException(paymentId));
+        if (payment.status() != PaymentStatus.PENDING) return payment;
+        // the gateway answered about a pending order; if another instance settled it meanwhile, keep that
+        return switch (gateway.fetchOrderState(payment.orderId())) {
+            case PAID -> transition(paymentId, PaymentStatus.PENDING, PaymentStatus.VERIFIED, null);
+            case FAILED -> transition(paymentId, PaymentStatus.PENDING, PaymentStatus.FAILED, "gateway reported failure");
+            case ACTIVE -> payment;
+        };
+    }
+
+    public Payment transition(String paymentId, PaymentStatus next, String reason) {
+        return transition(paymentId, null, next, reason);
+    }
+
+    /** Moves to {@code next} if the payment is still in {@code from} (any state when null). */
+    private Payment transition(String paymentId, PaymentStatus from, PaymentStatus next, String reason) {
+        ReentrantLock lock = locks[Math.floorMod(paymentId.hashCode(), LOCK_STRIPES)];
+        lock.lock();
+        try {
+            find(paymentId).orElseThrow(() -> new PaymentNotFoundException(paymentId));
+            Payment decided = tx.execute(status -> {
+                // held until commit, so an instance deciding after us sees our event as the latest
+                jdbc.query("SELECT pg_advisory_xact_lock(hashtext('payment_events:' || ?))",
+                        (RowCallbackHandler) rs -> {}, paymentId);
+                Payment current = latest(paymentId).map(l -> advance(paymentId, l))
+                        .orElseThrow(() -> new PaymentNotFoundException(paymentId));
+                if (current.status() == next || (from != null && current.status() != from)) return current;
+                if (!current.status().canTransitionTo(next)) {
+                    throw new IllegalTransitionException(paymentId, current.status(), next);
+                }
+                Payment updated = current.withStatus(next, Instant.now());
+                append(updated, null, null, null, reason);
+                return updated;
+            });
+            return advance(paymentId, new Latest(decided.status(), decided.updatedAt()));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Folds in events other instances wrote since the last refresh. */
+    void refresh() {
+        Instant since = loadedUpTo.minus(REFRESH_OVERLAP);
+        jdbc.query("SELECT DISTINCT ON (payment_id) payment_id, status, created_at FROM payment_events"
+                        + " WHERE payment_id IN (SELECT payment_id FROM payment_events WHERE created_at > ?)"
+                        + " ORDER BY payment_id, seq DESC",
+                (RowCallbackHandler) rs -> {
+                    Instant at = rs.getTimestamp("created_at").toInstant();
+                    if (at.isAfter(loadedUpTo)) loadedUpTo = at;
+                    // payments we never loaded are replayed when first asked for
+                    advance(rs.getString("payment_id"), new Latest(PaymentStatus.valueOf(rs.getString("status")), at));
+                }, Timestamp.from(since));
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            log.warn("Payment ledger refresh failed", e);
+        }
+    }
+
+    /**
+     * Moves the indexed payment to {@code latest} if that is a step forward, publishing the change,
+     * and returns what the index holds. Status only ever moves forward, so a stale read never rolls
+     * back a newer one.
+     */
+    private Payment advance(String paymentId, Latest latest) {
+        Payment[] changed = {null};
+        Payment held = index.computeIfPresent(paymentId, (id, p) -> {
+            if (!p.status().canTransitionTo(latest.status())) return p;
+            return changed[0] = p.withStatus(latest.status(), latest.at());
+        });
+        if (changed[0] != null) events.publishEvent(new PaymentStatusChanged(changed[0]));
+        return held;
+    }
+
+    private Optional<Latest> latest(String paymentId) {
+        return jdbc.query(LATEST, (rs, n) -> new Latest(PaymentStatus.valueOf(rs.getString("status")),
+                rs.getTimestamp("created_at").toInstant()), paymentId).stream().findFirst();
+    }
+
+    private String create(String idempotencyKey, TaxPaymentRequest request) {
+        String paymentId = "pay_" + UUID.randomUUID().toString().replace("-", "");
+        String orderId = gateway.createOrder(paymentId, request.getAmount());
+        Instant now = Instant.now();
+        Payment payment = new Payment(paymentId, orderId, PaymentStatus.PENDING, request.getAmount(),
+                request.getVillageId(), request.getTaxType(), now, now);
+        try {
+            append(payment, request.getPayerName(), request.getPayerMobile(), idempotencyKey, null);
+        } catch (DuplicateKeyException e) {
+            // another instance opened a payment for this key first
+            return jdbc.queryForObject("SELECT payment_id FROM payment_events WHERE idempotency_key = ? AND status = ?",
+                    String.class, idempotencyKey, PaymentStatus.PENDING.name());
+        }
+        index.put(paymentId, payment);
+        return paymentId;
+    }
+
+    private void append(Payment p, String payerName, String payerMobile, String idempotencyKey, String reason) {
+        jdbc.update(INSERT, p.paymentId(), p.orderId(), p.status().name(), p.amount(), p.villageId(),
+                p.taxType(), payerName, payerMobile, idempotencyKey, reason, Timestamp.from(p.updatedAt()));
+    }
+
+    private Optional<Payment> replay(String paymentId) {
+        jdbc.query("SELECT " + COLUMNS + " FROM payment_events WHERE payment_id = ? ORDER BY seq",
+                (RowCallbackHandler) this::apply, paymentId);
+        return Optional.ofNullable(index.get(paymentId));
+    }
+
+    private void apply(ResultSet rs) throws SQLException {
+        String paymentId = rs.getString("payment_id");
+        PaymentStatus status = PaymentStatus.valueOf(rs.getString("status"));
+        Instant at = rs.getTimestamp("created_at").toInstant();
+        if (status == PaymentStatus.PENDING) {
+            BigDecimal amount = rs.getBigDecimal("amount");
+            String village = rs.getString("village_id");
+            index.put(paymentId, new Payment(paymentId, rs.getString("order_id"), status, amount,
+                    village == null ? null : UUID.fromString(village), rs.getString("tax_type"), at, at));
+            String key = rs.getString("idempotency_key");
+            if (key != null) idempotency.remember(key, paymentId, at);
+        } else {
+            index.computeIfPresent(paymentId, (id, p) -> p.withStatus(status, at));
+        }
+    }
+}
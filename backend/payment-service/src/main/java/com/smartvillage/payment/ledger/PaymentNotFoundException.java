@@ -0,0 +1,11 @@
+package com.smartvillage.payment.ledger;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class PaymentNotFoundException extends RuntimeException {
+    public PaymentNotFoundException(String paymentId) {
+        super("Unknown payment " + paymentId);
+    }
+}
@@ -0,0 +1,17 @@
+package com.smartvillage.payment.ledger;
+
+/**
+ * pending -> verified -> failed. A verified payment can still fail later (reversal or
+ * chargeback); a failed payment is final.
+ */
+public enum PaymentStatus {
+    PENDING, VERIFIED, FAILED;
+
+    public boolean canTransitionTo(PaymentStatus next) {
+        return switch (this) {
+            case PENDING -> next == VERIFIED || next == FAILED;
+            case VERIFIED -> next == FAILED;
+            case FAILED -> false;
+        };
+    }
+}
@@ -0,0 +1,4 @@
+package com.smartvillage.payment.ledger;
+
+/** Published after a status change has been appended to the ledger. */
+public record PaymentStatusChanged(Payment payment) {}
@@ -0,0 +1,83 @@
+package com.smartvillage.payment.notify;
+
+import com.smartvillage.payment.ledger.Payment;
+import com.smartvillage.payment.ledger.PaymentLedger;
+import com.smartvillage.payment.ledger.PaymentNotFoundException;
+import com.smartvillage.payment.ledger.PaymentStatus;
+import com.smartvillage.payment.ledger.PaymentStatusChanged;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Holds SSE subscribers per payment id and pushes one event when the payment leaves pending.
+ * Subscriptions are async responses, so an idle waiter costs a map entry, not a request thread.
+ */
+@Component
+public class PaymentStatusNotifier {
+
+    private record Subscription(SseEmitter emitter, AtomicBoolean done) {}
+
+    private final PaymentLedger ledger;
+    private final long timeoutMillis;
+    private final Map<String, Set<Subscription>> waiters = new ConcurrentHashMap<>();
+
+    public PaymentStatusNotifier(PaymentLedger ledger, @Value("${payment.sse.timeout:PT2M}") Duration timeout) {
+        this.ledger = ledger;
+        this.timeoutMillis = timeout.toMillis();
+    }
+
+    /**
+     * Subscribes to the next status change. A payment that is already settled is answered
+     * straight away; on timeout the stream just closes and EventSource reconnects.
+     */
+    public SseEmitter subscribe(String paymentId) {
+        ledger.find(paymentId).orElseThrow(() -> new PaymentNotFoundException(paymentId));
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscription sub = new Subscription(emitter, new AtomicBoolean());
+        Runnable remove = () -> waiters.computeIfPresent(paymentId, (id, subs) -> {
+            subs.remove(sub);
+            return subs.isEmpty() ? null : subs;
+        });
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(e -> remove.run());
+
+        waiters.computeIfAbsent(paymentId, id -> ConcurrentHashMap.newKeySet()).add(sub);
+        // re-read after registering so a change that landed in between is not missed
+        ledger.find(paymentId)
+                .filter(p -> p.status() != PaymentStatus.PENDING)
+                .ifPresent(p -> push(sub, p));
+        return emitter;
+    }
+
+    @EventListener
+    public void onStatusChanged(PaymentStatusChanged event) {
+        Payment payment = event.payment();
+        Set<Subscription> subs = waiters.remove(payment.paymentId());
+        if (subs == null) return;
+        for (Subscription sub : subs) push(sub, payment);
+    }
+
+    private static void push(Subscription sub, Payment payment) {
+        if (!sub.done().compareAndSet(false, true)) return;
+        try {
+            sub.emitter().send(SseEmitter.event()
+                    .name("status")
+                    .id(payment.paymentId())
+                    .data(Map.of("payment_id", payment.paymentId(),
+                            "status", payment.status().name().toLowerCase())));
+            sub.emitter().complete();
+        } catch (IOException e) {
+            sub.emitter().completeWithError(e);
+        }
+    }
+}
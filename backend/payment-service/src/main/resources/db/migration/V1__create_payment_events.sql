@@ -0,0 +1,23 @@
+-- Flyway migration: append-only payment event log
+-- Every state change is a new row; the current status of a payment is its latest event.
+CREATE TABLE IF NOT EXISTS payment_events (
+  seq BIGSERIAL PRIMARY KEY,
+  payment_id TEXT NOT NULL,
+  order_id TEXT NOT NULL,
+  status TEXT NOT NULL,
+  amount NUMERIC NOT NULL,
+  village_id UUID,
+  tax_type TEXT,
+  payer_name TEXT,
+  payer_mobile TEXT,
+  idempotency_key TEXT,
+  reason TEXT,
+  created_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+CREATE INDEX IF NOT EXISTS idx_payment_events_payment ON payment_events (payment_id, seq);
+
+-- one creation event per idempotency key, across all instances
+CREATE UNIQUE INDEX IF NOT EXISTS uq_payment_events_idempotency
+  ON payment_events (idempotency_key)
+  WHERE status = 'PENDING' AND idempotency_key IS NOT NULL;
@@ -0,0 +1,2 @@
+-- Flyway migration: the ledger refresher looks up payments with events since its last pass
+CREATE INDEX IF NOT EXISTS idx_payment_events_created_at ON payment_events (created_at);
@@ -0,0 +1,60 @@
+package com.smartvillage.ratingakka
+
+import java.util.UUID
+
+import akka.actor.typed.ActorSystem
+import akka.http.scaladsl.marshallers.sprayjson.SprayJsonSupport._
+import akka.http.scaladsl.model.StatusCodes
+import akka.http.scaladsl.server.Directives._
+import akka.http.scaladsl.server.Route
+import akka.util.Timeout
+import spray.json.DefaultJsonProtocol._
+import spray.json._
+
+import scala.util.Try
+
+object RatingRoutes {
+
+  final case class RateRequest(serviceId: String, sessionId: String, rating: Int, villageId: Option[String])
+
+  private implicit val rateRequestFormat: RootJsonFormat[RateRequest] = jsonFormat4(RateRequest)
+
+  private implicit val summaryWriter: RootJsonWriter[ServiceRating.Summary] = s => JsObject(
+    "serviceId" -> JsString(s.serviceId),
+    "count" -> JsNumber(s.count),
+    "average" -> JsNumber(s.average),
+    "distribution" -> JsObject(s.distribution.zipWithIndex.map { case (n, i) => (i + 1).toString -> JsNumber(n) }.toMap)
+  )
+
+  def apply(region: RatingRegion, catalog: ServiceCatalog)(implicit system: ActorSystem[_], timeout: Timeout): Route =
+    pathPrefix("api" / "v1" / "ratings") {
+      concat(
+        pathEndOrSingleSlash {
+          post {
+            entity(as[RateRequest]) { req =>
+              val villageId = req.villageId.map(v => Try(UUID.fromString(v)))
+              if (req.rating < 1 || req.rating > 5) complete(StatusCodes.BadRequest, "rating must be between 1 and 5")
+              else if (req.serviceId.isEmpty || req.sessionId.isEmpty) complete(StatusCodes.BadRequest, "serviceId and sessionId are required")
+              else if (villageId.exists(_.isFailure)) complete(StatusCodes.BadRequest, "villageId must be a UUID")
+              else if (!catalog.exists(req.serviceId)) complete(StatusCodes.NotFound, "unknown service")
+              else onSuccess(region.ask[ServiceRating.RateReply](req.serviceId)(
+                ServiceRating.Rate(req.sessionId, req.rating, villageId.map(_.get), _))(timeout, system.scheduler)) {
+                case ServiceRating.Rated(summary) =>
+                  catalog.markRated(req.serviceId)
+                  complete(summary.toJson)
+                case ServiceRating.Overloaded => complete(StatusCodes.ServiceUnavailable, "rating writer is saturated, retry shortly")
+              }
+            }
+          }
+        },
+        path(Segment) { serviceId =>
+          get {
+            if (!catalog.exists(serviceId)) complete(StatusCodes.NotFound, "unknown service")
+            else onSuccess(region.ask[ServiceRating.Summary](serviceId)(ServiceRating.Get(_))(timeout, system.scheduler)) { summary =>
+              complete(summary.toJson)
+            }
+          }
+        }
+      )
+    }
+}
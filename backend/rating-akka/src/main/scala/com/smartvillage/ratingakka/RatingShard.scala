@@ -0,0 +1,78 @@
+package com.smartvillage.ratingakka
+
+import java.net.URLEncoder
+import java.nio.charset.StandardCharsets
+
+import akka.actor.typed.{ActorRef, ActorSystem, Behavior, Scheduler}
+import akka.actor.typed.scaladsl.AskPattern._
+import akka.actor.typed.scaladsl.Behaviors
+import akka.util.Timeout
+
+import scala.collection.mutable
+import scala.concurrent.Future
+import scala.concurrent.duration.FiniteDuration
+
+/**
+ * Owns the [[ServiceRating]] actors whose service ids hash to this shard. An actor is spawned for a
+ * service with stored ratings, or on its first rating; a read of a service with neither is answered
+ * with an empty summary. Idle actors are stopped and spawned again on their next command.
+ */
+object RatingShard {
+
+  sealed trait Command
+  final case class Envelope(serviceId: String, command: ServiceRating.Command) extends Command
+  private[ratingakka] final case class Passivate(serviceId: String, rating: ActorRef[ServiceRating.Command]) extends Command
+  private final case class Stopped(serviceId: String, rating: ActorRef[ServiceRating.Command]) extends Command
+
+  def apply(catalog: ServiceCatalog, persist: RatingRow => Boolean, load: String => Future[Seq[(String, Int)]],
+            idleTimeout: FiniteDuration): Behavior[Command] = Behaviors.setup { ctx =>
+    val services = mutable.HashMap.empty[String, ActorRef[ServiceRating.Command]]
+    // a passivated actor may still be stopping when its service is needed again, so names never repeat
+    var spawned = 0L
+
+    def spawn(serviceId: String): ActorRef[ServiceRating.Command] = {
+      spawned += 1
+      val name = URLEncoder.encode(serviceId, StandardCharsets.UTF_8) + "-" + spawned
+      val rating = ctx.spawn(ServiceRating(serviceId, ctx.self, persist, load, idleTimeout), name)
+      ctx.watchWith(rating, Stopped(serviceId, rating))
+      services.put(serviceId, rating)
+      rating
+    }
+
+    Behaviors.receiveMessage {
+      case Envelope(serviceId, ServiceRating.Get(replyTo)) if !services.contains(serviceId) && !catalog.hasRatings(serviceId) =>
+        replyTo ! ServiceRating.Summary.empty(serviceId)
+        Behaviors.same
+      case Envelope(serviceId, command) =>
+        services.getOrElse(serviceId, spawn(serviceId)) ! command
+        Behaviors.same
+      case Passivate(serviceId, rating) =>
+        // everything we forwarded before this is already in its mailbox, ahead of the Stop
+        if (services.get(serviceId).contains(rating)) {
+          services.remove(serviceId)
+          rating ! ServiceRating.Stop
+        }
+        Behaviors.same
+      case Stopped(serviceId, rating) =>
+        if (services.get(serviceId).contains(rating)) services.remove(serviceId)
+        Behaviors.same
+    }
+  }
+}
+
+/** Routes commands to a fixed set of shards by `serviceId` hash. */
+final class RatingRegion(shards: IndexedSeq[ActorRef[RatingShard.Command]]) {
+
+  private def shardFor(serviceId: String) = shards(Math.floorMod(serviceId.hashCode, shards.size))
+
+  def ask[T](serviceId: String)(command: ActorRef[T] => ServiceRating.Command)
+            (implicit timeout: Timeout, scheduler: Scheduler): Future[T] =
+    shardFor(serviceId).ask[T](replyTo => RatingShard.Envelope(serviceId, command(replyTo)))
+}
+
+object RatingRegion {
+  def apply(system: ActorSystem[_], shards: Int, catalog: ServiceCatalog, persist: RatingRow => Boolean,
+            load: String => Future[Seq[(String, Int)]], idleTimeout: FiniteDuration): RatingRegion =
+    new RatingRegion((0 until shards).map(i =>
+      system.systemActorOf(RatingShard(catalog, persist, load, idleTimeout), s"rating-shard-$i")))
+}
@@ -0,0 +1,63 @@
+package com.smartvillage.ratingakka
+
+import java.sql.{Connection, DriverManager, ResultSet}
+import java.util.UUID
+
+import scala.collection.mutable
+
+final case class RatingRow(serviceId: String, sessionId: String, rating: Int, villageId: Option[UUID])
+
+/** Plain JDBC access to the `service_ratings` table. Calls block, so run them on the jdbc dispatcher. */
+final class RatingStore(url: String, user: String, password: String, fetchSize: Int) {
+
+  private val Upsert =
+    """INSERT INTO service_ratings (service_id, session_id, rating, village_id) VALUES (?, ?, ?, ?)
+      |ON CONFLICT (session_id, service_id) DO UPDATE SET rating = EXCLUDED.rating, updated_at = now()""".stripMargin
+
+  private def connect(): Connection = DriverManager.getConnection(url, user, password)
+
+  /** Every vote stored for one service, as (session id, rating), read through a server-side cursor. */
+  def load(serviceId: String): Seq[(String, Int)] = {
+    val conn = connect()
+    try {
+      conn.setAutoCommit(false)
+      val ps = conn.prepareStatement("SELECT session_id, rating FROM service_ratings WHERE service_id = ?")
+      ps.setFetchSize(fetchSize)
+      ps.setString(1, serviceId)
+      collect(ps.executeQuery())(rs => (rs.getString(1), rs.getInt(2)))
+    } finally conn.close()
+  }
+
+  def ratedServiceIds(): Set[String] = ids("SELECT DISTINCT service_id FROM service_ratings")
+
+  /** The first column of `query`, which lists the service ids the web app shows. */
+  def ids(query: String): Set[String] = {
+    val conn = connect()
+    try collect(conn.createStatement().executeQuery(query))(_.getString(1)).filter(_ != null).toSet
+    finally conn.close()
+  }
+
+  private def collect[T](rs: ResultSet)(row: ResultSet => T): Seq[T] = {
+    val out = mutable.ArrayBuffer.empty[T]
+    while (rs.next()) out += row(rs)
+    out.toSeq
+  }
+
+  /** Upserts one batch in a single transaction. */
+  def writeBatch(rows: Seq[RatingRow]): Unit = {
+    val conn = connect()
+    try {
+      conn.setAutoCommit(false)
+      val ps = conn.prepareStatement(Upsert)
+      rows.foreach { r =>
+        ps.setString(1, r.serviceId)
+        ps.setString(2, r.sessionId)
+        ps.setInt(3, r.rating)
+        ps.setObject(4, r.villageId.orNull)
+        ps.addBatch()
+      }
+      ps.executeBatch()
+      conn.commit()
+    } finally conn.close()
+  }
+}
@@ -0,0 +1,43 @@
+package com.smartvillage.ratingakka
+
+import akka.actor.typed.{ActorSystem, DispatcherSelector}
+import akka.actor.typed.scaladsl.adapter._
+import akka.pattern.retry
+import akka.stream.BoundedSourceQueue
+import akka.stream.scaladsl.{Sink, Source}
+
+import scala.concurrent.Future
+import scala.concurrent.duration.FiniteDuration
+
+/**
+ * Write-behind sink: accepted ratings are grouped and upserted in batches, one batch in flight at a time.
+ * Ratings are answered once they are queued, so a failed batch is retried with exponential backoff; the
+ * batches behind it wait (later votes never overtake earlier ones), and once the buffer is full new
+ * ratings are answered with 503 rather than accepted. A batch is only dropped after `retries` retries.
+ */
+object RatingWriter {
+
+  def apply(store: RatingStore, bufferSize: Int, batchSize: Int, flushInterval: FiniteDuration,
+            retries: Int, minBackoff: FiniteDuration, maxBackoff: FiniteDuration)
+           (implicit system: ActorSystem[_]): BoundedSourceQueue[RatingRow] = {
+    val jdbc = system.dispatchers.lookup(DispatcherSelector.fromConfig("rating.jdbc-dispatcher"))
+    implicit val ec = system.executionContext
+    implicit val scheduler = system.toClassic.scheduler
+    Source.queue[RatingRow](bufferSize)
+      .groupedWithin(batchSize, flushInterval)
+      .mapAsync(1) { batch =>
+        var attempt = 0
+        retry(() => {
+          attempt += 1
+          Future(store.writeBatch(batch))(jdbc).recoverWith { case e =>
+            if (attempt <= retries) system.log.warn(s"Failed to persist ${batch.size} ratings (attempt $attempt), retrying", e)
+            Future.failed(e)
+          }
+        }, retries, minBackoff, maxBackoff, 0.2).recover { case e =>
+          system.log.error(s"Gave up persisting ${batch.size} ratings after $attempt attempts", e)
+        }
+      }
+      .to(Sink.ignore)
+      .run()
+  }
+}
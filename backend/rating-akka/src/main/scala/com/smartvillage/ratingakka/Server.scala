@@ -1,29 +1,66 @@
 package com.smartvillage.ratingakka
 
-import akka.actor.typed.ActorSystem
+import akka.actor.typed.{ActorSystem, DispatcherSelector}
 import akka.actor.typed.scaladsl.Behaviors
 import akka.http.scaladsl.Http
 import akka.http.scaladsl.server.Directives._
-import scala.util.{Failure, Success}
+import akka.stream.QueueOfferResult
+import akka.util.Timeout
+
+import scala.concurrent.Future
+import scala.jdk.DurationConverters._
+import scala.util.{Failure, Success, Try}
 
 object Server {
   def main(args: Array[String]): Unit = {
     implicit val system = ActorSystem(Behaviors.empty, "rating-akka-system")
     implicit val ec = system.executionContext
 
-    val route = pathPrefix("async") {
-      path("ping") {
-        get {
-          complete("pong")
-        }
-      }
+    val config = system.settings.config.getConfig("rating")
+    implicit val askTimeout: Timeout = Timeout(config.getDuration("ask-timeout").toScala)
+
+    val store = new RatingStore(
+      config.getString("db.url"), config.getString("db.username"), config.getString("db.password"),
+      config.getInt("db.fetch-size"))
+    val writes = RatingWriter(store,
+      config.getInt("writer.buffer-size"), config.getInt("writer.batch-size"),
+      config.getDuration("writer.flush-interval").toScala, config.getInt("writer.retries"),
+      config.getDuration("writer.min-backoff").toScala, config.getDuration("writer.max-backoff").toScala)
+    val jdbc = system.dispatchers.lookup(DispatcherSelector.fromConfig("rating.jdbc-dispatcher"))
+    val catalog = new ServiceCatalog
+    val catalogQuery = config.getString("catalog.query")
+    val region = RatingRegion(system, config.getInt("shards"), catalog,
+      row => writes.offer(row) == QueueOfferResult.Enqueued,
+      serviceId => Future(store.load(serviceId))(jdbc),
+      config.getDuration("idle-timeout").toScala)
+
+    // a failed reload keeps what was loaded before
+    def reloadCatalog(): Unit = {
+      Try(store.ratedServiceIds()).fold(e => system.log.warn("Could not load rated service ids", e), catalog.addRated)
+      Try(store.ids(catalogQuery)).fold(e => system.log.warn("Could not load the service catalog", e), catalog.list)
     }
 
-    val binding = Http().newServerAt("0.0.0.0", 9000).bind(route)
+    val route = concat(
+      pathPrefix("async") {
+        path("ping") {
+          get {
+            complete("pong")
+          }
+        }
+      },
+      RatingRoutes(region, catalog)
+    )
+
+    // Know which services exist before taking traffic; their votes load when first used.
+    val catalogRefresh = config.getDuration("catalog.refresh-interval").toScala
+    val binding = Future(reloadCatalog())(jdbc).flatMap { _ =>
+      system.scheduler.scheduleWithFixedDelay(catalogRefresh, catalogRefresh)(() => reloadCatalog())(jdbc)
+      Http().newServerAt("0.0.0.0", 9000).bind(route)
+    }
     binding.onComplete {
       case Success(b) => println(s"Rating Akka server bound to ${b.localAddress}")
       case Failure(e) =>
-        println(s"Failed to bind Akka HTTP server: $e")
+        println(s"Failed to start rating Akka server: $e")
         system.terminate()
     }
   }
@@ -0,0 +1,24 @@
+package com.smartvillage.ratingakka
+
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * The service ids that may be rated: the services the web app lists (from `rating.catalog.query`)
+ * plus every id that already has ratings. Lookups come from route threads and shard actors.
+ */
+final class ServiceCatalog {
+
+  @volatile private var listed: Set[String] = Set.empty
+  private val rated = ConcurrentHashMap.newKeySet[String]()
+
+  def exists(serviceId: String): Boolean = listed.contains(serviceId) || rated.contains(serviceId)
+
+  /** False means there is nothing stored to load, so a read can be answered without an actor. */
+  def hasRatings(serviceId: String): Boolean = rated.contains(serviceId)
+
+  def markRated(serviceId: String): Unit = rated.add(serviceId)
+
+  def list(serviceIds: Set[String]): Unit = listed = serviceIds
+
+  def addRated(serviceIds: Set[String]): Unit = serviceIds.foreach(rated.add)
+}
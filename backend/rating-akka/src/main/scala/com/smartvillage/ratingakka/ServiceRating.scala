@@ -0,0 +1,115 @@
+package com.smartvillage.ratingakka
+
+import java.util.UUID
+
+import akka.actor.typed.{ActorRef, Behavior}
+import akka.actor.typed.scaladsl.Behaviors
+
+import scala.collection.mutable
+import scala.concurrent.Future
+import scala.concurrent.duration.FiniteDuration
+import scala.util.{Failure, Success}
+
+/**
+ * Aggregate for a single service: running count, sum and 1-5 star histogram, with one vote per
+ * session (re-rating replaces the previous vote). Reads are answered from a cached snapshot.
+ * The votes are loaded from the table when the actor starts, and after `idleTimeout` without a
+ * message it asks its shard to stop it.
+ */
+object ServiceRating {
+
+  sealed trait Command
+  final case class Rate(sessionId: String, rating: Int, villageId: Option[UUID], replyTo: ActorRef[RateReply]) extends Command
+  final case class Get(replyTo: ActorRef[Summary]) extends Command
+  private[ratingakka] case object Stop extends Command
+  private final case class Loaded(votes: Seq[(String, Int)]) extends Command
+  private final case class LoadFailed(cause: Throwable) extends Command
+  private case object Idle extends Command
+
+  sealed trait RateReply
+  final case class Rated(summary: Summary) extends RateReply
+  case object Overloaded extends RateReply
+
+  final case class Summary(serviceId: String, count: Long, sum: Long, distribution: Vector[Long]) {
+    def average: Double = if (count == 0) 0.0 else sum.toDouble / count
+  }
+
+  object Summary {
+    def empty(serviceId: String): Summary = Summary(serviceId, 0, 0, Vector.fill(5)(0L))
+  }
+
+  // commands held while the votes load
+  private val LoadingStash = 1000
+
+  /** `persist` hands the row to the write-behind sink and returns false if it has no room. */
+  def apply(serviceId: String, shard: ActorRef[RatingShard.Command], persist: RatingRow => Boolean,
+            load: String => Future[Seq[(String, Int)]], idleTimeout: FiniteDuration): Behavior[Command] =
+    Behaviors.withStash(LoadingStash) { stash =>
+      Behaviors.setup { ctx =>
+        val sessions = mutable.HashMap.empty[String, Int]
+        val histogram = new Array[Long](5)
+        var count = 0L
+        var sum = 0L
+        var summary = Summary.empty(serviceId)
+
+        def record(sessionId: String, rating: Int): Unit = {
+          sessions.put(sessionId, rating) match {
+            case Some(prev) if prev == rating => return
+            case Some(prev) =>
+              histogram(prev - 1) -= 1
+              sum -= prev
+            case None =>
+              count += 1
+          }
+          histogram(rating - 1) += 1
+          sum += rating
+          summary = Summary(serviceId, count, sum, histogram.toVector)
+        }
+
+        val active = Behaviors.receiveMessage[Command] {
+          case Rate(sessionId, rating, villageId, replyTo) =>
+            if (sessions.get(sessionId).contains(rating)) replyTo ! Rated(summary)
+            else if (persist(RatingRow(serviceId, sessionId, rating, villageId))) {
+              record(sessionId, rating)
+              replyTo ! Rated(summary)
+            } else replyTo ! Overloaded
+            Behaviors.same
+          case Get(replyTo) =>
+            replyTo ! summary
+            Behaviors.same
+          case Idle =>
+            // the shard answers with Stop once no command for us can still be on its way
+            shard ! RatingShard.Passivate(serviceId, ctx.self)
+            Behaviors.same
+          case Stop =>
+            Behaviors.stopped
+          case _ =>
+            Behaviors.same
+        }
+
+        ctx.pipeToSelf(load(serviceId)) {
+          case Success(votes) => Loaded(votes)
+          case Failure(e) => LoadFailed(e)
+        }
+        Behaviors.receiveMessage {
+          case Loaded(votes) =>
+            votes.foreach { case (sessionId, rating) => record(sessionId, rating) }
+            ctx.setReceiveTimeout(idleTimeout, Idle)
+            stash.unstashAll(active)
+          case LoadFailed(e) =>
+            ctx.log.error(s"Could not load ratings for $serviceId", e)
+            stash.foreach {
+              case Rate(_, _, _, replyTo) => replyTo ! Overloaded
+              case _ =>
+            }
+            Behaviors.stopped
+          case Rate(_, _, _, replyTo) if stash.isFull =>
+            replyTo ! Overloaded
+            Behaviors.same
+          case command =>
+            if (!stash.isFull) stash.stash(command)
+            Behaviors.same
+        }
+      }
+    }
+}
@@ -1,9 +1,22 @@
 package com.smartvillage.services.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.smartvillage.common.paging.CursorPage;
+import com.smartvillage.common.paging.KeysetPager;
+import com.smartvillage.common.sync.ChangeFeed;
+import com.smartvillage.common.sync.ChangeSet;
+import com.smartvillage.common.write.EntityWriter;
+import com.smartvillage.common.write.WritableTable;
+import com.smartvillage.services.directory.DirectoryEntry;
+import com.smartvillage.services.directory.ServiceDirectory;
 import com.smartvillage.services.entity.ServiceEntry;
 import com.smartvillage.services.repository.ServiceEntryRepository;
+import com.smartvillage.services.search.ServiceSearch;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.Optional;
@@ -12,39 +25,108 @@ import java.util.UUID;
 @RestController
 @RequestMapping("/api/v1/services")
 public class ServiceEntryController {
+    private static final String RESOURCE = "services";
+    private static final WritableTable<ServiceEntry> TABLE = WritableTable.of(ServiceEntry.class)
+            .column("name").column("description").column("category").column("contact").touch("updatedAt");
+
     private final ServiceEntryRepository repo;
+    private final KeysetPager pager;
+    private final ServiceSearch search;
+    private final ChangeFeed changes;
+    private final ServiceDirectory directory;
+    private final EntityWriter writer;
 
-    public ServiceEntryController(ServiceEntryRepository repo) { this.repo = repo; }
+    public ServiceEntryController(ServiceEntryRepository repo, KeysetPager pager, ServiceSearch search,
+                                  ChangeFeed changes, ServiceDirectory directory, EntityWriter writer) {
+        this.repo = repo;
+        this.pager = pager;
+        this.search = search;
+        this.changes = changes;
+        this.directory = directory;
+        this.writer = writer;
+    }
 
     @GetMapping
     public List<ServiceEntry> list() { return repo.findAll(); }
 
+    @GetMapping("/page")
+    public CursorPage<ServiceEntry> page(@RequestParam(required = false) String cursor,
+                                         @RequestParam(required = false) Integer size) {
+        return pager.page(ServiceEntry.class, null, cursor, size);
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    public StreamingResponseBody stream() { return pager.stream(ServiceEntry.class, null); }
+
+    @GetMapping("/changes")
+    public ChangeSet<ServiceEntry> changes(@RequestParam(required = false) String since,
+                                           @RequestParam(required = false) Integer limit) {
+        return changes.since(RESOURCE, ServiceEntry.class, since, limit);
+    }
+
+    @GetMapping("/search")
+    public List<ServiceEntry> search(@RequestParam String q,
+                                     @RequestParam(defaultValue = "20") int limit,
+                                     @RequestParam(defaultValue = "true") boolean prefix) {
+        return search.search(q, Math.min(limit, 100), prefix);
+    }
+
+    @GetMapping("/facets")
+    public List<ServiceDirectory.Facet> facets() { return directory.facets(); }
+
+    @GetMapping("/categories/{category}")
+    public List<DirectoryEntry> inCategory(@PathVariable String category) { return directory.inCategory(category); }
+
+    @GetMapping("/typeahead")
+    public List<DirectoryEntry> typeahead(@RequestParam String q,
+                                          @RequestParam(required = false) String category,
+                                          @RequestParam(defaultValue = "10") int limit) {
+        return directory.typeahead(q, category, Math.min(limit, 50));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<?> get(@PathVariable UUID id) {
-        Optional<ServiceEntry> e = repo.findById(id);
-        return e.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+        return repo.findById(id).<ResponseEntity<?>>map(e -> ResponseEntity.ok().eTag(EntityWriter.etag(e.getVersion())).body(e))
+                .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     @PostMapping
-    public ServiceEntry create(@RequestBody ServiceEntry entry) { return repo.save(entry); }
+    public ServiceEntry create(@RequestBody ServiceEntry entry) {
+        ServiceEntry saved = changes.upsert(RESOURCE, () -> Optional.of(repo.saveAndFlush(entry))).orElseThrow();
+        search.put(saved);
+        directory.put(saved);
+        return saved;
+    }
 
     @PutMapping("/{id}")
-    public ResponseEntity<?> update(@PathVariable UUID id, @RequestBody ServiceEntry entry) {
-        return repo.findById(id).map(existing -> {
-            existing.setName(entry.getName());
-            existing.setDescription(entry.getDescription());
-            existing.setCategory(entry.getCategory());
-            existing.setContact(entry.getContact());
-            repo.save(existing);
-            return ResponseEntity.ok(existing);
-        }).orElseGet(() -> ResponseEntity.notFound().build());
+    public ResponseEntity<?> update(@PathVariable UUID id, @RequestBody ServiceEntry entry,
+                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return changes.upsert(RESOURCE, () -> writer.replace(TABLE, id, EntityWriter.versionFrom(ifMatch), entry))
+                .<ResponseEntity<?>>map(this::updated)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @PatchMapping(value = "/{id}", consumes = { EntityWriter.MERGE_PATCH_JSON, MediaType.APPLICATION_JSON_VALUE })
+    public ResponseEntity<?> patch(@PathVariable UUID id, @RequestBody JsonNode patch,
+                                   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return changes.upsert(RESOURCE, () -> writer.patch(TABLE, id, EntityWriter.versionFrom(ifMatch), patch))
+                .<ResponseEntity<?>>map(this::updated)
+                .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<?> delete(@PathVariable UUID id) {
-        return repo.findById(id).map(e -> {
-            repo.deleteById(id);
+    public ResponseEntity<?> delete(@PathVariable UUID id,
+                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return changes.delete(RESOURCE, () -> writer.delete(TABLE, id, EntityWriter.versionFrom(ifMatch))).map(e -> {
+            search.remove(id);
+            directory.remove(id);
             return ResponseEntity.ok().build();
         }).orElseGet(() -> ResponseEntity.notFound().build());
     }
+
+    private ResponseEntity<ServiceEntry> updated(ServiceEntry e) {
+        search.put(e);
+        directory.put(e);
+        return ResponseEntity.ok().eTag(EntityWriter.etag(e.getVersion())).body(e);
+    }
 }
@@ -0,0 +1,14 @@
+package com.smartvillage.services.directory;
+
+import com.smartvillage.services.entity.ServiceEntry;
+
+import java.util.UUID;
+
+/** Immutable copy of a service entry as held by {@link ServiceDirectory}. */
+public record DirectoryEntry(UUID id, String name, String category, String description, String contact) {
+
+    static DirectoryEntry of(ServiceEntry e) {
+        return new DirectoryEntry(e.getId(), e.getName(), ServiceDirectory.categoryOf(e.getCategory()),
+                e.getDescription(), e.getContact());
+    }
+}
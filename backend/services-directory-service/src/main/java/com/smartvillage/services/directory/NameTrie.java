@@ -0,0 +1,115 @@
+package com.smartvillage.services.directory;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * Prefix trie over name tokens. Children are kept in sorted parallel arrays (binary search, no
+ * boxing), and every node holds the entries whose name has a token starting with that node's
+ * prefix, ordered by name, so a lookup is a walk of the prefix plus reading the first few entries.
+ * Not thread-safe; {@link ServiceDirectory} guards it.
+ */
+final class NameTrie {
+
+    static final Comparator<DirectoryEntry> BY_NAME = Comparator
+            .comparing((DirectoryEntry e) -> e.name() == null ? "" : e.name(), String.CASE_INSENSITIVE_ORDER)
+            .thenComparing(DirectoryEntry::id);
+
+    private static final char[] NO_KEYS = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    private static final class Node {
+        char[] keys = NO_KEYS;
+        Node[] children = NO_CHILDREN;
+        final NavigableSet<DirectoryEntry> entries = new TreeSet<>(BY_NAME);
+
+        Node child(char c) {
+            int i = Arrays.binarySearch(keys, c);
+            return i >= 0 ? children[i] : null;
+        }
+
+        Node childOrCreate(char c) {
+            int i = Arrays.binarySearch(keys, c);
+            if (i >= 0) return children[i];
+            int at = -i - 1;
+            Node n = new Node();
+            keys = insert(keys, at, c);
+            Node[] grown = new Node[children.length + 1];
+            System.arraycopy(children, 0, grown, 0, at);
+            grown[at] = n;
+            System.arraycopy(children, at, grown, at + 1, children.length - at);
+            children = grown;
+            return n;
+        }
+
+        void removeChild(char c) {
+            int i = Arrays.binarySearch(keys, c);
+            if (i < 0) return;
+            char[] k = new char[keys.length - 1];
+            System.arraycopy(keys, 0, k, 0, i);
+            System.arraycopy(keys, i + 1, k, i, keys.length - i - 1);
+            Node[] ch = new Node[children.length - 1];
+            System.arraycopy(children, 0, ch, 0, i);
+            System.arraycopy(children, i + 1, ch, i, children.length - i - 1);
+            keys = k.length == 0 ? NO_KEYS : k;
+            children = ch.length == 0 ? NO_CHILDREN : ch;
+        }
+
+        private static char[] insert(char[] a, int at, char c) {
+            char[] out = new char[a.length + 1];
+            System.arraycopy(a, 0, out, 0, at);
+            out[at] = c;
+            System.arraycopy(a, at, out, at + 1, a.length - at);
+            return out;
+        }
+    }
+
+    private final Node root = new Node();
+    private int nodes = 1;
+
+    void add(String token, DirectoryEntry entry) {
+        Node n = root;
+        for (int i = 0; i < token.length(); i++) {
+            Node next = n.child(token.charAt(i));
+            if (next == null) {
+                next = n.childOrCreate(token.charAt(i));
+                nodes++;
+            }
+            n = next;
+            n.entries.add(entry);
+        }
+    }
+
+    /** Callers remove every token of an entry together, so prefixes shared by two tokens end up clean. */
+    void remove(String token, DirectoryEntry entry) {
+        remove(root, token, 0, entry);
+    }
+
+    /** Returns true when {@code n} is left empty and can be unlinked by its parent. */
+    private boolean remove(Node n, String token, int depth, DirectoryEntry entry) {
+        if (depth == token.length()) return n.entries.isEmpty() && n.keys.length == 0;
+        char c = token.charAt(depth);
+        Node child = n.child(c);
+        if (child == null) return false;
+        child.entries.remove(entry);
+        if (remove(child, token, depth + 1, entry)) {
+            n.removeChild(c);
+            nodes--;
+        }
+        return n != root && n.entries.isEmpty() && n.keys.length == 0;
+    }
+
+    /** Entries with a token starting with {@code prefix}, in name order; empty when none. */
+    NavigableSet<DirectoryEntry> withPrefix(String prefix) {
+        Node n = root;
+        for (int i = 0; i < prefix.length() && n != null; i++) n = n.child(prefix.charAt(i));
+        return n == null || n == root ? Collections.emptyNavigableSet() : n.entries;
+    }
+
+    int nodeCount() {
+        return nodes;
+    }
+}
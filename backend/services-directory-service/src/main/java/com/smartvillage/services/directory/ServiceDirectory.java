@@ -0,0 +1,265 @@
+package com.smartvillage.services.directory;
+
+import com.smartvillage.common.search.Tokenizer;
+import com.smartvillage.services.entity.ServiceEntry;
+import com.smartvillage.services.repository.ServiceEntryRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory view of the services directory: category buckets with precomputed facet counts and a
+ * {@link NameTrie} for typeahead. Loaded once at startup and kept current by the write handlers,
+ * which must call {@link #put} / {@link #remove}; reads never touch Postgres. Writes made through
+ * other instances are picked up every {@code services-directory.refresh-interval} from
+ * {@code updated_at}, and entries deleted there are dropped on the same pass.
+ */
+@Component
+public class ServiceDirectory {
+
+    private static final Logger log = LoggerFactory.getLogger(ServiceDirectory.class);
+
+    static final String UNCATEGORIZED = "Other";
+    // re-read this far back so rows from transactions that committed late are not missed
+    private static final Duration REFRESH_OVERLAP = Duration.ofMinutes(1);
+
+    public record Facet(String category, int count) {}
+
+    private final ServiceEntryRepository repo;
+    private final Duration refreshInterval;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ScheduledExecutorService refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "services-directory-refresh");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // guarded by lock
+    private final Map<UUID, DirectoryEntry> byId = new HashMap<>();
+    // the row version each entry was built from, so a refresh that read a row before a write cannot undo it
+    private final Map<UUID, Long> versions = new HashMap<>();
+    private final Map<String, NavigableSet<DirectoryEntry>> byCategory = new HashMap<>();
+    private final NameTrie names = new NameTrie();
+    // replaced on every write, read without the lock
+    private volatile List<Facet> facets = List.of();
+    // only touched by init and the refresher thread
+    private Instant loadedUpTo = Instant.EPOCH;
+
+    public ServiceDirectory(ServiceEntryRepository repo,
+                            @Value("${services-directory.refresh-interval:PT30S}") Duration refreshInterval) {
+        this.repo = repo;
+        this.refreshInterval = refreshInterval;
+    }
+
+    @PostConstruct
+    public void init() {
+        loadedUpTo = Instant.now();
+        lock.writeLock().lock();
+        try {
+            repo.findAll().forEach(this::replace);
+            facets = computeFacets();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Services directory loaded: {} entries, {} categories", byId.size(), facets.size());
+        long period = refreshInterval.toMillis();
+        refresher.scheduleWithFixedDelay(this::refreshQuietly, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        refresher.shutdownNow();
+    }
+
+    /** Applies a committed write; one carrying an older version than the entry held is ignored. */
+    public void put(ServiceEntry e) {
+        lock.writeLock().lock();
+        try {
+            if (replace(e)) facets = computeFacets();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(UUID id) {
+        lock.writeLock().lock();
+        try {
+            DirectoryEntry old = byId.get(id);
+            if (old == null) return;
+            drop(old);
+            facets = computeFacets();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Re-reads the rows updated since the last refresh, so writes made through other instances show
+     * up, and drops entries whose rows are gone.
+     */
+    void refresh() {
+        Instant since = loadedUpTo.minus(REFRESH_OVERLAP);
+        Set<UUID> held;
+        lock.readLock().lock();
+        try {
+            held = new HashSet<>(byId.keySet());
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<ServiceEntry> rows = repo.findByUpdatedAtAfter(since);
+        // read after the rows, so an id missing here was deleted; entries added since held was taken stay
+        held.removeAll(repo.findAllIds());
+        lock.writeLock().lock();
+        try {
+            boolean changed = false;
+            for (ServiceEntry e : rows) changed |= replace(e);
+            for (UUID id : held) {
+                DirectoryEntry old = byId.get(id);
+                if (old == null) continue;
+                drop(old);
+                changed = true;
+            }
+            if (changed) facets = computeFacets();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        for (ServiceEntry e : rows) {
+            if (e.getUpdatedAt() != null && e.getUpdatedAt().isAfter(loadedUpTo)) loadedUpTo = e.getUpdatedAt();
+        }
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            log.warn("Services directory refresh failed", e);
+        }
+    }
+
+    /** Categories with entry counts, largest first. */
+    public List<Facet> facets() {
+        return facets;
+    }
+
+    /** One category's entries in name order. */
+    public List<DirectoryEntry> inCategory(String category) {
+        lock.readLock().lock();
+        try {
+            NavigableSet<DirectoryEntry> bucket = byCategory.get(categoryOf(category));
+            return bucket == null ? List.of() : List.copyOf(bucket);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Entries whose name matches every query token, the last one as a prefix ("ram med" finds
+     * "Ram Medical Store"), in name order, optionally within one category.
+     */
+    public List<DirectoryEntry> typeahead(String query, String category, int limit) {
+        List<String> tokens = Tokenizer.tokenize(query);
+        if (tokens.isEmpty() || limit <= 0) return List.of();
+        String last = tokens.get(tokens.size() - 1);
+        List<String> others = tokens.subList(0, tokens.size() - 1);
+        String wanted = category == null || category.isBlank() ? null : categoryOf(category);
+
+        lock.readLock().lock();
+        try {
+            List<DirectoryEntry> out = new ArrayList<>(limit);
+            for (DirectoryEntry e : names.withPrefix(last)) {
+                if (wanted != null && !wanted.equals(e.category())) continue;
+                if (!others.isEmpty() && !matchesAll(e, others)) continue;
+                out.add(e);
+                if (out.size() == limit) break;
+            }
+            return out;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return byId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static String categoryOf(String category) {
+        return category == null || category.isBlank() ? UNCATEGORIZED : category.trim();
+    }
+
+    private boolean replace(ServiceEntry e) {
+        Long held = versions.get(e.getId());
+        if (held != null && held > e.getVersion()) return false;
+        DirectoryEntry entry = DirectoryEntry.of(e);
+        DirectoryEntry old = byId.get(entry.id());
+        if (entry.equals(old)) {
+            versions.put(entry.id(), e.getVersion());
+            return false;
+        }
+        if (old != null) drop(old);
+        add(entry);
+        versions.put(entry.id(), e.getVersion());
+        return true;
+    }
+
+    private void add(DirectoryEntry e) {
+        byId.put(e.id(), e);
+        byCategory.computeIfAbsent(e.category(), c -> new TreeSet<>(NameTrie.BY_NAME)).add(e);
+        for (String token : nameTokens(e)) names.add(token, e);
+    }
+
+    private void drop(DirectoryEntry e) {
+        byId.remove(e.id());
+        versions.remove(e.id());
+        NavigableSet<DirectoryEntry> bucket = byCategory.get(e.category());
+        if (bucket != null) {
+            bucket.remove(e);
+            if (bucket.isEmpty()) byCategory.remove(e.category());
+        }
+        for (String token : nameTokens(e)) names.remove(token, e);
+    }
+
+    private List<Facet> computeFacets() {
+        List<Facet> out = new ArrayList<>(byCategory.size());
+        byCategory.forEach((c, entries) -> out.add(new Facet(c, entries.size())));
+        out.sort(Comparator.comparingInt(Facet::count).reversed().thenComparing(Facet::category));
+        return List.copyOf(out);
+    }
+
+    private static boolean matchesAll(DirectoryEntry e, List<String> prefixes) {
+        List<String> tokens = Tokenizer.tokenize(e.name());
+        for (String p : prefixes) {
+            if (tokens.stream().noneMatch(t -> t.startsWith(p))) return false;
+        }
+        return true;
+    }
+
+    private static LinkedHashSet<String> nameTokens(DirectoryEntry e) {
+        return new LinkedHashSet<>(Tokenizer.tokenize(e.name()));
+    }
+}
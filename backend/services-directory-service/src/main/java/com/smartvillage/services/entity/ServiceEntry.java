@@ -1,11 +1,12 @@
 package com.smartvillage.services.entity;
 
+import com.smartvillage.common.paging.KeysetEntity;
 import jakarta.persistence.*;
 import java.time.Instant;
 
 @Entity
 @Table(name = "services")
-public class ServiceEntry {
+public class ServiceEntry implements KeysetEntity {
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
     private java.util.UUID id;
@@ -15,6 +16,10 @@ public class ServiceEntry {
     private String category;
     private String contact;
     private Instant createdAt = Instant.now();
+    private Instant updatedAt = Instant.now();
+
+    @Version
+    private long version;
 
     public ServiceEntry() {}
 
@@ -30,4 +35,8 @@ public class ServiceEntry {
     public void setContact(String contact) { this.contact = contact; }
     public Instant getCreatedAt() { return createdAt; }
     public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+    public Instant getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt; }
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
 }
@@ -2,8 +2,15 @@ package com.smartvillage.services.repository;
 
 import com.smartvillage.services.entity.ServiceEntry;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.UUID;
 
 public interface ServiceEntryRepository extends JpaRepository<ServiceEntry, UUID> {
+    List<ServiceEntry> findByUpdatedAtAfter(Instant since);
+
+    @Query("select e.id from ServiceEntry e")
+    List<UUID> findAllIds();
 }
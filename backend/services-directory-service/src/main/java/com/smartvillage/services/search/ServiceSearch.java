@@ -0,0 +1,86 @@
+package com.smartvillage.services.search;
+
+import com.smartvillage.common.search.SearchHit;
+import com.smartvillage.common.search.SearchIndex;
+import com.smartvillage.common.search.SearchIndexSnapshotter;
+import com.smartvillage.services.entity.ServiceEntry;
+import com.smartvillage.services.repository.ServiceEntryRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Full-text index over service entries (name, description, category), maintained by the write
+ * handlers and snapshotted to disk. On restart the snapshot is reconciled against the table: rows
+ * created or edited since it was taken are reindexed and deleted ones dropped.
+ */
+@Component
+public class ServiceSearch {
+
+    private static final Logger log = LoggerFactory.getLogger(ServiceSearch.class);
+
+    private final ServiceEntryRepository repo;
+    private final Path snapshotPath;
+    private final Duration snapshotInterval;
+    private final SearchIndex index = new SearchIndex(3f, 1f, 2f);
+    private SearchIndexSnapshotter snapshotter;
+
+    public ServiceSearch(ServiceEntryRepository repo,
+                         @Value("${service-search.snapshot-path:data/service-search.idx}") Path snapshotPath,
+                         @Value("${service-search.snapshot-interval:PT1M}") Duration snapshotInterval) {
+        this.repo = repo;
+        this.snapshotPath = snapshotPath;
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    @PostConstruct
+    public void init() {
+        Instant since = null;
+        try {
+            since = index.loadSnapshot(snapshotPath);
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable service search snapshot {}", snapshotPath, e);
+        }
+        if (since == null) {
+            repo.findAll().forEach(this::put);
+        } else {
+            repo.findByUpdatedAtAfter(since).forEach(this::put);
+            index.retainAll(new HashSet<>(repo.findAllIds()));
+        }
+        snapshotter = new SearchIndexSnapshotter(index, snapshotPath, snapshotInterval);
+    }
+
+    public void put(ServiceEntry e) {
+        index.put(e.getId(), e.getName(), e.getDescription(), e.getCategory());
+    }
+
+    public void remove(UUID id) {
+        index.remove(id);
+    }
+
+    public List<ServiceEntry> search(String query, int limit, boolean prefix) {
+        List<SearchHit> hits = index.search(query, limit, prefix);
+        Map<UUID, ServiceEntry> byId = repo.findAllById(hits.stream().map(SearchHit::id).toList()).stream()
+                .collect(Collectors.toMap(ServiceEntry::getId, Function.identity()));
+        return hits.stream().map(h -> byId.get(h.id())).filter(e -> e != null).toList();
+    }
+
+    @PreDestroy
+    public void close() {
+        if (snapshotter != null) snapshotter.close();
+    }
+}
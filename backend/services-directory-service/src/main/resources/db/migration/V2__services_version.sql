@@ -0,0 +1,8 @@
+-- Flyway migration: optimistic-locking version, sent to clients as the ETag
+-- services is created by Hibernate (ddl-auto) on a fresh database, so only alter it if it exists yet
+DO $$
+BEGIN
+  IF to_regclass('services') IS NOT NULL THEN
+    ALTER TABLE services ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+  END IF;
+END $$;
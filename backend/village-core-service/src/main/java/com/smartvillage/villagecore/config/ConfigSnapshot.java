@@ -0,0 +1,15 @@
+package com.smartvillage.villagecore.config;
+
+import com.smartvillage.common.web.CachedPayload;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/** One village's config in one language at one version. Never mutated; updates replace it. */
+public record ConfigSnapshot(UUID villageId, String language, long version, Instant updatedAt,
+                             CachedPayload payload) {
+
+    public String versionedPath() {
+        return "/api/v1/villages/" + villageId + "/config/" + language + "/v" + version;
+    }
+}
@@ -0,0 +1,158 @@
+package com.smartvillage.villagecore.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartvillage.common.web.PayloadEncoders;
+import com.smartvillage.common.web.PayloadFormat;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory index of village config snapshots keyed by (village, language). Each snapshot is parsed,
+ * serialized and gzipped once when it is loaded, so serving a config is a map lookup. Updates swap in
+ * a new snapshot under the same key; readers see either the old or the new one, never a mix.
+ * Changes made through other instances are picked up every {@code village-config.refresh-interval}.
+ */
+@Component
+public class VillageConfigStore {
+
+    private static final Logger log = LoggerFactory.getLogger(VillageConfigStore.class);
+
+    public static final String DEFAULT_LANGUAGE = "en";
+    public static final Set<String> LANGUAGES = Set.of("en", "hi", "mr");
+
+    // re-read this far back so rows from transactions that committed late are not missed
+    private static final Duration REFRESH_OVERLAP = Duration.ofMinutes(1);
+
+    private static final String COLUMNS = "village_id, language, config_data::text AS config_data, version, updated_at";
+
+    private record Key(UUID villageId, String language) {}
+
+    private final JdbcTemplate jdbc;
+    private final ObjectMapper mapper;
+    private final PayloadEncoders encoders;
+    private final Duration refreshInterval;
+    private final Map<Key, ConfigSnapshot> snapshots = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "village-config-refresh");
+        t.setDaemon(true);
+        return t;
+    });
+    private volatile Instant loadedUpTo = Instant.EPOCH;
+
+    public VillageConfigStore(JdbcTemplate jdbc, ObjectMapper mapper, PayloadEncoders encoders,
+                              @Value("${village-config.refresh-interval:PT30S}") Duration refreshInterval) {
+        this.jdbc = jdbc;
+        this.mapper = mapper;
+        this.encoders = encoders;
+        this.refreshInterval = refreshInterval;
+    }
+
+    @PostConstruct
+    void start() {
+        refresh();
+        log.info("Loaded {} village config snapshots", snapshots.size());
+        long period = refreshInterval.toMillis();
+        refresher.scheduleWithFixedDelay(this::refreshQuietly, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        refresher.shutdownNow();
+    }
+
+    /** The current snapshot, falling back to English when the village has no config in {@code language}. */
+    public Optional<ConfigSnapshot> current(UUID villageId, String language) {
+        ConfigSnapshot s = snapshots.get(new Key(villageId, language));
+        if (s == null && !DEFAULT_LANGUAGE.equals(language)) {
+            s = snapshots.get(new Key(villageId, DEFAULT_LANGUAGE));
+        }
+        return Optional.ofNullable(s);
+    }
+
+    /** Stores a new version and swaps its snapshot in. */
+    public ConfigSnapshot update(UUID villageId, String language, JsonNode config) {
+        String json;
+        try {
+            json = mapper.writeValueAsString(unwrap(config));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Config is not serializable", e);
+        }
+        ConfigSnapshot snapshot = jdbc.queryForObject(
+                "INSERT INTO village_config (village_id, language, config_data) VALUES (?, ?, ?::jsonb)"
+                        // the table's trigger bumps version and updated_at; RETURNING sees them
+                        + " ON CONFLICT (village_id, language) DO UPDATE SET config_data = EXCLUDED.config_data"
+                        + " RETURNING " + COLUMNS,
+                (rs, n) -> snapshot(rs), villageId, language, json);
+        install(snapshot);
+        return snapshot;
+    }
+
+    void refresh() {
+        Instant since = loadedUpTo.equals(Instant.EPOCH) ? Instant.EPOCH : loadedUpTo.minus(REFRESH_OVERLAP);
+        jdbc.query("SELECT " + COLUMNS + " FROM village_config WHERE updated_at > ? ORDER BY updated_at",
+                rs -> {
+                    Instant updatedAt = rs.getTimestamp("updated_at").toInstant();
+                    if (updatedAt.isAfter(loadedUpTo)) loadedUpTo = updatedAt;
+                    ConfigSnapshot held = snapshots.get(new Key(rs.getObject("village_id", UUID.class), rs.getString("language")));
+                    // only parse and encode rows we do not already hold
+                    if (held == null || held.version() < rs.getLong("version")) install(snapshot(rs));
+                }, Timestamp.from(since));
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            log.warn("Village config refresh failed", e);
+        }
+    }
+
+    /** Keeps whichever snapshot has the higher version, so a slow refresh never rolls back an update. */
+    private void install(ConfigSnapshot s) {
+        snapshots.merge(new Key(s.villageId(), s.language()), s,
+                (old, fresh) -> fresh.version() > old.version() ? fresh : old);
+    }
+
+    private ConfigSnapshot snapshot(ResultSet rs) throws SQLException {
+        UUID villageId = rs.getObject("village_id", UUID.class);
+        String language = rs.getString("language");
+        long version = rs.getLong("version");
+        Instant updatedAt = rs.getTimestamp("updated_at").toInstant();
+        JsonNode config;
+        try {
+            config = unwrap(mapper.readTree(rs.getString("config_data")));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable config for village " + villageId + "/" + language, e);
+        }
+        String etag = "\"" + villageId + "-" + language + "-v" + version + "\"";
+        return new ConfigSnapshot(villageId, language, version, updatedAt,
+                encoders.cache(config, etag).warm(PayloadFormat.JSON));
+    }
+
+    /** The admin UI sometimes saves the whole row; the web app unwraps a nested config_data the same way. */
+    private static JsonNode unwrap(JsonNode config) {
+        JsonNode nested = config.get("config_data");
+        return nested != null && nested.isObject() ? nested : config;
+    }
+}
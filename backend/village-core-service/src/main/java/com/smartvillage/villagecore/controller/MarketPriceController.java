@@ -0,0 +1,78 @@
+package com.smartvillage.villagecore.controller;
+
+import com.smartvillage.villagecore.prices.PriceConflictException;
+import com.smartvillage.villagecore.prices.PriceHistory;
+import com.smartvillage.villagecore.prices.PriceInterval;
+import com.smartvillage.villagecore.prices.PriceSeriesStore;
+import com.smartvillage.villagecore.prices.PriceUpdate;
+import com.smartvillage.villagecore.prices.TickerEntry;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/v1/market-prices")
+public class MarketPriceController {
+
+    // prices change a few times a day; a revalidation is a 304 of a few hundred bytes
+    private static final CacheControl REVALIDATE = CacheControl.noCache();
+    private static final CacheControl HISTORY = CacheControl.maxAge(Duration.ofMinutes(5)).cachePublic();
+
+    private final PriceSeriesStore store;
+
+    public MarketPriceController(PriceSeriesStore store) {
+        this.store = store;
+    }
+
+    /** Latest price, previous close and recent trend per crop; without {@code villageId}, the shared prices. */
+    @GetMapping
+    public ResponseEntity<byte[]> ticker(@RequestParam(required = false) UUID villageId,
+                                         @RequestHeader HttpHeaders headers) {
+        return store.ticker(villageId).render(headers, REVALIDATE);
+    }
+
+    /**
+     * Records one price, or a batch from a mandi feed. Updates are applied in order and each one
+     * must not be older than the crop's last recorded price; the batch is recorded whole or not at all.
+     */
+    @PostMapping
+    public ResponseEntity<List<TickerEntry>> record(@RequestBody List<PriceUpdate> updates) {
+        if (updates.isEmpty()) throw new IllegalArgumentException("no prices given");
+        return ResponseEntity.ok(store.record(updates));
+    }
+
+    /**
+     * Price history of one crop between {@code from} (inclusive) and {@code to} (exclusive, default
+     * now). {@code interval=day} or {@code week} returns OHLC bars; {@code raw} returns every update.
+     */
+    @GetMapping("/{crop}/history")
+    public ResponseEntity<PriceHistory> history(@PathVariable String crop,
+                                                @RequestParam(required = false) UUID villageId,
+                                                @RequestParam(required = false) Instant from,
+                                                @RequestParam(required = false) Instant to,
+                                                @RequestParam(defaultValue = "day") String interval) {
+        PriceInterval resolution = PriceInterval.parse(interval);
+        Instant end = to != null ? to : Instant.now();
+        Instant start = from != null ? from : end.minus(resolution.defaultSpan());
+        return ResponseEntity.ok().cacheControl(HISTORY)
+                .body(store.history(villageId, crop, start, end, resolution));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> badRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+
+    @ExceptionHandler(PriceConflictException.class)
+    public ResponseEntity<Map<String, String>> conflict(PriceConflictException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+    }
+}
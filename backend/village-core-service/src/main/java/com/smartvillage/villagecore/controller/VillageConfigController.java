@@ -0,0 +1,76 @@
+package com.smartvillage.villagecore.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.smartvillage.villagecore.config.ConfigSnapshot;
+import com.smartvillage.villagecore.config.VillageConfigStore;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/v1/villages/{villageId}/config")
+public class VillageConfigController {
+
+    // a versioned URL always names the same bytes
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable();
+    // the unversioned URL is revalidated on every use; a 304 costs a few hundred bytes
+    private static final CacheControl REVALIDATE = CacheControl.noCache();
+
+    private final VillageConfigStore store;
+
+    public VillageConfigController(VillageConfigStore store) {
+        this.store = store;
+    }
+
+    /**
+     * Latest config. {@code Content-Location} names the versioned URL of the same snapshot,
+     * which clients can cache without ever asking again.
+     */
+    @GetMapping
+    public ResponseEntity<?> current(@PathVariable UUID villageId,
+                                     @RequestParam(defaultValue = VillageConfigStore.DEFAULT_LANGUAGE) String lang,
+                                     @RequestHeader HttpHeaders headers) {
+        if (!VillageConfigStore.LANGUAGES.contains(lang)) return unsupported(lang);
+        return store.current(villageId, lang)
+                .<ResponseEntity<?>>map(s -> withLocation(s.payload().render(headers, REVALIDATE), s))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/{lang}/v{version}")
+    public ResponseEntity<?> versioned(@PathVariable UUID villageId, @PathVariable String lang,
+                                       @PathVariable long version, @RequestHeader HttpHeaders headers) {
+        return store.current(villageId, lang)
+                .filter(s -> s.language().equals(lang) && s.version() == version)
+                .<ResponseEntity<?>>map(s -> s.payload().render(headers, IMMUTABLE))
+                // superseded versions are not kept; clients go back to the unversioned URL
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @PutMapping("/{lang}")
+    public ResponseEntity<?> update(@PathVariable UUID villageId, @PathVariable String lang,
+                                    @RequestBody JsonNode config) {
+        if (!VillageConfigStore.LANGUAGES.contains(lang)) return unsupported(lang);
+        if (!config.isObject()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "config must be a JSON object"));
+        }
+        ConfigSnapshot s = store.update(villageId, lang, config);
+        return ResponseEntity.ok(Map.of("version", s.version(), "url", s.versionedPath()));
+    }
+
+    private static ResponseEntity<byte[]> withLocation(ResponseEntity<byte[]> response, ConfigSnapshot s) {
+        return ResponseEntity.status(response.getStatusCode())
+                .headers(response.getHeaders())
+                .header(HttpHeaders.CONTENT_LOCATION, s.versionedPath())
+                .body(response.getBody());
+    }
+
+    private static ResponseEntity<?> unsupported(String lang) {
+        return ResponseEntity.badRequest().body(Map.of("error", "unsupported language " + lang,
+                "languages", VillageConfigStore.LANGUAGES));
+    }
+}
@@ -0,0 +1,82 @@
+package com.smartvillage.villagecore.prices;
+
+import java.util.Arrays;
+
+/**
+ * Open/high/low/close bars in parallel primitive arrays, ordered by period start. Points arrive in
+ * time order, so a point either updates the last bar or opens a new one; nothing is ever re-sorted.
+ * Prices are in paise. Not thread-safe; {@link PriceSeries} guards it.
+ */
+final class OhlcBars {
+
+    private long[] start = new long[16];
+    private int[] open = new int[16];
+    private int[] high = new int[16];
+    private int[] low = new int[16];
+    private int[] close = new int[16];
+    private int[] count = new int[16];
+    private int size;
+
+    void add(long periodStart, int price) {
+        if (size > 0 && start[size - 1] == periodStart) {
+            int i = size - 1;
+            if (price > high[i]) high[i] = price;
+            if (price < low[i]) low[i] = price;
+            close[i] = price;
+            count[i]++;
+            return;
+        }
+        if (size == start.length) grow();
+        start[size] = periodStart;
+        open[size] = high[size] = low[size] = close[size] = price;
+        count[size] = 1;
+        size++;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /** Index of the first bar starting at or after {@code periodStart}. */
+    int lowerBound(long periodStart) {
+        int lo = 0, hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (start[mid] < periodStart) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    long start(int i) {
+        return start[i];
+    }
+
+    int close(int i) {
+        return close[i];
+    }
+
+    /** Bars {@code [from, to)} as a columnar history. */
+    PriceHistory.Bars slice(int from, int to) {
+        int n = Math.max(0, to - from);
+        double[] o = new double[n], h = new double[n], l = new double[n], c = new double[n];
+        for (int k = 0; k < n; k++) {
+            o[k] = Prices.rupees(open[from + k]);
+            h[k] = Prices.rupees(high[from + k]);
+            l[k] = Prices.rupees(low[from + k]);
+            c[k] = Prices.rupees(close[from + k]);
+        }
+        return new PriceHistory.Bars(Arrays.copyOfRange(start, from, from + n), o, h, l, c,
+                Arrays.copyOfRange(count, from, from + n));
+    }
+
+    private void grow() {
+        int n = size * 2;
+        start = Arrays.copyOf(start, n);
+        open = Arrays.copyOf(open, n);
+        high = Arrays.copyOf(high, n);
+        low = Arrays.copyOf(low, n);
+        close = Arrays.copyOf(close, n);
+        count = Arrays.copyOf(count, n);
+    }
+}
@@ -0,0 +1,13 @@
+package com.smartvillage.villagecore.prices;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/** The update would rewrite history: it is older than the last point, or quoted in a different unit. */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class PriceConflictException extends RuntimeException {
+
+    public PriceConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,16 @@
+package com.smartvillage.villagecore.prices;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * A range of one crop's series in columnar form: parallel arrays rather than one object per point,
+ * so a year of daily bars is a few KB. Times are epoch millis; a bar's time is the start of its
+ * local day or ISO week. Exactly one of {@code points} and {@code bars} is set.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record PriceHistory(String crop, String unit, String interval, Points points, Bars bars) {
+
+    public record Points(long[] t, double[] price) {}
+
+    public record Bars(long[] t, double[] open, double[] high, double[] low, double[] close, int[] count) {}
+}
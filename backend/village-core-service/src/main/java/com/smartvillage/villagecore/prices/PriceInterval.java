@@ -0,0 +1,42 @@
+package com.smartvillage.villagecore.prices;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Locale;
+
+/** Resolution of a history query: every recorded point, or OHLC bars per local day / ISO week. */
+public enum PriceInterval {
+    RAW(Duration.ofDays(7)),
+    DAY(Duration.ofDays(365)),
+    WEEK(Duration.ofDays(5 * 365));
+
+    private final Duration defaultSpan;
+
+    PriceInterval(Duration defaultSpan) {
+        this.defaultSpan = defaultSpan;
+    }
+
+    /** How far back a query without {@code from} reaches. */
+    public Duration defaultSpan() {
+        return defaultSpan;
+    }
+
+    /** Start of the bar holding {@code epochMilli}, in epoch millis. Not defined for {@link #RAW}. */
+    long periodStart(long epochMilli, ZoneId zone) {
+        LocalDate day = Instant.ofEpochMilli(epochMilli).atZone(zone).toLocalDate();
+        if (this == WEEK) day = day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        return day.atStartOfDay(zone).toInstant().toEpochMilli();
+    }
+
+    public static PriceInterval parse(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("interval must be one of raw, day, week");
+        }
+    }
+}
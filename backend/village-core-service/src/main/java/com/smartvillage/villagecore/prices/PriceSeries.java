@@ -0,0 +1,259 @@
+package com.smartvillage.villagecore.prices;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Append-only price history of one crop, kept in a memory-mapped file. The file is a fixed header
+ * followed by chunks of {@value #CHUNK_POINTS} points; within a chunk the {@code long} timestamps
+ * (epoch millis) and the {@code int} prices (paise) are stored as two separate columns, so scans
+ * touch only the column they need. The point count in the header is written after the point
+ * itself and is the only thing a reader trusts, so a crash mid-append leaves the file consistent.
+ * Daily and weekly OHLC bars are rebuilt from the columns on open and kept up to date on append.
+ */
+final class PriceSeries implements Closeable {
+
+    static final String EXTENSION = ".series";
+
+    private static final int MAGIC = 0x4d505331; // "MPS1"
+    private static final int VERSION = 1;
+    static final int CHUNK_POINTS = 4096;
+    private static final int HEADER_BYTES = 256;
+    private static final int COUNT_OFFSET = 8;
+    private static final int CROP_OFFSET = 16;
+    private static final int UNIT_OFFSET = 144;
+    private static final int MAX_TEXT_BYTES = 110;
+    private static final int PRICES_OFFSET = CHUNK_POINTS * Long.BYTES;
+    private static final int CHUNK_BYTES = CHUNK_POINTS * (Long.BYTES + Integer.BYTES);
+
+    private final Path file;
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+    private final List<MappedByteBuffer> chunks = new ArrayList<>();
+    private final String crop;
+    private final String unit;
+    private final ZoneId zone;
+    private final OhlcBars daily = new OhlcBars();
+    private final OhlcBars weekly = new OhlcBars();
+    private int count;
+    private int firstUnflushedChunk = -1;
+
+    private PriceSeries(Path file, FileChannel channel, MappedByteBuffer header, String crop, String unit, ZoneId zone) {
+        this.file = file;
+        this.channel = channel;
+        this.header = header;
+        this.crop = crop;
+        this.unit = unit;
+        this.zone = zone;
+    }
+
+    static PriceSeries create(Path file, String crop, String unit, ZoneId zone) throws IOException {
+        Files.createDirectories(file.getParent());
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+            header.putInt(0, MAGIC).putInt(4, VERSION).putLong(COUNT_OFFSET, 0);
+            putText(header, CROP_OFFSET, crop);
+            putText(header, UNIT_OFFSET, unit);
+            header.force();
+            return new PriceSeries(file, channel, header, crop, unit, zone);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    static PriceSeries open(Path file, ZoneId zone) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (channel.size() < HEADER_BYTES) throw new IOException("Not a price series: " + file);
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+            if (header.getInt(0) != MAGIC) throw new IOException("Not a price series: " + file);
+            if (header.getInt(4) != VERSION) throw new IOException("Unsupported price series version in " + file);
+            long count = header.getLong(COUNT_OFFSET);
+            if (count < 0 || count > Integer.MAX_VALUE
+                    || channel.size() < HEADER_BYTES + chunksFor((int) count) * (long) CHUNK_BYTES) {
+                throw new IOException("Truncated price series: " + file);
+            }
+            PriceSeries series = new PriceSeries(file, channel, header, getText(header, CROP_OFFSET),
+                    getText(header, UNIT_OFFSET), zone);
+            series.load((int) count);
+            return series;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private void load(int points) throws IOException {
+        for (int c = 0; c < chunksFor(points); c++) chunks.add(mapChunk(c));
+        for (int i = 0; i < points; i++) {
+            long at = timestamp(i);
+            int price = price(i);
+            daily.add(PriceInterval.DAY.periodStart(at, zone), price);
+            weekly.add(PriceInterval.WEEK.periodStart(at, zone), price);
+        }
+        count = points;
+    }
+
+    String crop() {
+        return crop;
+    }
+
+    String unit() {
+        return unit;
+    }
+
+    Path file() {
+        return file;
+    }
+
+    synchronized int size() {
+        return count;
+    }
+
+    /** Epoch millis of the newest point, or {@link Long#MIN_VALUE} when the series is empty. */
+    synchronized long lastAt() {
+        return count == 0 ? Long.MIN_VALUE : timestamp(count - 1);
+    }
+
+    /** Throws unless {@code at} in {@code unit} can be appended. */
+    synchronized void checkAppend(long at, String unit) {
+        if (!this.unit.equals(unit)) {
+            throw new PriceConflictException(crop + " is quoted per " + this.unit + ", not per " + unit);
+        }
+        if (count > 0 && at < timestamp(count - 1)) {
+            throw new PriceConflictException("Prices for " + crop + " are recorded up to "
+                    + Instant.ofEpochMilli(timestamp(count - 1)) + "; history cannot be rewritten");
+        }
+    }
+
+    synchronized void append(long at, int price) {
+        checkAppend(at, unit);
+        int chunk = count / CHUNK_POINTS;
+        int slot = count % CHUNK_POINTS;
+        try {
+            if (chunk == chunks.size()) chunks.add(mapChunk(chunk));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot extend " + file, e);
+        }
+        MappedByteBuffer buf = chunks.get(chunk);
+        buf.putLong(slot * Long.BYTES, at);
+        buf.putInt(PRICES_OFFSET + slot * Integer.BYTES, price);
+        header.putLong(COUNT_OFFSET, count + 1);
+        count++;
+        if (firstUnflushedChunk < 0 || chunk < firstUnflushedChunk) firstUnflushedChunk = chunk;
+        daily.add(PriceInterval.DAY.periodStart(at, zone), price);
+        weekly.add(PriceInterval.WEEK.periodStart(at, zone), price);
+    }
+
+    /** Points with {@code from <= t < to}, or bars whose period starts in that range. */
+    synchronized PriceHistory history(long from, long to, PriceInterval interval, int maxPoints) {
+        String name = interval.name().toLowerCase(Locale.ROOT);
+        if (interval != PriceInterval.RAW) {
+            OhlcBars bars = interval == PriceInterval.DAY ? daily : weekly;
+            // include the bar already open at `from`
+            int start = bars.lowerBound(interval.periodStart(from, zone));
+            return new PriceHistory(crop, unit, name, null, bars.slice(start, bars.lowerBound(to)));
+        }
+        int start = lowerBound(from);
+        int end = lowerBound(to);
+        if (end - start > maxPoints) {
+            throw new IllegalArgumentException((end - start) + " points in range, more than " + maxPoints
+                    + "; narrow the range or use interval=day");
+        }
+        long[] t = new long[end - start];
+        double[] p = new double[end - start];
+        for (int i = start; i < end; i++) {
+            t[i - start] = timestamp(i);
+            p[i - start] = Prices.rupees(price(i));
+        }
+        return new PriceHistory(crop, unit, name, new PriceHistory.Points(t, p), null);
+    }
+
+    synchronized TickerEntry ticker(int trendDays) {
+        if (count == 0) return null;
+        int last = price(count - 1);
+        int days = daily.size();
+        Double previous = days > 1 ? Prices.rupees(daily.close(days - 2)) : null;
+        Double change = previous == null ? null : Prices.decimal(last).subtract(Prices.decimal(daily.close(days - 2))).doubleValue();
+        int from = Math.max(0, days - trendDays);
+        double[] trend = new double[days - from];
+        for (int d = from; d < days; d++) trend[d - from] = Prices.rupees(daily.close(d));
+        return new TickerEntry(crop, unit, Prices.rupees(last), Instant.ofEpochMilli(timestamp(count - 1)),
+                previous, change, trend);
+    }
+
+    /** Writes appended points to disk; the kernel writes them back eventually anyway. */
+    synchronized void force() {
+        if (firstUnflushedChunk < 0) return;
+        for (int c = firstUnflushedChunk; c < chunks.size(); c++) chunks.get(c).force();
+        header.force();
+        firstUnflushedChunk = -1;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        force();
+        channel.close();
+    }
+
+    private int lowerBound(long at) {
+        int lo = 0, hi = count;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (timestamp(mid) < at) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private long timestamp(int i) {
+        return chunks.get(i / CHUNK_POINTS).getLong((i % CHUNK_POINTS) * Long.BYTES);
+    }
+
+    private int price(int i) {
+        return chunks.get(i / CHUNK_POINTS).getInt(PRICES_OFFSET + (i % CHUNK_POINTS) * Integer.BYTES);
+    }
+
+    private MappedByteBuffer mapChunk(int chunk) throws IOException {
+        // mapping past the end grows the file; the new region reads as zeros
+        return channel.map(FileChannel.MapMode.READ_WRITE, HEADER_BYTES + (long) chunk * CHUNK_BYTES, CHUNK_BYTES);
+    }
+
+    private static int chunksFor(int points) {
+        return (points + CHUNK_POINTS - 1) / CHUNK_POINTS;
+    }
+
+    static void checkText(String value, String field) {
+        if (value.getBytes(StandardCharsets.UTF_8).length > MAX_TEXT_BYTES) {
+            throw new IllegalArgumentException(field + " is longer than " + MAX_TEXT_BYTES + " bytes");
+        }
+    }
+
+    private static void putText(MappedByteBuffer buf, int offset, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buf.putShort(offset, (short) bytes.length).put(offset + 2, bytes);
+    }
+
+    private static String getText(MappedByteBuffer buf, int offset) throws IOException {
+        int length = buf.getShort(offset);
+        if (length < 0 || length > MAX_TEXT_BYTES) throw new IOException("Corrupt price series header");
+        byte[] bytes = new byte[length];
+        buf.get(offset + 2, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
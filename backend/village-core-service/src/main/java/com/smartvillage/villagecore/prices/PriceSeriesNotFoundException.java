@@ -0,0 +1,12 @@
+package com.smartvillage.villagecore.prices;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class PriceSeriesNotFoundException extends RuntimeException {
+
+    public PriceSeriesNotFoundException(String crop) {
+        super("No prices recorded for " + crop);
+    }
+}
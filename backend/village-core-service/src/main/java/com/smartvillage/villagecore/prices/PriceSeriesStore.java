@@ -0,0 +1,309 @@
+package com.smartvillage.villagecore.prices;
+
+import com.smartvillage.common.web.CachedPayload;
+import com.smartvillage.common.web.PayloadEncoders;
+import com.smartvillage.common.web.PayloadFormat;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Price history for every (village, crop), one {@link PriceSeries} file each under
+ * {@code market-prices.series-dir}. {@code market_prices} keeps holding the latest price per crop as
+ * the web app expects; every update recorded here also appends to the crop's series, so history
+ * never comes from scanning the table. Prices written straight to the table (the admin page does)
+ * are picked up every {@code market-prices.refresh-interval} and appended as well; only the latest
+ * of several such writes within one interval is seen.
+ * <p>
+ * Each village's ticker is encoded once per change and then served from the same bytes.
+ */
+@Component
+public class PriceSeriesStore {
+
+    private static final Logger log = LoggerFactory.getLogger(PriceSeriesStore.class);
+
+    // re-read this far back so rows from transactions that committed late are not missed
+    private static final Duration REFRESH_OVERLAP = Duration.ofMinutes(1);
+    // directory for prices shown to every village (market_prices.village_id IS NULL)
+    private static final String ALL_VILLAGES = "all";
+    // an update may be stamped this far ahead of our clock; later ones would refuse every update after them
+    private static final Duration MAX_CLOCK_SKEW = Duration.ofMinutes(5);
+
+    private record Key(UUID villageId, String crop) {}
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+    private final PayloadEncoders encoders;
+    private final Path dir;
+    private final ZoneId zone;
+    private final Duration refreshInterval;
+    private final Duration flushInterval;
+    private final int maxRawPoints;
+    private final int trendDays;
+    private final Map<Key, PriceSeries> series = new ConcurrentHashMap<>();
+    // keyed by village id, or ALL_VILLAGES; dropped whenever one of the village's series changes
+    private final Map<String, CachedPayload> tickers = new ConcurrentHashMap<>();
+    private final String etagPrefix = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong generation = new AtomicLong();
+    private final ScheduledExecutorService background = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "market-prices");
+        t.setDaemon(true);
+        return t;
+    });
+    private volatile Instant loadedUpTo = Instant.EPOCH;
+
+    public PriceSeriesStore(JdbcTemplate jdbc, PlatformTransactionManager txManager, PayloadEncoders encoders,
+                            @Value("${market-prices.series-dir:data/price-series}") Path dir,
+                            @Value("${market-prices.zone:Asia/Kolkata}") ZoneId zone,
+                            @Value("${market-prices.refresh-interval:PT30S}") Duration refreshInterval,
+                            @Value("${market-prices.flush-interval:PT5S}") Duration flushInterval,
+                            @Value("${market-prices.max-raw-points:5000}") int maxRawPoints,
+                            @Value("${market-prices.trend-days:30}") int trendDays) {
+        this.jdbc = jdbc;
+        this.tx = new TransactionTemplate(txManager);
+        this.encoders = encoders;
+        this.dir = dir;
+        this.zone = zone;
+        this.refreshInterval = refreshInterval;
+        this.flushInterval = flushInterval;
+        this.maxRawPoints = maxRawPoints;
+        this.trendDays = trendDays;
+    }
+
+    @PostConstruct
+    void start() throws IOException {
+        long started = System.nanoTime();
+        long points = load();
+        refresh();
+        log.info("Loaded {} price series ({} points) in {} ms", series.size(), points,
+                (System.nanoTime() - started) / 1_000_000);
+        long refresh = refreshInterval.toMillis();
+        background.scheduleWithFixedDelay(this::refreshQuietly, refresh, refresh, TimeUnit.MILLISECONDS);
+        long flush = flushInterval.toMillis();
+        background.scheduleWithFixedDelay(this::flush, flush, flush, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        background.shutdownNow();
+        for (PriceSeries s : series.values()) {
+            try {
+                s.close();
+            } catch (IOException e) {
+                log.warn("Could not close price series for {}", s.crop(), e);
+            }
+        }
+    }
+
+    private record Checked(UUID villageId, PriceSeries series, int price, String unit, Instant at) {}
+
+    /**
+     * Stores each update as its crop's latest price and appends it to its history, in order. An update
+     * older than the crop's last recorded one (or an earlier one in the batch), or in a different unit, is
+     * refused rather than rewriting history, and so is one stamped in the future. The batch is checked
+     * as a whole before anything is written, and the table rows commit together, so a refused batch
+     * leaves nothing behind.
+     */
+    public List<TickerEntry> record(List<PriceUpdate> updates) {
+        List<Checked> checked = new ArrayList<>(updates.size());
+        for (PriceUpdate update : updates) {
+            String crop = update.crop() == null ? "" : update.crop().trim();
+            if (crop.isEmpty()) throw new IllegalArgumentException("crop is required");
+            String unit = update.unit() == null || update.unit().isBlank() ? "quintal" : update.unit().trim();
+            PriceSeries.checkText(crop, "crop");
+            PriceSeries.checkText(unit, "unit");
+            int price = Prices.paise(update.price());
+            Instant at = update.at() != null ? update.at() : Instant.now();
+            if (at.isAfter(Instant.now().plus(MAX_CLOCK_SKEW))) throw new IllegalArgumentException("at is in the future");
+            checked.add(new Checked(update.villageId(), seriesFor(update.villageId(), crop, unit), price, unit, at));
+        }
+        // every series of the batch is held across the write, taken in one order so batches cannot deadlock;
+        // concurrent updates of one crop reach the table and the file in the same order
+        List<PriceSeries> held = checked.stream().map(Checked::series).distinct()
+                .sorted(Comparator.comparing(PriceSeries::file)).toList();
+        locked(held, 0, () -> {
+            Map<PriceSeries, Long> last = new HashMap<>();
+            for (Checked c : checked) {
+                c.series().checkAppend(c.at().toEpochMilli(), c.unit());
+                Long previous = last.put(c.series(), c.at().toEpochMilli());
+                if (previous != null && previous > c.at().toEpochMilli()) {
+                    throw new PriceConflictException("Prices for " + c.series().crop() + " are given out of order at "
+                            + c.at() + "; history cannot be rewritten");
+                }
+            }
+            tx.executeWithoutResult(status -> {
+                for (Checked c : checked) writeLatest(c.villageId(), c.series().crop(), c.price(), c.unit(), c.at());
+            });
+            for (Checked c : checked) c.series().append(c.at().toEpochMilli(), c.price());
+        });
+        checked.stream().map(Checked::villageId).distinct().forEach(this::changed);
+        return checked.stream().map(c -> c.series().ticker(trendDays)).toList();
+    }
+
+    private static void locked(List<PriceSeries> held, int i, Runnable body) {
+        if (i == held.size()) {
+            body.run();
+            return;
+        }
+        synchronized (held.get(i)) {
+            locked(held, i + 1, body);
+        }
+    }
+
+    /** Latest price, previous close and a short trend for every crop of a village, ready to send. */
+    public CachedPayload ticker(UUID villageId) {
+        return tickers.computeIfAbsent(villageKey(villageId), k -> {
+            List<TickerEntry> entries = new ArrayList<>();
+            series.forEach((key, s) -> {
+                if (!Objects.equals(key.villageId(), villageId)) return;
+                TickerEntry e = s.ticker(trendDays);
+                if (e != null) entries.add(e);
+            });
+            entries.sort(Comparator.comparing(TickerEntry::crop, String.CASE_INSENSITIVE_ORDER));
+            String etag = "\"prices-" + k + "-" + etagPrefix + "-" + generation.get() + "\"";
+            return encoders.cache(entries, etag).warm(PayloadFormat.JSON);
+        });
+    }
+
+    public PriceHistory history(UUID villageId, String crop, Instant from, Instant to, PriceInterval interval) {
+        PriceSeries s = series.get(new Key(villageId, normalize(crop)));
+        if (s == null || s.size() == 0) throw new PriceSeriesNotFoundException(crop);
+        if (!from.isBefore(to)) throw new IllegalArgumentException("from must be before to");
+        return s.history(from.toEpochMilli(), to.toEpochMilli(), interval, maxRawPoints);
+    }
+
+    void refresh() {
+        Instant since = loadedUpTo.equals(Instant.EPOCH) ? Instant.EPOCH : loadedUpTo.minus(REFRESH_OVERLAP);
+        jdbc.query("SELECT village_id, crop_name, price, unit, last_updated, updated_at FROM market_prices"
+                        + " WHERE updated_at > ? ORDER BY last_updated",
+                rs -> {
+                    Instant updatedAt = rs.getTimestamp("updated_at").toInstant();
+                    if (updatedAt.isAfter(loadedUpTo)) loadedUpTo = updatedAt;
+                    UUID villageId = rs.getObject("village_id", UUID.class);
+                    String crop = rs.getString("crop_name").trim();
+                    String unit = rs.getString("unit");
+                    Instant lastUpdated = rs.getTimestamp("last_updated").toInstant();
+                    long at = lastUpdated.toEpochMilli();
+                    PriceSeries s;
+                    int price;
+                    try {
+                        if (lastUpdated.isAfter(Instant.now().plus(MAX_CLOCK_SKEW))) {
+                            throw new IllegalArgumentException("last_updated " + lastUpdated + " is in the future");
+                        }
+                        PriceSeries.checkText(crop, "crop");
+                        PriceSeries.checkText(unit, "unit");
+                        price = Prices.paise(rs.getBigDecimal("price"));
+                        s = seriesFor(villageId, crop, unit);
+                    } catch (IllegalArgumentException | UncheckedIOException e) {
+                        log.warn("Skipping market price {} / {}: {}", villageId, crop, e.getMessage());
+                        return;
+                    }
+                    synchronized (s) {
+                        // rows we wrote ourselves, or that are already in the series, are not appended twice
+                        if (at <= s.lastAt() || !s.unit().equals(unit)) return;
+                        s.append(at, price);
+                    }
+                    changed(villageId);
+                }, Timestamp.from(since));
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            log.warn("Market price refresh failed", e);
+        }
+    }
+
+    private void flush() {
+        for (PriceSeries s : series.values()) {
+            try {
+                s.force();
+            } catch (RuntimeException e) {
+                log.warn("Could not flush price series for {}", s.crop(), e);
+            }
+        }
+    }
+
+    private long load() throws IOException {
+        if (!Files.isDirectory(dir)) return 0;
+        long points = 0;
+        try (Stream<Path> files = Files.walk(dir, 2)) {
+            for (Path file : (Iterable<Path>) files.filter(p -> p.toString().endsWith(PriceSeries.EXTENSION))::iterator) {
+                String village = file.getParent().getFileName().toString();
+                UUID villageId = ALL_VILLAGES.equals(village) ? null : UUID.fromString(village);
+                PriceSeries s = PriceSeries.open(file, zone);
+                series.put(new Key(villageId, normalize(s.crop())), s);
+                points += s.size();
+            }
+        }
+        return points;
+    }
+
+    private PriceSeries seriesFor(UUID villageId, String crop, String unit) {
+        return series.computeIfAbsent(new Key(villageId, normalize(crop)), key -> {
+            // the crop name is in the file header; a hash keeps Devanagari names inside the filename limit
+            String name = UUID.nameUUIDFromBytes(key.crop().getBytes(StandardCharsets.UTF_8)).toString();
+            Path file = dir.resolve(villageKey(villageId)).resolve(name + PriceSeries.EXTENSION);
+            try {
+                return PriceSeries.create(file, crop, unit, zone);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot create " + file, e);
+            }
+        });
+    }
+
+    private void writeLatest(UUID villageId, String crop, int price, String unit, Instant at) {
+        Timestamp ts = Timestamp.from(at);
+        int updated = jdbc.update("UPDATE market_prices SET crop_name = ?, price = ?, unit = ?, last_updated = ?,"
+                        + " updated_at = now() WHERE village_id IS NOT DISTINCT FROM ? AND lower(crop_name) = lower(?)",
+                crop, Prices.decimal(price), unit, ts, villageId, crop);
+        if (updated == 0) {
+            jdbc.update("INSERT INTO market_prices (village_id, crop_name, price, unit, last_updated) VALUES (?, ?, ?, ?, ?)",
+                    villageId, crop, Prices.decimal(price), unit, ts);
+        }
+    }
+
+    private void changed(UUID villageId) {
+        generation.incrementAndGet();
+        tickers.remove(villageKey(villageId));
+    }
+
+    private static String villageKey(UUID villageId) {
+        return villageId == null ? ALL_VILLAGES : villageId.toString();
+    }
+
+    private static String normalize(String crop) {
+        return crop.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,8 @@
+package com.smartvillage.villagecore.prices;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+/** One observed price. {@code villageId} is null for prices shown to every village; {@code at} defaults to now. */
+public record PriceUpdate(UUID villageId, String crop, BigDecimal price, String unit, Instant at) {}
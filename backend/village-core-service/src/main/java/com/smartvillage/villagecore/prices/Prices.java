@@ -0,0 +1,27 @@
+package com.smartvillage.villagecore.prices;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/** Prices are held as whole paise in an {@code int}, which covers up to about ₹2.1 crore per unit. */
+final class Prices {
+
+    private Prices() {}
+
+    static int paise(BigDecimal rupees) {
+        if (rupees == null || rupees.signum() <= 0) throw new IllegalArgumentException("price must be positive");
+        try {
+            return rupees.setScale(2, RoundingMode.UNNECESSARY).movePointRight(2).intValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("price must have at most two decimals and be below 21474836.48");
+        }
+    }
+
+    static double rupees(int paise) {
+        return paise / 100.0;
+    }
+
+    static BigDecimal decimal(int paise) {
+        return BigDecimal.valueOf(paise, 2);
+    }
+}
@@ -0,0 +1,11 @@
+package com.smartvillage.villagecore.prices;
+
+import java.time.Instant;
+
+/**
+ * One crop on the price ticker. {@code previousClose} is the last price of the previous local day
+ * that had an update; {@code trend} holds the closing prices of the last days that had updates,
+ * oldest first, for a sparkline.
+ */
+public record TickerEntry(String crop, String unit, double price, Instant lastUpdated,
+                          Double previousClose, Double change, double[] trend) {}
@@ -0,0 +1,28 @@
+-- Flyway migration: per-language village configuration
+-- Created here for plain Postgres; the Supabase table already exists (id primary key, unique
+-- (village_id, language)) and only gets the missing version column and trigger.
+CREATE TABLE IF NOT EXISTS village_config (
+  village_id UUID NOT NULL,
+  language TEXT NOT NULL DEFAULT 'en' CHECK (language IN ('en', 'hi', 'mr')),
+  config_data JSONB NOT NULL,
+  created_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+  updated_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+  PRIMARY KEY (village_id, language)
+);
+
+-- version increases on every update and names the immutable snapshot clients may cache forever
+ALTER TABLE village_config ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 1;
+
+-- bumped by the database, so edits the admin UI writes directly are picked up by the refresher too
+CREATE OR REPLACE FUNCTION village_config_bump_version() RETURNS trigger LANGUAGE plpgsql AS $$
+BEGIN
+  NEW.version := OLD.version + 1;
+  NEW.updated_at := now();
+  RETURN NEW;
+END $$;
+
+DROP TRIGGER IF EXISTS village_config_bump_version ON village_config;
+CREATE TRIGGER village_config_bump_version BEFORE UPDATE ON village_config
+  FOR EACH ROW EXECUTE FUNCTION village_config_bump_version();
+
+CREATE INDEX IF NOT EXISTS idx_village_config_updated_at ON village_config (updated_at);
@@ -0,0 +1,15 @@
+-- Flyway migration: latest mandi price per crop, as the web app reads it
+-- Every update is also appended to the service's on-disk price series, which holds the history.
+CREATE TABLE IF NOT EXISTS market_prices (
+  id UUID NOT NULL DEFAULT gen_random_uuid() PRIMARY KEY,
+  village_id UUID,
+  crop_name TEXT NOT NULL,
+  price DECIMAL(10, 2) NOT NULL,
+  unit TEXT NOT NULL DEFAULT 'quintal',
+  last_updated TIMESTAMPTZ NOT NULL DEFAULT now(),
+  created_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+  updated_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+CREATE INDEX IF NOT EXISTS idx_market_prices_village_crop ON market_prices (village_id, lower(crop_name));
+CREATE INDEX IF NOT EXISTS idx_market_prices_updated_at ON market_prices (updated_at);